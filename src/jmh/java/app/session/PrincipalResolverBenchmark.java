@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import app.model.UserStatus;
+import app.web.BenchmarkRequests;
+import infra.session.DefaultSessionManager;
+import infra.session.InMemorySessionRepository;
+import infra.session.SecureRandomSessionIdGenerator;
+import infra.session.SessionEventDispatcher;
+import infra.session.SessionIdResolver;
+import infra.session.SessionManager;
+import infra.session.WebSession;
+import infra.web.RequestContext;
+
+/**
+ * 已登录的后台请求中查找三次登录用户：{@code RequiresLoginInterceptor}、
+ * {@code RequestLimitInterceptor} 的用户 key 和 {@code User} 参数解析
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 06:20
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrincipalResolverBenchmark {
+
+  static final int LOOKUPS_PER_REQUEST = 3;
+
+  private PrincipalResolver principalResolver;
+
+  private RequestContext request;
+
+  @Setup
+  public void setup() {
+    var repository = new InMemorySessionRepository(new SessionEventDispatcher(), new SecureRandomSessionIdGenerator());
+    SessionManager sessionManager = new DefaultSessionManager(repository, SessionIdResolver.forComposite(
+            SessionIdResolver.forParameter("auth"),
+            SessionIdResolver.forHeader(SessionIdResolver.HEADER_X_AUTH_TOKEN)));
+    principalResolver = new PrincipalResolver(sessionManager, null);
+
+    WebSession session = sessionManager.getSession(BenchmarkRequests.create(request -> { }), true);
+    new UserPrincipal(1, "admin", "admin", UserStatus.NORMAL, 0).bindTo(session);
+    request = BenchmarkRequests.create(r -> r.addHeader(SessionIdResolver.HEADER_X_AUTH_TOKEN, session.getId()));
+  }
+
+  /**
+   * 每次都解析会话
+   */
+  @Benchmark
+  public void resolveEachTime(Blackhole blackhole) {
+    for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+      blackhole.consume(principalResolver.resolve(request));
+    }
+  }
+
+  /**
+   * 每个请求只解析一次
+   */
+  @Benchmark
+  public void memoized(Blackhole blackhole) {
+    principalResolver.forget(request);
+    for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+      blackhole.consume(principalResolver.find(request));
+    }
+  }
+
+}
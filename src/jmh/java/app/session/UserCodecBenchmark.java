@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import app.model.User;
+import app.model.UserStatus;
+
+/**
+ * {@link UserCodec} 和 Java 序列化的对比，{@code legacy} 是会话中保存 {@link User} 时使用默认序列化的格式
+ * <p>
+ * 各种格式的字节数：会话中的 {@link UserPrincipal} 编码 28，序列化 92（record 默认序列化约 250）；
+ * {@link User} 默认序列化约 650 / 3670（简介 16 / 1024 个字符）
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 00:40
+ */
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserCodecBenchmark {
+
+  /**
+   * 简介的长度，只影响 {@code legacy} 的结果
+   */
+  @Param({ "16", "1024" })
+  public int introduceLength;
+
+  private User user;
+
+  private UserPrincipal principal;
+
+  private byte[] encoded;
+
+  private byte[] serialized;
+
+  private byte[] legacySerialized;
+
+  @Setup
+  public void setup() throws IOException {
+    user = new User();
+    user.setId(1024L);
+    user.setName("海子");
+    user.setUsername("taketoday");
+    user.setPassword("{pbkdf2}600000$c2FsdGMyRnNkQT09$aGFzaGFHRnphQT09aGFzaGFHRnphQT09");
+    user.setAvatar("/avatar/1024.png");
+    user.setIntroduce("简介".repeat(introduceLength / 2));
+    user.setStatus(UserStatus.NORMAL);
+    user.setCreateAt(Instant.now());
+    user.setUpdateAt(Instant.now());
+    principal = UserPrincipal.of(user);
+
+    encoded = UserCodec.encode(principal);
+    serialized = serialize(principal);
+    legacySerialized = serialize(user);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return UserCodec.encode(principal);
+  }
+
+  @Benchmark
+  public UserPrincipal decode() {
+    return UserCodec.decodePrincipal(encoded);
+  }
+
+  /**
+   * 会话持久化时的实际路径，会话中保存的是 {@link UserPrincipal}
+   */
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return serialize(principal);
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException, ClassNotFoundException {
+    return deserialize(serialized);
+  }
+
+  @Benchmark
+  public byte[] legacySerialize() throws IOException {
+    return serialize(user);
+  }
+
+  @Benchmark
+  public Object legacyDeserialize() throws IOException, ClassNotFoundException {
+    return deserialize(legacySerialized);
+  }
+
+  static byte[] serialize(Object object) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+    try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+      stream.writeObject(object);
+    }
+    return output.toByteArray();
+  }
+
+  static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return stream.readObject();
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HashUtils#getEncodedPassword(String)}，{@code legacy} 是复用缓冲区之前的实现
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:10
+ */
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HashUtilsBenchmark {
+
+  @Param({ "123456", "correct horse battery staple 密码" })
+  public String password;
+
+  private String encoded;
+
+  private String[] passwords;
+
+  private String[] encodedPasswords;
+
+  @Setup
+  public void setup() {
+    encoded = HashUtils.getEncodedPassword(password);
+    passwords = new String[100];
+    encodedPasswords = new String[100];
+    for (int i = 0; i < passwords.length; i++) {
+      passwords[i] = password + i;
+      encodedPasswords[i] = HashUtils.getEncodedPassword(i % 2 == 0 ? passwords[i] : password);
+    }
+  }
+
+  @Benchmark
+  public String encodedPassword() {
+    return HashUtils.getEncodedPassword(password);
+  }
+
+  @Benchmark
+  public String legacy() throws NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("MD5");
+    digest.update(password.getBytes());
+    byte[] digest1 = digest.digest();
+    digest.reset();
+    digest.update(digest1);
+    HexFormat hexFormat = HexFormat.of().withUpperCase();
+    return hexFormat.formatHex(digest.digest());
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return HashUtils.matches(password, encoded);
+  }
+
+  @Benchmark
+  public boolean legacyMatches() throws NoSuchAlgorithmException {
+    return legacy().equals(encoded);
+  }
+
+  /**
+   * 100 个密码
+   */
+  @Benchmark
+  public boolean[] bulkMatches() {
+    return HashUtils.matches(passwords, encodedPasswords);
+  }
+
+}
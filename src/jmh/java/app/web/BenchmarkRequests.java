@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import java.util.function.Consumer;
+
+import infra.mock.web.HttpMockRequestImpl;
+import infra.mock.web.MockHttpResponseImpl;
+import infra.web.RequestContext;
+import infra.web.mock.MockRequestContext;
+
+/**
+ * 基准测试使用的请求
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:10
+ */
+public abstract class BenchmarkRequests {
+
+  /**
+   * 经过两层代理的请求
+   */
+  public static RequestContext proxied(String clientIp) {
+    return create(request -> {
+      request.setRemoteAddr("10.0.0.2");
+      request.addHeader("X-Forwarded-For", clientIp + ", 10.0.0.1");
+      request.addHeader("X-Real-IP", clientIp);
+    });
+  }
+
+  public static RequestContext create(Consumer<HttpMockRequestImpl> customizer) {
+    HttpMockRequestImpl request = new HttpMockRequestImpl("GET", "/api/console/users");
+    request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
+    request.addHeader("Accept", "application/json");
+    customizer.accept(request);
+    return new MockRequestContext(null, request, new MockHttpResponseImpl());
+  }
+
+}
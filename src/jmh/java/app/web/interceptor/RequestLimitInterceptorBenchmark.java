@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import app.web.BenchmarkRequests;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.handler.method.HandlerMethod;
+
+/**
+ * {@link RequestLimitInterceptor#intercept(RequestContext, InterceptorChain)} 在多线程下的开销
+ * <p>
+ * {@code distinctKeys} 每个线程使用自己的 IP，只竞争存储；{@code sharedKey} 所有线程使用同一个 IP，
+ * 竞争同一个限流状态
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:30
+ */
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestLimitInterceptorBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Interceptor {
+
+    @Param({ "local", "compact" })
+    public String store;
+
+    @Param({ "FIXED_WINDOW", "GCRA", "SLIDING_WINDOW" })
+    public String algorithm;
+
+    RequestLimitInterceptor interceptor;
+
+    HandlerMethod handlerMethod;
+
+    @Setup
+    public void setup() throws Exception {
+      interceptor = new RequestLimitInterceptor();
+      interceptor.setDefaultAlgorithm(RateLimitAlgorithm.valueOf(algorithm));
+      if (store.equals("compact")) {
+        interceptor.setRateLimitStore(new CompactRateLimitStore(1 << 16));
+      }
+      handlerMethod = new HandlerMethod(new Handler(), Handler.class.getMethod("handle"));
+    }
+
+  }
+
+  @State(Scope.Thread)
+  public static class Request {
+
+    RequestContext distinct;
+
+    RequestContext shared;
+
+    @Setup
+    public void setup() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      distinct = BenchmarkRequests.proxied("198.51.%d.%d".formatted(random.nextInt(256), random.nextInt(256)));
+      shared = BenchmarkRequests.proxied("203.0.113.195");
+    }
+
+  }
+
+  @Benchmark
+  public Object distinctKeys(Interceptor interceptor, Request request) throws Throwable {
+    return intercept(interceptor, request.distinct);
+  }
+
+  @Benchmark
+  public Object sharedKey(Interceptor interceptor, Request request) throws Throwable {
+    return intercept(interceptor, request.shared);
+  }
+
+  private static Object intercept(Interceptor state, RequestContext request) throws Throwable {
+    InterceptorChain chain = new InterceptorChain(new HandlerInterceptor[] { state.interceptor }, state.handlerMethod) {
+
+      @Override
+      protected Object invokeHandler(RequestContext context, Object handler) {
+        return handler;
+      }
+    };
+    return chain.proceed(request);
+  }
+
+  public static class Handler {
+
+    @RequestLimit(count = RateLimiter.MAX_COUNT >> 4)
+    public String handle() {
+      return "ok";
+    }
+
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import app.AppConstant;
+import app.web.BenchmarkRequests;
+import app.web.KeysetCursor;
+import app.web.Pageable;
+import infra.web.RequestContext;
+
+/**
+ * {@link PageableImpl} 解析分页参数
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:20
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageableBenchmark {
+
+  private RequestContext request;
+
+  private RequestContext defaults;
+
+  private RequestContext keyset;
+
+  @Setup
+  public void setup() {
+    request = BenchmarkRequests.create(request -> {
+      request.addParameter(AppConstant.PARAMETER_CURRENT, "12");
+      request.addParameter(AppConstant.PARAMETER_SIZE, "20");
+    });
+    defaults = BenchmarkRequests.create(request -> { });
+    keyset = BenchmarkRequests.create(request -> {
+      request.addParameter(AppConstant.PARAMETER_AFTER, KeysetCursor.encode(240));
+      request.addParameter(AppConstant.PARAMETER_SIZE, "20");
+    });
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    Pageable pageable = new PageableImpl(request, AppConstant.PARAMETER_CURRENT, AppConstant.PARAMETER_SIZE, 10, 20);
+    blackhole.consume(pageable.pageNumber());
+    blackhole.consume(pageable.pageSize());
+  }
+
+  @Benchmark
+  public void defaults(Blackhole blackhole) {
+    Pageable pageable = new PageableImpl(defaults, AppConstant.PARAMETER_CURRENT, AppConstant.PARAMETER_SIZE, 10, 20);
+    blackhole.consume(pageable.pageNumber());
+    blackhole.consume(pageable.pageSize());
+  }
+
+  @Benchmark
+  public void keyset(Blackhole blackhole) {
+    Pageable pageable = new PageableImpl(keyset, AppConstant.PARAMETER_CURRENT, AppConstant.PARAMETER_SIZE, 10, 20);
+    blackhole.consume(pageable.after());
+    blackhole.consume(pageable.pageSize());
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import app.model.User;
+import app.session.PrincipalResolver;
+import app.session.UserPrincipal;
+import app.session.UserProfileCache;
+import app.web.BenchmarkRequests;
+import app.web.UserSession;
+import infra.core.MethodParameter;
+import infra.session.DefaultSessionManager;
+import infra.session.InMemorySessionRepository;
+import infra.session.SecureRandomSessionIdGenerator;
+import infra.session.SessionEventDispatcher;
+import infra.session.SessionIdResolver;
+import infra.session.SessionManager;
+import infra.session.WebSession;
+import infra.web.RequestContext;
+import infra.web.handler.method.ResolvableMethodParameter;
+
+/**
+ * {@link UserSessionArgumentResolver#resolveArgument(RequestContext, ResolvableMethodParameter)}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:20
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserSessionArgumentResolverBenchmark {
+
+  private UserSessionArgumentResolver resolver;
+
+  private RequestContext loggedIn;
+
+  private RequestContext anonymous;
+
+  private ResolvableMethodParameter user;
+
+  private ResolvableMethodParameter optionalUser;
+
+  private ResolvableMethodParameter userSession;
+
+  @Setup
+  public void setup() throws Exception {
+    var repository = new InMemorySessionRepository(new SessionEventDispatcher(), new SecureRandomSessionIdGenerator());
+    SessionManager sessionManager = new DefaultSessionManager(repository,
+            SessionIdResolver.forHeader(SessionIdResolver.HEADER_X_AUTH_TOKEN));
+    User loginUser = new User();
+    loginUser.setId(1L);
+    loginUser.setUsername("admin");
+    var profiles = new UserProfileCache(id -> loginUser, 1000, Duration.ofMinutes(30));
+    resolver = new UserSessionArgumentResolver(new PrincipalResolver(sessionManager, null), profiles);
+
+    WebSession session = sessionManager.getSession(BenchmarkRequests.create(request -> { }), true);
+    UserPrincipal.of(loginUser).bindTo(session);
+
+    loggedIn = BenchmarkRequests.create(request -> request.addHeader(SessionIdResolver.HEADER_X_AUTH_TOKEN, session.getId()));
+    anonymous = BenchmarkRequests.create(request -> { });
+
+    Method method = UserSessionArgumentResolverBenchmark.class.getDeclaredMethod(
+            "handler", User.class, Optional.class, UserSession.class);
+    user = new ResolvableMethodParameter(MethodParameter.forExecutable(method, 0));
+    optionalUser = new ResolvableMethodParameter(MethodParameter.forExecutable(method, 1));
+    userSession = new ResolvableMethodParameter(MethodParameter.forExecutable(method, 2));
+  }
+
+  @Benchmark
+  public Object user() {
+    return resolver.resolveArgument(loggedIn, user);
+  }
+
+  @Benchmark
+  public Object optionalUser() {
+    return resolver.resolveArgument(loggedIn, optionalUser);
+  }
+
+  @Benchmark
+  public Object userSession() {
+    return resolver.resolveArgument(loggedIn, userSession);
+  }
+
+  @Benchmark
+  public Object anonymous() {
+    return resolver.resolveArgument(anonymous, optionalUser);
+  }
+
+  static void handler(User user, Optional<User> optionalUser, UserSession userSession) {
+
+  }
+
+}
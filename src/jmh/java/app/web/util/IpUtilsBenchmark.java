@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import app.web.BenchmarkRequests;
+import infra.web.RequestContext;
+
+/**
+ * {@link IpUtils#remoteAddress(RequestContext)} 和 {@link PackedAddress}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:10
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IpUtilsBenchmark {
+
+  private RequestContext proxied;
+
+  private RequestContext direct;
+
+  private final long[] key = new long[2];
+
+  @Setup
+  public void setup() {
+    proxied = BenchmarkRequests.proxied("203.0.113.195");
+    direct = BenchmarkRequests.create(request -> request.setRemoteAddr("2001:db8:85a3::8a2e:370:7334"));
+  }
+
+  @Benchmark
+  public String proxied() {
+    return IpUtils.remoteAddress(proxied);
+  }
+
+  @Benchmark
+  public String direct() {
+    return IpUtils.remoteAddress(direct);
+  }
+
+  @Benchmark
+  public void packIPv4(Blackhole blackhole) {
+    PackedAddress.parse("203.0.113.195", key);
+    blackhole.consume(key[0]);
+    blackhole.consume(key[1]);
+  }
+
+  @Benchmark
+  public void packIPv6(Blackhole blackhole) {
+    PackedAddress.parse("2001:db8:85a3::8a2e:370:7334", key);
+    blackhole.consume(key[0]);
+    blackhole.consume(key[1]);
+  }
+
+}
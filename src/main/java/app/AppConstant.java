@@ -25,5 +25,11 @@ public interface AppConstant {
 
   String PARAMETER_CURRENT = "page";
 
+  /** 游标分页 */
+  String PARAMETER_AFTER = "after";
+
+  /** 分页总数的统计方式 */
+  String PARAMETER_COUNT = "count";
+
 }
 
@@ -18,6 +18,9 @@ package app.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
@@ -25,17 +28,49 @@ import javax.sql.DataSource;
 import app.ConditionalOnDevelop;
 import app.ConditionalOnProduction;
 import app.ConditionalOnTesting;
+import app.model.User;
+import app.security.DelegatingPasswordEncoder;
+import app.security.LoginFailureTracker;
+import app.security.PasswordEncoder;
+import app.security.PasswordHasher;
+import app.security.Pbkdf2PasswordEncoder;
+import app.security.UsernameFilter;
+import app.session.AuthTokenService;
+import app.session.JdbcSessionRepository;
+import app.session.PrincipalResolver;
+import app.session.TieredSessionRepository;
+import app.session.UserSessionRegistry;
+import app.session.UserProfileCache;
+import app.web.CountMode;
+import app.web.Paginator;
+import app.web.interceptor.BlockingExecutionInterceptor;
+import app.web.interceptor.BlockingExecutor;
+import app.web.interceptor.CompactRateLimitStore;
+import app.web.interceptor.ConcurrencyLimitInterceptor;
+import app.web.interceptor.JdbcRateLimitBackend;
+import app.web.interceptor.LoadShedder;
+import app.web.interceptor.LoadSheddingInterceptor;
+import app.web.interceptor.RateLimitStore;
 import app.web.interceptor.RequestLimitInterceptor;
+import app.web.interceptor.SharedRateLimitStore;
 import app.web.support.PageableMethodArgumentResolver;
+import infra.beans.factory.ObjectProvider;
 import infra.cache.annotation.EnableCaching;
 import infra.cache.support.CaffeineCacheManager;
 import infra.context.annotation.Configuration;
+import infra.context.condition.ConditionalOnProperty;
+import infra.core.env.Environment;
 import infra.jdbc.RepositoryManager;
+import infra.lang.Nullable;
 import infra.persistence.DefaultEntityManager;
 import infra.persistence.EntityManager;
 import infra.persistence.PropertyUpdateStrategy;
 import infra.persistence.platform.MySQLPlatform;
+import infra.session.SecureRandomSessionIdGenerator;
+import infra.session.SessionEventDispatcher;
 import infra.session.SessionIdResolver;
+import infra.session.SessionManager;
+import infra.session.SessionRepository;
 import infra.session.config.SessionProperties;
 import infra.stereotype.Component;
 
@@ -70,13 +105,149 @@ public class AppConfig {
   }
 
   @Component
-  public static PageableMethodArgumentResolver pageableMethodArgumentResolver() {
-    return new PageableMethodArgumentResolver();
+  public static PageableMethodArgumentResolver pageableMethodArgumentResolver(Environment environment) {
+    PageableMethodArgumentResolver resolver = new PageableMethodArgumentResolver();
+    String countMode = environment.getProperty("app.pagination.count-mode", "exact");
+    resolver.setDefaultCountMode(CountMode.valueOf(countMode.toUpperCase(Locale.ROOT)));
+    return resolver;
   }
 
   @Component
-  public static RequestLimitInterceptor requestLimitInterceptor() {
-    return new RequestLimitInterceptor();
+  public static Paginator paginator(RepositoryManager repositoryManager, Environment environment) {
+    Duration countTimeToLive = Duration.parse(environment.getProperty("app.pagination.count-ttl", "PT1M"));
+    return new Paginator(repositoryManager, countTimeToLive);
+  }
+
+  @Component
+  public static PasswordEncoder passwordEncoder(Environment environment) {
+    int iterations = environment.getProperty("app.security.pbkdf2-iterations",
+            Integer.class, Pbkdf2PasswordEncoder.DEFAULT_ITERATIONS);
+    return DelegatingPasswordEncoder.create(iterations);
+  }
+
+  @Component
+  public static PasswordHasher passwordHasher(PasswordEncoder passwordEncoder) {
+    return new PasswordHasher(passwordEncoder);
+  }
+
+  @Component
+  public static UsernameFilter usernameFilter(RepositoryManager repositoryManager) {
+    UsernameFilter usernameFilter = new UsernameFilter(repositoryManager);
+    usernameFilter.start(Duration.ofHours(1));
+    return usernameFilter;
+  }
+
+  @Component
+  public static LoginFailureTracker loginFailureTracker() {
+    return new LoginFailureTracker(1 << 16);
+  }
+
+  /**
+   * 无状态的签名令牌，配置 {@code app.auth-token.enabled=true} 时启用
+   */
+  @Component
+  @ConditionalOnProperty(prefix = "app.auth-token", name = "enabled", havingValue = "true")
+  public static AuthTokenService authTokenService(Environment environment) {
+    String keys = environment.getRequiredProperty("app.auth-token.keys");
+    Duration timeToLive = Duration.parse(environment.getProperty("app.auth-token.ttl", "P1D"));
+    return new AuthTokenService(AuthTokenService.parseKeys(keys), timeToLive);
+  }
+
+  @Component
+  public static PrincipalResolver principalResolver(SessionManager sessionManager, @Nullable AuthTokenService authTokenService) {
+    return new PrincipalResolver(sessionManager, authTokenService);
+  }
+
+  @Component
+  public static UserProfileCache userProfileCache(EntityManager entityManager) {
+    return new UserProfileCache(id -> entityManager.findById(User.class, id), 10000, Duration.ofMinutes(30));
+  }
+
+  @Component
+  public static LoadShedder loadShedder() {
+    return new LoadShedder();
+  }
+
+  @Component
+  public static LoadSheddingInterceptor loadSheddingInterceptor(LoadShedder loadShedder, PrincipalResolver principalResolver) {
+    return new LoadSheddingInterceptor(loadShedder, principalResolver);
+  }
+
+  /**
+   * JDK 21 及以上使用虚拟线程，否则为 32 个线程的有界线程池
+   */
+  @Component
+  public static BlockingExecutor blockingExecutor() {
+    return BlockingExecutor.create(32, 1000);
+  }
+
+  @Component
+  public static BlockingExecutionInterceptor blockingExecutionInterceptor(BlockingExecutor blockingExecutor) {
+    return new BlockingExecutionInterceptor(blockingExecutor);
+  }
+
+  @Component
+  public static ConcurrencyLimitInterceptor concurrencyLimitInterceptor() {
+    return new ConcurrencyLimitInterceptor();
+  }
+
+  /**
+   * {@code app.rate-limit.store=shared} 时多个节点通过 {@code t_rate_limit} 表共享限额
+   */
+  @Component
+  public static RequestLimitInterceptor requestLimitInterceptor(SessionManager sessionManager,
+          PrincipalResolver principalResolver, RepositoryManager repositoryManager, Environment environment) {
+    RequestLimitInterceptor interceptor = new RequestLimitInterceptor();
+    interceptor.setSessionManager(sessionManager);
+    interceptor.setPrincipalResolver(principalResolver);
+    // 26 万个 key，8M 堆内存
+    RateLimitStore rateLimitStore = new CompactRateLimitStore(1 << 18);
+    if ("shared".equals(environment.getProperty("app.rate-limit.store"))) {
+      rateLimitStore = new SharedRateLimitStore(new JdbcRateLimitBackend(repositoryManager), rateLimitStore);
+    }
+    interceptor.setRateLimitStore(rateLimitStore);
+    return interceptor;
+  }
+
+  /**
+   * 热层最多 1 万个会话，空闲的会话写入 {@code app.session.spill-dir} 目录下的映射文件，
+   * {@code server.session.persistent=true} 时重启之后恢复
+   */
+  @Component
+  @ConditionalOnProperty(prefix = "app.session", name = "store", havingValue = "tiered", matchIfMissing = true)
+  public static TieredSessionRepository sessionRepository(SessionEventDispatcher eventDispatcher,
+          SessionProperties properties, Environment environment) {
+    Path directory = Path.of(environment.getProperty("app.session.spill-dir",
+            System.getProperty("java.io.tmpdir") + "/infra-web-app/sessions"));
+    var repository = new TieredSessionRepository(eventDispatcher, new SecureRandomSessionIdGenerator(),
+            directory, 10000, properties.persistent);
+    if (properties.timeout != null) {
+      repository.setSessionMaxIdleTime(properties.timeout);
+    }
+    repository.start();
+    return repository;
+  }
+
+  /**
+   * 会话保存在数据库中，多个节点共享，配置 {@code app.session.store=jdbc} 时启用
+   */
+  @Component
+  @ConditionalOnProperty(prefix = "app.session", name = "store", havingValue = "jdbc")
+  public static JdbcSessionRepository jdbcSessionRepository(RepositoryManager repositoryManager,
+          SessionEventDispatcher eventDispatcher, SessionProperties properties) {
+    var repository = new JdbcSessionRepository(repositoryManager, eventDispatcher,
+            new SecureRandomSessionIdGenerator(), 10000, Duration.ofSeconds(30));
+    if (properties.timeout != null) {
+      repository.setSessionMaxIdleTime(properties.timeout);
+    }
+    repository.start();
+    return repository;
+  }
+
+  @Component
+  public static UserSessionRegistry userSessionRegistry(ObjectProvider<SessionRepository> sessionRepository,
+          @Nullable AuthTokenService authTokenService) {
+    return new UserSessionRegistry(sessionRepository::getObject, authTokenService);
   }
 
   @Component
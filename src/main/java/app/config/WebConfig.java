@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.config;
+
+import app.web.interceptor.BlockingExecutionInterceptor;
+import app.web.interceptor.LoadSheddingInterceptor;
+import infra.context.annotation.Configuration;
+import infra.web.config.annotation.InterceptorRegistry;
+import infra.web.config.annotation.WebMvcConfigurer;
+
+/**
+ * 全局拦截器
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 20:50
+ */
+@Configuration(proxyBeanMethods = false)
+public class WebConfig implements WebMvcConfigurer {
+
+  private final LoadSheddingInterceptor loadSheddingInterceptor;
+
+  private final BlockingExecutionInterceptor blockingExecutionInterceptor;
+
+  public WebConfig(LoadSheddingInterceptor loadSheddingInterceptor,
+          BlockingExecutionInterceptor blockingExecutionInterceptor) {
+    this.loadSheddingInterceptor = loadSheddingInterceptor;
+    this.blockingExecutionInterceptor = blockingExecutionInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(loadSheddingInterceptor);
+    // 先判断是否过载，再切换线程，执行器返回的 CompletableFuture 完成之后才释放
+    registry.addInterceptor(blockingExecutionInterceptor);
+  }
+
+}
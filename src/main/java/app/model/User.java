@@ -18,7 +18,6 @@ package app.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import app.web.UnauthorizedException;
 import infra.core.AttributeAccessor;
 import infra.lang.Nullable;
 import infra.persistence.Table;
@@ -51,37 +50,8 @@ public class User extends BasicModel {
 
   private UserStatus status;
 
-  /**
-   * Bind this instance to AttributeAccessor
-   *
-   * @param accessor session or request
-   */
-  public void bindTo(AttributeAccessor accessor) {
-    accessor.setAttribute(KEY, this);
-  }
-
   // Static
 
-  /**
-   * 查找登录会话
-   */
-  @Nullable
-  public static User find(AttributeAccessor accessor) {
-    Object attribute = accessor.getAttribute(KEY);
-    if (attribute instanceof User user) {
-      return user;
-    }
-    return null;
-  }
-
-  public static User obtain(AttributeAccessor accessor) {
-    User blogger = find(accessor);
-    if (blogger == null) {
-      throw new UnauthorizedException();
-    }
-    return blogger;
-  }
-
   /**
    * 取消绑定
    */
@@ -90,10 +60,10 @@ public class User extends BasicModel {
   }
 
   /**
-   * 判断登录用户是否存在
+   * 判断登录用户是否存在，会话中保存的是 {@code UserPrincipal}，升级之前的会话中是 {@code User}
    */
   public static boolean isPresent(@Nullable AttributeAccessor accessor) {
-    return accessor != null && find(accessor) != null;
+    return accessor != null && accessor.getAttribute(KEY) != null;
   }
 
 }
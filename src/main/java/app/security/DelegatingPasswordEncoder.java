@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import java.util.Map;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 根据前缀选择编码算法：{@code {id}encoded}
+ * <p>
+ * 新密码使用 {@code encodingId} 对应的算法编码并加上前缀；没有前缀的旧密码交给
+ * {@code legacyEncoder}（两次 MD5）校验。不是默认算法编码的密码都需要重新编码，
+ * 登录成功时由 {@link PasswordHasher} 透明地升级
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:50
+ */
+public class DelegatingPasswordEncoder implements PasswordEncoder {
+
+  private final String encodingId;
+
+  private final PasswordEncoder encoder;
+
+  private final Map<String, PasswordEncoder> encoders;
+
+  private final PasswordEncoder legacyEncoder;
+
+  public DelegatingPasswordEncoder(String encodingId, Map<String, PasswordEncoder> encoders, PasswordEncoder legacyEncoder) {
+    Assert.notNull(legacyEncoder, "legacyEncoder is required");
+    PasswordEncoder encoder = encoders.get(encodingId);
+    Assert.notNull(encoder, () -> "没有找到 " + encodingId + " 对应的密码编码器");
+    this.encodingId = encodingId;
+    this.encoder = encoder;
+    this.encoders = Map.copyOf(encoders);
+    this.legacyEncoder = legacyEncoder;
+  }
+
+  /**
+   * 新密码使用 PBKDF2，兼容旧的 MD5 密码
+   */
+  public static DelegatingPasswordEncoder create() {
+    return create(Pbkdf2PasswordEncoder.DEFAULT_ITERATIONS);
+  }
+
+  /**
+   * 新密码使用 PBKDF2，兼容旧的 MD5 密码
+   *
+   * @param iterations PBKDF2 的迭代次数
+   */
+  public static DelegatingPasswordEncoder create(int iterations) {
+    return new DelegatingPasswordEncoder("pbkdf2",
+            Map.of("pbkdf2", new Pbkdf2PasswordEncoder(iterations)), new Md5PasswordEncoder());
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return "{" + encodingId + "}" + encoder.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, @Nullable String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    String id = extractId(encodedPassword);
+    if (id == null) {
+      return legacyEncoder.matches(rawPassword, encodedPassword);
+    }
+    PasswordEncoder delegate = encoders.get(id);
+    return delegate != null && delegate.matches(rawPassword, encodedPassword.substring(id.length() + 2));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    String id = extractId(encodedPassword);
+    return !encodingId.equals(id) || encoder.upgradeEncoding(encodedPassword.substring(id.length() + 2));
+  }
+
+  @Nullable
+  private static String extractId(String encodedPassword) {
+    if (encodedPassword.startsWith("{")) {
+      int end = encodedPassword.indexOf('}');
+      if (end > 0) {
+        return encodedPassword.substring(1, end);
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import infra.lang.Assert;
+
+/**
+ * 按账号记录连续登录失败的次数，失败过多时在查询数据库和计算哈希之前拒绝
+ * <p>
+ * 前 {@link #setFreeAttempts(int) freeAttempts} 次失败不限制，之后每次失败的等待时间翻倍，
+ * 从 {@link #setInitialBackoff(Duration) initialBackoff} 开始，最多 {@link #setMaxBackoff(Duration) maxBackoff}；
+ * 登录成功清除记录，最后一次失败超过 {@link #setResetAfter(Duration) resetAfter} 的记录自动过期。
+ * <p>
+ * 记录按用户名哈希分散到多个分段，每个分段一把锁、一个按访问顺序排列的 {@link LinkedHashMap}，
+ * 超过容量时淘汰最久没有访问的记录，总数不超过 {@code maximumSize}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 23:00
+ */
+public class LoginFailureTracker {
+
+  static final int STRIPES = 64;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final LongSupplier currentTimeMillis;
+
+  private int freeAttempts = 5;
+
+  private long initialBackoff = 1000;
+
+  private long maxBackoff = Duration.ofMinutes(15).toMillis();
+
+  private long resetAfter = Duration.ofMinutes(30).toMillis();
+
+  public LoginFailureTracker(int maximumSize) {
+    this(maximumSize, System::currentTimeMillis);
+  }
+
+  LoginFailureTracker(int maximumSize, LongSupplier currentTimeMillis) {
+    Assert.isTrue(maximumSize >= STRIPES, "最大记录数不能小于 " + STRIPES);
+    this.currentTimeMillis = currentTimeMillis;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(maximumSize / STRIPES);
+    }
+  }
+
+  /**
+   * 不限制的失败次数，默认 5 次
+   */
+  public void setFreeAttempts(int freeAttempts) {
+    Assert.isTrue(freeAttempts >= 0, "不限制的失败次数不能小于 0");
+    this.freeAttempts = freeAttempts;
+  }
+
+  /**
+   * 第一次限制的等待时间，默认 1 秒
+   */
+  public void setInitialBackoff(Duration initialBackoff) {
+    Assert.isTrue(initialBackoff.toMillis() > 0, "等待时间必须大于 0");
+    this.initialBackoff = initialBackoff.toMillis();
+  }
+
+  /**
+   * 最长的等待时间，默认 15 分钟
+   */
+  public void setMaxBackoff(Duration maxBackoff) {
+    Assert.isTrue(maxBackoff.toMillis() > 0, "等待时间必须大于 0");
+    this.maxBackoff = maxBackoff.toMillis();
+  }
+
+  /**
+   * 最后一次失败之后多久清除记录，默认 30 分钟
+   */
+  public void setResetAfter(Duration resetAfter) {
+    Assert.isTrue(resetAfter.toMillis() > 0, "过期时间必须大于 0");
+    this.resetAfter = resetAfter.toMillis();
+  }
+
+  /**
+   * 距离允许下一次尝试还有多久
+   *
+   * @return 毫秒，0 表示现在可以尝试
+   */
+  public long getRetryAfter(String username) {
+    String key = UsernameFilter.normalize(username);
+    Stripe stripe = stripeOf(key);
+    long now = currentTimeMillis.getAsLong();
+    synchronized (stripe) {
+      Failures failures = stripe.get(key);
+      if (failures == null) {
+        return 0;
+      }
+      if (now - failures.lastFailureAt >= resetAfter) {
+        stripe.remove(key);
+        return 0;
+      }
+      return Math.max(0, failures.blockedUntil - now);
+    }
+  }
+
+  /**
+   * 记录一次失败
+   */
+  public void recordFailure(String username) {
+    String key = UsernameFilter.normalize(username);
+    Stripe stripe = stripeOf(key);
+    long now = currentTimeMillis.getAsLong();
+    synchronized (stripe) {
+      Failures failures = stripe.get(key);
+      if (failures == null || now - failures.lastFailureAt >= resetAfter) {
+        failures = new Failures();
+        failures.lastFailureAt = now;
+        stripe.put(key, failures);
+      }
+      failures.count++;
+      failures.lastFailureAt = now;
+      int exceeded = failures.count - freeAttempts;
+      if (exceeded > 0) {
+        // 2^30 秒已经远超最大值
+        long backoff = initialBackoff << Math.min(exceeded - 1, 30);
+        failures.blockedUntil = now + Math.min(backoff, maxBackoff);
+      }
+    }
+  }
+
+  /**
+   * 登录成功，清除记录
+   */
+  public void recordSuccess(String username) {
+    String key = UsernameFilter.normalize(username);
+    Stripe stripe = stripeOf(key);
+    synchronized (stripe) {
+      stripe.remove(key);
+    }
+  }
+
+  /**
+   * 当前的记录数
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeOf(String key) {
+    int hash = key.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  static final class Failures {
+
+    int count;
+
+    long lastFailureAt;
+
+    long blockedUntil;
+
+  }
+
+  @SuppressWarnings("serial")
+  final class Stripe extends LinkedHashMap<String, Failures> {
+
+    private final int maximumSize;
+
+    Stripe(int maximumSize) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Failures> eldest) {
+      // 顺便清除最久没有访问的过期记录
+      return size() > maximumSize
+              || currentTimeMillis.getAsLong() - eldest.getValue().lastFailureAt >= resetAfter;
+    }
+
+  }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import app.util.HashUtils;
+
+/**
+ * 旧的两次 MD5 编码，只用来校验已有的密码
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see HashUtils#getEncodedPassword(String)
+ * @since 1.0 2026/10/16 21:40
+ */
+public class Md5PasswordEncoder implements PasswordEncoder {
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return HashUtils.getEncodedPassword(rawPassword.toString());
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return HashUtils.matches(rawPassword, encodedPassword);
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+/**
+ * 密码的编码和校验
+ * <p>
+ * 实现类必须线程安全。编码可能很慢（PBKDF2 几十毫秒），
+ * 在请求中使用时通过 {@link PasswordHasher} 放到专门的线程池执行
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see DelegatingPasswordEncoder
+ * @since 1.0 2026/10/16 21:40
+ */
+public interface PasswordEncoder {
+
+  /**
+   * 编码原始密码
+   */
+  String encode(CharSequence rawPassword);
+
+  /**
+   * 校验原始密码和编码后的密码是否一致
+   */
+  boolean matches(CharSequence rawPassword, String encodedPassword);
+
+  /**
+   * 编码后的密码是否需要使用更强的算法重新编码
+   */
+  default boolean upgradeEncoding(String encodedPassword) {
+    return false;
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import app.web.ErrorMessageException;
+import infra.http.HttpStatus;
+import infra.lang.Assert;
+
+/**
+ * 在专门的线程池中编码和校验密码，不占用 Netty 的 worker 线程
+ * <p>
+ * 线程数和队列长度都有上限，队列满时立即失败并响应 503，而不是让请求无限排队。
+ * 通过 {@link #getQueueSize()}、{@link #getRejectedCount()}、{@link #getAverageWaitTime(TimeUnit)}
+ * 等观察排队情况
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 22:00
+ */
+public class PasswordHasher implements AutoCloseable {
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder waitTime = new LongAdder();
+
+  private final LongAdder tasks = new LongAdder();
+
+  /**
+   * 默认使用一半的 CPU，队列长度为线程数的 64 倍
+   */
+  public PasswordHasher(PasswordEncoder passwordEncoder) {
+    this(passwordEncoder, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2) * 64);
+  }
+
+  public PasswordHasher(PasswordEncoder passwordEncoder, int threads, int queueCapacity) {
+    Assert.notNull(passwordEncoder, "PasswordEncoder is required");
+    Assert.isTrue(threads > 0, "线程数必须大于 0");
+    Assert.isTrue(queueCapacity > 0, "队列长度必须大于 0");
+    this.passwordEncoder = passwordEncoder;
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+      Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public PasswordEncoder getPasswordEncoder() {
+    return passwordEncoder;
+  }
+
+  /**
+   * 异步编码
+   */
+  public CompletableFuture<String> encode(CharSequence rawPassword) {
+    return submit(() -> passwordEncoder.encode(rawPassword));
+  }
+
+  /**
+   * 异步校验
+   */
+  public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * 是否需要重新编码，不涉及哈希计算，直接在调用线程执行
+   */
+  public boolean upgradeEncoding(String encodedPassword) {
+    return passwordEncoder.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> CompletableFuture<T> submit(Supplier<T> task) {
+    long submitted = System.nanoTime();
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        waitTime.add(System.nanoTime() - submitted);
+        tasks.increment();
+        try {
+          future.complete(task.get());
+        }
+        catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    }
+    catch (RejectedExecutionException e) {
+      rejected.increment();
+      future.completeExceptionally(ErrorMessageException.failed("服务繁忙，请稍后再试", HttpStatus.SERVICE_UNAVAILABLE));
+    }
+    return future;
+  }
+
+  /**
+   * 排队中的任务数
+   */
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * 正在执行的任务数
+   */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * 队列满被拒绝的任务总数
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * 开始执行的任务总数
+   */
+  public long getTaskCount() {
+    return tasks.sum();
+  }
+
+  /**
+   * 任务的平均排队时间
+   */
+  public long getAverageWaitTime(TimeUnit unit) {
+    long count = tasks.sum();
+    return count == 0 ? 0 : unit.convert(waitTime.sum() / count, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+}
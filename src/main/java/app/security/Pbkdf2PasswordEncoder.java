@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import infra.lang.Assert;
+
+/**
+ * PBKDF2-HMAC-SHA256，使用 JDK 自带的实现
+ * <p>
+ * 编码格式：{@code 迭代次数$盐$哈希}，盐和哈希使用 Base64，迭代次数保存在结果中，
+ * 调高 {@link #Pbkdf2PasswordEncoder(int)} 后旧的密码依然可以校验，
+ * 并且 {@link #upgradeEncoding(String)} 返回 {@code true}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:45
+ */
+public class Pbkdf2PasswordEncoder implements PasswordEncoder {
+
+  /**
+   * 默认迭代次数，单次哈希约 40ms（见 {@code Pbkdf2PasswordEncoderBenchmark}，600000 次约 250-450ms），
+   * 登录和注册时占用 {@link PasswordHasher} 线程的时间可以接受。
+   * 通过 {@code app.security.pbkdf2-iterations} 调整，调高后旧密码在登录时重新编码
+   */
+  public static final int DEFAULT_ITERATIONS = 100_000;
+
+  static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+  static final int SALT_LENGTH = 16;
+
+  static final int HASH_BITS = 256;
+
+  private static final Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+
+  private static final Base64.Decoder decoder = Base64.getDecoder();
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final int iterations;
+
+  public Pbkdf2PasswordEncoder() {
+    this(DEFAULT_ITERATIONS);
+  }
+
+  public Pbkdf2PasswordEncoder(int iterations) {
+    Assert.isTrue(iterations > 0, "迭代次数必须大于 0");
+    this.iterations = iterations;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    byte[] salt = new byte[SALT_LENGTH];
+    random.nextBytes(salt);
+    byte[] hash = hash(rawPassword, salt, iterations);
+    return iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    int first = encodedPassword.indexOf('$');
+    int second = encodedPassword.indexOf('$', first + 1);
+    if (first <= 0 || second < 0) {
+      return false;
+    }
+    try {
+      int iterations = Integer.parseInt(encodedPassword, 0, first, 10);
+      byte[] salt = decoder.decode(encodedPassword.substring(first + 1, second));
+      byte[] expected = decoder.decode(encodedPassword.substring(second + 1));
+      return iterations > 0 && MessageDigest.isEqual(expected, hash(rawPassword, salt, iterations));
+    }
+    catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    int first = encodedPassword.indexOf('$');
+    try {
+      return first <= 0 || Integer.parseInt(encodedPassword, 0, first, 10) < iterations;
+    }
+    catch (NumberFormatException e) {
+      return true;
+    }
+  }
+
+  private static byte[] hash(CharSequence rawPassword, byte[] salt, int iterations) {
+    char[] password = new char[rawPassword.length()];
+    for (int i = 0; i < password.length; i++) {
+      password[i] = rawPassword.charAt(i);
+    }
+    PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+    try {
+      return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+    }
+    catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not create hash with algorithm \"%s\"".formatted(ALGORITHM), e);
+    }
+    finally {
+      spec.clearPassword();
+      Arrays.fill(password, '\0');
+    }
+  }
+
+}
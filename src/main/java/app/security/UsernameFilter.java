@@ -0,0 +1,230 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import app.util.BloomFilter;
+import infra.jdbc.JdbcConnection;
+import infra.jdbc.RepositoryManager;
+import infra.jdbc.ResultSetIterator;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+
+/**
+ * 已存在用户名的布隆过滤器，登录时不存在的用户名不需要查询数据库
+ * <p>
+ * 启动后在后台从 {@code t_user} 流式读取所有用户名构建，之后定期重建（删除的用户由重建清除）；
+ * 新建用户时调用 {@link #add(String)}。还没有构建完成或者构建失败时，所有用户名都按可能存在处理。
+ * <p>
+ * 用户名按 MySQL 8 默认排序规则 {@code utf8mb4_0900_ai_ci} 的方式归一化，见 {@link #normalize(String)}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 22:40
+ */
+public class UsernameFilter implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+  static final double FALSE_POSITIVE_RATE = 0.001;
+
+  /** 最少按这么多用户名分配，新增的用户不会很快让误判率变高 */
+  static final int MIN_CAPACITY = 1 << 16;
+
+  private final RepositoryManager repositoryManager;
+
+  private final String countSql;
+
+  private final String selectSql;
+
+  private final LongAdder rejected = new LongAdder();
+
+  @Nullable
+  private volatile BloomFilter filter;
+
+  /** 正在重建的过滤器，重建期间新增的用户名也要加进去 */
+  @Nullable
+  private volatile BloomFilter building;
+
+  @Nullable
+  private ScheduledExecutorService executor;
+
+  public UsernameFilter(RepositoryManager repositoryManager) {
+    this(repositoryManager, "t_user");
+  }
+
+  public UsernameFilter(RepositoryManager repositoryManager, String tableName) {
+    Assert.notNull(repositoryManager, "RepositoryManager is required");
+    Assert.hasText(tableName, "tableName is required");
+    this.repositoryManager = repositoryManager;
+    this.countSql = "SELECT COUNT(*) FROM " + tableName;
+    this.selectSql = "SELECT username FROM " + tableName;
+  }
+
+  /**
+   * 在后台线程立即构建，之后每隔 {@code interval} 重建一次
+   */
+  public synchronized void start(Duration interval) {
+    Assert.state(executor == null, "已经启动");
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "username-filter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    this.executor = executor;
+  }
+
+  /**
+   * 用户名是否可能存在，返回 {@code false} 时一定不存在
+   */
+  public boolean mightExist(String username) {
+    BloomFilter filter = this.filter;
+    if (filter == null || filter.mightContain(normalize(username))) {
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  /**
+   * 新增用户后调用
+   */
+  public void add(String username) {
+    String normalized = normalize(username);
+    // 先读 building 再读 filter：重建先替换 filter 再清空 building，
+    // 读到 building 为 null 时 filter 已经是新的，不会两个都错过
+    BloomFilter building = this.building;
+    if (building != null) {
+      building.put(normalized);
+    }
+    BloomFilter filter = this.filter;
+    if (filter != null && filter != building) {
+      filter.put(normalized);
+    }
+  }
+
+  /**
+   * 从数据库重建
+   */
+  public synchronized void rebuild() {
+    try (JdbcConnection connection = repositoryManager.open()) {
+      Long count = connection.createNamedQuery(countSql)
+              .fetchScalar(Long.class);
+
+      long capacity = count != null ? count * 2 : 0;
+      BloomFilter building = new BloomFilter(Math.max(MIN_CAPACITY, capacity), FALSE_POSITIVE_RATE);
+      // 先公开再查询，查询开始之后提交的新用户会通过 add 加进来
+      this.building = building;
+      try (ResultSetIterator<String> usernames = connection.createNamedQuery(selectSql).iterate(String.class)) {
+        while (usernames.hasNext()) {
+          String username = usernames.next();
+          if (username != null) {
+            building.put(normalize(username));
+          }
+        }
+        this.filter = building;
+      }
+      finally {
+        this.building = null;
+      }
+    }
+  }
+
+  private void rebuildQuietly() {
+    try {
+      rebuild();
+    }
+    catch (Exception e) {
+      log.warn("Failed to rebuild username filter", e);
+    }
+  }
+
+  /**
+   * 是否已经构建完成
+   */
+  public boolean isReady() {
+    return filter != null;
+  }
+
+  /**
+   * 直接判定不存在的次数
+   */
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  /**
+   * 归一化用户名，排序规则认为相等的用户名归一化之后必须相等，否则会被误判为不存在；
+   * 反过来多合并一些只会多查询一次数据库。
+   * <p>
+   * 忽略大小写；NFKD 分解之后去掉附加符号，{@code é} 和 {@code e}、全角和半角视为相同；
+   * {@code ß}、{@code æ}、{@code œ} 展开为两个字母，{@code ø}、{@code đ}、{@code ł} 视为基本字母。
+   * 排序规则是 NO PAD，末尾的空格有意义，不去掉
+   */
+  static String normalize(String username) {
+    if (isAscii(username)) {
+      return username.toLowerCase(Locale.ROOT);
+    }
+    String decomposed = Normalizer.normalize(username, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+    StringBuilder result = new StringBuilder(decomposed.length());
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      switch (Character.getType(c)) {
+        case Character.NON_SPACING_MARK, Character.COMBINING_SPACING_MARK, Character.ENCLOSING_MARK -> { }
+        default -> {
+          switch (c) {
+            case 'ß' -> result.append("ss");
+            case 'æ' -> result.append("ae");
+            case 'œ' -> result.append("oe");
+            case 'ø' -> result.append('o');
+            case 'đ' -> result.append('d');
+            case 'ł' -> result.append('l');
+            default -> result.append(c);
+          }
+        }
+      }
+    }
+    return result.toString();
+  }
+
+  private static boolean isAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.util.StringUtils;
+
+/**
+ * 无状态的登录令牌
+ * <p>
+ * 令牌中包含 {@link UserPrincipal}、签发时间和过期时间，使用 HMAC-SHA256 签名，
+ * 校验时不需要访问会话存储，多个节点之间不需要粘性会话。
+ * 格式为 {@code base64url(内容).base64url(签名)}，内容使用和 {@link UserCodec} 一样的 varint 编码
+ * <p>
+ * 密钥轮换：第一个密钥用于签发，其余的只用于校验，令牌中记录了签发的密钥 ID。
+ * 撤销：退出登录时只把当前的令牌放到撤销列表中直到过期；修改状态、删除用户、修改密码时通过
+ * {@link #revokeAll(long)} 记录该用户的生效时间，之前签发的令牌全部失效。
+ * <p>
+ * 撤销列表和生效时间只保存在当前节点，其它节点上被撤销的令牌在过期之前仍然可以使用，
+ * 多个节点时需要缩短令牌有效期 {@code app.auth-token.ttl}，或者使用会话
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 02:00
+ */
+public class AuthTokenService {
+
+  /**
+   * 登录时通过这个请求头选择使用签名令牌
+   */
+  public static final String HEADER_AUTH_MODE = "X-Auth-Mode";
+
+  public static final String TOKEN_MODE = "token";
+
+  static final int VERSION = 2;
+
+  /** 签名截断到 128 位 */
+  static final int SIGNATURE_LENGTH = 16;
+
+  private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+  private final SigningKey signingKey;
+
+  private final SigningKey[] keys = new SigningKey[256];
+
+  private final Duration timeToLive;
+
+  private final LongSupplier clock;
+
+  private final SecureRandom random = new SecureRandom();
+
+  /** 令牌 ID -> 过期时间 */
+  private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+  /** 用户 ID -> 生效时间（毫秒），之前签发的令牌无效 */
+  private final Map<Long, Long> notBefore = new ConcurrentHashMap<>();
+
+  private int maxRevoked = 10000;
+
+  public AuthTokenService(List<SigningKey> keys, Duration timeToLive) {
+    this(keys, timeToLive, System::currentTimeMillis);
+  }
+
+  AuthTokenService(List<SigningKey> keys, Duration timeToLive, LongSupplier clock) {
+    Assert.notEmpty(keys, "至少需要一个密钥");
+    Assert.isTrue(timeToLive.toSeconds() > 0, "令牌有效期必须大于 1 秒");
+    for (SigningKey key : keys) {
+      Assert.state(this.keys[key.id] == null, "密钥 ID 重复");
+      this.keys[key.id] = key;
+    }
+    this.signingKey = keys.get(0);
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+  }
+
+  /**
+   * 撤销列表和生效时间的最大长度，超过时先清理已经过期的记录，默认 10000
+   */
+  public void setMaxRevoked(int maxRevoked) {
+    Assert.isTrue(maxRevoked > 0, "maxRevoked 必须大于 0");
+    this.maxRevoked = maxRevoked;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  /**
+   * 签发令牌
+   */
+  public String issue(UserPrincipal principal) {
+    // 撤销之后马上签发的令牌不能早于生效时间
+    long issuedAt = Math.max(clock.getAsLong(), notBefore.getOrDefault(principal.id(), 0L));
+    long expiresAt = Math.floorDiv(issuedAt, 1000) + timeToLive.toSeconds();
+    UserCodec.Output out = new UserCodec.Output(64);
+    out.writeByte(VERSION);
+    out.writeByte(signingKey.id);
+    out.writeZigzag(random.nextLong());
+    out.writeVarint(issuedAt);
+    out.writeVarint(expiresAt);
+    UserCodec.writePrincipal(out, principal);
+
+    byte[] payload = out.toByteArray();
+    return encoder.encodeToString(payload) + '.' + encoder.encodeToString(signingKey.sign(payload));
+  }
+
+  /**
+   * 校验令牌
+   *
+   * @return 签名错误、过期或者已经撤销时返回 {@code null}
+   */
+  @Nullable
+  public UserPrincipal verify(String token) {
+    Token parsed = parse(token);
+    if (parsed == null || parsed.expiresAt * 1000 <= clock.getAsLong() || revoked.containsKey(parsed.id)) {
+      return null;
+    }
+    Long since = notBefore.get(parsed.principal.id());
+    if (since != null && parsed.issuedAt < since) {
+      return null;
+    }
+    return parsed.principal;
+  }
+
+  /**
+   * 撤销令牌，比如退出登录时，无效的令牌忽略
+   */
+  public void revoke(String token) {
+    Token parsed = parse(token);
+    if (parsed != null) {
+      long now = clock.getAsLong();
+      if (revoked.size() >= maxRevoked) {
+        revoked.values().removeIf(expiresAt -> expiresAt * 1000 <= now);
+      }
+      revoked.put(parsed.id, parsed.expiresAt);
+    }
+  }
+
+  /**
+   * 撤销该用户当前所有的令牌，之后签发的令牌不受影响
+   */
+  public void revokeAll(long userId) {
+    long now = clock.getAsLong();
+    if (notBefore.size() >= maxRevoked) {
+      // 生效时间之前签发的令牌都已经过期
+      long expired = now - timeToLive.toMillis();
+      notBefore.values().removeIf(since -> since <= expired);
+    }
+    notBefore.merge(userId, now + 1, Math::max);
+  }
+
+  public int getRevokedCount() {
+    return revoked.size();
+  }
+
+  public int getRevokedUserCount() {
+    return notBefore.size();
+  }
+
+  /**
+   * 是否是签名令牌，会话 ID 中没有 '.'
+   */
+  public static boolean isSignedToken(@Nullable String token) {
+    return token != null && token.indexOf('.') > 0;
+  }
+
+  @Nullable
+  private Token parse(String token) {
+    int dot = token.indexOf('.');
+    if (dot <= 0) {
+      return null;
+    }
+    try {
+      byte[] payload = decoder.decode(token.substring(0, dot));
+      byte[] signature = decoder.decode(token.substring(dot + 1));
+      if (payload.length < 2 || payload[0] != VERSION) {
+        return null;
+      }
+      SigningKey key = keys[payload[1] & 0xFF];
+      if (key == null || !MessageDigest.isEqual(key.sign(payload), signature)) {
+        return null;
+      }
+
+      UserCodec.Input in = new UserCodec.Input(payload, 2, payload.length);
+      long id = in.readZigzag();
+      long issuedAt = in.readVarlong();
+      long expiresAt = in.readVarlong();
+      return new Token(id, issuedAt, expiresAt, UserCodec.readPrincipal(in));
+    }
+    catch (IllegalArgumentException e) {
+      // base64 或者内容格式错误、未知的状态
+      return null;
+    }
+  }
+
+  /**
+   * 解析密钥配置，格式为 {@code id:base64密钥}，多个密钥使用逗号分隔，第一个用于签发
+   */
+  public static List<SigningKey> parseKeys(String keys) {
+    ArrayList<SigningKey> result = new ArrayList<>();
+    for (String key : StringUtils.commaDelimitedListToStringArray(keys)) {
+      key = key.trim();
+      int colon = key.indexOf(':');
+      Assert.isTrue(colon > 0, "密钥格式错误，应为 id:base64");
+      result.add(new SigningKey(Integer.parseInt(key.substring(0, colon)),
+              Base64.getDecoder().decode(key.substring(colon + 1))));
+    }
+    return result;
+  }
+
+  private record Token(long id, long issuedAt, long expiresAt, UserPrincipal principal) {
+
+  }
+
+  /**
+   * 签名密钥
+   */
+  public static final class SigningKey {
+
+    final int id;
+
+    private final SecretKeySpec secret;
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param id 密钥 ID，0 到 255
+     * @param secret 密钥，至少 32 字节
+     */
+    public SigningKey(int id, byte[] secret) {
+      Assert.isTrue(id >= 0 && id <= 255, "密钥 ID 必须在 0 到 255 之间");
+      Assert.isTrue(secret.length >= 32, "密钥至少需要 32 字节");
+      this.id = id;
+      this.secret = new SecretKeySpec(secret, "HmacSHA256");
+      this.mac = ThreadLocal.withInitial(this::createMac);
+    }
+
+    byte[] sign(byte[] payload) {
+      Mac mac = this.mac.get();
+      return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_LENGTH);
+    }
+
+    private Mac createMac() {
+      try {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(secret);
+        return mac;
+      }
+      catch (GeneralSecurityException e) {
+        throw new IllegalStateException("HmacSHA256 is not available", e);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,911 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import app.model.User;
+import infra.jdbc.JdbcConnection;
+import infra.jdbc.NamedQuery;
+import infra.jdbc.RepositoryManager;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+import infra.session.MapSession;
+import infra.session.SessionEventDispatcher;
+import infra.session.SessionIdGenerator;
+import infra.session.SessionRepository;
+import infra.session.WebSession;
+
+/**
+ * 保存在数据库中的会话，多个节点共享，重启之后不用重新登录
+ * <p>
+ * 会话保存在 {@code t_session}，属性按名称分别保存在 {@code t_session_attribute}，
+ * 表结构见 {@code db/schema-mysql.sql}。{@code t_session.user_id} 是登录用户的 ID，
+ * 用于 {@link #findSessionIds(long)} 查找一个用户在所有节点上的会话。
+ * <p>
+ * 请求线程只修改内存中的会话对象并登记到待写入的集合中，同一个会话多次修改只写一次；
+ * 后台线程每隔 {@link #setFlushInterval(Duration) flushInterval} 或者待写入的会话超过
+ * {@link #setBatchSize(int) batchSize} 时在一个事务中批量写入，只写入修改过的属性。
+ * 最后访问时间变化不超过 {@link #setAccessTimeGranularity(Duration) accessTimeGranularity} 时不写入。
+ * <p>
+ * 读取时先查近端缓存，再查待写入的集合，最后查询数据库。
+ * 属性值使用 Java 序列化，只有通过 {@code setAttribute} 修改的属性会被写入，
+ * 直接修改属性对象的内容不会被发现
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 07:00
+ */
+public class JdbcSessionRepository implements SessionRepository, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcSessionRepository.class);
+
+  private final RepositoryManager repositoryManager;
+
+  private final SessionEventDispatcher eventDispatcher;
+
+  private final SessionIdGenerator idGenerator;
+
+  private final LongSupplier clock;
+
+  private final Cache<String, JdbcSession> nearCache;
+
+  /** 待写入的会话 */
+  private final ConcurrentHashMap<String, JdbcSession> pending = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  private final LongAdder flushedSessions = new LongAdder();
+
+  private final LongAdder flushedBatches = new LongAdder();
+
+  private final LongAdder loaded = new LongAdder();
+
+  @Nullable
+  private ScheduledExecutorService executor;
+
+  private Duration maxIdleTime = Duration.ofMinutes(30);
+
+  private long flushInterval = 1000;
+
+  private int batchSize = 500;
+
+  private long accessTimeGranularity = Duration.ofMinutes(1).toMillis();
+
+  /**
+   * @param nearCacheSize 近端缓存的会话数
+   * @param nearCacheTtl 近端缓存的时间，多个节点时其它节点的修改最多延迟这么久才能看到
+   */
+  public JdbcSessionRepository(RepositoryManager repositoryManager, SessionEventDispatcher eventDispatcher,
+          SessionIdGenerator idGenerator, long nearCacheSize, Duration nearCacheTtl) {
+    this(repositoryManager, eventDispatcher, idGenerator, nearCacheSize, nearCacheTtl, System::currentTimeMillis);
+  }
+
+  JdbcSessionRepository(RepositoryManager repositoryManager, SessionEventDispatcher eventDispatcher,
+          SessionIdGenerator idGenerator, long nearCacheSize, Duration nearCacheTtl, LongSupplier clock) {
+    Assert.notNull(repositoryManager, "RepositoryManager is required");
+    Assert.notNull(eventDispatcher, "SessionEventDispatcher is required");
+    Assert.notNull(idGenerator, "SessionIdGenerator is required");
+    this.repositoryManager = repositoryManager;
+    this.eventDispatcher = eventDispatcher;
+    this.idGenerator = idGenerator;
+    this.clock = clock;
+    this.nearCache = Caffeine.newBuilder()
+            .maximumSize(nearCacheSize)
+            .expireAfterWrite(nearCacheTtl)
+            .build();
+  }
+
+  /**
+   * 会话的最大空闲时间，默认 30 分钟
+   */
+  public void setSessionMaxIdleTime(Duration maxIdleTime) {
+    Assert.isTrue(maxIdleTime.toMillis() > 0, "最大空闲时间必须大于 0");
+    this.maxIdleTime = maxIdleTime;
+  }
+
+  /**
+   * 批量写入的间隔，默认 1 秒
+   */
+  public void setFlushInterval(Duration flushInterval) {
+    Assert.isTrue(flushInterval.toMillis() > 0, "flushInterval 必须大于 0");
+    this.flushInterval = flushInterval.toMillis();
+  }
+
+  /**
+   * 待写入的会话超过这个数量时立即写入，默认 500
+   */
+  public void setBatchSize(int batchSize) {
+    Assert.isTrue(batchSize > 0, "batchSize 必须大于 0");
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * 最后访问时间的写入精度，默认 1 分钟
+   */
+  public void setAccessTimeGranularity(Duration accessTimeGranularity) {
+    this.accessTimeGranularity = accessTimeGranularity.toMillis();
+  }
+
+  /**
+   * 启动后台线程，定时写入和删除过期的会话
+   */
+  public synchronized void start() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+      executor.scheduleWithFixedDelay(() -> {
+        try {
+          removeExpiredSessions();
+        }
+        catch (RuntimeException e) {
+          log.warn("Failed to remove expired sessions", e);
+        }
+      }, 1, 1, TimeUnit.MINUTES);
+    }
+  }
+
+  @Override
+  public WebSession createSession() {
+    return createSession(idGenerator.generateId());
+  }
+
+  @Override
+  public WebSession createSession(String id) {
+    JdbcSession session = new JdbcSession(id, this);
+    session.setMaxIdleTime(maxIdleTime);
+    session.setCreationTime(Instant.ofEpochMilli(clock.getAsLong()));
+    session.setLastAccessTime(session.getCreationTime());
+    nearCache.put(id, session);
+    session.markChanged(null);
+    eventDispatcher.onSessionCreated(session);
+    return session;
+  }
+
+  @Nullable
+  @Override
+  public WebSession retrieveSession(String id) {
+    JdbcSession session = nearCache.getIfPresent(id);
+    if (session == null) {
+      session = pending.get(id);
+      if (session == null) {
+        session = load(id);
+      }
+      if (session == null || session.removed) {
+        return null;
+      }
+      nearCache.put(id, session);
+    }
+    if (isExpired(session, clock.getAsLong())) {
+      removeSession(id);
+      return null;
+    }
+    return session;
+  }
+
+  @Nullable
+  @Override
+  public WebSession removeSession(String id) {
+    JdbcSession session = nearCache.getIfPresent(id);
+    nearCache.invalidate(id);
+    if (session == null) {
+      session = pending.get(id);
+    }
+    if (session == null) {
+      session = load(id);
+      if (session == null) {
+        return null;
+      }
+    }
+    if (!session.markRemoved()) {
+      return null;
+    }
+    scheduleFlush();
+    eventDispatcher.onSessionDestroyed(session);
+    return session;
+  }
+
+  @Override
+  public void updateLastAccessTime(WebSession session) {
+    session.setLastAccessTime(Instant.ofEpochMilli(clock.getAsLong()));
+    if (session instanceof JdbcSession jdbcSession
+            && jdbcSession.getLastAccessTime().toEpochMilli() - jdbcSession.storedLastAccessTime >= accessTimeGranularity) {
+      jdbcSession.markChanged(null);
+    }
+  }
+
+  @Override
+  public boolean contains(String id) {
+    return retrieveSession(id) != null;
+  }
+
+  @Override
+  public int getSessionCount() {
+    Integer count = repositoryManager.createNamedQuery("SELECT COUNT(*) FROM t_session WHERE expires_at > :now")
+            .addParameter("now", clock.getAsLong())
+            .fetchScalar(Integer.class);
+    return count != null ? count : 0;
+  }
+
+  @Override
+  public String[] getIdentifiers() {
+    return repositoryManager.createNamedQuery("SELECT session_id FROM t_session WHERE expires_at > :now")
+            .addParameter("now", clock.getAsLong())
+            .fetchScalars(String.class)
+            .toArray(new String[0]);
+  }
+
+  /**
+   * 用户在所有节点上的会话 ID，包括还没有写入的会话
+   *
+   * @param userId 用户 ID
+   */
+  public List<String> findSessionIds(long userId) {
+    long now = clock.getAsLong();
+    LinkedHashSet<String> ids = new LinkedHashSet<>(repositoryManager.createNamedQuery(
+                    "SELECT session_id FROM t_session WHERE user_id = :userId AND expires_at > :now")
+            .addParameter("userId", userId)
+            .addParameter("now", now)
+            .fetchScalars(String.class));
+
+    // 待写入的修改比数据库中的新
+    for (JdbcSession session : pending.values()) {
+      if (!session.removed && ownerOf(session) == userId && !isExpired(session, now)) {
+        ids.add(session.getId());
+      }
+      else {
+        ids.remove(session.getId());
+      }
+    }
+    return new ArrayList<>(ids);
+  }
+
+  /**
+   * 写入所有待写入的会话，写入失败的会话留到下次
+   *
+   * @return 写入的会话数
+   */
+  public int flush() {
+    ArrayList<Change> changes = new ArrayList<>(pending.size());
+    for (JdbcSession session : pending.values()) {
+      Change change = session.takeChange();
+      if (change != null) {
+        changes.add(change);
+      }
+    }
+    if (changes.isEmpty()) {
+      return 0;
+    }
+
+    try {
+      write(changes);
+    }
+    catch (RuntimeException e) {
+      for (Change change : changes) {
+        change.session.restoreChange(change);
+      }
+      throw new IllegalStateException("写入会话失败", e);
+    }
+
+    for (Change change : changes) {
+      change.session.completeChange(change);
+      if (change.lost) {
+        nearCache.invalidate(change.id);
+      }
+    }
+    flushedSessions.add(changes.size());
+    flushedBatches.increment();
+    return changes.size();
+  }
+
+  /**
+   * 删除过期的会话，每个删除的会话都发出销毁事件，
+   * 已经不在近端缓存中的会话只带 ID，没有属性
+   *
+   * @return 删除的会话数
+   */
+  public int removeExpiredSessions() {
+    long now = clock.getAsLong();
+    // 数据库中的最后访问时间最多落后 accessTimeGranularity 加上写入的延迟，晚一点删除
+    long deadline = now - accessTimeGranularity - TimeUnit.MINUTES.toMillis(1);
+    List<String> expired = repositoryManager.createNamedQuery(
+                    "SELECT session_id FROM t_session WHERE expires_at <= :deadline")
+            .addParameter("deadline", deadline)
+            .fetchScalars(String.class);
+    if (expired.isEmpty()) {
+      return 0;
+    }
+
+    ArrayList<String> deleted = new ArrayList<>(expired.size());
+    JdbcConnection connection = repositoryManager.beginTransaction();
+    try {
+      NamedQuery deleteSession = connection.createNamedQuery(
+              "DELETE FROM t_session WHERE session_id = :id AND expires_at <= :deadline");
+      NamedQuery deleteAttributes = connection.createNamedQuery(
+              "DELETE FROM t_session_attribute WHERE session_id = :id");
+      for (String id : expired) {
+        deleteSession.addParameter("id", id)
+                .addParameter("deadline", deadline);
+        if (deleteSession.executeUpdate().getResult() > 0) {
+          deleteAttributes.addParameter("id", id)
+                  .executeUpdate();
+          deleted.add(id);
+        }
+      }
+      connection.commit();
+    }
+    catch (RuntimeException e) {
+      connection.rollback();
+      throw e;
+    }
+
+    for (String id : deleted) {
+      if (pending.containsKey(id)) {
+        // 本节点还有没写入的修改或者删除，由它决定
+        continue;
+      }
+      JdbcSession session = nearCache.getIfPresent(id);
+      if (session == null) {
+        session = new JdbcSession(id, this);
+        session.removed = true;
+      }
+      else if (isExpired(session, now)) {
+        nearCache.invalidate(id);
+      }
+      else {
+        continue;
+      }
+      eventDispatcher.onSessionDestroyed(session);
+    }
+    return deleted.size();
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  public long getNearCacheSize() {
+    return nearCache.estimatedSize();
+  }
+
+  /**
+   * 写入数据库的会话数
+   */
+  public long getFlushedSessions() {
+    return flushedSessions.sum();
+  }
+
+  /**
+   * 批量写入的次数
+   */
+  public long getFlushedBatches() {
+    return flushedBatches.sum();
+  }
+
+  /**
+   * 从数据库读取的会话数
+   */
+  public long getLoadedCount() {
+    return loaded.sum();
+  }
+
+  /**
+   * 停止后台线程，写入剩余的会话
+   */
+  @Override
+  public synchronized void close() {
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
+    }
+    flushQuietly();
+  }
+
+  /**
+   * 会话修改之后调用，请求线程不等待写入
+   */
+  void schedule(JdbcSession session) {
+    pending.put(session.getId(), session);
+    if (pending.size() >= batchSize) {
+      scheduleFlush();
+    }
+  }
+
+  /**
+   * 会话 ID 改变之后调用，旧的记录删除，新的记录完整写入
+   */
+  void rename(String oldId, JdbcSession session) {
+    nearCache.invalidate(oldId);
+    new JdbcSession(oldId, this).markRemoved();
+    nearCache.put(session.getId(), session);
+    session.markAllChanged();
+  }
+
+  private void scheduleFlush() {
+    ScheduledExecutorService executor = this.executor;
+    if (executor != null && flushScheduled.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        flushScheduled.set(false);
+        flushQuietly();
+      });
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    }
+    catch (RuntimeException e) {
+      log.warn("Failed to flush sessions, will retry later", e);
+    }
+  }
+
+  private void write(List<Change> changes) {
+    JdbcConnection connection = repositoryManager.beginTransaction();
+    try {
+      NamedQuery insertSession = connection.createNamedQuery(
+              "INSERT INTO t_session (session_id, user_id, create_at, last_access_time, max_idle_time, expires_at) "
+                      + "VALUES (:id, :userId, :creationTime, :lastAccessTime, :maxIdleTime, :expiresAt)");
+      NamedQuery updateSession = connection.createNamedQuery(
+              "UPDATE t_session SET user_id = :userId, last_access_time = :lastAccessTime, "
+                      + "max_idle_time = :maxIdleTime, expires_at = :expiresAt WHERE session_id = :id");
+      NamedQuery deleteSession = connection.createNamedQuery(
+              "DELETE FROM t_session WHERE session_id = :id");
+      NamedQuery deleteAttributes = connection.createNamedQuery(
+              "DELETE FROM t_session_attribute WHERE session_id = :id");
+
+      ArrayList<Change> updated = new ArrayList<>();
+      for (Change change : changes) {
+        if (change.removed) {
+          deleteAttributes.addParameter("id", change.id)
+                  .addToBatch();
+          deleteSession.addParameter("id", change.id)
+                  .addToBatch();
+        }
+        else if (change.created) {
+          insertSession.addParameter("id", change.id)
+                  .addParameter("userId", change.userId)
+                  .addParameter("creationTime", change.creationTime)
+                  .addParameter("lastAccessTime", change.lastAccessTime)
+                  .addParameter("maxIdleTime", change.maxIdleTime)
+                  .addParameter("expiresAt", change.lastAccessTime + change.maxIdleTime)
+                  .addToBatch();
+        }
+        else {
+          updateSession.addParameter("id", change.id)
+                  .addParameter("userId", change.userId)
+                  .addParameter("lastAccessTime", change.lastAccessTime)
+                  .addParameter("maxIdleTime", change.maxIdleTime)
+                  .addParameter("expiresAt", change.lastAccessTime + change.maxIdleTime)
+                  .addToBatch();
+          updated.add(change);
+        }
+      }
+
+      deleteAttributes.executeBatch();
+      deleteSession.executeBatch();
+      insertSession.executeBatch();
+      int[] counts = updateSession.executeBatch().getBatchResult();
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] == 0) {
+          // 在其它节点退出登录或者已经过期删除了
+          updated.get(i).lost = true;
+        }
+      }
+
+      NamedQuery deleteAttribute = connection.createNamedQuery(
+              "DELETE FROM t_session_attribute WHERE session_id = :id AND attribute_name = :name");
+      NamedQuery insertAttribute = connection.createNamedQuery(
+              "INSERT INTO t_session_attribute (session_id, attribute_name, attribute_value) "
+                      + "VALUES (:id, :name, :value)");
+      for (Change change : changes) {
+        if (change.removed || change.lost) {
+          continue;
+        }
+        for (Attribute attribute : change.attributes) {
+          // 不区分新增和修改，先删除再插入
+          deleteAttribute.addParameter("id", change.id)
+                  .addParameter("name", attribute.name)
+                  .addToBatch();
+          if (attribute.value != null) {
+            insertAttribute.addParameter("id", change.id)
+                    .addParameter("name", attribute.name)
+                    .addParameter("value", attribute.value)
+                    .addToBatch();
+          }
+        }
+      }
+      deleteAttribute.executeBatch();
+      insertAttribute.executeBatch();
+      connection.commit();
+    }
+    catch (RuntimeException e) {
+      connection.rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * 从数据库读取会话，已经过期的会话也会返回，由调用方删除并发出销毁事件
+   */
+  @Nullable
+  private JdbcSession load(String id) {
+    try (JdbcConnection connection = repositoryManager.open()) {
+      SessionRow row = connection.createNamedQuery("SELECT create_at AS creationTime, "
+                      + "last_access_time AS lastAccessTime, max_idle_time AS maxIdleTime "
+                      + "FROM t_session WHERE session_id = :id")
+              .addParameter("id", id)
+              .fetchFirst(SessionRow.class);
+      if (row == null) {
+        return null;
+      }
+
+      JdbcSession session = new JdbcSession(id, this);
+      session.setCreationTime(Instant.ofEpochMilli(row.creationTime));
+      session.setLastAccessTime(Instant.ofEpochMilli(row.lastAccessTime));
+      session.setMaxIdleTime(Duration.ofMillis(row.maxIdleTime));
+
+      List<AttributeRow> attributes = connection.createNamedQuery("SELECT attribute_name AS name, "
+                      + "attribute_value AS data FROM t_session_attribute WHERE session_id = :id")
+              .addParameter("id", id)
+              .fetch(AttributeRow.class);
+      for (AttributeRow attribute : attributes) {
+        Object value = deserialize(id, attribute.name, attribute.data);
+        if (value != null) {
+          session.load(attribute.name, value);
+        }
+      }
+      session.persisted = true;
+      session.storedLastAccessTime = session.getLastAccessTime().toEpochMilli();
+      loaded.increment();
+      return session;
+    }
+  }
+
+  /**
+   * 会话所属的用户 ID，没有登录时为 0
+   */
+  private static long ownerOf(JdbcSession session) {
+    Object attribute = session.getAttribute(User.KEY);
+    if (attribute instanceof UserPrincipal principal) {
+      return principal.id();
+    }
+    if (attribute instanceof User user && user.getId() != null) {
+      return user.getId();
+    }
+    return 0;
+  }
+
+  private static boolean isExpired(JdbcSession session, long now) {
+    return now - session.getLastAccessTime().toEpochMilli() >= session.getMaxIdleTime().toMillis();
+  }
+
+  @Nullable
+  static byte[] serialize(String id, String name, @Nullable Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(128);
+      try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+        stream.writeObject(value);
+      }
+      return output.toByteArray();
+    }
+    catch (IOException e) {
+      // 不能序列化的属性只保存在当前节点
+      log.warn("Attribute '{}' of session {} is not serializable, skipped", name, id, e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Object deserialize(String id, String name, byte[] data) {
+    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return stream.readObject();
+    }
+    catch (IOException | ClassNotFoundException e) {
+      log.warn("Failed to read attribute '{}' of session {}, discarded", name, id, e);
+      return null;
+    }
+  }
+
+  /**
+   * 一个会话需要写入的内容
+   */
+  static final class Change {
+
+    final JdbcSession session;
+
+    final String id;
+
+    final boolean removed;
+
+    final boolean created;
+
+    final long creationTime;
+
+    final long lastAccessTime;
+
+    final long maxIdleTime;
+
+    /** 登录用户的 ID，没有登录时为 0 */
+    final long userId;
+
+    final List<Attribute> attributes;
+
+    /** 数据库中的会话已经不存在了 */
+    boolean lost;
+
+    Change(JdbcSession session, boolean removed, boolean created, List<Attribute> attributes) {
+      this.session = session;
+      this.id = session.getId();
+      this.removed = removed;
+      this.created = created;
+      this.creationTime = removed ? 0 : session.getCreationTime().toEpochMilli();
+      this.lastAccessTime = removed ? 0 : session.getLastAccessTime().toEpochMilli();
+      this.maxIdleTime = removed ? 0 : session.getMaxIdleTime().toMillis();
+      this.userId = removed ? 0 : ownerOf(session);
+      this.attributes = attributes;
+    }
+
+  }
+
+  /**
+   * @param value 序列化之后的值，{@code null} 表示删除
+   */
+  record Attribute(String name, @Nullable byte[] value) {
+
+  }
+
+  /**
+   * {@code t_session} 中的一行，列名使用别名映射到属性
+   */
+  static final class SessionRow {
+
+    long creationTime;
+
+    long lastAccessTime;
+
+    long maxIdleTime;
+
+  }
+
+  /**
+   * {@code t_session_attribute} 中的一行
+   */
+  static final class AttributeRow {
+
+    String name;
+
+    byte[] data;
+
+  }
+
+  /**
+   * 记录修改过的属性，修改之后登记到待写入的集合中
+   */
+  static final class JdbcSession extends MapSession {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    final transient JdbcSessionRepository repository;
+
+    /** 修改过的属性名 */
+    private final transient Set<String> dirtyAttributes = new HashSet<>();
+
+    /** 会话本身的字段需要写入 */
+    private transient boolean dirty;
+
+    /** 数据库中已经有这个会话 */
+    transient boolean persisted;
+
+    transient volatile boolean removed;
+
+    /** 数据库中的最后访问时间 */
+    transient volatile long storedLastAccessTime;
+
+    JdbcSession(String id, JdbcSessionRepository repository) {
+      super(id);
+      this.repository = repository;
+    }
+
+    @Override
+    public void setAttribute(String name, @Nullable Object value) {
+      synchronized (this) {
+        super.setAttribute(name, value);
+      }
+      markChanged(name);
+    }
+
+    @Nullable
+    @Override
+    public Object removeAttribute(String name) {
+      Object value;
+      synchronized (this) {
+        value = super.removeAttribute(name);
+      }
+      if (value != null) {
+        markChanged(name);
+      }
+      return value;
+    }
+
+    @Override
+    public void setMaxIdleTime(Duration maxIdleTime) {
+      super.setMaxIdleTime(maxIdleTime);
+      if (persisted) {
+        markChanged(null);
+      }
+    }
+
+    @Override
+    public void changeSessionId() {
+      String oldId = getId();
+      synchronized (this) {
+        super.changeSessionId();
+      }
+      repository.rename(oldId, this);
+    }
+
+    @Override
+    public void invalidate() {
+      repository.removeSession(getId());
+    }
+
+    /**
+     * 从数据库读取的属性，不需要写入
+     */
+    void load(String name, Object value) {
+      super.setAttribute(name, value);
+    }
+
+    /**
+     * @param name 修改的属性名，{@code null} 表示会话本身的字段
+     */
+    void markChanged(@Nullable String name) {
+      synchronized (this) {
+        if (removed) {
+          return;
+        }
+        if (name != null) {
+          dirtyAttributes.add(name);
+        }
+        dirty = true;
+        repository.schedule(this);
+      }
+    }
+
+    /**
+     * 标记为删除，已经删除过了返回 {@code false}
+     */
+    boolean markRemoved() {
+      synchronized (this) {
+        if (removed) {
+          return false;
+        }
+        removed = true;
+        dirty = true;
+        repository.schedule(this);
+        return true;
+      }
+    }
+
+    /**
+     * ID 改变之后完整写入
+     */
+    void markAllChanged() {
+      synchronized (this) {
+        persisted = false;
+        for (String name : getAttributeNames()) {
+          dirtyAttributes.add(name);
+        }
+        dirty = true;
+        repository.schedule(this);
+      }
+    }
+
+    /**
+     * 取出需要写入的内容，属性值在这里序列化
+     */
+    @Nullable
+    synchronized Change takeChange() {
+      if (!dirty) {
+        return null;
+      }
+      if (removed) {
+        dirty = false;
+        dirtyAttributes.clear();
+        return new Change(this, true, false, List.of());
+      }
+      ArrayList<Attribute> attributes = new ArrayList<>(dirtyAttributes.size());
+      for (String name : dirtyAttributes) {
+        attributes.add(new Attribute(name, serialize(getId(), name, getAttribute(name))));
+      }
+      dirty = false;
+      dirtyAttributes.clear();
+      return new Change(this, false, !persisted, attributes);
+    }
+
+    /**
+     * 写入失败，下次重新写入
+     */
+    synchronized void restoreChange(Change change) {
+      dirty = true;
+      for (Attribute attribute : change.attributes) {
+        dirtyAttributes.add(attribute.name);
+      }
+    }
+
+    /**
+     * 写入成功，没有新的修改时从待写入的集合中移除
+     */
+    synchronized void completeChange(Change change) {
+      if (change.lost) {
+        removed = true;
+        dirty = false;
+        dirtyAttributes.clear();
+      }
+      if (change.removed || change.lost) {
+        persisted = false;
+        repository.pending.remove(change.id, this);
+        return;
+      }
+      persisted = true;
+      storedLastAccessTime = change.lastAccessTime;
+      if (!dirty) {
+        repository.pending.remove(change.id, this);
+      }
+    }
+
+  }
+
+}
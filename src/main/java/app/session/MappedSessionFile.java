@@ -0,0 +1,469 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 保存冷数据的内存映射文件
+ * <p>
+ * 数据追加写入固定大小的段文件，内存中只保留索引（位置、长度、过期时间）。
+ * 删除只更新索引、段的有效字节数和记录的状态，段中的数据全部删除后删除段文件。
+ * 会话的有效期可能很长（比如 {@code server.session.timeout: 3D}），少量长期有效的记录会让段一直保留，
+ * 所以每次写满一个段、新建段之前，把有效数据不到一半的段中的记录搬到当前段，然后删除这些段。
+ * 整理之后除了当前段，每个段至少一半是有效数据，新建段时段的总数不超过
+ * {@code 2 * 有效字节数 / 段大小 + 2}，磁盘占用不会随着运行时间增长，只和有效数据的多少有关。
+ * 映射的页面由操作系统按需换入换出，不占用 Java 堆。
+ * <p>
+ * 每条记录的格式：
+ * <pre>{@code
+ * int     数据长度
+ * byte    状态 1: 有效 2: 已删除，0 表示段中后面没有记录了
+ * long    过期时间
+ * long    所属用户 ID，没有时为 0
+ * short   key 的长度
+ * byte[]  key，UTF-8
+ * byte[]  数据
+ * }</pre>
+ * 持久化时关闭后保留段文件，{@link #restore(long, ObjLongConsumer)} 只读取记录头重建索引，不读取数据。
+ * <p>
+ * 打开时对目录下的 {@value #LOCK_FILE} 加排它锁，直到关闭，一个目录同时只能有一个实例使用，
+ * 避免启动时删除或者恢复其它进程正在使用的段文件
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 03:20
+ */
+final class MappedSessionFile implements AutoCloseable {
+
+  static final String SUFFIX = ".seg";
+
+  static final String LOCK_FILE = ".lock";
+
+  static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 2;
+
+  static final byte END = 0;
+
+  static final byte LIVE = 1;
+
+  static final byte DEAD = 2;
+
+  private final Path directory;
+
+  private final int segmentSize;
+
+  private final boolean persistent;
+
+  /** 关闭时释放目录锁 */
+  private final FileChannel lockChannel;
+
+  private final Map<String, Location> index = new HashMap<>();
+
+  private final Map<Integer, Segment> segments = new HashMap<>();
+
+  @Nullable
+  private Segment current;
+
+  private int nextSegmentId;
+
+  private long storedBytes;
+
+  /**
+   * @param directory 段文件的目录
+   * @param segmentSize 每个段文件的大小
+   * @param persistent 是否保留段文件，不保留时已有的段文件会被删除
+   * @throws IllegalStateException 目录正在被其它实例使用
+   */
+  MappedSessionFile(Path directory, int segmentSize, boolean persistent) {
+    Assert.isTrue(segmentSize > HEADER_SIZE, "段文件太小");
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.persistent = persistent;
+    try {
+      Files.createDirectories(directory);
+      this.lockChannel = lock(directory);
+      if (!persistent) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+          for (Path path : stream) {
+            Files.delete(path);
+          }
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("初始化会话文件目录失败: " + directory, e);
+    }
+  }
+
+  /**
+   * 读取已有的段文件，只读取记录头重建索引，过期的记录直接删除
+   *
+   * @param now 当前时间
+   * @param consumer 接收恢复的 key 和所属用户 ID
+   * @return 删除的过期记录数
+   */
+  synchronized int restore(long now, ObjLongConsumer<String> consumer) {
+    int dropped = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (Path path : stream) {
+        String fileName = path.getFileName().toString();
+        int id = Integer.parseInt(fileName.substring(0, fileName.length() - SUFFIX.length()));
+        nextSegmentId = Math.max(nextSegmentId, id + 1);
+        Segment segment = mapSegment(id, path, false);
+        segments.put(id, segment);
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (buffer.capacity() - offset >= HEADER_SIZE) {
+          byte state = buffer.get(offset + 4);
+          if (state == END) {
+            break;
+          }
+          int length = buffer.getInt(offset);
+          long expiresAt = buffer.getLong(offset + 5);
+          long owner = buffer.getLong(offset + 13);
+          int keyLength = buffer.getShort(offset + 21);
+          int recordLength = HEADER_SIZE + keyLength + length;
+          if (state == LIVE) {
+            if (expiresAt > now) {
+              byte[] key = new byte[keyLength];
+              buffer.get(offset + HEADER_SIZE, key);
+              String name = new String(key, StandardCharsets.UTF_8);
+              Location previous = index.put(name, new Location(id, offset, keyLength, length, expiresAt));
+              if (previous != null) {
+                // 正常情况下不会出现，保留后写入的
+                release(previous);
+              }
+              segment.liveBytes += recordLength;
+              storedBytes += recordLength;
+              consumer.accept(name, owner);
+            }
+            else {
+              buffer.put(offset + 4, DEAD);
+              dropped++;
+            }
+          }
+          offset += recordLength;
+        }
+        segment.position = offset;
+        if (segment.liveBytes == 0) {
+          deleteSegment(segment);
+        }
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("读取会话文件失败: " + directory, e);
+    }
+    return dropped;
+  }
+
+  /**
+   * 写入数据，已经存在的数据会被替换
+   *
+   * @param expiresAt 过期时间，过期的数据由调用方删除
+   * @param owner 所属用户 ID，恢复时不需要读取数据就能知道
+   */
+  synchronized void put(String key, byte[] data, long expiresAt, long owner) {
+    byte[] name = key.getBytes(StandardCharsets.UTF_8);
+    int length = HEADER_SIZE + name.length + data.length;
+    Assert.isTrue(length <= segmentSize, "数据超过段文件大小");
+    remove(key);
+
+    if (current == null || current.buffer.capacity() - current.position < length) {
+      compact();
+    }
+    Segment segment = reserve(length);
+    MappedByteBuffer buffer = segment.buffer;
+    int offset = segment.position;
+    buffer.putInt(offset, data.length);
+    buffer.putLong(offset + 5, expiresAt);
+    buffer.putLong(offset + 13, owner);
+    buffer.putShort(offset + 21, (short) name.length);
+    buffer.put(offset + HEADER_SIZE, name);
+    buffer.put(offset + HEADER_SIZE + name.length, data);
+    // 最后写入状态，中途崩溃时这条记录不会被恢复
+    buffer.put(offset + 4, LIVE);
+    segment.position += length;
+    segment.liveBytes += length;
+    storedBytes += length;
+    index.put(key, new Location(segment.id, offset, name.length, data.length, expiresAt));
+  }
+
+  /**
+   * 读取数据
+   */
+  @Nullable
+  synchronized byte[] get(String key) {
+    Location location = index.get(key);
+    if (location == null) {
+      return null;
+    }
+    byte[] data = new byte[location.length];
+    segments.get(location.segment).buffer.get(location.dataOffset(), data);
+    return data;
+  }
+
+  /**
+   * 读取并删除数据
+   */
+  @Nullable
+  synchronized byte[] take(String key) {
+    byte[] data = get(key);
+    if (data != null) {
+      remove(key);
+    }
+    return data;
+  }
+
+  synchronized boolean remove(String key) {
+    Location location = index.remove(key);
+    if (location == null) {
+      return false;
+    }
+    release(location);
+    return true;
+  }
+
+  synchronized boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * 过期时间，不存在时返回 -1
+   */
+  synchronized long getExpiresAt(String key) {
+    Location location = index.get(key);
+    return location != null ? location.expiresAt : -1;
+  }
+
+  synchronized String[] keys() {
+    return index.keySet().toArray(new String[0]);
+  }
+
+  synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * 有效数据的字节数
+   */
+  synchronized long getStoredBytes() {
+    return storedBytes;
+  }
+
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * 持久化时将修改写回磁盘并保留段文件，否则删除所有段文件，最后释放目录锁
+   */
+  @Override
+  public synchronized void close() {
+    for (Segment segment : segments.values().toArray(new Segment[0])) {
+      if (persistent) {
+        segment.buffer.force();
+      }
+      else {
+        deleteSegment(segment);
+      }
+    }
+    segments.clear();
+    index.clear();
+    current = null;
+    try {
+      lockChannel.close();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("释放会话文件目录锁失败: " + directory, e);
+    }
+  }
+
+  private static FileChannel lock(Path directory) throws IOException {
+    FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    }
+    catch (OverlappingFileLockException e) {
+      // 同一个进程中的其它实例
+      lock = null;
+    }
+    catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IllegalStateException("会话文件目录正在被其它实例使用: " + directory);
+    }
+    return channel;
+  }
+
+  /**
+   * 记录标记为删除，更新有效字节数
+   */
+  private void release(Location location) {
+    int length = location.recordLength();
+    storedBytes -= length;
+    Segment segment = segments.get(location.segment);
+    segment.buffer.put(location.offset + 4, DEAD);
+    segment.liveBytes -= length;
+    if (segment.liveBytes == 0 && segment != current) {
+      deleteSegment(segment);
+    }
+  }
+
+  /**
+   * 当前段放不下时新建一个段
+   */
+  private Segment reserve(int length) {
+    Segment segment = current;
+    if (segment == null || segment.buffer.capacity() - segment.position < length) {
+      segment = createSegment();
+      current = segment;
+    }
+    return segment;
+  }
+
+  /**
+   * 把有效数据不到一半的段中的记录搬到当前段，然后删除这些段
+   */
+  private void compact() {
+    for (Segment segment : segments.values().toArray(new Segment[0])) {
+      if (segment != current && segment.liveBytes < segmentSize / 2 && segments.containsKey(segment.id)) {
+        moveLiveRecords(segment);
+      }
+    }
+  }
+
+  private void moveLiveRecords(Segment source) {
+    MappedByteBuffer buffer = source.buffer;
+    int offset = 0;
+    while (offset < source.position && source.liveBytes > 0) {
+      int length = buffer.getInt(offset);
+      int keyLength = buffer.getShort(offset + 21);
+      int recordLength = HEADER_SIZE + keyLength + length;
+      if (buffer.get(offset + 4) == LIVE) {
+        byte[] record = new byte[recordLength];
+        buffer.get(offset, record);
+        String key = new String(record, HEADER_SIZE, keyLength, StandardCharsets.UTF_8);
+        Location location = index.get(key);
+        if (location != null && location.segment == source.id && location.offset == offset) {
+          Segment target = reserve(recordLength);
+          int targetOffset = target.position;
+          // 和 put 一样最后写入状态，中途崩溃时两份相同的数据恢复时只保留一份
+          record[4] = END;
+          target.buffer.put(targetOffset, record);
+          target.buffer.put(targetOffset + 4, LIVE);
+          target.position += recordLength;
+          target.liveBytes += recordLength;
+          index.put(key, new Location(target.id, targetOffset, keyLength, length, location.expiresAt));
+          source.liveBytes -= recordLength;
+        }
+        buffer.put(offset + 4, DEAD);
+      }
+      offset += recordLength;
+    }
+    deleteSegment(source);
+  }
+
+  private Segment createSegment() {
+    if (current != null && current.liveBytes == 0) {
+      deleteSegment(current);
+    }
+    int id = nextSegmentId++;
+    Segment segment = mapSegment(id, directory.resolve(id + SUFFIX), true);
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private Segment mapSegment(int id, Path path, boolean create) {
+    StandardOpenOption option = create ? StandardOpenOption.CREATE_NEW : StandardOpenOption.READ;
+    try (FileChannel channel = FileChannel.open(path, option, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = create ? segmentSize : channel.size();
+      // 映射在通道关闭后仍然有效
+      return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("映射会话文件失败: " + path, e);
+    }
+  }
+
+  private void deleteSegment(Segment segment) {
+    segments.remove(segment.id);
+    if (segment == current) {
+      current = null;
+    }
+    try {
+      // 映射在 GC 回收 buffer 时释放
+      Files.deleteIfExists(segment.path);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("删除会话文件失败: " + segment.path, e);
+    }
+  }
+
+  private record Location(int segment, int offset, int keyLength, int length, long expiresAt) {
+
+    int dataOffset() {
+      return offset + HEADER_SIZE + keyLength;
+    }
+
+    int recordLength() {
+      return HEADER_SIZE + keyLength + length;
+    }
+
+  }
+
+  private static final class Segment {
+
+    final int id;
+
+    final Path path;
+
+    final MappedByteBuffer buffer;
+
+    int position;
+
+    int liveBytes;
+
+    Segment(int id, Path path, MappedByteBuffer buffer) {
+      this.id = id;
+      this.path = path;
+      this.buffer = buffer;
+    }
+
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.session.SessionIdResolver;
+import infra.session.SessionManager;
+import infra.session.WebSession;
+import infra.web.RequestContext;
+
+/**
+ * 查找当前请求的登录用户
+ * <p>
+ * 启用了 {@link AuthTokenService} 并且 {@code X-Auth-Token} 是签名令牌时只校验令牌，
+ * 不访问会话存储；否则从会话中查找。
+ * <p>
+ * 结果保存在请求属性中，拦截器、参数解析器等在同一个请求中多次查找时只解析一次会话 ID 和读取一次存储。
+ * 请求中登录或者退出之后调用 {@link #forget(RequestContext)}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 02:20
+ */
+public class PrincipalResolver {
+
+  static final String ATTRIBUTE = PrincipalResolver.class.getName() + ".PRINCIPAL";
+
+  /** 没有登录 */
+  private static final Object ANONYMOUS = new Object();
+
+  private final SessionManager sessionManager;
+
+  @Nullable
+  private final AuthTokenService authTokenService;
+
+  public PrincipalResolver(SessionManager sessionManager, @Nullable AuthTokenService authTokenService) {
+    Assert.notNull(sessionManager, "SessionManager is required");
+    this.sessionManager = sessionManager;
+    this.authTokenService = authTokenService;
+  }
+
+  /**
+   * 查找当前请求的登录用户
+   */
+  @Nullable
+  public UserPrincipal find(RequestContext request) {
+    Object attribute = request.getAttribute(ATTRIBUTE);
+    if (attribute == null) {
+      UserPrincipal principal = resolve(request);
+      request.setAttribute(ATTRIBUTE, principal != null ? principal : ANONYMOUS);
+      return principal;
+    }
+    return attribute instanceof UserPrincipal principal ? principal : null;
+  }
+
+  /**
+   * 丢弃当前请求中保存的结果，下次查找时重新解析
+   */
+  public void forget(RequestContext request) {
+    request.removeAttribute(ATTRIBUTE);
+  }
+
+  @Nullable
+  UserPrincipal resolve(RequestContext request) {
+    if (authTokenService != null) {
+      String token = getSignedToken(request);
+      if (token != null) {
+        return authTokenService.verify(token);
+      }
+    }
+    WebSession session = sessionManager.getSession(request, false);
+    return UserPrincipal.find(session);
+  }
+
+  public boolean isPresent(RequestContext request) {
+    return find(request) != null;
+  }
+
+  /**
+   * 获取请求中的签名令牌
+   */
+  @Nullable
+  public String getSignedToken(RequestContext request) {
+    String token = request.requestHeaders().getFirst(SessionIdResolver.HEADER_X_AUTH_TOKEN);
+    return AuthTokenService.isSignedToken(token) ? token : null;
+  }
+
+  public SessionManager getSessionManager() {
+    return sessionManager;
+  }
+
+  @Nullable
+  public AuthTokenService getAuthTokenService() {
+    return authTokenService;
+  }
+
+}
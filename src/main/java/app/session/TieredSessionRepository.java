@@ -0,0 +1,694 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import app.model.User;
+import app.util.TimerWheel;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+import infra.session.MapSession;
+import infra.session.SessionEventDispatcher;
+import infra.session.SessionIdGenerator;
+import infra.session.SessionRepository;
+import infra.session.WebSession;
+
+/**
+ * 分层的会话存储
+ * <p>
+ * 热层在堆内，数量不超过 {@code maxHotSessions}，按会话 ID 哈希分散到多个分段，
+ * 每个分段一把锁、一个按访问顺序排列的 {@link LinkedHashMap}；
+ * 超过容量的会话和空闲超过 {@link #setSpillAfter(Duration) spillAfter} 的会话序列化后写入冷层
+ * {@link MappedSessionFile}，再次访问时读回热层。
+ * <p>
+ * 过期由 {@link TimerWheel} 处理，每个会话在时间轮中只有一个任务，到期时检查实际的最后访问时间，
+ * 没有过期的重新放回时间轮，不需要扫描所有会话。
+ * <p>
+ * 持久化时关闭前热层的会话全部写入冷层，启动时只读取冷层的记录头重建索引，
+ * 会话在第一次访问时才反序列化，已经过期的会话不会被反序列化
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 03:40
+ */
+public class TieredSessionRepository implements SessionRepository, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(TieredSessionRepository.class);
+
+  static final int STRIPES = 16;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final SessionEventDispatcher eventDispatcher;
+
+  private final SessionIdGenerator idGenerator;
+
+  private final MappedSessionFile coldTier;
+
+  /** 加锁访问 */
+  private final TimerWheel<Expiration> expirations;
+
+  /** 时间轮的起点，时间轮中是相对的纳秒 */
+  private final long epoch;
+
+  private final LongSupplier clock;
+
+  private final boolean persistent;
+
+  private final LongAdder spilled = new LongAdder();
+
+  private final LongAdder faulted = new LongAdder();
+
+  private final LongAdder expired = new LongAdder();
+
+  @Nullable
+  private ScheduledExecutorService scheduler;
+
+  private Duration maxIdleTime = Duration.ofMinutes(30);
+
+  private long spillAfter = Duration.ofMinutes(10).toMillis();
+
+  /** 恢复的会话 ID 和所属用户 ID，由 {@link UserSessionRegistry} 取走 */
+  @Nullable
+  private Map<String, Long> restoredOwners;
+
+  private int restoredCount;
+
+  private long restoredBytes;
+
+  private int droppedOnRestore;
+
+  private Duration restoreTime = Duration.ZERO;
+
+  /**
+   * @param directory 冷层文件的目录
+   * @param maxHotSessions 热层最多的会话数
+   */
+  public TieredSessionRepository(SessionEventDispatcher eventDispatcher, SessionIdGenerator idGenerator,
+          Path directory, int maxHotSessions) {
+    this(eventDispatcher, idGenerator, directory, maxHotSessions, false);
+  }
+
+  /**
+   * @param directory 冷层文件的目录
+   * @param maxHotSessions 热层最多的会话数
+   * @param persistent 重启之后是否恢复会话
+   */
+  public TieredSessionRepository(SessionEventDispatcher eventDispatcher, SessionIdGenerator idGenerator,
+          Path directory, int maxHotSessions, boolean persistent) {
+    this(eventDispatcher, idGenerator, directory, maxHotSessions, 64 << 20, persistent, System::currentTimeMillis);
+  }
+
+  TieredSessionRepository(SessionEventDispatcher eventDispatcher, SessionIdGenerator idGenerator,
+          Path directory, int maxHotSessions, int segmentSize, boolean persistent, LongSupplier clock) {
+    Assert.notNull(eventDispatcher, "SessionEventDispatcher is required");
+    Assert.notNull(idGenerator, "SessionIdGenerator is required");
+    Assert.isTrue(maxHotSessions >= STRIPES, "热层会话数不能小于 " + STRIPES);
+    this.eventDispatcher = eventDispatcher;
+    this.idGenerator = idGenerator;
+    this.clock = clock;
+    this.persistent = persistent;
+    this.coldTier = new MappedSessionFile(directory, segmentSize, persistent);
+    this.epoch = clock.getAsLong();
+    this.expirations = new TimerWheel<>(0, () -> new Expiration(null, 0));
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(maxHotSessions / STRIPES);
+    }
+    if (persistent) {
+      restore();
+    }
+  }
+
+  /**
+   * 会话的最大空闲时间，默认 30 分钟
+   */
+  public void setSessionMaxIdleTime(Duration maxIdleTime) {
+    Assert.isTrue(maxIdleTime.toMillis() > 0, "最大空闲时间必须大于 0");
+    this.maxIdleTime = maxIdleTime;
+  }
+
+  /**
+   * 空闲多久之后移到冷层，默认 10 分钟
+   */
+  public void setSpillAfter(Duration spillAfter) {
+    Assert.isTrue(spillAfter.toMillis() > 0, "spillAfter 必须大于 0");
+    this.spillAfter = spillAfter.toMillis();
+  }
+
+  /**
+   * 启动后台线程推进时间轮
+   */
+  public synchronized void start() {
+    if (scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-expiration");
+        thread.setDaemon(true);
+        return thread;
+      });
+      scheduler.scheduleWithFixedDelay(() -> {
+        try {
+          expireSessions();
+        }
+        catch (RuntimeException e) {
+          log.warn("Failed to expire sessions", e);
+        }
+      }, 1, 1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public WebSession createSession() {
+    return createSession(idGenerator.generateId());
+  }
+
+  @Override
+  public WebSession createSession(String id) {
+    long now = clock.getAsLong();
+    TieredSession session = new TieredSession(id, this);
+    session.setMaxIdleTime(maxIdleTime);
+    session.setLastAccessTime(Instant.ofEpochMilli(now));
+
+    Stripe stripe = stripe(id);
+    synchronized (stripe) {
+      stripe.sessions.put(id, session);
+    }
+    scheduleExpiration(id, now + Math.min(spillAfter, maxIdleTime.toMillis()));
+    eventDispatcher.onSessionCreated(session);
+    return session;
+  }
+
+  @Nullable
+  @Override
+  public WebSession retrieveSession(String id) {
+    long now = clock.getAsLong();
+    TieredSession session;
+    Stripe stripe = stripe(id);
+    synchronized (stripe) {
+      session = stripe.sessions.get(id);
+      if (session == null) {
+        session = faultIn(id);
+        if (session == null) {
+          return null;
+        }
+      }
+      if (!isExpired(session, now)) {
+        return session;
+      }
+      stripe.sessions.remove(id);
+    }
+    expired.increment();
+    eventDispatcher.onSessionDestroyed(session);
+    return null;
+  }
+
+  @Nullable
+  @Override
+  public WebSession removeSession(String id) {
+    TieredSession session;
+    Stripe stripe = stripe(id);
+    synchronized (stripe) {
+      session = stripe.sessions.remove(id);
+      if (session == null) {
+        session = decode(id, coldTier.take(id));
+      }
+    }
+    if (session != null) {
+      session.removed = true;
+      eventDispatcher.onSessionDestroyed(session);
+    }
+    return session;
+  }
+
+  @Override
+  public void updateLastAccessTime(WebSession session) {
+    session.setLastAccessTime(Instant.ofEpochMilli(clock.getAsLong()));
+  }
+
+  @Override
+  public boolean contains(String id) {
+    Stripe stripe = stripe(id);
+    synchronized (stripe) {
+      return stripe.sessions.containsKey(id) || coldTier.contains(id);
+    }
+  }
+
+  @Override
+  public int getSessionCount() {
+    return getHotSessionCount() + coldTier.size();
+  }
+
+  @Override
+  public String[] getIdentifiers() {
+    ArrayList<String> identifiers = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        identifiers.addAll(stripe.sessions.keySet());
+      }
+    }
+    Collections.addAll(identifiers, coldTier.keys());
+    return identifiers.toArray(new String[0]);
+  }
+
+  /**
+   * 处理时间轮中到期的会话，{@link #start()} 之后每秒执行一次
+   */
+  public void expireSessions() {
+    long now = clock.getAsLong();
+    for (String id : advanceExpirations(now)) {
+      check(id, now);
+    }
+  }
+
+  public int getHotSessionCount() {
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        count += stripe.sessions.size();
+      }
+    }
+    return count;
+  }
+
+  public int getColdSessionCount() {
+    return coldTier.size();
+  }
+
+  /**
+   * 冷层有效数据的字节数
+   */
+  public long getColdStoredBytes() {
+    return coldTier.getStoredBytes();
+  }
+
+  /**
+   * 移到冷层的次数
+   */
+  public long getSpilledCount() {
+    return spilled.sum();
+  }
+
+  /**
+   * 从冷层读回的次数
+   */
+  public long getFaultedCount() {
+    return faulted.sum();
+  }
+
+  public long getExpiredCount() {
+    return expired.sum();
+  }
+
+  /**
+   * 启动时恢复的会话数
+   */
+  public int getRestoredCount() {
+    return restoredCount;
+  }
+
+  /**
+   * 启动时恢复的会话的字节数
+   */
+  public long getRestoredBytes() {
+    return restoredBytes;
+  }
+
+  /**
+   * 启动时已经过期、没有反序列化直接删除的会话数
+   */
+  public int getDroppedOnRestore() {
+    return droppedOnRestore;
+  }
+
+  /**
+   * 启动时重建索引的耗时
+   */
+  public Duration getRestoreTime() {
+    return restoreTime;
+  }
+
+  /**
+   * 持久化时热层的会话写入冷层，保留冷层文件
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+        scheduler = null;
+      }
+    }
+    if (persistent) {
+      for (Stripe stripe : stripes) {
+        synchronized (stripe) {
+          stripe.sessions.values().removeIf(this::spill);
+        }
+      }
+    }
+    coldTier.close();
+  }
+
+  /**
+   * 取走启动时恢复的会话所属的用户，只能取一次
+   */
+  synchronized Map<String, Long> takeRestoredOwners() {
+    Map<String, Long> owners = restoredOwners;
+    restoredOwners = null;
+    return owners != null ? owners : Map.of();
+  }
+
+  /**
+   * 时间轮中的任务到期，检查会话实际的过期时间
+   */
+  private void check(String id, long now) {
+    TieredSession destroyed = null;
+    Stripe stripe = stripe(id);
+    synchronized (stripe) {
+      TieredSession session = stripe.sessions.get(id);
+      if (session != null) {
+        long lastAccessTime = session.getLastAccessTime().toEpochMilli();
+        long expiresAt = lastAccessTime + session.getMaxIdleTime().toMillis();
+        if (now >= expiresAt) {
+          stripe.sessions.remove(id);
+          destroyed = session;
+        }
+        else if (now - lastAccessTime >= spillAfter) {
+          if (spill(session)) {
+            stripe.sessions.remove(id);
+          }
+          scheduleExpiration(id, expiresAt);
+        }
+        else {
+          scheduleExpiration(id, Math.min(lastAccessTime + spillAfter, expiresAt));
+        }
+      }
+      else {
+        long expiresAt = coldTier.getExpiresAt(id);
+        if (expiresAt >= 0) {
+          if (now >= expiresAt) {
+            destroyed = decode(id, coldTier.take(id));
+          }
+          else {
+            scheduleExpiration(id, expiresAt);
+          }
+        }
+      }
+    }
+
+    if (destroyed != null) {
+      expired.increment();
+      eventDispatcher.onSessionDestroyed(destroyed);
+    }
+  }
+
+  /**
+   * 会话 ID 改变之后调用
+   */
+  void rename(String oldId, TieredSession session) {
+    Stripe oldStripe = stripe(oldId);
+    synchronized (oldStripe) {
+      oldStripe.sessions.remove(oldId);
+      coldTier.remove(oldId);
+    }
+    Stripe stripe = stripe(session.getId());
+    synchronized (stripe) {
+      stripe.sessions.put(session.getId(), session);
+    }
+    scheduleExpiration(session.getId(), clock.getAsLong() + Math.min(spillAfter, maxIdleTime.toMillis()));
+  }
+
+  /**
+   * 只读取冷层的记录头，会话在第一次访问时反序列化
+   */
+  private void restore() {
+    long start = System.nanoTime();
+    HashMap<String, Long> owners = new HashMap<>();
+    droppedOnRestore = coldTier.restore(clock.getAsLong(), (id, owner) -> {
+      scheduleExpiration(id, coldTier.getExpiresAt(id));
+      if (owner != 0) {
+        owners.put(id, owner);
+      }
+    });
+    restoredOwners = owners;
+    restoredCount = coldTier.size();
+    restoredBytes = coldTier.getStoredBytes();
+    restoreTime = Duration.ofNanos(System.nanoTime() - start);
+    log.info("Restored {} sessions ({} bytes) in {} ms, dropped {} expired sessions",
+            restoredCount, restoredBytes, restoreTime.toMillis(), droppedOnRestore);
+  }
+
+  /**
+   * 已经移到冷层的会话对象被修改了，放回热层，丢弃冷层中的旧数据
+   */
+  void restore(TieredSession session) {
+    Stripe stripe = stripe(session.getId());
+    synchronized (stripe) {
+      if (!session.removed && coldTier.remove(session.getId())) {
+        session.spilled = false;
+        stripe.sessions.put(session.getId(), session);
+      }
+    }
+  }
+
+  @Nullable
+  private TieredSession faultIn(String id) {
+    TieredSession session = decode(id, coldTier.take(id));
+    if (session != null) {
+      faulted.increment();
+      stripe(id).sessions.put(id, session);
+    }
+    return session;
+  }
+
+  /**
+   * 写入冷层，调用方持有分段的锁
+   */
+  private boolean spill(TieredSession session) {
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+      try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+        stream.writeObject(session);
+      }
+      long expiresAt = session.getLastAccessTime().toEpochMilli() + session.getMaxIdleTime().toMillis();
+      coldTier.put(session.getId(), output.toByteArray(), expiresAt, ownerOf(session));
+      session.spilled = true;
+      spilled.increment();
+      return true;
+    }
+    catch (IOException | RuntimeException e) {
+      // 属性不能序列化或者磁盘写入失败，留在热层
+      log.warn("Failed to spill session {} to disk", session.getId(), e);
+      return false;
+    }
+  }
+
+  @Nullable
+  private TieredSession decode(String id, @Nullable byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      TieredSession session = (TieredSession) stream.readObject();
+      session.repository = this;
+      return session;
+    }
+    catch (IOException | ClassNotFoundException e) {
+      log.warn("Failed to read session {} from disk, discarded", id, e);
+      return null;
+    }
+  }
+
+  /**
+   * 会话所属的用户 ID，没有登录时为 0
+   */
+  private static long ownerOf(TieredSession session) {
+    Object attribute = session.getAttribute(User.KEY);
+    if (attribute instanceof UserPrincipal principal) {
+      return principal.id();
+    }
+    if (attribute instanceof User user && user.getId() != null) {
+      return user.getId();
+    }
+    return 0;
+  }
+
+  private void scheduleExpiration(String id, long deadline) {
+    Expiration expiration = new Expiration(id, TimeUnit.MILLISECONDS.toNanos(deadline - epoch));
+    synchronized (expirations) {
+      expirations.schedule(expiration);
+    }
+  }
+
+  /**
+   * @return 到期的会话 ID
+   */
+  private List<String> advanceExpirations(long now) {
+    ArrayList<String> ids = new ArrayList<>();
+    synchronized (expirations) {
+      expirations.advance(TimeUnit.MILLISECONDS.toNanos(now - epoch), expiration -> ids.add(expiration.id));
+    }
+    return ids;
+  }
+
+  private boolean isExpired(TieredSession session, long now) {
+    return now - session.getLastAccessTime().toEpochMilli() >= session.getMaxIdleTime().toMillis();
+  }
+
+  private Stripe stripe(String id) {
+    int hash = id.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+  }
+
+  private final class Stripe {
+
+    final LinkedHashMap<String, TieredSession> sessions;
+
+    Stripe(int capacity) {
+      this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TieredSession> eldest) {
+          // 超过容量时最久没有访问的会话移到冷层
+          return size() > capacity && spill(eldest.getValue());
+        }
+      };
+    }
+
+  }
+
+  /**
+   * 时间轮中的过期任务，到期之后丢弃
+   */
+  private static final class Expiration implements TimerWheel.Node<Expiration> {
+
+    @Nullable
+    final String id;
+
+    final long deadline;
+
+    @Nullable
+    Expiration previous;
+
+    @Nullable
+    Expiration next;
+
+    Expiration(@Nullable String id, long deadline) {
+      this.id = id;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public long getDeadline() {
+      return deadline;
+    }
+
+    @Nullable
+    @Override
+    public Expiration getPrevious() {
+      return previous;
+    }
+
+    @Override
+    public void setPrevious(@Nullable Expiration previous) {
+      this.previous = previous;
+    }
+
+    @Nullable
+    @Override
+    public Expiration getNext() {
+      return next;
+    }
+
+    @Override
+    public void setNext(@Nullable Expiration next) {
+      this.next = next;
+    }
+
+  }
+
+  /**
+   * 会话对象，被移到冷层之后再修改属性时放回热层
+   */
+  static final class TieredSession extends MapSession {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    transient TieredSessionRepository repository;
+
+    transient volatile boolean spilled;
+
+    transient volatile boolean removed;
+
+    TieredSession(String id, TieredSessionRepository repository) {
+      super(id);
+      this.repository = repository;
+    }
+
+    @Override
+    public void setAttribute(String name, @Nullable Object value) {
+      super.setAttribute(name, value);
+      if (spilled) {
+        repository.restore(this);
+      }
+    }
+
+    @Nullable
+    @Override
+    public Object removeAttribute(String name) {
+      Object value = super.removeAttribute(name);
+      if (spilled) {
+        repository.restore(this);
+      }
+      return value;
+    }
+
+    @Override
+    public void changeSessionId() {
+      String oldId = getId();
+      super.changeSessionId();
+      repository.rename(oldId, this);
+    }
+
+    @Override
+    public void invalidate() {
+      repository.removeSession(getId());
+    }
+
+  }
+
+}
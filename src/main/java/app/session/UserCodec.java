@@ -0,0 +1,256 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import app.model.UserStatus;
+
+/**
+ * {@link UserPrincipal} 的二进制编码
+ * <p>
+ * 格式：版本号（1 字节）、标志位（目前为 0）、ID、用户名、姓名（没有时为空字符串）、状态、资料版本。
+ * 整数使用 zigzag varint，字符串为 varint 长度加 UTF-8，{@link UserStatus} 只写它的
+ * {@link UserStatus#getValue() 值}；格式不兼容时增加版本号。
+ * <p>
+ * 会话使用 Java 序列化持久化时通过 {@link SerializedForm} 写出，签名令牌中也是同样的字段
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see SerializedForm
+ * @since 1.0 2026/10/17 00:10
+ */
+public final class UserCodec {
+
+  static final int VERSION = 1;
+
+  /** 编码后的最大长度，读取时超过这个长度的数据直接拒绝，不分配缓冲区 */
+  static final int MAX_LENGTH = 4096;
+
+  private UserCodec() {
+  }
+
+  public static byte[] encode(UserPrincipal principal) {
+    Output out = new Output(32);
+    out.writeByte(VERSION);
+    out.writeByte(0);
+    writePrincipal(out, principal);
+    return out.toByteArray();
+  }
+
+  /**
+   * @throws IllegalArgumentException 数据不完整或者版本不支持
+   */
+  public static UserPrincipal decodePrincipal(byte[] data) {
+    Input in = new Input(data, 0, data.length);
+    int version = in.readByte();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported user codec version: " + version);
+    }
+    in.readByte();
+    return readPrincipal(in);
+  }
+
+  static void writePrincipal(Output out, UserPrincipal principal) {
+    out.writeZigzag(principal.id());
+    out.writeString(principal.username());
+    out.writeString(principal.name() != null ? principal.name() : "");
+    out.writeVarint(principal.status().getValue());
+    out.writeVarint(principal.version());
+  }
+
+  static UserPrincipal readPrincipal(Input in) {
+    long id = in.readZigzag();
+    String username = in.readString();
+    String name = in.readString();
+    int value = in.readVarint();
+    UserStatus status = UserStatus.valueOf(value);
+    if (status == null) {
+      throw new IllegalArgumentException("Unknown user status: " + value);
+    }
+    long version = in.readVarlong();
+    return new UserPrincipal(id, username, name.isEmpty() ? null : name, status, version);
+  }
+
+  /**
+   * {@link UserPrincipal} 的序列化代理，会话使用 Java 序列化持久化时写出的是编码后的数据，
+   * 而不是 record 的类描述和字段
+   */
+  public static final class SerializedForm implements Externalizable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private byte[] data;
+
+    public SerializedForm() {
+      this.data = new byte[0];
+    }
+
+    public SerializedForm(UserPrincipal principal) {
+      this.data = encode(principal);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+      out.writeInt(data.length);
+      out.write(data);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+      int length = in.readInt();
+      if (length < 0 || length > MAX_LENGTH) {
+        throw new InvalidObjectException("Invalid user principal length: " + length);
+      }
+      byte[] data = new byte[length];
+      in.readFully(data);
+      this.data = data;
+    }
+
+    @Serial
+    private Object readResolve() throws ObjectStreamException {
+      try {
+        return decodePrincipal(data);
+      }
+      catch (IllegalArgumentException e) {
+        InvalidObjectException ex = new InvalidObjectException(e.getMessage());
+        ex.initCause(e);
+        throw ex;
+      }
+    }
+
+  }
+
+  static final class Output {
+
+    byte[] buffer;
+
+    int size;
+
+    Output(int capacity) {
+      this.buffer = new byte[capacity];
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, 0, buffer, size, length);
+      size += length;
+    }
+
+    void writeVarint(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    void writeZigzag(long value) {
+      writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(bytes.length);
+      writeBytes(bytes, bytes.length);
+    }
+
+    byte[] toByteArray() {
+      return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+      }
+    }
+
+  }
+
+  static final class Input {
+
+    final byte[] data;
+
+    final int limit;
+
+    int position;
+
+    Input(byte[] data, int offset, int limit) {
+      this.data = data;
+      this.position = offset;
+      this.limit = limit;
+    }
+
+    int readByte() {
+      if (position >= limit) {
+        throw new IllegalArgumentException("Truncated data");
+      }
+      return data[position++] & 0xFF;
+    }
+
+    long readVarlong() {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = readByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint");
+    }
+
+    int readVarint() {
+      long value = readVarlong();
+      if (value < 0 || value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Malformed varint");
+      }
+      return (int) value;
+    }
+
+    long readZigzag() {
+      long value = readVarlong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+      int length = readVarint();
+      if (length > limit - position) {
+        throw new IllegalArgumentException("Truncated data");
+      }
+      String value = new String(data, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+import app.model.User;
+import app.model.UserStatus;
+import app.web.UnauthorizedException;
+import infra.core.AttributeAccessor;
+import infra.lang.Nullable;
+
+/**
+ * 保存在会话中的登录用户
+ * <p>
+ * 只包含鉴权需要的字段，头像、介绍等资料通过 {@link UserProfileCache} 按需加载。
+ * {@code version} 是资料的版本，资料修改后重新绑定新版本的 {@code UserPrincipal}，
+ * 缓存中旧版本的资料随之失效。
+ * <p>
+ * Java 序列化时写出 {@link UserCodec} 编码后的数据，见 {@link UserCodec.SerializedForm}
+ *
+ * @param id 用户 ID
+ * @param username 用户名
+ * @param name 姓名或者昵称
+ * @param status 登录时的状态
+ * @param version 资料的版本
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 01:00
+ */
+public record UserPrincipal(long id, String username, @Nullable String name, UserStatus status, long version)
+        implements Serializable {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Java 序列化时使用 {@link UserCodec} 编码
+   */
+  @Serial
+  private Object writeReplace() {
+    return new UserCodec.SerializedForm(this);
+  }
+
+  public static UserPrincipal of(User user) {
+    Instant updateAt = user.getUpdateAt();
+    return new UserPrincipal(user.getId(), user.getUsername(), user.getName(), user.getStatus(),
+            updateAt != null ? updateAt.toEpochMilli() : 0);
+  }
+
+  /**
+   * 资料修改之后的新版本
+   */
+  public UserPrincipal withProfile(User user) {
+    return new UserPrincipal(id, username, user.getName(), status, version + 1);
+  }
+
+  /**
+   * 修改状态之后的副本，资料不变，版本也不变
+   */
+  public UserPrincipal withStatus(UserStatus status) {
+    return new UserPrincipal(id, username, name, status, version);
+  }
+
+  /**
+   * 绑定到会话
+   */
+  public void bindTo(AttributeAccessor accessor) {
+    accessor.setAttribute(User.KEY, this);
+  }
+
+  // Static
+
+  /**
+   * 查找登录会话
+   */
+  @Nullable
+  public static UserPrincipal find(@Nullable AttributeAccessor accessor) {
+    if (accessor != null) {
+      Object attribute = accessor.getAttribute(User.KEY);
+      if (attribute instanceof UserPrincipal principal) {
+        return principal;
+      }
+      if (attribute instanceof User user) {
+        // 升级之前持久化的会话
+        UserPrincipal principal = of(user);
+        principal.bindTo(accessor);
+        return principal;
+      }
+    }
+    return null;
+  }
+
+  public static UserPrincipal obtain(@Nullable AttributeAccessor accessor) {
+    UserPrincipal principal = find(accessor);
+    if (principal == null) {
+      throw new UnauthorizedException();
+    }
+    return principal;
+  }
+
+}
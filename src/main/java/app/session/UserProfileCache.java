@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongFunction;
+
+import app.model.User;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 登录用户的完整资料缓存
+ * <p>
+ * 会话中只保存 {@link UserPrincipal}，需要 {@link User} 参数时从这里获取。
+ * 缓存的版本和 {@link UserPrincipal#version()} 不一致时重新加载，
+ * 其它地方修改了用户（比如后台修改状态）时调用 {@link #invalidate(long)}。
+ * 缓存中的 {@link User} 不包含密码
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 01:10
+ */
+public class UserProfileCache {
+
+  private final LongFunction<User> loader;
+
+  private final Cache<Long, Profile> profiles;
+
+  /**
+   * @param loader 根据 ID 加载用户，用户不存在时返回 {@code null}
+   * @param maximumSize 最多缓存的用户数
+   * @param expireAfterAccess 多久没有访问后移除
+   */
+  public UserProfileCache(LongFunction<User> loader, long maximumSize, Duration expireAfterAccess) {
+    Assert.notNull(loader, "loader is required");
+    this.loader = loader;
+    this.profiles = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterAccess(expireAfterAccess)
+            .build();
+  }
+
+  /**
+   * 获取登录用户的资料
+   *
+   * @return 用户已经被删除时返回 {@code null}
+   */
+  @Nullable
+  public User get(UserPrincipal principal) {
+    Profile profile = profiles.getIfPresent(principal.id());
+    if (profile == null || profile.version != principal.version()) {
+      User user = loader.apply(principal.id());
+      if (user == null) {
+        profiles.invalidate(principal.id());
+        return null;
+      }
+      put(principal, user);
+      return user;
+    }
+    return profile.user;
+  }
+
+  /**
+   * 放入刚刚从数据库查询出来的资料，比如登录时
+   */
+  public void put(UserPrincipal principal, User user) {
+    user.setPassword(null);
+    profiles.put(principal.id(), new Profile(principal.version(), user));
+  }
+
+  /**
+   * 用户资料修改之后调用
+   */
+  public void invalidate(long id) {
+    profiles.invalidate(id);
+  }
+
+  public long size() {
+    return profiles.estimatedSize();
+  }
+
+  private record Profile(long version, User user) {
+
+  }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.session.SessionRepository;
+import infra.session.WebSession;
+import infra.session.WebSessionListener;
+
+/**
+ * 用户 ID 到登录会话 ID 的索引
+ * <p>
+ * 登录时通过 {@link #bind(UserPrincipal, WebSession)} 登记，会话销毁或者过期时自动移除。
+ * 修改用户状态、删除用户、修改密码之后只需要处理该用户自己的会话，
+ * 不用每次请求都查询数据库确认用户是否还有效。
+ * 启用了 {@link AuthTokenService} 时销毁会话的同时撤销该用户的签名令牌。
+ * <p>
+ * 使用持久化的 {@link TieredSessionRepository} 时，第一次查询时登记重启之前的会话；
+ * 使用 {@link JdbcSessionRepository} 时还要查询数据库，包括该用户在其它节点上登录的会话
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 05:10
+ */
+public class UserSessionRegistry implements WebSessionListener {
+
+  /** 延迟获取，{@link SessionRepository} 依赖的事件分发器又依赖本类 */
+  private final Supplier<SessionRepository> sessionRepository;
+
+  private final ConcurrentHashMap<Long, Set<String>> sessions = new ConcurrentHashMap<>();
+
+  /** 会话 ID 到用户 ID，会话销毁时用于清理 */
+  private final ConcurrentHashMap<String, Long> owners = new ConcurrentHashMap<>();
+
+  @Nullable
+  private final AuthTokenService authTokenService;
+
+  private volatile boolean restored;
+
+  public UserSessionRegistry(Supplier<SessionRepository> sessionRepository) {
+    this(sessionRepository, null);
+  }
+
+  public UserSessionRegistry(Supplier<SessionRepository> sessionRepository, @Nullable AuthTokenService authTokenService) {
+    Assert.notNull(sessionRepository, "SessionRepository is required");
+    this.sessionRepository = sessionRepository;
+    this.authTokenService = authTokenService;
+  }
+
+  /**
+   * 将登录用户绑定到会话并登记
+   */
+  public void bind(UserPrincipal principal, WebSession session) {
+    principal.bindTo(session);
+    register(principal.id(), session.getId());
+  }
+
+  /**
+   * 用户当前的会话 ID
+   */
+  public List<String> getSessionIds(long userId) {
+    if (!restored) {
+      registerRestored();
+    }
+    Set<String> ids = sessions.get(userId);
+    if (sessionRepository.get() instanceof JdbcSessionRepository repository) {
+      LinkedHashSet<String> all = ids != null ? new LinkedHashSet<>(ids) : new LinkedHashSet<>();
+      all.addAll(repository.findSessionIds(userId));
+      return new ArrayList<>(all);
+    }
+    return ids != null ? new ArrayList<>(ids) : List.of();
+  }
+
+  /**
+   * 更新该用户所有会话中的 {@link UserPrincipal}
+   *
+   * @return 更新的会话数
+   */
+  public int refresh(long userId, UnaryOperator<UserPrincipal> updater) {
+    int count = 0;
+    for (String sessionId : getSessionIds(userId)) {
+      WebSession session = sessionRepository.get().retrieveSession(sessionId);
+      UserPrincipal principal = UserPrincipal.find(session);
+      if (principal != null && principal.id() == userId) {
+        updater.apply(principal).bindTo(session);
+        count++;
+      }
+      else {
+        // 已经过期或者退出登录
+        unregister(sessionId);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 销毁该用户所有的会话，撤销该用户所有的签名令牌
+   *
+   * @param exceptSessionId 保留的会话，一般是当前请求的会话
+   * @return 销毁的会话数
+   */
+  public int invalidate(long userId, @Nullable String exceptSessionId) {
+    if (authTokenService != null) {
+      authTokenService.revokeAll(userId);
+    }
+    int count = 0;
+    for (String sessionId : getSessionIds(userId)) {
+      if (!sessionId.equals(exceptSessionId)) {
+        unregister(sessionId);
+        if (sessionRepository.get().removeSession(sessionId) != null) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 登记的会话数
+   */
+  public int size() {
+    return owners.size();
+  }
+
+  @Override
+  public void sessionDestroyed(WebSession session) {
+    unregister(session.getId());
+  }
+
+  private synchronized void registerRestored() {
+    if (!restored) {
+      if (sessionRepository.get() instanceof TieredSessionRepository repository) {
+        repository.takeRestoredOwners().forEach((sessionId, userId) -> register(userId, sessionId));
+      }
+      restored = true;
+    }
+  }
+
+  private void register(long userId, String sessionId) {
+    Long previous = owners.put(sessionId, userId);
+    if (previous != null && previous != userId) {
+      // 同一个会话换了账号登录
+      remove(previous, sessionId);
+    }
+    sessions.compute(userId, (id, ids) -> {
+      if (ids == null) {
+        ids = ConcurrentHashMap.newKeySet();
+      }
+      ids.add(sessionId);
+      return ids;
+    });
+  }
+
+  private void unregister(String sessionId) {
+    Long userId = owners.remove(sessionId);
+    if (userId != null) {
+      remove(userId, sessionId);
+    }
+  }
+
+  private void remove(long userId, String sessionId) {
+    sessions.computeIfPresent(userId, (id, ids) -> {
+      ids.remove(sessionId);
+      return ids.isEmpty() ? null : ids;
+    });
+  }
+
+}
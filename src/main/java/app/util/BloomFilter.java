@@ -0,0 +1,120 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import infra.lang.Assert;
+
+/**
+ * 字符串的布隆过滤器，可以并发添加和查询
+ * <p>
+ * 位数组是 {@link AtomicLongArray}，添加时只做 CAS 置位，查询不加锁。
+ * 使用一个 128 位哈希的两半做双重哈希得到 {@code k} 个位置
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 22:30
+ */
+public final class BloomFilter {
+
+  private final AtomicLongArray bits;
+
+  private final long bitSize;
+
+  private final int hashFunctions;
+
+  /**
+   * @param expectedInsertions 预计的元素个数
+   * @param falsePositiveRate 期望的误判率
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    Assert.isTrue(expectedInsertions > 0, "预计的元素个数必须大于 0");
+    Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "误判率必须在 0 到 1 之间");
+    long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    Assert.isTrue(bitSize / 64 < Integer.MAX_VALUE, "布隆过滤器过大");
+    int words = (int) Math.max(1, (bitSize + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitSize = words * 64L;
+    this.hashFunctions = Math.max(1, (int) Math.round((double) this.bitSize / expectedInsertions * Math.log(2)));
+  }
+
+  /**
+   * 添加元素
+   */
+  public void put(CharSequence value) {
+    long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+    long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+    long combined = hash1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long index = (combined & Long.MAX_VALUE) % bitSize;
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current = bits.get(word);
+      while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+        current = bits.get(word);
+      }
+      combined += hash2;
+    }
+  }
+
+  /**
+   * 元素是否可能存在，返回 {@code false} 时一定不存在
+   */
+  public boolean mightContain(CharSequence value) {
+    long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+    long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+    long combined = hash1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long index = (combined & Long.MAX_VALUE) % bitSize;
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+      combined += hash2;
+    }
+    return true;
+  }
+
+  /**
+   * 位数组的大小
+   */
+  public long bitSize() {
+    return bitSize;
+  }
+
+  /**
+   * 哈希函数的个数
+   */
+  public int hashFunctions() {
+    return hashFunctions;
+  }
+
+  private static long hash(CharSequence value, long seed) {
+    long hash = seed ^ value.length();
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+      hash = Long.rotateLeft(hash, 29);
+    }
+    // murmur3 finalizer
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+}
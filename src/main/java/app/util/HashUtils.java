@@ -16,13 +16,19 @@
 
 package app.util;
 
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
 
+import infra.lang.Nullable;
 import infra.util.StringUtils;
 
 /**
+ * 两次 MD5 的密码编码
+ * <p>
+ * 每个线程复用一个 {@link MessageDigest}、UTF-8 编码缓冲区和十六进制字符数组，
+ * 除了返回的字符串以外不分配对象；{@link #matches(CharSequence, String)} 连字符串也不创建
+ *
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 22:23
  */
@@ -30,20 +36,64 @@ public abstract class HashUtils {
 
   private static final String MD5_ALGORITHM_NAME = "MD5";
 
-  public static String getEncodedPassword(String password) {
+  private static final int MD5_LENGTH = 16;
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /** 超过这个长度的缓冲区用完不保留，避免个别超长输入一直占用内存 */
+  private static final int MAX_RETAINED_BUFFER = 1024;
+
+  private static final ThreadLocal<Md5> md5 = ThreadLocal.withInitial(Md5::new);
+
+  @Nullable
+  public static String getEncodedPassword(@Nullable String password) {
     if (StringUtils.isEmpty(password)) {
       return password;
     }
+    Md5 md5 = HashUtils.md5.get();
+    return new String(md5.hex, 0, md5.encode(password));
+  }
 
-    MessageDigest digest = getDigest(MD5_ALGORITHM_NAME);
+  /**
+   * 校验密码，和 {@link #getEncodedPassword(String)} 的结果比较，比较时间不随不同的位置变化
+   */
+  public static boolean matches(CharSequence password, @Nullable String encodedPassword) {
+    return matches(HashUtils.md5.get(), password, encodedPassword);
+  }
 
-    digest.update(password.getBytes());
-    byte[] digest1 = digest.digest();
+  /**
+   * 批量校验密码，整批在当前线程完成，只取一次线程缓冲区
+   *
+   * @param passwords 原始密码
+   * @param encodedPasswords 编码后的密码，和 {@code passwords} 一一对应
+   * @return 每个密码是否匹配
+   */
+  public static boolean[] matches(CharSequence[] passwords, String[] encodedPasswords) {
+    if (passwords.length != encodedPasswords.length) {
+      throw new IllegalArgumentException("passwords and encodedPasswords must have the same length");
+    }
+    Md5 md5 = HashUtils.md5.get();
+    boolean[] results = new boolean[passwords.length];
+    for (int i = 0; i < passwords.length; i++) {
+      results[i] = matches(md5, passwords[i], encodedPasswords[i]);
+    }
+    return results;
+  }
 
-    digest.reset();
-    digest.update(digest1);
-    HexFormat hexFormat = HexFormat.of().withUpperCase();
-    return hexFormat.formatHex(digest.digest());
+  private static boolean matches(Md5 md5, CharSequence password, @Nullable String encodedPassword) {
+    if (encodedPassword == null || password.isEmpty()) {
+      return password.isEmpty() && encodedPassword != null && encodedPassword.isEmpty();
+    }
+    int length = md5.encode(password);
+    if (encodedPassword.length() != length) {
+      return false;
+    }
+    int diff = 0;
+    char[] hex = md5.hex;
+    for (int i = 0; i < length; i++) {
+      diff |= hex[i] ^ encodedPassword.charAt(i);
+    }
+    return diff == 0;
   }
 
   private static MessageDigest getDigest(String algorithm) {
@@ -55,4 +105,92 @@ public abstract class HashUtils {
     }
   }
 
+  /**
+   * 每个线程的摘要状态
+   */
+  static final class Md5 {
+
+    final MessageDigest digest = getDigest(MD5_ALGORITHM_NAME);
+
+    final byte[] result = new byte[MD5_LENGTH];
+
+    final char[] hex = new char[MD5_LENGTH * 2];
+
+    byte[] buffer = new byte[64];
+
+    /**
+     * 计算两次 MD5，结果以大写十六进制写入 {@link #hex}
+     *
+     * @return 十六进制字符数
+     */
+    int encode(CharSequence password) {
+      int length = encodeUtf8(password);
+      try {
+        digest.update(buffer, 0, length);
+        digest.digest(result, 0, MD5_LENGTH);
+        digest.update(result, 0, MD5_LENGTH);
+        digest.digest(result, 0, MD5_LENGTH);
+      }
+      catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+      finally {
+        digest.reset();
+        if (buffer.length > MAX_RETAINED_BUFFER) {
+          buffer = new byte[64];
+        }
+      }
+
+      for (int i = 0; i < MD5_LENGTH; i++) {
+        int b = result[i] & 0xFF;
+        hex[i * 2] = HEX_DIGITS[b >>> 4];
+        hex[i * 2 + 1] = HEX_DIGITS[b & 0x0F];
+      }
+      return hex.length;
+    }
+
+    /**
+     * UTF-8 编码到 {@link #buffer}，不成对的代理字符编码为 {@code ?}，和 {@link String#getBytes} 一致
+     *
+     * @return 字节数
+     */
+    private int encodeUtf8(CharSequence value) {
+      int length = value.length();
+      byte[] buffer = this.buffer;
+      if (buffer.length < length * 3) {
+        buffer = this.buffer = new byte[length * 3];
+      }
+      int position = 0;
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          buffer[position++] = (byte) c;
+        }
+        else if (c < 0x800) {
+          buffer[position++] = (byte) (0xC0 | (c >> 6));
+          buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+        else if (Character.isSurrogate(c)) {
+          if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++i));
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+          }
+          else {
+            buffer[position++] = '?';
+          }
+        }
+        else {
+          buffer[position++] = (byte) (0xE0 | (c >> 12));
+          buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buffer[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      return position;
+    }
+
+  }
+
 }
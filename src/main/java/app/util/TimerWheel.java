@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.util;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import infra.lang.Nullable;
+
+/**
+ * 分层时间轮，按节点的 {@link Node#getDeadline() 到期时间} 调度，时间单位为纳秒
+ * <p>
+ * 各层的桶数和跨度：64 x 1.07s、64 x 1.14m、32 x 1.22h、4 x 1.63d、1 x 6.5d，
+ * 调度、取消都是 O(1)，推进时间时只处理到期的桶，均摊 O(1)。
+ * 已经到期的节点放在当前的桶中，下一次推进时处理，只会晚到期不会早到期。
+ * <p>
+ * 节点直接使用自己的链表指针，不额外分配对象。
+ * 该类不是线程安全的，由使用方加锁访问
+ *
+ * @param <N> 节点类型
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 13:05
+ */
+public final class TimerWheel<N extends TimerWheel.Node<N>> {
+
+  static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+
+  static final long[] SPANS = {
+          1L << 30, // 1.07s
+          1L << 36, // 1.14m
+          1L << 42, // 1.22h
+          1L << 47, // 1.63d
+          1L << 49, // 6.5d
+          1L << 49, // 6.5d
+  };
+
+  static final int[] SHIFT = {
+          Long.numberOfTrailingZeros(SPANS[0]),
+          Long.numberOfTrailingZeros(SPANS[1]),
+          Long.numberOfTrailingZeros(SPANS[2]),
+          Long.numberOfTrailingZeros(SPANS[3]),
+          Long.numberOfTrailingZeros(SPANS[4]),
+  };
+
+  private final N[][] wheel;
+
+  /** 时间轮当前时间 */
+  private long nanos;
+
+  /**
+   * @param now 当前时间
+   * @param sentinels 创建桶的哨兵节点，哨兵节点不会被调度
+   */
+  @SuppressWarnings("unchecked")
+  public TimerWheel(long now, Supplier<N> sentinels) {
+    this.nanos = now;
+    this.wheel = (N[][]) new Node[BUCKETS.length][];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = (N[]) new Node[BUCKETS[i]];
+      for (int j = 0; j < wheel[i].length; j++) {
+        N sentinel = sentinels.get();
+        sentinel.setPrevious(sentinel);
+        sentinel.setNext(sentinel);
+        wheel[i][j] = sentinel;
+      }
+    }
+  }
+
+  public long nanos() {
+    return nanos;
+  }
+
+  /**
+   * 按节点的到期时间调度，节点不能已经在时间轮中
+   */
+  public void schedule(N node) {
+    link(findBucket(node.getDeadline()), node);
+  }
+
+  /**
+   * 取消调度，节点不在时间轮中时什么也不做
+   */
+  public void deschedule(N node) {
+    if (node.getNext() != null) {
+      unlink(node);
+    }
+  }
+
+  /**
+   * 推进时间，依次处理到期的桶
+   *
+   * @param now 当前时间
+   * @param expired 处理到期的节点，返回 {@code true} 表示已经移除，否则按新的到期时间重新调度
+   */
+  public void advance(long now, Predicate<N> expired) {
+    long previous = nanos;
+    this.nanos = now;
+    for (int i = 0; i < SHIFT.length; i++) {
+      long previousTicks = previous >>> SHIFT[i];
+      long currentTicks = now >>> SHIFT[i];
+      long delta = currentTicks - previousTicks;
+      if (delta <= 0) {
+        break;
+      }
+      expire(i, previousTicks, delta, expired);
+    }
+  }
+
+  /**
+   * 最先到期的节点，用于容量超出时淘汰
+   */
+  @Nullable
+  public N peekFirst() {
+    for (int i = 0; i < wheel.length; i++) {
+      N[] buckets = wheel[i];
+      int mask = buckets.length - 1;
+      int start = (int) ((nanos >>> SHIFT[i]) & mask);
+      for (int j = 0; j < buckets.length; j++) {
+        N sentinel = buckets[(start + j) & mask];
+        if (sentinel.getNext() != sentinel) {
+          return sentinel.getNext();
+        }
+      }
+    }
+    return null;
+  }
+
+  private void expire(int level, long previousTicks, long delta, Predicate<N> expired) {
+    N[] buckets = wheel[level];
+    int mask = buckets.length - 1;
+    // 比一圈还多的时候所有的桶都要处理一遍
+    int steps = (int) Math.min(1 + delta, buckets.length);
+    int start = (int) (previousTicks & mask);
+    int end = start + steps;
+    for (int i = start; i < end; i++) {
+      N sentinel = buckets[i & mask];
+      N node = sentinel.getNext();
+      sentinel.setPrevious(sentinel);
+      sentinel.setNext(sentinel);
+
+      while (node != sentinel) {
+        N next = node.getNext();
+        node.setPrevious(null);
+        node.setNext(null);
+        if (node.getDeadline() - nanos > 0 || !expired.test(node)) {
+          schedule(node);
+        }
+        node = next;
+      }
+    }
+  }
+
+  private N findBucket(long deadline) {
+    // 已经到期的放在当前的桶中，否则要等转完一圈
+    if (deadline - nanos < 0) {
+      deadline = nanos;
+    }
+    long duration = deadline - nanos;
+    int last = wheel.length - 1;
+    for (int i = 0; i < last; i++) {
+      if (duration < SPANS[i + 1]) {
+        long ticks = deadline >>> SHIFT[i];
+        int index = (int) (ticks & (wheel[i].length - 1));
+        return wheel[i][index];
+      }
+    }
+    return wheel[last][0];
+  }
+
+  private void link(N sentinel, N node) {
+    N last = sentinel.getPrevious();
+    node.setPrevious(last);
+    node.setNext(sentinel);
+    last.setNext(node);
+    sentinel.setPrevious(node);
+  }
+
+  private void unlink(N node) {
+    N next = node.getNext();
+    if (next != null) {
+      N prev = node.getPrevious();
+      next.setPrevious(prev);
+      prev.setNext(next);
+      node.setPrevious(null);
+      node.setNext(null);
+    }
+  }
+
+  /**
+   * 时间轮中的节点，链表指针只由时间轮访问
+   *
+   * @param <N> 节点类型
+   */
+  public interface Node<N extends Node<N>> {
+
+    /**
+     * 到期时间，在时间轮中时不能修改
+     */
+    long getDeadline();
+
+    @Nullable
+    N getPrevious();
+
+    void setPrevious(@Nullable N previous);
+
+    @Nullable
+    N getNext();
+
+    void setNext(@Nullable N next);
+
+  }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+/**
+ * 分页时总数的统计方式
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 14:00
+ * @see Paginator
+ */
+public enum CountMode {
+
+  /** 每次都执行 {@code COUNT(*)} */
+  EXACT,
+
+  /** 缓存 {@code COUNT(*)} 的结果，超时或者写入时失效 */
+  CACHED,
+
+  /** 使用数据库的表统计信息，只是估计值 */
+  ESTIMATED,
+
+  /** 不统计总数，多查一行判断是否还有下一页 */
+  NONE
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import java.util.List;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.persistence.ConditionStatement;
+import infra.persistence.EntityMetadata;
+import infra.persistence.EntityProperty;
+import infra.persistence.sql.Restriction;
+
+/**
+ * 游标分页的查询条件
+ * <p>
+ * 生成 {@code id > after AND id <= (本页最大 ID)}，本页最大 ID 由主键上的
+ * 有序子查询 {@code LIMIT size + 1} 得到，每一页都只扫描 {@code size + 1} 行，
+ * 多取的一行用来判断是否还有下一页
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 10:40
+ * @see Pagination#keyset
+ */
+public final class KeysetCondition implements ConditionStatement {
+
+  @Nullable
+  private final Long after;
+
+  private final int limit;
+
+  KeysetCondition(@Nullable Long after, int limit) {
+    Assert.isTrue(limit > 0, "limit must be greater than 0");
+    this.after = after;
+    this.limit = limit;
+  }
+
+  @Override
+  public void renderWhereClause(EntityMetadata metadata, List<Restriction> restrictions) {
+    EntityProperty idProperty = metadata.idProperty;
+    Assert.state(idProperty != null, "游标分页需要实体有 ID");
+
+    // after 是解析过的 long，可以直接拼接
+    String id = idProperty.columnName;
+    StringBuilder sql = new StringBuilder(128)
+            .append(id).append(" <= (SELECT MAX(").append(id).append(") FROM (SELECT ")
+            .append(id).append(" FROM ").append(metadata.tableName);
+    if (after != null) {
+      sql.append(" WHERE ").append(id).append(" > ").append(after);
+      restrictions.add(Restriction.plain(id + " > " + after));
+    }
+    // MySQL 的 IN 子查询不支持 LIMIT，使用派生表取本页的最大 ID
+    sql.append(" ORDER BY ").append(id).append(" LIMIT ").append(limit).append(") page)");
+    restrictions.add(Restriction.plain(sql));
+  }
+
+  /**
+   * 按照分页参数生成条件，多取一行用来判断是否还有下一页
+   */
+  public static KeysetCondition forPage(Pageable pageable) {
+    return new KeysetCondition(pageable.after(), pageable.pageSize() + 1);
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 游标分页的 {@code after} 参数
+ * <p>
+ * 对外是不透明的字符串，内部是版本号和上一页最后一条记录的 ID，
+ * 以后换排序字段时只需要升级版本号
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 10:20
+ */
+public abstract class KeysetCursor {
+
+  static final byte VERSION = 1;
+
+  private static final int LENGTH = 1 + Long.BYTES;
+
+  /**
+   * 编码上一页最后一条记录的 ID
+   */
+  public static String encode(long lastId) {
+    byte[] bytes = ByteBuffer.allocate(LENGTH)
+            .put(VERSION)
+            .putLong(lastId)
+            .array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * 解析游标
+   *
+   * @throws ErrorMessageException 游标不是由 {@link #encode(long)} 生成的
+   */
+  public static long decode(String cursor) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    }
+    catch (IllegalArgumentException e) {
+      throw ErrorMessageException.failed("分页参数错误");
+    }
+    if (bytes.length != LENGTH || bytes[0] != VERSION) {
+      throw ErrorMessageException.failed("分页参数错误");
+    }
+    return ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+  }
+
+}
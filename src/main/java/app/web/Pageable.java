@@ -16,15 +16,42 @@
 
 package app.web;
 
+import infra.lang.Nullable;
+
 /**
  * 分页参数
  * <p>
- * 用来接收 HTTP 分页参数
+ * 用来接收 HTTP 分页参数，请求中带有 {@code after} 参数时使用游标分页，
+ * 只按 ID 向后查找，不需要 {@code OFFSET} 和总数统计
  *
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 17:40
+ * @see KeysetCondition
+ * @see Pagination#keyset
+ * @see Paginator
  */
 public interface Pageable extends infra.persistence.Pageable {
 
-}
+  /**
+   * 是否使用游标分页，{@code after} 参数为空表示第一页
+   */
+  default boolean isKeyset() {
+    return false;
+  }
+
+  /**
+   * 上一页最后一条记录的 ID，第一页时返回 {@code null}
+   */
+  @Nullable
+  default Long after() {
+    return null;
+  }
 
+  /**
+   * 总数的统计方式，游标分页时不统计总数
+   */
+  default CountMode countMode() {
+    return CountMode.EXACT;
+  }
+
+}
@@ -16,19 +16,31 @@
 
 package app.web;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.ToLongFunction;
 
 import infra.core.style.ToStringBuilder;
+import infra.lang.Nullable;
 import infra.persistence.Page;
 
 /**
  * 分页 Model
+ * <p>
+ * 游标分页时没有 {@code pages}, {@code total} 和 {@code current}，
+ * 使用 {@code next} 作为下一页的 {@code after} 参数，为空表示没有下一页。
+ * {@code countMode} 表示 {@code total} 是怎么得到的，{@link CountMode#NONE} 时没有总数，
+ * 使用 {@code hasNext} 判断是否还有下一页
  *
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 17:36
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public final class Pagination<T> implements ListableHttpResult<T> {
 
   @SuppressWarnings("rawtypes")
@@ -36,32 +48,56 @@ public final class Pagination<T> implements ListableHttpResult<T> {
           0, 0, 0, Collections.emptyList());
 
   /** amount of page */
-  private final int pages;
+  @Nullable
+  private final Integer pages;
 
   /** all row in database */
-  private final int total;
+  @Nullable
+  private final Integer total;
 
   /** every page size */
   private final int size;
 
   /** current page */
-  private final int current;
+  @Nullable
+  private final Integer current;
+
+  /** cursor of next page */
+  @Nullable
+  private final String next;
+
+  /** how the total was produced */
+  @Nullable
+  private final CountMode countMode;
+
+  @Nullable
+  private final Boolean hasNext;
 
   private final List<T> data;
 
   public Pagination(int pages, int total, int size, int current, List<T> data) {
+    this(pages, total, size, current, null, null, null, data);
+  }
+
+  private Pagination(@Nullable Integer pages, @Nullable Integer total, int size, @Nullable Integer current,
+          @Nullable String next, @Nullable CountMode countMode, @Nullable Boolean hasNext, List<T> data) {
     this.pages = pages;
     this.total = total;
     this.size = size;
     this.current = current;
+    this.next = next;
+    this.countMode = countMode;
+    this.hasNext = hasNext;
     this.data = data;
   }
 
-  public int getPages() {
+  @Nullable
+  public Integer getPages() {
     return pages;
   }
 
-  public int getTotal() {
+  @Nullable
+  public Integer getTotal() {
     return total;
   }
 
@@ -69,10 +105,26 @@ public final class Pagination<T> implements ListableHttpResult<T> {
     return size;
   }
 
-  public int getCurrent() {
+  @Nullable
+  public Integer getCurrent() {
     return current;
   }
 
+  @Nullable
+  public String getNext() {
+    return next;
+  }
+
+  @Nullable
+  public CountMode getCountMode() {
+    return countMode;
+  }
+
+  @Nullable
+  public Boolean getHasNext() {
+    return hasNext;
+  }
+
   @Override
   public List<T> getData() {
     return data;
@@ -84,14 +136,15 @@ public final class Pagination<T> implements ListableHttpResult<T> {
       return true;
     if (!(param instanceof Pagination<?> that))
       return false;
-    return pages == that.pages && total == that.total
-            && size == that.size && current == that.current
-            && Objects.equals(data, that.data);
+    return Objects.equals(pages, that.pages) && Objects.equals(total, that.total)
+            && size == that.size && Objects.equals(current, that.current)
+            && Objects.equals(next, that.next) && countMode == that.countMode
+            && Objects.equals(hasNext, that.hasNext) && Objects.equals(data, that.data);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(pages, total, size, current, data);
+    return Objects.hash(pages, total, size, current, next, countMode, hasNext, data);
   }
 
   @Override
@@ -101,6 +154,9 @@ public final class Pagination<T> implements ListableHttpResult<T> {
             .append("pages", pages)
             .append("total", total)
             .append("size", size)
+            .append("next", next)
+            .append("countMode", countMode)
+            .append("hasNext", hasNext)
             .append("data", data)
             .toString();
   }
@@ -113,8 +169,60 @@ public final class Pagination<T> implements ListableHttpResult<T> {
   }
 
   public static <T> Pagination<T> from(Page<T> page) {
-    return new Pagination<>(page.getTotalPages(), page.getTotalRows().intValue(),
-            page.getLimit(), page.getPageNumber(), page.getRows());
+    return new Pagination<>(page.getTotalPages(), page.getTotalRows().intValue(), page.getLimit(),
+            page.getPageNumber(), null, CountMode.EXACT, page.getPageNumber() < page.getTotalPages(), page.getRows());
+  }
+
+  /**
+   * 页码分页结果，总数不是每次统计的
+   *
+   * @param rows 查询到的数据，最多 {@code size + 1} 行
+   * @param size 每页大小
+   * @param current 当前页码
+   * @param total 缓存或者估计的总数，{@link CountMode#NONE} 时为 {@code null}
+   * @param countMode 总数的统计方式
+   * @param id 排序使用的 ID
+   */
+  static <T> Pagination<T> probe(List<T> rows, int size, int current,
+          @Nullable Integer total, CountMode countMode, ToLongFunction<? super T> id) {
+    ArrayList<T> data = sorted(rows, id);
+    boolean hasNext = data.size() > size;
+    if (hasNext) {
+      data.subList(size, data.size()).clear();
+    }
+
+    Integer pages = null;
+    if (total != null) {
+      // 缓存过期前或者估计值可能比实际查到的少
+      long seen = (long) (current - 1) * size + data.size() + (hasNext ? 1 : 0);
+      total = (int) Math.min(Integer.MAX_VALUE, Math.max(total, seen));
+      pages = (int) ((total + (long) size - 1) / size);
+    }
+    return new Pagination<>(pages, total, size, current, null, countMode, hasNext, data);
+  }
+
+  /**
+   * 游标分页结果
+   *
+   * @param rows {@link KeysetCondition} 查询到的数据，最多 {@code size + 1} 行
+   * @param size 每页大小
+   * @param id 排序使用的 ID
+   */
+  public static <T> Pagination<T> keyset(List<T> rows, int size, ToLongFunction<? super T> id) {
+    ArrayList<T> data = sorted(rows, id);
+    String next = null;
+    if (data.size() > size) {
+      data.subList(size, data.size()).clear();
+      next = KeysetCursor.encode(id.applyAsLong(data.get(size - 1)));
+    }
+    return new Pagination<>(null, null, size, null, next, CountMode.NONE, next != null, data);
+  }
+
+  private static <T> ArrayList<T> sorted(List<T> rows, ToLongFunction<? super T> id) {
+    // 数据库不保证返回顺序，最多 size + 1 行，直接在内存中排序
+    ArrayList<T> data = new ArrayList<>(rows);
+    data.sort(Comparator.comparingLong(id));
+    return data;
   }
 
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import infra.dao.DataAccessException;
+import infra.jdbc.RepositoryManager;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+import infra.persistence.ConditionStatement;
+import infra.persistence.EntityManager;
+import infra.persistence.EntityMetadata;
+import infra.persistence.EntityProperty;
+import infra.persistence.Table;
+import infra.persistence.sql.Restriction;
+
+/**
+ * 按照 {@link Pageable#countMode()} 分页查询
+ * <p>
+ * 除了 {@link CountMode#EXACT} 都不和数据一起执行 {@code COUNT(*)}，数据多查一行判断是否还有下一页：
+ * <ul>
+ *   <li>{@link CountMode#CACHED} 缓存 {@code COUNT(*)}，超时或者调用 {@link #invalidate(Class)} 后重新统计</li>
+ *   <li>{@link CountMode#ESTIMATED} 使用 {@code information_schema.TABLES} 中的行数，没有统计信息时按 {@link CountMode#CACHED} 处理</li>
+ *   <li>{@link CountMode#NONE} 不统计总数</li>
+ * </ul>
+ * 实体需要使用 {@link Table} 指定表名，否则都按 {@link CountMode#EXACT} 处理
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 14:20
+ */
+public class Paginator {
+
+  private static final Logger log = LoggerFactory.getLogger(Paginator.class);
+
+  static final String ESTIMATE_SQL = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = :tableName";
+
+  private final RepositoryManager repositoryManager;
+
+  private final EntityManager entityManager;
+
+  private final String estimateSql;
+
+  private final Cache<Class<?>, Integer> totals;
+
+  private final Cache<Class<?>, Integer> estimates;
+
+  /**
+   * @param countTimeToLive 缓存的总数和估计值多久之后重新统计
+   */
+  public Paginator(RepositoryManager repositoryManager, Duration countTimeToLive) {
+    this(repositoryManager, countTimeToLive, ESTIMATE_SQL);
+  }
+
+  /**
+   * @param estimateSql 按 {@code :tableName} 查询估计行数的 SQL
+   */
+  Paginator(RepositoryManager repositoryManager, Duration countTimeToLive, String estimateSql) {
+    Assert.notNull(repositoryManager, "RepositoryManager is required");
+    this.repositoryManager = repositoryManager;
+    this.entityManager = repositoryManager.getEntityManager();
+    this.estimateSql = estimateSql;
+    this.totals = Caffeine.newBuilder()
+            .expireAfterWrite(countTimeToLive)
+            .build();
+    this.estimates = Caffeine.newBuilder()
+            .expireAfterWrite(countTimeToLive)
+            .build();
+  }
+
+  /**
+   * 分页查询，按 ID 排序
+   *
+   * @param id 实体的 ID
+   */
+  public <T> Pagination<T> page(Class<T> entityClass, Pageable pageable, ToLongFunction<? super T> id) {
+    CountMode countMode = pageable.countMode();
+    String tableName = tableName(entityClass);
+    if (countMode == CountMode.EXACT || tableName == null) {
+      return Pagination.from(entityManager.page(entityClass, pageable));
+    }
+
+    int size = pageable.pageSize();
+    long offset = (long) (pageable.pageNumber() - 1) * size;
+    List<T> rows = entityManager.find(entityClass, new OffsetCondition(offset, size + 1));
+
+    Integer total = null;
+    if (countMode == CountMode.ESTIMATED) {
+      total = estimates.get(entityClass, key -> estimate(tableName));
+      if (total == null) {
+        countMode = CountMode.CACHED;
+      }
+    }
+    if (countMode == CountMode.CACHED) {
+      total = totals.get(entityClass, key -> count(tableName));
+    }
+    return Pagination.probe(rows, size, pageable.pageNumber(), total, countMode, id);
+  }
+
+  /**
+   * 新增或者删除数据之后调用，清除缓存的总数
+   */
+  public void invalidate(Class<?> entityClass) {
+    totals.invalidate(entityClass);
+  }
+
+  private int count(String tableName) {
+    Long count = repositoryManager.createNamedQuery("SELECT COUNT(*) FROM " + tableName)
+            .fetchScalar(Long.class);
+    return count != null ? (int) Math.min(Integer.MAX_VALUE, count) : 0;
+  }
+
+  /**
+   * 估计值不可用时返回 {@code null}，这时不缓存
+   */
+  @Nullable
+  private Integer estimate(String tableName) {
+    try {
+      Long rows = repositoryManager.createNamedQuery(estimateSql)
+              .addParameter("tableName", tableName)
+              .fetchScalar(Long.class);
+      if (rows != null) {
+        return (int) Math.min(Integer.MAX_VALUE, rows);
+      }
+    }
+    catch (DataAccessException e) {
+      log.warn("Failed to estimate row count of {}", tableName, e);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static String tableName(Class<?> entityClass) {
+    Table table = entityClass.getAnnotation(Table.class);
+    if (table == null || table.value().isEmpty()) {
+      return null;
+    }
+    return table.value();
+  }
+
+  /**
+   * 先在主键上跳过 {@code offset} 行，再按主键取出这一页的数据，
+   * MySQL 的 IN 子查询不支持 LIMIT，使用派生表
+   */
+  static final class OffsetCondition implements ConditionStatement {
+
+    private final long offset;
+
+    private final int limit;
+
+    OffsetCondition(long offset, int limit) {
+      this.offset = offset;
+      this.limit = limit;
+    }
+
+    @Override
+    public void renderWhereClause(EntityMetadata metadata, List<Restriction> restrictions) {
+      EntityProperty idProperty = metadata.idProperty;
+      Assert.state(idProperty != null, "分页需要实体有 ID");
+
+      String id = idProperty.columnName;
+      restrictions.add(Restriction.plain(id + " IN (SELECT " + id + " FROM (SELECT " + id
+              + " FROM " + metadata.tableName + " ORDER BY " + id + " LIMIT " + limit + " OFFSET " + offset + ") page)"));
+    }
+  }
+
+}
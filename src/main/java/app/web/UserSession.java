@@ -17,6 +17,8 @@
 package app.web;
 
 import app.model.User;
+import app.session.UserPrincipal;
+import app.session.UserProfileCache;
 import infra.lang.Nullable;
 
 /**
@@ -30,8 +32,14 @@ public class UserSession {
   @Nullable
   private User loginUser;
 
+  @Nullable
+  private UserPrincipal principal;
+
+  @Nullable
+  private UserProfileCache profiles;
+
   public boolean isLoggedIn() {
-    return loginUser != null;
+    return principal != null || loginUser != null;
   }
 
   /**
@@ -40,6 +48,9 @@ public class UserSession {
    * @throws UnauthorizedException 如果未登录将抛出
    */
   public long loginUserId() throws UnauthorizedException {
+    if (principal != null) {
+      return principal.id();
+    }
     return loginUser().getId();
   }
 
@@ -49,17 +60,35 @@ public class UserSession {
    * @throws UnauthorizedException 如果未登录将抛出
    */
   public User loginUser() throws UnauthorizedException {
+    User loginUser = getLoginUser();
     if (loginUser == null) {
       throw new UnauthorizedException();
     }
     return loginUser;
   }
 
+  /**
+   * 获取登录用户信息，第一次调用时从 {@link UserProfileCache} 加载
+   */
   @Nullable
   public User getLoginUser() {
+    if (loginUser == null && principal != null && profiles != null) {
+      loginUser = profiles.get(principal);
+    }
     return loginUser;
   }
 
+  @Nullable
+  public UserPrincipal getPrincipal() {
+    return principal;
+  }
+
+  public void setPrincipal(@Nullable UserPrincipal principal, UserProfileCache profiles) {
+    this.principal = principal;
+    this.profiles = profiles;
+    this.loginUser = null;
+  }
+
   public void setLoginUser(@Nullable User loginUser) {
     this.loginUser = loginUser;
   }
@@ -19,10 +19,10 @@ package app.web.handler;
 import java.util.Optional;
 
 import app.model.User;
+import app.session.PrincipalResolver;
+import app.session.UserPrincipal;
+import app.session.UserProfileCache;
 import infra.lang.Nullable;
-import infra.session.SessionManager;
-import infra.session.SessionManagerOperations;
-import infra.session.WebSession;
 import infra.stereotype.Component;
 import infra.web.RequestContext;
 import infra.web.RequestContextHolder;
@@ -38,10 +38,23 @@ import infra.web.RequestContextHolder;
  * @since 1.0 2025/3/4 21:55
  */
 @Component
-public class UserSessionResolver extends SessionManagerOperations {
+public class UserSessionResolver {
 
-  public UserSessionResolver(SessionManager sessionManager) {
-    super(sessionManager);
+  private final PrincipalResolver principalResolver;
+
+  private final UserProfileCache profiles;
+
+  public UserSessionResolver(PrincipalResolver principalResolver, UserProfileCache profiles) {
+    this.principalResolver = principalResolver;
+    this.profiles = profiles;
+  }
+
+  /**
+   * 获取当前登录的用户，不加载用户资料
+   */
+  @Nullable
+  public UserPrincipal getPrincipal(RequestContext request) {
+    return principalResolver.find(request);
   }
 
   /**
@@ -57,9 +70,9 @@ public class UserSessionResolver extends SessionManagerOperations {
    */
   @Nullable
   public User getLoginUser(RequestContext request) {
-    WebSession session = getSession(request, false);
-    if (session != null) {
-      return User.find(session);
+    UserPrincipal principal = getPrincipal(request);
+    if (principal != null) {
+      return profiles.get(principal);
     }
     return null;
   }
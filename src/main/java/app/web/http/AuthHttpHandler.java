@@ -19,17 +19,33 @@ package app.web.http;
 import org.hibernate.validator.constraints.Length;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import app.model.User;
 import app.model.UserStatus;
-import app.util.HashUtils;
+import app.security.LoginFailureTracker;
+import app.security.PasswordHasher;
+import app.security.UsernameFilter;
+import app.session.AuthTokenService;
+import app.session.PrincipalResolver;
+import app.session.UserPrincipal;
+import app.session.UserProfileCache;
+import app.session.UserSessionRegistry;
 import app.web.ErrorMessageException;
+import app.web.interceptor.BlockingExecutor;
+import app.web.interceptor.Priority;
+import app.web.interceptor.RateLimitAlgorithm;
+import app.web.interceptor.RateLimitKey;
 import app.web.interceptor.RequestLimit;
+import app.web.interceptor.RequestPriority;
 import app.web.interceptor.RequiresLogin;
 import infra.beans.support.BeanProperties;
 import infra.http.HttpStatus;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
 import infra.persistence.EntityManager;
+import infra.session.SessionIdResolver;
 import infra.session.SessionManager;
 import infra.session.SessionManagerOperations;
 import infra.session.WebSession;
@@ -56,31 +72,68 @@ import static infra.persistence.QueryCondition.isEqualsTo;
  */
 @RestController
 @RequestMapping("/api/auth")
+@RequestPriority(Priority.HIGH)
 class AuthHttpHandler extends SessionManagerOperations {
 
+  private static final Logger log = LoggerFactory.getLogger(AuthHttpHandler.class);
+
   private final EntityManager entityManager;
 
-  public AuthHttpHandler(SessionManager sessionManager, EntityManager entityManager) {
+  private final PasswordHasher passwordHasher;
+
+  private final UsernameFilter usernameFilter;
+
+  private final LoginFailureTracker loginFailureTracker;
+
+  private final UserProfileCache profiles;
+
+  private final PrincipalResolver principalResolver;
+
+  private final UserSessionRegistry sessionRegistry;
+
+  private final BlockingExecutor blockingExecutor;
+
+  public AuthHttpHandler(SessionManager sessionManager, EntityManager entityManager, PasswordHasher passwordHasher,
+          UsernameFilter usernameFilter, LoginFailureTracker loginFailureTracker, UserProfileCache profiles,
+          PrincipalResolver principalResolver, UserSessionRegistry sessionRegistry, BlockingExecutor blockingExecutor) {
     super(sessionManager);
     this.entityManager = entityManager;
+    this.passwordHasher = passwordHasher;
+    this.usernameFilter = usernameFilter;
+    this.loginFailureTracker = loginFailureTracker;
+    this.profiles = profiles;
+    this.principalResolver = principalResolver;
+    this.sessionRegistry = sessionRegistry;
+    this.blockingExecutor = blockingExecutor;
   }
 
   /**
    * 获取登录信息 API
    */
   @GET
+  @RequestPriority(Priority.CRITICAL)
   public User selfInfo(User loginUser) {
     return loginUser;
   }
 
   /**
-   * 退出登录 API
+   * 退出登录 API，只撤销这次请求携带的签名令牌，该用户在其它设备上的登录不受影响
    *
-   * @param session 会话
+   * @param request 当前请求
    */
   @DELETE
-  public void logout(WebSession session) {
-    session.invalidate();
+  public void logout(RequestContext request) {
+    AuthTokenService authTokenService = principalResolver.getAuthTokenService();
+    String token = principalResolver.getSignedToken(request);
+    if (authTokenService != null && token != null) {
+      authTokenService.revoke(token);
+    }
+
+    WebSession session = getSession(request, false);
+    if (session != null) {
+      session.invalidate();
+    }
+    principalResolver.forget(request);
   }
 
   static class UserFrom {
@@ -104,31 +157,79 @@ class AuthHttpHandler extends SessionManagerOperations {
    *   "introduce": "代码是我心中的一首诗"
    * }
    * } </pre>
+   * 密码在 {@link PasswordHasher} 的线程池中校验，旧算法编码的密码在登录成功后重新编码。
+   * 启用了 {@link AuthTokenService} 并且请求头 {@code X-Auth-Mode: token} 时不创建会话，
+   * 签名令牌通过响应头 {@code X-Auth-Token} 返回
    */
   @POST
-  @RequestLimit(unit = TimeUnit.MINUTES, count = 5, errorMessage = "一分钟只能尝试5次登陆,请稍后重试")
-  public User login(@Valid @RequestBody UserFrom user, RequestContext request) {
-    User loginUser = entityManager.findUnique(User.class, isEqualsTo("username", user.username));
-    if (loginUser == null) {
-      throw ErrorMessageException.failed(user.username + " 账号不存在!");
+  @RequestLimit(unit = TimeUnit.MINUTES, count = 5, algorithm = RateLimitAlgorithm.SLIDING_LOG,
+          errorMessage = "一分钟只能尝试5次登陆,请稍后重试")
+  public CompletableFuture<User> login(@Valid @RequestBody UserFrom user, RequestContext request) {
+    // 连续失败太多的账号直接拒绝，不查询数据库也不计算哈希
+    long retryAfter = loginFailureTracker.getRetryAfter(user.username);
+    if (retryAfter > 0) {
+      throw ErrorMessageException.failed("密码错误次数过多，请 %d 秒后重试".formatted(
+              TimeUnit.MILLISECONDS.toSeconds(retryAfter + 999)), HttpStatus.TOO_MANY_REQUESTS);
     }
 
-    String passwd = HashUtils.getEncodedPassword(user.password);
-    if (!Objects.equals(loginUser.getPassword(), passwd)) {
-      throw ErrorMessageException.failed("密码错误!");
+    // 一定不存在的用户名不查询数据库
+    User loginUser = usernameFilter.mightExist(user.username)
+            ? entityManager.findUnique(User.class, isEqualsTo("username", user.username)) : null;
+    if (loginUser == null) {
+      throw ErrorMessageException.failed(user.username + " 账号不存在!");
     }
 
-    // check user state
-    UserStatus status = loginUser.getStatus();
-    switch (status) {
-      case NORMAL -> { }
-      case LOCKED, RECYCLE, INACTIVE -> throw ErrorMessageException.failed(status.getDescription());
-      default -> throw ErrorMessageException.failed("系统错误");
-    }
+    String encodedPassword = loginUser.getPassword();
+    // 哈希线程只负责比较，后面的会话、令牌和缓存交给 BlockingExecutor
+    return passwordHasher.matches(user.password, encodedPassword).thenApplyAsync(matched -> {
+      if (!matched) {
+        loginFailureTracker.recordFailure(user.username);
+        throw ErrorMessageException.failed("密码错误!");
+      }
+      loginFailureTracker.recordSuccess(user.username);
+
+      // check user state
+      UserStatus status = loginUser.getStatus();
+      switch (status) {
+        case NORMAL -> { }
+        case LOCKED, RECYCLE, INACTIVE -> throw ErrorMessageException.failed(status.getDescription());
+        default -> throw ErrorMessageException.failed("系统错误");
+      }
+
+      if (passwordHasher.upgradeEncoding(encodedPassword)) {
+        upgradePassword(loginUser.getId(), user.password);
+      }
+
+      // 会话或者令牌中只保存 UserPrincipal，资料放到缓存中
+      UserPrincipal principal = UserPrincipal.of(loginUser);
+      AuthTokenService authTokenService = principalResolver.getAuthTokenService();
+      if (authTokenService != null
+              && AuthTokenService.TOKEN_MODE.equals(request.requestHeaders().getFirst(AuthTokenService.HEADER_AUTH_MODE))) {
+        request.responseHeaders().set(SessionIdResolver.HEADER_X_AUTH_TOKEN, authTokenService.issue(principal));
+      }
+      else {
+        sessionRegistry.bind(principal, getSession(request));
+      }
+      principalResolver.forget(request);
+      profiles.put(principal, loginUser);
+      return loginUser;
+    }, blockingExecutor);
+  }
 
-    WebSession session = getSession(request);
-    loginUser.bindTo(session);
-    return loginUser;
+  /**
+   * 使用当前的算法重新编码密码，不阻塞登录。哈希在 {@link PasswordHasher} 的线程池中计算，
+   * 写数据库交给 {@link BlockingExecutor}，不占用哈希线程
+   */
+  private void upgradePassword(Long id, String rawPassword) {
+    passwordHasher.encode(rawPassword).thenCompose(encodedPassword -> CompletableFuture.runAsync(() -> {
+      User user = new User();
+      user.setId(id);
+      user.setPassword(encodedPassword);
+      entityManager.updateById(user);
+    }, blockingExecutor)).exceptionally(e -> {
+      log.warn("Failed to upgrade password encoding of user {}", id, e);
+      return null;
+    });
   }
 
   //---------------------------------------------------------------------
@@ -150,10 +251,11 @@ class AuthHttpHandler extends SessionManagerOperations {
    *
    * @param loginUser 登录用户
    * @param form 表单
+   * @param request 当前请求
    */
   @PUT
-  @RequestLimit(count = 2, unit = TimeUnit.MINUTES, errorMessage = "一分钟只能最多修改2次用户信息")
-  public User userInfo(User loginUser, @RequestBody @Valid InfoForm form) {
+  @RequestLimit(count = 2, unit = TimeUnit.MINUTES, key = RateLimitKey.USER, errorMessage = "一分钟只能最多修改2次用户信息")
+  public User userInfo(User loginUser, @RequestBody @Valid InfoForm form, RequestContext request) {
     // 要判断不一致才更新
     if (Objects.equals(form.name, loginUser.getName())
             && Objects.equals(form.introduce, loginUser.getIntroduce())) {
@@ -172,9 +274,29 @@ class AuthHttpHandler extends SessionManagerOperations {
 
     // update to session
     BeanProperties.copy(user, loginUser);
+    reissueToken(request, loginUser);
+    sessionRegistry.refresh(id, principal -> principal.withProfile(loginUser));
+    principalResolver.forget(request);
+    profiles.invalidate(id);
     return loginUser;
   }
 
+  /**
+   * 使用签名令牌时重新签发令牌并撤销旧的，会话由 {@link UserSessionRegistry} 更新
+   */
+  private void reissueToken(RequestContext request, User loginUser) {
+    AuthTokenService authTokenService = principalResolver.getAuthTokenService();
+    String token = principalResolver.getSignedToken(request);
+    if (authTokenService != null && token != null) {
+      UserPrincipal principal = authTokenService.verify(token);
+      if (principal != null) {
+        authTokenService.revoke(token);
+        request.responseHeaders().set(SessionIdResolver.HEADER_X_AUTH_TOKEN,
+                authTokenService.issue(principal.withProfile(loginUser)));
+      }
+    }
+  }
+
   public static class ChangePasswordForm {
 
     @NotBlank(message = "旧密码不能为空")
@@ -187,15 +309,17 @@ class AuthHttpHandler extends SessionManagerOperations {
   }
 
   /**
-   * 修改用户密码 API
+   * 修改用户密码 API，成功之后该用户其它的登录会话和签名令牌都失效，使用签名令牌时重新签发当前的令牌
    *
    * @param loginUser 登录用户
    * @param form 表单
+   * @param request 当前请求
    */
   @PUT(params = "password")
   @ResponseStatus(HttpStatus.NO_CONTENT)
-  @RequestLimit(unit = TimeUnit.MINUTES, errorMessage = "一分钟只能最多修改2次密码")
-  public void changePassword(User loginUser, @RequestBody @Valid ChangePasswordForm form) {
+  @RequestLimit(unit = TimeUnit.MINUTES, key = RateLimitKey.USER, errorMessage = "一分钟只能最多修改2次密码")
+  public CompletableFuture<Void> changePassword(User loginUser, @RequestBody @Valid ChangePasswordForm form,
+          RequestContext request) {
     // 校验密码是否有效
     if (!Objects.equals(form.confirmNewPassword, form.newPassword)) {
       throw ErrorMessageException.failed("两次输入的新密码不一致");
@@ -206,28 +330,38 @@ class AuthHttpHandler extends SessionManagerOperations {
 
     ErrorMessageException.notNull(byId, "要修改密码的用户不存在");
 
-    // 校验旧密码
-    String oldPassword = HashUtils.getEncodedPassword(form.oldPassword);
-    if (!Objects.equals(oldPassword, byId.getPassword())) {
-      throw ErrorMessageException.failed("原密码错误");
-    }
-
-    // 重新生成
-    String newPassword = HashUtils.getEncodedPassword(form.newPassword);
-
-    // 更新数据库
-    User user = new User();
-    user.setId(loginUser.getId());
-    user.setPassword(newPassword);
-
-    entityManager.updateById(user);
+    WebSession session = getSession(request, false);
+    String currentSessionId = session != null ? session.getId() : null;
+    // 撤销之后就校验不通过了，先取出来
+    UserPrincipal principal = principalResolver.find(request);
+
+    // 校验旧密码，然后重新生成
+    return passwordHasher.matches(form.oldPassword, byId.getPassword()).thenCompose(matched -> {
+      if (!matched) {
+        throw ErrorMessageException.failed("原密码错误");
+      }
+      return passwordHasher.encode(form.newPassword);
+    }).thenAcceptAsync(newPassword -> {
+      // 更新数据库，不占用哈希线程
+      User user = new User();
+      user.setId(loginUser.getId());
+      user.setPassword(newPassword);
+
+      entityManager.updateById(user);
+      sessionRegistry.invalidate(user.getId(), currentSessionId);
+
+      AuthTokenService authTokenService = principalResolver.getAuthTokenService();
+      if (authTokenService != null && principal != null && principalResolver.getSignedToken(request) != null) {
+        request.responseHeaders().set(SessionIdResolver.HEADER_X_AUTH_TOKEN, authTokenService.issue(principal));
+      }
+    }, blockingExecutor);
   }
 
   /**
    * 更改头像 API
    */
   @PUT(params = "avatar")
-  @RequestLimit(unit = TimeUnit.MINUTES, errorMessage = "一分钟只能最多修改1次头像")
+  @RequestLimit(unit = TimeUnit.MINUTES, key = RateLimitKey.USER, errorMessage = "一分钟只能最多修改1次头像")
   public User changeAvatar(@RequiresLogin User loginUser, MultipartFile avatar) {
     String originalFilename = avatar.getOriginalFilename();
 
@@ -237,6 +371,7 @@ class AuthHttpHandler extends SessionManagerOperations {
     user.setAvatar(uri);
 
     entityManager.updateById(user);
+    profiles.invalidate(user.getId());
     loginUser.setAvatar(uri);
     return loginUser;
   }
@@ -20,9 +20,21 @@ import java.util.Objects;
 
 import app.model.User;
 import app.model.UserStatus;
+import app.security.UsernameFilter;
+import app.session.UserProfileCache;
+import app.session.UserSessionRegistry;
 import app.web.ErrorMessageException;
+import app.web.KeysetCondition;
 import app.web.Pageable;
 import app.web.Pagination;
+import app.web.Paginator;
+import app.web.interceptor.Blocking;
+import app.web.interceptor.ConcurrencyLimit;
+import app.web.interceptor.ConcurrencyLimitAlgorithm;
+import app.web.interceptor.Priority;
+import app.web.interceptor.RateLimitKey;
+import app.web.interceptor.RequestLimit;
+import app.web.interceptor.RequestPriority;
 import app.web.interceptor.RequiresLogin;
 import infra.persistence.EntityManager;
 import infra.persistence.EntityRef;
@@ -46,17 +58,33 @@ import lombok.Setter;
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 22:08
  */
+@Blocking
 @RequiresLogin
 @RestController
+@ConcurrencyLimit(value = 8, group = "console", algorithm = ConcurrencyLimitAlgorithm.AIMD)
 @RequiredArgsConstructor
 @RequestMapping("/api/console/users")
 class UserConsoleHttpHandler {
 
   private final EntityManager entityManager;
 
+  private final UsernameFilter usernameFilter;
+
+  private final UserProfileCache profiles;
+
+  private final UserSessionRegistry sessionRegistry;
+
+  private final Paginator paginator;
+
   @GET
+  @RequestPriority(Priority.LOW)
+  @RequestLimit(count = 10, key = RateLimitKey.USER)
   public Pagination<User> listUsers(Pageable pageable) {
-    return Pagination.from(entityManager.page(User.class, pageable));
+    if (pageable.isKeyset()) {
+      return Pagination.keyset(entityManager.find(User.class, KeysetCondition.forPage(pageable)),
+              pageable.pageSize(), User::getId);
+    }
+    return paginator.page(User.class, pageable, User::getId);
   }
 
   /**
@@ -65,16 +93,31 @@ class UserConsoleHttpHandler {
   @POST
   public void create(@RequestBody User user) {
     entityManager.persist(user);
+    usernameFilter.add(user.getUsername());
+    paginator.invalidate(User.class);
   }
 
+  /**
+   * 修改用户状态，不是正常状态的用户立即退出登录
+   */
   @PUT(path = "/{id}", params = "status")
   public void updateStatus(@PathVariable long id, UserStatus status) {
     entityManager.updateById(new UserStatusUpdate(id, status));
+    profiles.invalidate(id);
+    if (status == UserStatus.NORMAL) {
+      sessionRegistry.refresh(id, principal -> principal.withStatus(status));
+    }
+    else {
+      sessionRegistry.invalidate(id, null);
+    }
   }
 
   @DELETE("/{id}")
   public void delete(@PathVariable long id) {
     entityManager.delete(User.class, id);
+    paginator.invalidate(User.class);
+    profiles.invalidate(id);
+    sessionRegistry.invalidate(id, null);
   }
 
   @PUT("/{id}")
@@ -86,6 +129,7 @@ class UserConsoleHttpHandler {
     boolean change = false;
     if (!Objects.equals(form.name, oldUser.getName())) {
       user.setName(form.name);
+      oldUser.setName(form.name);
       change = true;
     }
 
@@ -97,6 +141,8 @@ class UserConsoleHttpHandler {
     if (change) {
       user.setId(oldUser.getId());
       entityManager.updateById(user);
+      profiles.invalidate(id);
+      sessionRegistry.refresh(id, principal -> principal.withProfile(oldUser));
     }
     else {
       throw ErrorMessageException.failed("资料未更改");
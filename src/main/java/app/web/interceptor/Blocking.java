@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记会阻塞的接口（数据库、远程调用），由 {@link BlockingExecutionInterceptor}
+ * 放到 {@link BlockingExecutor} 中执行，不占用 Netty 的 worker 线程
+ * <p>
+ * 可以在方法或者类上标注；{@link BlockingExecutionInterceptor#setBlockingByDefault(boolean)}
+ * 打开后所有接口默认都这样执行，可以用 {@code @Blocking(false)} 排除
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 23:20
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Blocking {
+
+  /**
+   * 是否放到 {@link BlockingExecutor} 中执行
+   */
+  boolean value() default true;
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+
+import app.web.ErrorMessageException;
+import infra.http.HttpStatus;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.util.ConcurrentReferenceHashMap;
+import infra.util.MapCache;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.RequestContextHolder;
+import infra.web.handler.method.HandlerMethod;
+
+/**
+ * 把 {@link Blocking} 接口放到 {@link BlockingExecutor} 中执行
+ * <p>
+ * 拦截器链剩下的部分和接口方法在执行器的线程中运行，返回 {@link CompletableFuture}，
+ * 由异步返回值处理写回响应，Netty 的写操作会转回到连接所在的 event loop。
+ * 接口本身返回 {@link CompletionStage} 时直接接上。执行器满时立即响应 503
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see Blocking
+ * @since 1.0 2026/10/16 23:30
+ */
+public class BlockingExecutionInterceptor implements HandlerInterceptor {
+
+  private final MapCache<HandlerMethod, Boolean, Object> blockingCache = new MapCache<>(
+          new ConcurrentReferenceHashMap<>(128), this::isBlocking);
+
+  private final BlockingExecutor executor;
+
+  private boolean blockingByDefault = false;
+
+  public BlockingExecutionInterceptor(BlockingExecutor executor) {
+    Assert.notNull(executor, "BlockingExecutor is required");
+    this.executor = executor;
+  }
+
+  /**
+   * 没有标注 {@link Blocking} 的接口是否也放到执行器中执行，默认不放
+   */
+  public void setBlockingByDefault(boolean blockingByDefault) {
+    this.blockingByDefault = blockingByDefault;
+  }
+
+  public BlockingExecutor getExecutor() {
+    return executor;
+  }
+
+  @Nullable
+  @Override
+  public Object intercept(RequestContext request, InterceptorChain chain) throws Throwable {
+    HandlerMethod handlerMethod = HandlerMethod.unwrap(chain.getHandler());
+    if (handlerMethod == null || !blockingCache.get(handlerMethod)) {
+      return chain.proceed(request);
+    }
+
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> proceed(request, chain, future));
+    }
+    catch (RejectedExecutionException e) {
+      throw ErrorMessageException.failed("服务繁忙，请稍后再试", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+    return future;
+  }
+
+  private static void proceed(RequestContext request, InterceptorChain chain, CompletableFuture<Object> future) {
+    RequestContextHolder.set(request);
+    try {
+      Object result = chain.proceed(request);
+      if (result instanceof CompletionStage<?> stage) {
+        stage.whenComplete((value, ex) -> {
+          if (ex != null) {
+            future.completeExceptionally(ex);
+          }
+          else {
+            future.complete(value);
+          }
+        });
+      }
+      else {
+        future.complete(result);
+      }
+    }
+    catch (Throwable e) {
+      future.completeExceptionally(e);
+    }
+    finally {
+      RequestContextHolder.remove();
+    }
+  }
+
+  private Boolean isBlocking(HandlerMethod handlerMethod) {
+    Blocking blocking = handlerMethod.getMethodAnnotation(Blocking.class);
+    if (blocking == null) {
+      blocking = handlerMethod.getBeanType().getAnnotation(Blocking.class);
+    }
+    return blocking != null ? blocking.value() : blockingByDefault;
+  }
+
+}
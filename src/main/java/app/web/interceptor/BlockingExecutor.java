@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+
+/**
+ * 执行阻塞任务的线程池
+ * <p>
+ * 运行在 JDK 21 及以上时使用虚拟线程（通过反射创建，项目本身按 JDK 17 编译），
+ * 同时用 JFR 统计 {@code jdk.VirtualThreadPinned} 事件；否则使用有界的平台线程池，
+ * 队列满时拒绝。两种模式都可以通过 {@link #getParkedCount()} 查看正在执行任务但处于等待状态的线程数
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 23:20
+ */
+public class BlockingExecutor implements Executor, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(BlockingExecutor.class);
+
+  private final ExecutorService executor;
+
+  private final boolean virtual;
+
+  /** 正在执行任务的线程 */
+  private final Set<Thread> busyThreads = ConcurrentHashMap.newKeySet();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder completed = new LongAdder();
+
+  private final LongAdder pinned = new LongAdder();
+
+  @Nullable
+  private final AutoCloseable pinnedEvents;
+
+  /**
+   * 有界的平台线程池
+   *
+   * @param threads 线程数
+   * @param queueCapacity 队列长度
+   */
+  public BlockingExecutor(int threads, int queueCapacity) {
+    Assert.isTrue(threads > 0, "线程数必须大于 0");
+    Assert.isTrue(queueCapacity > 0, "队列长度必须大于 0");
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+      Thread thread = new Thread(runnable, "blocking-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.virtual = false;
+    this.pinnedEvents = null;
+  }
+
+  private BlockingExecutor(ExecutorService executor) {
+    this.executor = executor;
+    this.virtual = true;
+    this.pinnedEvents = PinnedEvents.start(pinned);
+  }
+
+  /**
+   * 支持虚拟线程时使用虚拟线程，否则使用有界的平台线程池
+   */
+  public static BlockingExecutor create(int threads, int queueCapacity) {
+    ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+    if (virtualThreads != null) {
+      return new BlockingExecutor(virtualThreads);
+    }
+    return new BlockingExecutor(threads, queueCapacity);
+  }
+
+  @Nullable
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    }
+    catch (NoSuchMethodException e) {
+      return null;
+    }
+    catch (ReflectiveOperationException e) {
+      log.warn("Failed to create virtual thread executor, falling back to platform threads", e);
+      return null;
+    }
+  }
+
+  /**
+   * @throws RejectedExecutionException 平台线程池的队列满了
+   */
+  @Override
+  public void execute(Runnable task) {
+    try {
+      executor.execute(() -> {
+        Thread thread = Thread.currentThread();
+        busyThreads.add(thread);
+        try {
+          task.run();
+        }
+        finally {
+          busyThreads.remove(thread);
+          completed.increment();
+        }
+      });
+    }
+    catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw e;
+    }
+  }
+
+  /**
+   * 是否使用虚拟线程
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * 正在执行任务的线程数
+   */
+  public int getActiveCount() {
+    return busyThreads.size();
+  }
+
+  /**
+   * 正在执行任务但处于等待状态（等待 IO、锁、连接池）的线程数，调用时采样
+   */
+  public int getParkedCount() {
+    int parked = 0;
+    for (Thread thread : busyThreads) {
+      switch (thread.getState()) {
+        case WAITING, TIMED_WAITING, BLOCKED -> parked++;
+        default -> { }
+      }
+    }
+    return parked;
+  }
+
+  /**
+   * 虚拟线程因为 {@code synchronized} 或者本地方法无法卸载的次数，平台线程池时为 0
+   */
+  public long getPinnedCount() {
+    return pinned.sum();
+  }
+
+  /**
+   * 排队中的任务数，虚拟线程不排队
+   */
+  public int getQueueSize() {
+    return executor instanceof ThreadPoolExecutor pool ? pool.getQueue().size() : 0;
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  @Override
+  public void close() throws Exception {
+    executor.shutdown();
+    if (pinnedEvents != null) {
+      pinnedEvents.close();
+    }
+  }
+
+  /**
+   * 通过 JFR 事件流统计虚拟线程被固定的次数
+   */
+  static final class PinnedEvents {
+
+    @Nullable
+    static AutoCloseable start(LongAdder pinned) {
+      try {
+        RecordingStream stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20));
+        stream.onEvent("jdk.VirtualThreadPinned", event -> pinned.increment());
+        stream.startAsync();
+        return stream;
+      }
+      catch (Throwable e) {
+        log.info("JFR is not available, pinned virtual threads will not be counted: {}", e.toString());
+        return null;
+      }
+    }
+
+  }
+
+}
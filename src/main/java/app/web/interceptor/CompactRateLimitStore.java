@@ -0,0 +1,520 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 紧凑的限流状态存储，key 和状态全部是基本类型，保存在一张开放寻址的 {@code long} 表里
+ * <p>
+ * 每个 key 占一个槽，一个槽 4 个 {@code long}（32 字节）：客户端标识高 64 位、低 64 位、
+ * 元数据（版本号、接口编号、标志位）和限流状态。
+ * 每个 key 不再需要 key 对象、{@link LimitState} 和哈希表节点，也就没有 GC 压力。
+ * 表可以放在堆外（{@link ByteBuffer#allocateDirect(int)}），适合保存百万级的 key。
+ * <p>
+ * key 只会出现在它的哈希位置开始的 {@link #WINDOW} 个槽里，查找最多检查这么多个槽，不需要墓碑。
+ * 已有 key 的判定只有读和 CAS，不加锁；新 key 在分段锁下插入，窗口满了就淘汰其中过期的
+ * 或者最早到期的 key，所以容量是硬上限。过期的 key 由请求线程每隔 {@link #SWEEP_INTERVAL}
+ * 顺带清理一段，大约 10 秒扫完整张表。
+ * <p>
+ * 状态不能由一个 {@code long} 表示的算法（{@link RateLimitAlgorithm#SLIDING_LOG}）
+ * 交给内部的 {@link LocalRateLimitStore} 处理
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 15:50
+ */
+public class CompactRateLimitStore implements RateLimitStore {
+
+  /** key 可以出现的槽的范围 */
+  static final int WINDOW = 16;
+
+  /** 插入时使用的分段锁数量 */
+  static final int STRIPES = 64;
+
+  /** 两次清理的最小间隔 */
+  static final long SWEEP_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /** 正在删除的状态，读到该值的线程重新查找 */
+  static final long DELETED = Long.MIN_VALUE;
+
+  // 槽内的偏移
+
+  static final int HIGH = 0;
+
+  static final int LOW = 1;
+
+  static final int META = 2;
+
+  static final int STATE = 3;
+
+  // 元数据：版本号 30 位 | 接口编号 32 位 | 标志位 2 位
+
+  static final long OCCUPIED = 1L;
+
+  static final long BUSY = 2L;
+
+  static final long FLAGS = OCCUPIED | BUSY;
+
+  static final int ID_SHIFT = 2;
+
+  static final int VERSION_SHIFT = 34;
+
+  private final int capacity;
+
+  private final int mask;
+
+  private final Slots slots;
+
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final LocalRateLimitStore fallback;
+
+  /** 按接口编号保存的限流器，清理时用来判断是否过期 */
+  private volatile PackedRateLimiter[] rateLimiters = new PackedRateLimiter[0];
+
+  private final ReentrantLock sweepLock = new ReentrantLock();
+
+  /** 下一次清理开始的槽 */
+  private int sweepCursor;
+
+  /** 下一次清理的时间 */
+  private volatile long nextSweep;
+
+  /**
+   * 在堆内创建
+   *
+   * @param capacity 最多保存多少个 key，向上取整到 2 的幂
+   */
+  public CompactRateLimitStore(int capacity) {
+    this(capacity, false);
+  }
+
+  /**
+   * @param capacity 最多保存多少个 key，向上取整到 2 的幂
+   * @param offHeap 是否放在堆外
+   */
+  public CompactRateLimitStore(int capacity, boolean offHeap) {
+    Assert.isTrue(capacity > 0, "容量必须大于0");
+    // 堆外时整张表在一个 ByteBuffer 里，不能超过 2G
+    Assert.isTrue(capacity <= 1 << 25, "容量不能超过 2^25");
+    this.capacity = Math.max(WINDOW, Integer.highestOneBit(capacity - 1) << 1);
+    this.mask = this.capacity - 1;
+    this.slots = offHeap ? new DirectSlots(this.capacity) : new HeapSlots(this.capacity);
+    this.fallback = new LocalRateLimitStore(Math.min(this.capacity, 65536));
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  public long acquire(int id, long high, long low, RateLimiter rateLimiter, long now) {
+    if (!(rateLimiter instanceof PackedRateLimiter packed)) {
+      return fallback.acquire(id, high, low, rateLimiter, now);
+    }
+    register(id, packed);
+    if (now - nextSweep >= 0) {
+      sweep(now);
+    }
+
+    long hash = hash(id, high, low);
+    for (;;) {
+      int slot = find(hash, id, high, low);
+      if (slot < 0) {
+        return insert(hash, id, high, low, packed, now);
+      }
+
+      // 读到状态之后再确认槽里还是这个 key：槽被删除再分配给别的 key 时版本号会变，重新查找。
+      // 剩下的窗口在确认和 CAS 之间：槽在这期间被删除并重新分配，而且新 key 的状态恰好等于读到的值，
+      // 这次请求才会记到新 key 上，可以接受
+      int index = slot << 2;
+      long meta = slots.getAcquire(index + META);
+      for (;;) {
+        long current = slots.getVolatile(index + STATE);
+        if (current == DELETED || !holds(index, meta, id, high, low)) {
+          break;
+        }
+        long next = packed.acquire(current, now);
+        if (next == RateLimiter.REJECTED) {
+          return current | RateLimiter.REJECTED_BIT;
+        }
+        if (next == current || slots.compareAndSet(index + STATE, current, next)) {
+          return next;
+        }
+      }
+    }
+  }
+
+  /**
+   * 获取 key 对应的状态，不存在时返回 {@link RateLimiter#EMPTY}
+   */
+  long getState(int id, long high, long low) {
+    int slot = find(hash(id, high, low), id, high, low);
+    if (slot < 0) {
+      return RateLimiter.EMPTY;
+    }
+    long state = slots.getVolatile((slot << 2) + STATE);
+    return state == DELETED ? RateLimiter.EMPTY : state;
+  }
+
+  @Override
+  public int size() {
+    return size.get() + fallback.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * 扫描整张表，删除过期的状态
+   */
+  @Override
+  public void cleanUp(long now) {
+    sweepLock.lock();
+    try {
+      sweepRange(0, capacity, now);
+      this.nextSweep = now + SWEEP_INTERVAL;
+    }
+    finally {
+      sweepLock.unlock();
+    }
+    fallback.cleanUp(now);
+  }
+
+  /**
+   * @return 槽的位置，不存在时返回 -1
+   */
+  private int find(long hash, int id, long high, long low) {
+    int home = (int) hash & mask;
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (home + i) & mask;
+      int index = slot << 2;
+      long meta = slots.getAcquire(index + META);
+      if ((meta & FLAGS) == OCCUPIED && (int) (meta >>> ID_SHIFT) == id
+              && slots.get(index + HIGH) == high && slots.get(index + LOW) == low
+              && slots.getAcquire(index + META) == meta) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 槽是否还是 {@code meta} 对应的这个 key
+   */
+  private boolean holds(int index, long meta, int id, long high, long low) {
+    return (meta & FLAGS) == OCCUPIED && (int) (meta >>> ID_SHIFT) == id
+            && slots.get(index + HIGH) == high && slots.get(index + LOW) == low
+            && slots.getAcquire(index + META) == meta;
+  }
+
+  private long insert(long hash, int id, long high, long low, PackedRateLimiter rateLimiter, long now) {
+    long state = rateLimiter.acquire(RateLimiter.EMPTY, now);
+    if (state == RateLimiter.REJECTED) {
+      return RateLimiter.REJECTED_BIT;
+    }
+
+    // 同一个 key 总是使用同一个分段锁，不会插入两次
+    ReentrantLock lock = stripes[(int) (hash >>> 32) & (STRIPES - 1)];
+    lock.lock();
+    try {
+      if (find(hash, id, high, low) >= 0) {
+        return acquire(id, high, low, rateLimiter, now);
+      }
+
+      int home = (int) hash & mask;
+      for (int attempt = 0; attempt < WINDOW; attempt++) {
+        int slot = claim(home, now);
+        if (slot >= 0) {
+          int index = slot << 2;
+          long meta = slots.get(index + META);
+          slots.set(index + HIGH, high);
+          slots.set(index + LOW, low);
+          // 和删除一样用 volatile 写，请求线程读到这个状态时一定也能看到新的元数据
+          slots.getAndSet(index + STATE, state);
+          slots.setRelease(index + META, (meta & ~FLAGS) | ((long) id << ID_SHIFT) | OCCUPIED);
+          size.incrementAndGet();
+          return state;
+        }
+      }
+      // 窗口内的槽一直在被并发修改，这次不记录状态
+      return RateLimiter.EMPTY;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 占用窗口内的一个空槽，没有空槽时先淘汰一个
+   *
+   * @return 槽的位置，标记为 {@link #BUSY}，失败时返回 -1
+   */
+  private int claim(int home, long now) {
+    int victim = -1;
+    long victimMeta = 0;
+    long victimExpiresAt = Long.MAX_VALUE;
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (home + i) & mask;
+      int index = slot << 2;
+      long meta = slots.getAcquire(index + META);
+      if ((meta & FLAGS) == 0) {
+        if (slots.compareAndSet(index + META, meta, meta | BUSY)) {
+          return slot;
+        }
+      }
+      else if ((meta & FLAGS) == OCCUPIED) {
+        long expiresAt = expiresAt(meta, slots.getVolatile(index + STATE), now);
+        if (victim < 0 || expiresAt - victimExpiresAt < 0) {
+          victim = slot;
+          victimMeta = meta;
+          victimExpiresAt = expiresAt;
+        }
+      }
+    }
+
+    if (victim >= 0 && delete(victim, victimMeta)) {
+      int index = victim << 2;
+      long meta = slots.getAcquire(index + META);
+      if ((meta & FLAGS) == 0 && slots.compareAndSet(index + META, meta, meta | BUSY)) {
+        return victim;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 删除一个槽，之后的请求会把这个 key 当作新 key
+   * <p>
+   * 删除和请求线程的更新同时发生时，删除优先，最多多放过一次请求
+   *
+   * @return 是否删除成功
+   */
+  private boolean delete(int slot, long meta) {
+    int index = slot << 2;
+    if (!slots.compareAndSet(index + META, meta, (meta & ~FLAGS) | BUSY)) {
+      return false;
+    }
+    slots.getAndSet(index + STATE, DELETED);
+    long version = (meta >>> VERSION_SHIFT) + 1;
+    slots.setRelease(index + META, version << VERSION_SHIFT);
+    size.decrementAndGet();
+    return true;
+  }
+
+  private void sweep(long now) {
+    if (sweepLock.tryLock()) {
+      try {
+        if (now - nextSweep >= 0) {
+          // 每次清理 1%，100 次扫完整张表
+          int count = Math.max(WINDOW, capacity / 100);
+          int start = sweepCursor;
+          sweepRange(start, count, now);
+          this.sweepCursor = (start + count) & mask;
+          this.nextSweep = now + SWEEP_INTERVAL;
+        }
+      }
+      finally {
+        sweepLock.unlock();
+      }
+    }
+  }
+
+  private void sweepRange(int start, int count, long now) {
+    for (int i = 0; i < count; i++) {
+      int slot = (start + i) & mask;
+      int index = slot << 2;
+      long meta = slots.getAcquire(index + META);
+      if ((meta & FLAGS) == OCCUPIED) {
+        long state = slots.getVolatile(index + STATE);
+        if (expiresAt(meta, state, now) - now <= 0) {
+          delete(slot, meta);
+        }
+      }
+    }
+  }
+
+  private long expiresAt(long meta, long state, long now) {
+    PackedRateLimiter rateLimiter = getRateLimiter((int) (meta >>> ID_SHIFT));
+    if (rateLimiter == null || state == DELETED) {
+      return now;
+    }
+    return rateLimiter.expiresAt(state, now);
+  }
+
+  @Nullable
+  private PackedRateLimiter getRateLimiter(int id) {
+    PackedRateLimiter[] rateLimiters = this.rateLimiters;
+    return id < rateLimiters.length ? rateLimiters[id] : null;
+  }
+
+  private void register(int id, PackedRateLimiter rateLimiter) {
+    if (getRateLimiter(id) != rateLimiter) {
+      synchronized(this) {
+        PackedRateLimiter[] rateLimiters = this.rateLimiters;
+        if (id >= rateLimiters.length) {
+          rateLimiters = Arrays.copyOf(rateLimiters, Math.max(id + 1, rateLimiters.length * 2));
+        }
+        else {
+          rateLimiters = rateLimiters.clone();
+        }
+        rateLimiters[id] = rateLimiter;
+        this.rateLimiters = rateLimiters;
+      }
+    }
+  }
+
+  static long hash(int id, long high, long low) {
+    long hash = high * 0x9E3779B97F4A7C15L ^ low;
+    hash = (hash ^ id) * 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * 保存槽的 {@code long} 数组，下标是 {@code long} 的序号
+   */
+  abstract static class Slots {
+
+    abstract long get(int index);
+
+    abstract long getAcquire(int index);
+
+    abstract long getVolatile(int index);
+
+    abstract void set(int index, long value);
+
+    abstract void setRelease(int index, long value);
+
+    abstract boolean compareAndSet(int index, long expected, long value);
+
+    abstract long getAndSet(int index, long value);
+
+  }
+
+  static final class HeapSlots extends Slots {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] longs;
+
+    HeapSlots(int capacity) {
+      this.longs = new long[capacity << 2];
+    }
+
+    @Override
+    long get(int index) {
+      return longs[index];
+    }
+
+    @Override
+    long getAcquire(int index) {
+      return (long) LONGS.getAcquire(longs, index);
+    }
+
+    @Override
+    long getVolatile(int index) {
+      return (long) LONGS.getVolatile(longs, index);
+    }
+
+    @Override
+    void set(int index, long value) {
+      longs[index] = value;
+    }
+
+    @Override
+    void setRelease(int index, long value) {
+      LONGS.setRelease(longs, index, value);
+    }
+
+    @Override
+    boolean compareAndSet(int index, long expected, long value) {
+      return LONGS.compareAndSet(longs, index, expected, value);
+    }
+
+    @Override
+    long getAndSet(int index, long value) {
+      return (long) LONGS.getAndSet(longs, index, value);
+    }
+  }
+
+  /**
+   * 堆外的实现，按 8 字节对齐以支持原子操作
+   */
+  static final class DirectSlots extends Slots {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    DirectSlots(int capacity) {
+      int bytes = (capacity << 2) * Long.BYTES;
+      this.buffer = ByteBuffer.allocateDirect(bytes + Long.BYTES)
+              .alignedSlice(Long.BYTES)
+              .order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    long get(int index) {
+      return (long) LONGS.get(buffer, index << 3);
+    }
+
+    @Override
+    long getAcquire(int index) {
+      return (long) LONGS.getAcquire(buffer, index << 3);
+    }
+
+    @Override
+    long getVolatile(int index) {
+      return (long) LONGS.getVolatile(buffer, index << 3);
+    }
+
+    @Override
+    void set(int index, long value) {
+      LONGS.set(buffer, index << 3, value);
+    }
+
+    @Override
+    void setRelease(int index, long value) {
+      LONGS.setRelease(buffer, index << 3, value);
+    }
+
+    @Override
+    boolean compareAndSet(int index, long expected, long value) {
+      return LONGS.compareAndSet(buffer, index << 3, expected, value);
+    }
+
+    @Override
+    long getAndSet(int index, long value) {
+      return (long) LONGS.getAndSet(buffer, index << 3, value);
+    }
+  }
+
+}
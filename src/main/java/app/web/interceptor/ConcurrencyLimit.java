@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import infra.lang.Constant;
+import infra.web.annotation.Interceptor;
+
+/**
+ * 并发限制（舱壁）：限制接口同时执行的请求数，超出时立即响应 503，不在数据库连接池上排队
+ * <p>
+ * 可以在方法或者类上标注，{@link #group()} 相同的接口共用一个上限
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see ConcurrencyLimitInterceptor
+ * @since 1.0 2026/10/16 19:00
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Interceptor(ConcurrencyLimitInterceptor.class)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface ConcurrencyLimit {
+
+  /**
+   * 同时执行的最大请求数，自适应算法的上限不超过该值
+   */
+  int value() default 10;
+
+  /**
+   * 自适应算法的最小上限
+   */
+  int minLimit() default 1;
+
+  /**
+   * 分组名称，相同分组的接口共用一个上限，默认每个接口一个上限
+   */
+  String group() default "";
+
+  /**
+   * 并发限制算法，默认为固定上限
+   */
+  ConcurrencyLimitAlgorithm algorithm() default ConcurrencyLimitAlgorithm.FIXED;
+
+  /**
+   * {@link ConcurrencyLimitAlgorithm#AIMD} 认为请求过慢的耗时，单位毫秒
+   */
+  long slowCallThreshold() default 1000;
+
+  /**
+   * 超出上限时的错误消息
+   */
+  String errorMessage() default Constant.DEFAULT_NONE;
+
+}
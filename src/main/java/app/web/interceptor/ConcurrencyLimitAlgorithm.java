@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 并发限制算法
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see ConcurrencyLimiter
+ * @since 1.0 2026/10/16 19:00
+ */
+public enum ConcurrencyLimitAlgorithm {
+
+  /**
+   * 固定上限：同时执行的请求不超过 {@link ConcurrencyLimit#value()}
+   */
+  FIXED,
+
+  /**
+   * AIMD (Additive Increase Multiplicative Decrease)：
+   * 请求超时或者耗时超过 {@link ConcurrencyLimit#slowCallThreshold()} 时上限乘以 0.9，
+   * 其它请求在上限用满一半以上时加 1
+   */
+  AIMD,
+
+  /**
+   * 梯度算法（类似 TCP Vegas）：比较短期耗时和长期耗时，排队导致耗时变长时按比例降低上限，
+   * 耗时稳定时留出 {@code sqrt(limit)} 的余量继续增长
+   */
+  GRADIENT
+
+}
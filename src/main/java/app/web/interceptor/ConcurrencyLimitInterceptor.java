@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.lang.reflect.Method;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import app.web.ErrorMessage;
+import app.web.ErrorMessageException;
+import infra.http.HttpStatus;
+import infra.http.MediaType;
+import infra.http.ResponseEntity;
+import infra.lang.Assert;
+import infra.lang.Constant;
+import infra.lang.Nullable;
+import infra.util.ConcurrentReferenceHashMap;
+import infra.util.MapCache;
+import infra.util.StringUtils;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.handler.method.HandlerMethod;
+
+/**
+ * 并发限制拦截器实现
+ * <p>
+ * 每个接口（或者 {@link ConcurrencyLimit#group()} 分组）一个 {@link ConcurrencyLimiter}，
+ * 超出上限的请求立即响应 503，不会占用数据库连接池。
+ * 请求抛出超时异常（比如连接池获取连接超时）时算作过载，自适应算法据此降低上限。
+ * 接口返回 {@link CompletionStage} 时，等它完成之后才释放
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see ConcurrencyLimiter
+ * @since 1.0 2026/10/16 19:30
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+  private final MapCache<HandlerMethod, Policy, Object> policyCache = new MapCache<>(
+          new ConcurrentReferenceHashMap<>(128), this::createPolicy);
+
+  /**
+   * 不分组的接口各自的限制器，强引用保存：{@link #policyCache} 中的条目被回收后重新创建的
+   * {@link Policy} 仍然使用同一个限制器，正在处理的请求计数不会丢失
+   */
+  private final ConcurrentHashMap<Method, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+  /** 分组共用的限制器 */
+  private final ConcurrentHashMap<String, ConcurrencyLimiter> groups = new ConcurrentHashMap<>();
+
+  private final Ticker ticker;
+
+  private String defaultErrorMessage = "服务繁忙，请稍后再试";
+
+  public ConcurrencyLimitInterceptor() {
+    this(Ticker.systemTicker());
+  }
+
+  ConcurrencyLimitInterceptor(Ticker ticker) {
+    this.ticker = ticker;
+  }
+
+  public void setDefaultErrorMessage(String defaultErrorMessage) {
+    Assert.notNull(defaultErrorMessage, "默认的错误消息不能为空");
+    this.defaultErrorMessage = defaultErrorMessage;
+  }
+
+  /**
+   * 分组共用的限制器，可以用来查看当前上限和被拒绝的请求数
+   */
+  public Map<String, ConcurrencyLimiter> getGroups() {
+    return groups;
+  }
+
+  @Nullable
+  @Override
+  public Object intercept(RequestContext request, InterceptorChain chain) throws Throwable {
+    HandlerMethod handlerMethod = HandlerMethod.unwrap(chain.getHandler());
+    if (handlerMethod != null) {
+      Policy policy = policyCache.get(handlerMethod);
+      if (policy != null) {
+        ConcurrencyLimiter limiter = policy.limiter;
+        if (!limiter.tryAcquire()) {
+          return writeServiceUnavailable(policy.concurrencyLimit, handlerMethod);
+        }
+        long start = ticker.read();
+        Object result;
+        try {
+          result = chain.proceed(request);
+        }
+        catch (Throwable e) {
+          limiter.release(ticker.read() - start, isOverload(e));
+          throw e;
+        }
+        if (result instanceof CompletionStage<?> stage) {
+          // 异步接口完成之后才释放
+          return stage.whenComplete((value, ex) ->
+                  limiter.release(ticker.read() - start, ex != null && isOverload(ex)));
+        }
+        limiter.release(ticker.read() - start, false);
+        return result;
+      }
+    }
+    return chain.proceed(request);
+  }
+
+  private ResponseEntity<ErrorMessage> writeServiceUnavailable(ConcurrencyLimit concurrencyLimit, HandlerMethod handler) {
+    String errorMessage = concurrencyLimit.errorMessage();
+    if (Constant.DEFAULT_NONE.equals(errorMessage)) {
+      errorMessage = defaultErrorMessage;
+    }
+
+    if (!handler.isResponseBody()) {
+      throw ErrorMessageException.failed(errorMessage, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorMessage.failed(errorMessage));
+  }
+
+  /**
+   * 异常是否说明下游已经过载：获取数据库连接超时或者其它超时
+   */
+  static boolean isOverload(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLTransientConnectionException || cause instanceof TimeoutException) {
+        return true;
+      }
+      if (cause.getCause() == cause) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private Policy createPolicy(HandlerMethod handlerMethod) {
+    ConcurrencyLimit concurrencyLimit = findConcurrencyLimit(handlerMethod);
+    if (concurrencyLimit != null) {
+      Assert.isTrue(concurrencyLimit.value() > 0, "最大并发数必须大于 0");
+      String group = concurrencyLimit.group();
+      ConcurrencyLimiter limiter = StringUtils.hasText(group)
+              ? groups.computeIfAbsent(group, key -> ConcurrencyLimiter.of(concurrencyLimit))
+              : limiters.computeIfAbsent(handlerMethod.getMethod(), key -> ConcurrencyLimiter.of(concurrencyLimit));
+      return new Policy(concurrencyLimit, limiter);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static ConcurrencyLimit findConcurrencyLimit(HandlerMethod handlerMethod) {
+    if (handlerMethod.hasMethodAnnotation(ConcurrencyLimit.class)) {
+      return handlerMethod.getMethodAnnotation(ConcurrencyLimit.class);
+    }
+    return handlerMethod.getBeanType().getAnnotation(ConcurrencyLimit.class);
+  }
+
+  /**
+   * 接口对应的并发限制
+   */
+  record Policy(ConcurrencyLimit concurrencyLimit, ConcurrencyLimiter limiter) {
+
+  }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import infra.lang.Assert;
+
+/**
+ * 并发限制器，记录同时执行的请求数和当前上限
+ * <p>
+ * {@link #tryAcquire()} 通过 CAS 占用一个名额，不加锁也不排队；
+ * 请求结束时调用 {@link #release(long, boolean)}，自适应算法根据耗时和是否超时调整上限
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see ConcurrencyLimitAlgorithm
+ * @since 1.0 2026/10/16 19:10
+ */
+public abstract class ConcurrencyLimiter {
+
+  /** 正在执行的请求数 */
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final LongAdder rejected = new LongAdder();
+
+  protected final int minLimit;
+
+  protected final int maxLimit;
+
+  /** 当前上限 */
+  protected volatile int limit;
+
+  protected ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    Assert.isTrue(minLimit > 0, "最小并发数必须大于 0");
+    Assert.isTrue(maxLimit >= minLimit, "最大并发数不能小于最小并发数");
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * 尝试占用一个名额
+   *
+   * @return 超出上限时返回 {@code false}
+   */
+  public boolean tryAcquire() {
+    for (; ; ) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        rejected.increment();
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 释放 {@link #tryAcquire()} 占用的名额
+   *
+   * @param rtt 请求耗时，单位纳秒
+   * @param dropped 请求是否因为超时等过载原因失败
+   */
+  public void release(long rtt, boolean dropped) {
+    int inFlight = this.inFlight.getAndDecrement();
+    onSample(rtt, inFlight, dropped);
+  }
+
+  /**
+   * 根据请求结果调整上限
+   *
+   * @param rtt 请求耗时，单位纳秒
+   * @param inFlight 请求结束前正在执行的请求数，包括它自己
+   * @param dropped 请求是否因为超时等过载原因失败
+   */
+  protected abstract void onSample(long rtt, int inFlight, boolean dropped);
+
+  /**
+   * 当前上限
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * 正在执行的请求数
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * 被拒绝的请求总数
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  protected final int clamp(double limit) {
+    return (int) Math.max(minLimit, Math.min(maxLimit, limit));
+  }
+
+  public static ConcurrencyLimiter of(ConcurrencyLimit concurrencyLimit) {
+    int maxLimit = concurrencyLimit.value();
+    int minLimit = Math.min(concurrencyLimit.minLimit(), maxLimit);
+    return switch (concurrencyLimit.algorithm()) {
+      case FIXED -> new Fixed(maxLimit);
+      case AIMD -> new Aimd(minLimit, maxLimit,
+              TimeUnit.MILLISECONDS.toNanos(concurrencyLimit.slowCallThreshold()));
+      case GRADIENT -> new Gradient(minLimit, maxLimit);
+    };
+  }
+
+  /**
+   * 固定上限
+   */
+  static final class Fixed extends ConcurrencyLimiter {
+
+    Fixed(int limit) {
+      super(limit, 1, limit);
+    }
+
+    @Override
+    protected void onSample(long rtt, int inFlight, boolean dropped) {
+
+    }
+
+  }
+
+  /**
+   * 超时或者过慢时乘以 {@link #BACKOFF_RATIO}，上限用满一半以上时加 1
+   */
+  static final class Aimd extends ConcurrencyLimiter {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final long slowCallThreshold;
+
+    Aimd(int minLimit, int maxLimit, long slowCallThreshold) {
+      super((minLimit + maxLimit) / 2, minLimit, maxLimit);
+      Assert.isTrue(slowCallThreshold > 0, "慢请求阈值必须大于 0");
+      this.slowCallThreshold = slowCallThreshold;
+    }
+
+    @Override
+    protected synchronized void onSample(long rtt, int inFlight, boolean dropped) {
+      int limit = this.limit;
+      if (dropped || rtt > slowCallThreshold) {
+        this.limit = clamp(limit * BACKOFF_RATIO);
+      }
+      else if (inFlight * 2 >= limit) {
+        // 请求量不足以用满上限时不增长，否则上限会无限放大
+        this.limit = clamp(limit + 1);
+      }
+    }
+
+  }
+
+  /**
+   * 梯度算法
+   * <p>
+   * 长期耗时是耗时的指数移动平均（约 {@link #LONG_WINDOW} 个样本），代表没有排队时的耗时；
+   * 梯度 {@code longRtt / rtt} 限制在 0.5 到 1 之间，新上限为 {@code limit * gradient + sqrt(limit)}，
+   * 再和旧上限做平滑
+   */
+  static final class Gradient extends ConcurrencyLimiter {
+
+    static final int LONG_WINDOW = 600;
+
+    static final double SMOOTHING = 0.2;
+
+    /** 上限的精确值，{@link #limit} 是它取整的结果 */
+    private double estimatedLimit;
+
+    /** 长期耗时，单位纳秒，0 表示还没有样本 */
+    private double longRtt;
+
+    Gradient(int minLimit, int maxLimit) {
+      super((minLimit + maxLimit) / 2, minLimit, maxLimit);
+      this.estimatedLimit = limit;
+    }
+
+    @Override
+    protected synchronized void onSample(long rtt, int inFlight, boolean dropped) {
+      if (rtt <= 0) {
+        return;
+      }
+      double longRtt = this.longRtt;
+      if (longRtt == 0) {
+        longRtt = rtt;
+      }
+      else {
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+      }
+      // 耗时长期偏高时让长期耗时快速回落，避免上限一直降不下来
+      if (longRtt / rtt > 2) {
+        longRtt *= 0.95;
+      }
+      this.longRtt = longRtt;
+
+      double estimatedLimit = this.estimatedLimit;
+      // 请求量不足以用满上限时不增长
+      if (!dropped && inFlight < estimatedLimit / 2) {
+        return;
+      }
+      double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, longRtt / rtt));
+      double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+      estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+      estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+      this.estimatedLimit = estimatedLimit;
+      this.limit = clamp(estimatedLimit);
+    }
+
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.List;
+
+import infra.dao.DuplicateKeyException;
+import infra.jdbc.JdbcConnection;
+import infra.jdbc.NamedQuery;
+import infra.jdbc.RepositoryManager;
+import infra.lang.Assert;
+
+/**
+ * 使用数据库表作为共享计数器
+ * <p>
+ * 每个 key 每个窗口一行，只使用条件更新和插入，不需要行锁和事务，
+ * 表结构见 {@code db/schema-mysql.sql} 中的 {@code t_rate_limit}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 17:10
+ */
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+  /** 并发插入冲突时的重试次数 */
+  static final int MAX_ATTEMPTS = 3;
+
+  private final RepositoryManager repositoryManager;
+
+  private final String updateSql;
+
+  private final String selectSql;
+
+  private final String insertSql;
+
+  private final String deleteSql;
+
+  public JdbcRateLimitBackend(RepositoryManager repositoryManager) {
+    this(repositoryManager, "t_rate_limit");
+  }
+
+  public JdbcRateLimitBackend(RepositoryManager repositoryManager, String tableName) {
+    Assert.notNull(repositoryManager, "RepositoryManager is required");
+    Assert.hasText(tableName, "tableName is required");
+    this.repositoryManager = repositoryManager;
+    this.updateSql = "UPDATE " + tableName + " SET permits = permits + :permits "
+            + "WHERE lease_key = :key AND window_index = :window AND permits + :permits <= :limit";
+    this.selectSql = "SELECT permits FROM " + tableName + " WHERE lease_key = :key AND window_index = :window";
+    this.insertSql = "INSERT INTO " + tableName + " (lease_key, window_index, permits, expires_at) "
+            + "VALUES (:key, :window, :permits, :expiresAt)";
+    this.deleteSql = "DELETE FROM " + tableName + " WHERE expires_at <= :now";
+  }
+
+  @Override
+  public int[] lease(List<LeaseRequest> requests) {
+    int[] granted = new int[requests.size()];
+    try (JdbcConnection connection = repositoryManager.open()) {
+      NamedQuery update = connection.createNamedQuery(updateSql);
+      NamedQuery select = connection.createNamedQuery(selectSql);
+      NamedQuery insert = connection.createNamedQuery(insertSql);
+      for (int i = 0; i < granted.length; i++) {
+        granted[i] = lease(requests.get(i), update, select, insert);
+      }
+      return granted;
+    }
+  }
+
+  @Override
+  public void removeExpired(long currentTimeMillis) {
+    repositoryManager.createNamedQuery(deleteSql)
+            .addParameter("now", currentTimeMillis)
+            .executeUpdate();
+  }
+
+  private static int lease(LeaseRequest request, NamedQuery update, NamedQuery select, NamedQuery insert) {
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      // 额度足够时一条语句完成
+      if (increment(update, request, request.permits())) {
+        return request.permits();
+      }
+
+      Integer used = select.addParameter("key", request.key())
+              .addParameter("window", request.window())
+              .fetchScalar(Integer.class);
+
+      if (used == null) {
+        int permits = Math.min(request.permits(), request.limit());
+        if (insert(insert, request, permits)) {
+          return permits;
+        }
+        // 其它节点先插入了，重新尝试
+        continue;
+      }
+
+      int permits = Math.min(request.permits(), request.limit() - used);
+      if (permits <= 0) {
+        return 0;
+      }
+      if (increment(update, request, permits)) {
+        return permits;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean increment(NamedQuery update, LeaseRequest request, int permits) {
+    return update.addParameter("permits", permits)
+            .addParameter("key", request.key())
+            .addParameter("window", request.window())
+            .addParameter("limit", request.limit())
+            .executeUpdate()
+            .getResult() > 0;
+  }
+
+  private static boolean insert(NamedQuery insert, LeaseRequest request, int permits) {
+    try {
+      return insert.addParameter("key", request.key())
+              .addParameter("window", request.window())
+              .addParameter("permits", permits)
+              .addParameter("expiresAt", request.expiresAt())
+              .executeUpdate()
+              .getResult() > 0;
+    }
+    catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+}
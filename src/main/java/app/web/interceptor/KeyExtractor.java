@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import app.web.util.IpUtils;
+import app.web.util.PackedAddress;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.util.StringUtils;
+import infra.web.RequestContext;
+
+/**
+ * 从请求中取出限流 key，压缩成两个 {@code long}
+ * <p>
+ * 每个接口在创建 {@link RequestLimitInterceptor.Policy} 时根据 {@link RequestLimit#key()}
+ * 组装一次，请求时不再读取注解。IP 以外的 key 高位使用 {@code UNKNOWN_HIGH | n}，
+ * {@link PackedAddress} 不会把任何地址解析到这些值（{@code 100::/8} 中的地址按无法解析处理），
+ * 伪造的请求头也进不了用户、会话的桶；取不到值时（未登录、没有会话、没有请求头）退回到 IP。
+ * <p>
+ * 一次调用同时得到高位和低位，写入调用方的 {@code long[2]}，再作为基本类型传给 {@link RateLimitStore}：
+ * 客户端地址只取一次、解析一次，用户、会话也只读一次，请求时不分配对象
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 18:20
+ */
+interface KeyExtractor {
+
+  long USER_HIGH = PackedAddress.UNKNOWN_HIGH | 1;
+
+  long SESSION_HIGH = PackedAddress.UNKNOWN_HIGH | 2;
+
+  long HEADER_HIGH = PackedAddress.UNKNOWN_HIGH | 3;
+
+  /** 未登录时 {@link ToLongFunction users} 返回的值 */
+  long ANONYMOUS = Long.MIN_VALUE;
+
+  /**
+   * 取出 key，高 64 位写入 {@code key[0]}，低 64 位写入 {@code key[1]}
+   */
+  void extract(RequestContext request, long[] key);
+
+  /**
+   * 客户端 IP
+   */
+  KeyExtractor IP = (request, key) -> PackedAddress.parse(IpUtils.remoteAddress(request), key);
+
+  /**
+   * 客户端 IP 所在的网段
+   */
+  KeyExtractor IP_PREFIX = (request, key) -> {
+    PackedAddress.parse(IpUtils.remoteAddress(request), key);
+    key[1] = PackedAddress.prefixLow(key[0], key[1]);
+  };
+
+  /**
+   * 根据注解组装
+   *
+   * @param users 当前登录用户的 ID，未登录时返回 {@link #ANONYMOUS}
+   * @param sessions 当前会话的 ID，没有会话时返回 {@code null}
+   */
+  static KeyExtractor of(RequestLimit requestLimit,
+          @Nullable ToLongFunction<RequestContext> users, @Nullable Function<RequestContext, String> sessions) {
+    RateLimitKey[] keys = requestLimit.key();
+    Assert.notEmpty(keys, "限流 key 不能为空");
+    if (keys.length == 1) {
+      return of(keys[0], requestLimit, users, sessions);
+    }
+    KeyExtractor[] extractors = new KeyExtractor[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      extractors[i] = of(keys[i], requestLimit, users, sessions);
+    }
+    return composite(extractors);
+  }
+
+  private static KeyExtractor of(RateLimitKey rateLimitKey, RequestLimit requestLimit,
+          @Nullable ToLongFunction<RequestContext> users, @Nullable Function<RequestContext, String> sessions) {
+    return switch (rateLimitKey) {
+      case IP -> IP;
+      case IP_PREFIX -> IP_PREFIX;
+      case USER -> {
+        Assert.state(users != null, "按用户限流需要 SessionManager");
+        yield (request, key) -> {
+          long id = users.applyAsLong(request);
+          if (id != ANONYMOUS) {
+            key[0] = USER_HIGH;
+            key[1] = id;
+          }
+          else {
+            IP.extract(request, key);
+          }
+        };
+      }
+      case SESSION -> {
+        Assert.state(sessions != null, "按会话限流需要 SessionManager");
+        yield (request, key) -> {
+          String id = sessions.apply(request);
+          if (id != null) {
+            key[0] = SESSION_HIGH;
+            key[1] = PackedAddress.hash(id);
+          }
+          else {
+            IP.extract(request, key);
+          }
+        };
+      }
+      case HEADER -> {
+        String name = requestLimit.header();
+        Assert.state(StringUtils.hasText(name), "按请求头限流需要指定 header");
+        yield (request, key) -> {
+          String value = request.requestHeaders().getFirst(name);
+          if (value != null) {
+            key[0] = HEADER_HIGH;
+            key[1] = PackedAddress.hash(value);
+          }
+          else {
+            IP.extract(request, key);
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * 多个 key 组合成一个
+   */
+  static KeyExtractor composite(KeyExtractor... extractors) {
+    return (request, key) -> {
+      long high = 0;
+      long low = 0;
+      for (KeyExtractor extractor : extractors) {
+        extractor.extract(request, key);
+        high = mix(high, key[0]);
+        low = mix(low, key[1]);
+      }
+      key[0] = high;
+      key[1] = low;
+    };
+  }
+
+  private static long mix(long hash, long value) {
+    return (Long.rotateLeft(hash, 31) ^ value) * 0x9E3779B97F4A7C15L;
+  }
+
+}
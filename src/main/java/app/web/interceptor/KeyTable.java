@@ -0,0 +1,180 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 以（接口 ID，high，low）为 key 的并发哈希表
+ * <p>
+ * key 直接保存在元素上，查找只需要三个基本类型参数，不分配 key 对象。
+ * 桶的数量在创建时确定，不扩容，元素超出容量时链表变长；
+ * 读取不加锁，插入和删除按桶分段加锁
+ *
+ * @param <E> 元素类型
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 09:10
+ */
+final class KeyTable<E extends KeyTable.Entry<E>> {
+
+  static final int STRIPES = 64;
+
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private final AtomicReferenceArray<E> buckets;
+
+  private final int mask;
+
+  private final Object[] locks = new Object[STRIPES];
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * @param capacity 预计的元素数量
+   */
+  KeyTable(int capacity) {
+    Assert.isTrue(capacity > 0, "容量必须大于0");
+    int buckets = Integer.highestOneBit((int) Math.min(MAXIMUM_CAPACITY, capacity * 4L / 3 + 1) - 1) << 1;
+    this.buckets = new AtomicReferenceArray<>(Math.max(STRIPES, buckets));
+    this.mask = this.buckets.length() - 1;
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  @Nullable
+  E get(int id, long high, long low) {
+    E entry = buckets.get(indexOf(id, high, low));
+    while (entry != null) {
+      if (entry.keyId() == id && entry.keyHigh() == high && entry.keyLow() == low) {
+        return entry;
+      }
+      entry = entry.nextEntry();
+    }
+    return null;
+  }
+
+  /**
+   * 元素是否还在表中
+   */
+  boolean contains(E entry) {
+    return get(entry.keyId(), entry.keyHigh(), entry.keyLow()) == entry;
+  }
+
+  /**
+   * 加入元素
+   *
+   * @return 已经存在的元素，加入成功时返回 {@code null}
+   */
+  @Nullable
+  E putIfAbsent(E entry) {
+    int index = indexOf(entry.keyId(), entry.keyHigh(), entry.keyLow());
+    synchronized(locks[index & (STRIPES - 1)]) {
+      E existing = get(entry.keyId(), entry.keyHigh(), entry.keyLow());
+      if (existing != null) {
+        return existing;
+      }
+      entry.setNextEntry(buckets.get(index));
+      buckets.set(index, entry);
+      size.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * 删除元素，只有表中是同一个对象时才删除
+   */
+  boolean remove(E entry) {
+    int index = indexOf(entry.keyId(), entry.keyHigh(), entry.keyLow());
+    synchronized(locks[index & (STRIPES - 1)]) {
+      return unlink(index, entry);
+    }
+  }
+
+  /**
+   * 删除满足条件的元素
+   */
+  void removeIf(Predicate<E> predicate) {
+    for (int index = 0; index <= mask; index++) {
+      if (buckets.get(index) != null) {
+        synchronized(locks[index & (STRIPES - 1)]) {
+          E entry = buckets.get(index);
+          while (entry != null) {
+            E next = entry.nextEntry();
+            if (predicate.test(entry)) {
+              unlink(index, entry);
+            }
+            entry = next;
+          }
+        }
+      }
+    }
+  }
+
+  int size() {
+    return size.get();
+  }
+
+  private boolean unlink(int index, E entry) {
+    E prev = null;
+    E current = buckets.get(index);
+    while (current != null) {
+      if (current == entry) {
+        // 删除的元素保留 next，正在遍历的读线程可以继续向后查找
+        if (prev == null) {
+          buckets.set(index, entry.nextEntry());
+        }
+        else {
+          prev.setNextEntry(entry.nextEntry());
+        }
+        size.decrementAndGet();
+        return true;
+      }
+      prev = current;
+      current = current.nextEntry();
+    }
+    return false;
+  }
+
+  private int indexOf(int id, long high, long low) {
+    return (int) CompactRateLimitStore.hash(id, high, low) & mask;
+  }
+
+  /**
+   * 表中的元素，{@link #nextEntry()} 需要是 volatile 的，读取不加锁
+   */
+  interface Entry<E> {
+
+    int keyId();
+
+    long keyHigh();
+
+    long keyLow();
+
+    @Nullable
+    E nextEntry();
+
+    void setNextEntry(@Nullable E next);
+
+  }
+
+}
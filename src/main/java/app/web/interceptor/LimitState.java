@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.io.Serial;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.util.TimerWheel;
+import infra.lang.Nullable;
+
+/**
+ * 一个 key 的限流状态，值由 {@link RateLimiter} 解释
+ * <p>
+ * 通过 {@link RateLimiter#newState()} 创建
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 11:40
+ */
+public class LimitState extends AtomicLong implements KeyTable.Entry<LimitState>, TimerWheel.Node<LimitState> {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  final transient RateLimiter rateLimiter;
+
+  // 以下字段由 LocalRateLimitStore 在锁内访问
+
+  /** 在存储中对应的 key */
+  transient int keyId;
+
+  transient long keyHigh;
+
+  transient long keyLow;
+
+  /** 在时间轮中调度的到期时间 */
+  transient long deadline;
+
+  @Nullable
+  transient LimitState prev;
+
+  @Nullable
+  transient LimitState next;
+
+  /** 同一个桶中的下一个状态，读取不加锁 */
+  @Nullable
+  private transient volatile LimitState nextEntry;
+
+  protected LimitState(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  public RateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  @Override
+  public int keyId() {
+    return keyId;
+  }
+
+  @Override
+  public long keyHigh() {
+    return keyHigh;
+  }
+
+  @Override
+  public long keyLow() {
+    return keyLow;
+  }
+
+  @Nullable
+  @Override
+  public LimitState nextEntry() {
+    return nextEntry;
+  }
+
+  @Override
+  public void setNextEntry(@Nullable LimitState next) {
+    this.nextEntry = next;
+  }
+
+  @Override
+  public long getDeadline() {
+    return deadline;
+  }
+
+  @Nullable
+  @Override
+  public LimitState getPrevious() {
+    return prev;
+  }
+
+  @Override
+  public void setPrevious(@Nullable LimitState previous) {
+    this.prev = previous;
+  }
+
+  @Nullable
+  @Override
+  public LimitState getNext() {
+    return next;
+  }
+
+  @Override
+  public void setNext(@Nullable LimitState next) {
+    this.next = next;
+  }
+
+  /**
+   * 获取一次许可
+   *
+   * @param now 引擎时间，单位纳秒
+   * @return 是否获取成功
+   */
+  public boolean tryAcquire(long now) {
+    return rateLimiter.tryAcquire(this, now);
+  }
+
+  /**
+   * 获取一次许可
+   *
+   * @param now 引擎时间，单位纳秒
+   * @return 获取之后的状态，被拒绝时为当前状态加上 {@link RateLimiter#REJECTED_BIT}
+   */
+  public long acquire(long now) {
+    return rateLimiter.acquire(this, now);
+  }
+
+  /**
+   * 状态过期的时间
+   *
+   * @param now 引擎时间，单位纳秒
+   */
+  public long expiresAt(long now) {
+    return rateLimiter.expiresAt(this, now);
+  }
+
+  /**
+   * 状态是否已经过期
+   *
+   * @param now 引擎时间，单位纳秒
+   */
+  public boolean isExpired(long now) {
+    return get() == RateLimiter.EMPTY || now - expiresAt(now) >= 0;
+  }
+
+}
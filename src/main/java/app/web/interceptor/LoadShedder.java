@@ -0,0 +1,203 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import infra.lang.Assert;
+
+/**
+ * 全局的过载保护，根据正在执行的请求数和请求耗时决定过载级别，按优先级丢弃请求
+ * <p>
+ * 耗时的判断参考 CoDel：每个时间间隔内的最小耗时超过目标值说明请求在排队（等连接、等锁、等 CPU），
+ * 过载级别加 1；最小耗时低于目标值的一半时减 1。最小耗时不受个别慢请求影响。
+ * 正在执行的请求数超过 {@link #setMaxInFlight(int)} 的一定比例时也会丢弃低优先级的请求。
+ * <p>
+ * 判定只读取一个 {@code volatile} 级别和一个计数器，不加锁，间隔到期时只有一个线程重新计算级别
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see Priority
+ * @since 1.0 2026/10/16 20:20
+ */
+public class LoadShedder {
+
+  /** 最高的过载级别，此时只处理 {@link Priority#CRITICAL} */
+  static final int MAX_LEVEL = 3;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /** 当前间隔内的最小耗时 */
+  private final AtomicLong intervalMin = new AtomicLong(Long.MAX_VALUE);
+
+  private final AtomicLong intervalStart;
+
+  private final LongAdder shed = new LongAdder();
+
+  private final Ticker ticker;
+
+  /** 过载级别，0 表示不丢弃 */
+  private volatile int level;
+
+  private int maxInFlight = 64;
+
+  /** 每个优先级允许的最大请求数，按 {@link Priority#ordinal()} 排列 */
+  private int[] inFlightLimits = inFlightLimits(64);
+
+  private long targetDelay = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private long interval = TimeUnit.MILLISECONDS.toNanos(500);
+
+  public LoadShedder() {
+    this(Ticker.systemTicker());
+  }
+
+  LoadShedder(Ticker ticker) {
+    this.ticker = ticker;
+    this.intervalStart = new AtomicLong(ticker.read());
+  }
+
+  /**
+   * 同时执行的请求数上限，{@link Priority#LOW} 在一半时开始丢弃，
+   * {@link Priority#NORMAL} 在 3/4，{@link Priority#HIGH} 在上限，默认 64
+   */
+  public void setMaxInFlight(int maxInFlight) {
+    Assert.isTrue(maxInFlight > 0, "最大请求数必须大于 0");
+    this.maxInFlight = maxInFlight;
+    this.inFlightLimits = inFlightLimits(maxInFlight);
+  }
+
+  private static int[] inFlightLimits(int maxInFlight) {
+    int[] limits = new int[Priority.values().length];
+    limits[Priority.CRITICAL.ordinal()] = Integer.MAX_VALUE;
+    limits[Priority.HIGH.ordinal()] = maxInFlight;
+    limits[Priority.NORMAL.ordinal()] = Math.max(1, maxInFlight * 3 / 4);
+    limits[Priority.LOW.ordinal()] = Math.max(1, maxInFlight / 2);
+    return limits;
+  }
+
+  /**
+   * 耗时的目标值，间隔内的最小耗时超过它时提高过载级别，默认 100ms
+   */
+  public void setTargetDelay(long targetDelay, TimeUnit unit) {
+    Assert.isTrue(targetDelay > 0, "目标耗时必须大于 0");
+    this.targetDelay = unit.toNanos(targetDelay);
+  }
+
+  /**
+   * 重新计算过载级别的间隔，默认 500ms
+   */
+  public void setInterval(long interval, TimeUnit unit) {
+    Assert.isTrue(interval > 0, "间隔必须大于 0");
+    this.interval = unit.toNanos(interval);
+  }
+
+  /**
+   * 当前过载级别是否丢弃该优先级，不计数
+   */
+  public boolean isShedding(Priority priority) {
+    return level >= priority.sheddingLevel;
+  }
+
+  /**
+   * 尝试开始执行一个请求，成功后必须调用 {@link #release(long)}
+   *
+   * @return 需要丢弃时返回 {@code false}
+   */
+  public boolean tryAcquire(Priority priority) {
+    if (isShedding(priority)) {
+      shed.increment();
+      // 被丢弃的请求不会调用 release，这里也要检查间隔，否则没有请求完成时级别降不下来
+      updateLevel(ticker.read());
+      return false;
+    }
+    if (inFlight.incrementAndGet() > inFlightLimits[priority.ordinal()]) {
+      inFlight.decrementAndGet();
+      shed.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 请求开始的时间，传给 {@link #release(long)}
+   */
+  public long start() {
+    return ticker.read();
+  }
+
+  /**
+   * 请求结束
+   *
+   * @param start {@link #start()} 返回的时间
+   */
+  public void release(long start) {
+    inFlight.decrementAndGet();
+    long now = ticker.read();
+    long delay = now - start;
+    long min = intervalMin.get();
+    while (delay < min && !intervalMin.compareAndSet(min, delay)) {
+      min = intervalMin.get();
+    }
+
+    updateLevel(now);
+  }
+
+  /**
+   * 间隔到期时根据间隔内的最小耗时调整级别，间隔内没有完成的请求时按不过载处理
+   */
+  private void updateLevel(long now) {
+    long intervalStart = this.intervalStart.get();
+    if (now - intervalStart < interval || !this.intervalStart.compareAndSet(intervalStart, now)) {
+      return;
+    }
+    long minDelay = intervalMin.getAndSet(Long.MAX_VALUE);
+    int level = this.level;
+    if (minDelay == Long.MAX_VALUE || minDelay < targetDelay / 2) {
+      if (level > 0) {
+        this.level = level - 1;
+      }
+    }
+    else if (minDelay > targetDelay && level < MAX_LEVEL) {
+      this.level = level + 1;
+    }
+  }
+
+  /**
+   * 当前过载级别，0 表示不丢弃
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * 正在执行的请求数
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * 丢弃的请求总数
+   */
+  public long getShed() {
+    return shed.sum();
+  }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.CompletionStage;
+
+import app.session.PrincipalResolver;
+import app.web.ErrorMessage;
+import app.web.ErrorMessageException;
+import infra.http.HttpHeaders;
+import infra.http.HttpStatus;
+import infra.http.MediaType;
+import infra.http.ResponseEntity;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.util.ConcurrentReferenceHashMap;
+import infra.util.MapCache;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.handler.method.HandlerMethod;
+
+/**
+ * 全局的过载保护拦截器
+ * <p>
+ * 接口的优先级由 {@link RequestPriority} 声明，没有声明的接口为 {@link Priority#NORMAL}，
+ * 其中匿名用户的请求按 {@link Priority#LOW} 处理，只有在丢弃 {@link Priority#LOW} 时才需要查找登录用户。
+ * 被丢弃的请求立即响应 503 和 {@code Retry-After}。
+ * 接口返回 {@link CompletionStage} 时，等它完成之后才释放占用的并发数
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see LoadShedder
+ * @since 1.0 2026/10/16 20:40
+ */
+public class LoadSheddingInterceptor implements HandlerInterceptor {
+
+  private final MapCache<HandlerMethod, Priority, Object> priorityCache = new MapCache<>(
+          new ConcurrentReferenceHashMap<>(128), LoadSheddingInterceptor::findPriority);
+
+  private final LoadShedder loadShedder;
+
+  @Nullable
+  private final PrincipalResolver principalResolver;
+
+  private String errorMessage = "服务繁忙，请稍后再试";
+
+  public LoadSheddingInterceptor(LoadShedder loadShedder, @Nullable PrincipalResolver principalResolver) {
+    Assert.notNull(loadShedder, "LoadShedder is required");
+    this.loadShedder = loadShedder;
+    this.principalResolver = principalResolver;
+  }
+
+  public void setErrorMessage(String errorMessage) {
+    Assert.notNull(errorMessage, "错误消息不能为空");
+    this.errorMessage = errorMessage;
+  }
+
+  public LoadShedder getLoadShedder() {
+    return loadShedder;
+  }
+
+  @Nullable
+  @Override
+  public Object intercept(RequestContext request, InterceptorChain chain) throws Throwable {
+    HandlerMethod handlerMethod = HandlerMethod.unwrap(chain.getHandler());
+    if (handlerMethod == null) {
+      return chain.proceed(request);
+    }
+
+    Priority priority = priorityCache.get(handlerMethod);
+    if (priority == Priority.NORMAL && loadShedder.isShedding(Priority.LOW) && isAnonymous(request)) {
+      priority = Priority.LOW;
+    }
+    if (!loadShedder.tryAcquire(priority)) {
+      return writeServiceUnavailable(request, handlerMethod);
+    }
+
+    long start = loadShedder.start();
+    Object result;
+    try {
+      result = chain.proceed(request);
+    }
+    catch (Throwable e) {
+      loadShedder.release(start);
+      throw e;
+    }
+    if (result instanceof CompletionStage<?> stage) {
+      // 异步接口（包括 @Blocking）完成之后才释放，延迟按实际处理时间统计
+      return stage.whenComplete((value, ex) -> loadShedder.release(start));
+    }
+    loadShedder.release(start);
+    return result;
+  }
+
+  private boolean isAnonymous(RequestContext request) {
+    if (principalResolver == null) {
+      return false;
+    }
+    return !principalResolver.isPresent(request);
+  }
+
+  private ResponseEntity<ErrorMessage> writeServiceUnavailable(RequestContext request, HandlerMethod handler) {
+    request.responseHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+    if (!handler.isResponseBody()) {
+      throw ErrorMessageException.failed(errorMessage, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ErrorMessage.failed(errorMessage));
+  }
+
+  private static Priority findPriority(HandlerMethod handlerMethod) {
+    RequestPriority priority = handlerMethod.getMethodAnnotation(RequestPriority.class);
+    if (priority == null) {
+      priority = handlerMethod.getBeanType().getAnnotation(RequestPriority.class);
+    }
+    return priority != null ? priority.value() : Priority.NORMAL;
+  }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.io.Serial;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import app.util.TimerWheel;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+
+/**
+ * 本地内存中的限流状态存储，默认的 {@link RateLimitStore}
+ * <p>
+ * 状态保存在 {@link KeyTable} 中，key 直接保存在状态上，已有 key 的判定只有一次查找和 CAS，
+ * 不分配对象。每个 key 只需要一个 {@link LimitState}，支持所有的限流算法。
+ * 过期由 {@link TimerWheel} 处理：状态按到期时间放入时间轮，到期时再确认一次，
+ * 仍然活跃就重新调度，否则删除，均摊 O(1)，不再扫描整个表。
+ * <p>
+ * 容量有硬上限 {@link #getMaximumSize()}，超出时按时间轮的顺序淘汰最早到期的状态（近似 LRU），
+ * 最近仍有请求的状态会得到一次重新调度的机会。被淘汰的 key 相当于重新开始计数，
+ * 这是为了保证大量不同来源的请求不能无限占用堆内存。
+ * <p>
+ * 新 key 先进入待处理队列，维护工作（调度新 key、推进时间轮、淘汰）在 {@link ReentrantLock#tryLock()}
+ * 成功的线程上顺带完成，请求线程不会在锁上等待
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 13:40
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+  /** 两次推进时间轮的最小间隔 */
+  static final long TICK = TimeUnit.MILLISECONDS.toNanos(100);
+
+  /** 每次淘汰时最多给多少个活跃状态重新调度的机会 */
+  static final int MAX_SECOND_CHANCES = 16;
+
+  /** 请求线程顺带执行维护工作的最大轮数 */
+  static final int MAX_MAINTAIN_ROUNDS = 3;
+
+  private final int maximumSize;
+
+  private final KeyTable<LimitState> states;
+
+  private final ConcurrentLinkedQueue<LimitState> pending = new ConcurrentLinkedQueue<>();
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final TimerWheel<LimitState> timerWheel;
+
+  /** 下一次推进时间轮的时间 */
+  private volatile long nextTick;
+
+  /**
+   * @param maximumSize 最多保存多少个 key 的状态
+   */
+  public LocalRateLimitStore(int maximumSize) {
+    Assert.isTrue(maximumSize > 0, "最大缓存数不能小于0");
+    this.maximumSize = maximumSize;
+    this.states = new KeyTable<>(maximumSize);
+    // 第一次维护时时间轮推进到当前时间
+    this.timerWheel = new TimerWheel<>(0, Sentinel::new);
+    this.nextTick = 0;
+  }
+
+  @Override
+  public long acquire(int id, long high, long low, RateLimiter rateLimiter, long now) {
+    boolean created = false;
+    LimitState state = states.get(id, high, low);
+    if (state == null) {
+      LimitState newState = rateLimiter.newState();
+      newState.keyId = id;
+      newState.keyHigh = high;
+      newState.keyLow = low;
+      state = states.putIfAbsent(newState);
+      if (state == null) {
+        state = newState;
+        created = true;
+      }
+    }
+
+    long result = state.acquire(now);
+    if (created) {
+      pending.add(state);
+      maintain(now);
+    }
+    else if (now - nextTick >= 0) {
+      maintain(now);
+    }
+    return result;
+  }
+
+  /**
+   * 获取 key 对应的状态
+   */
+  @Nullable
+  public LimitState getState(int id, long high, long low) {
+    return states.get(id, high, low);
+  }
+
+  @Override
+  public int size() {
+    return states.size();
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * 执行维护工作：调度新 key、删除过期状态、淘汰超出容量的状态
+   *
+   * @param now 引擎时间
+   */
+  @Override
+  public void cleanUp(long now) {
+    lock.lock();
+    try {
+      doMaintain(now);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private void maintain(long now) {
+    // 持有锁期间可能有其它线程加入了新 key，释放后再检查一次
+    for (int i = 0; i < MAX_MAINTAIN_ROUNDS && lock.tryLock(); i++) {
+      try {
+        doMaintain(now);
+      }
+      finally {
+        lock.unlock();
+      }
+      if (pending.isEmpty() && states.size() <= maximumSize) {
+        break;
+      }
+    }
+  }
+
+  private void doMaintain(long now) {
+    LimitState state;
+    while ((state = pending.poll()) != null) {
+      if (states.contains(state)) {
+        schedule(state, now);
+      }
+    }
+
+    if (now - nextTick >= 0) {
+      timerWheel.advance(now, this::expire);
+      this.nextTick = now + TICK;
+    }
+
+    evictIfNecessary(now);
+  }
+
+  private void schedule(LimitState state, long now) {
+    // 还没有来得及获取许可的新状态，至少保留一个时间段
+    state.deadline = state.get() == RateLimiter.EMPTY
+            ? now + state.rateLimiter.getPeriod() : state.expiresAt(now);
+    timerWheel.schedule(state);
+  }
+
+  /**
+   * 时间轮中到期的状态，确认过期就删除，否则更新到期时间等待重新调度
+   */
+  private boolean expire(LimitState state) {
+    long now = timerWheel.nanos();
+    if (state.isExpired(now)) {
+      states.remove(state);
+      return true;
+    }
+    state.deadline = state.expiresAt(now);
+    return false;
+  }
+
+  private void evictIfNecessary(long now) {
+    int secondChances = 0;
+    while (states.size() > maximumSize) {
+      LimitState victim = timerWheel.peekFirst();
+      if (victim == null) {
+        break;
+      }
+      timerWheel.deschedule(victim);
+
+      long deadline = victim.expiresAt(now);
+      if (deadline - victim.deadline > 0 && secondChances < MAX_SECOND_CHANCES) {
+        // 调度之后还有请求，重新调度
+        secondChances++;
+        victim.deadline = deadline;
+        timerWheel.schedule(victim);
+      }
+      else {
+        states.remove(victim);
+      }
+    }
+  }
+
+  /**
+   * 时间轮中桶的哨兵节点
+   */
+  private static final class Sentinel extends LimitState {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    Sentinel() {
+      super(null);
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 状态完全由一个 {@code long} 表示的限流算法
+ * <p>
+ * 算法本身无状态、线程安全，通过 CAS 更新状态，判定过程中不加锁也不分配对象，
+ * 状态可以直接保存在 {@link CompactRateLimitStore} 这样的原始类型表中
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 16:10
+ */
+public abstract class PackedRateLimiter extends RateLimiter {
+
+  protected PackedRateLimiter(int limit, long period) {
+    super(limit, period);
+  }
+
+  /**
+   * 尝试获取一次许可
+   *
+   * @param state 当前状态，{@link #EMPTY} 表示没有状态
+   * @param now 引擎时间，单位纳秒
+   * @return 获取成功后的新状态，被拒绝时返回 {@link #REJECTED}
+   */
+  public abstract long acquire(long state, long now);
+
+  /**
+   * 状态等价于 {@link #EMPTY} 的时间点，过了这个时间点就可以删除该状态
+   *
+   * @param state 当前状态
+   * @param now 引擎时间，单位纳秒，部分算法需要用它还原状态里截断的时间
+   * @return 引擎时间，单位纳秒
+   */
+  public abstract long expiresAt(long state, long now);
+
+  /**
+   * 状态是否已经过期
+   */
+  public boolean isExpired(long state, long now) {
+    return state == EMPTY || now >= expiresAt(state, now);
+  }
+
+  @Override
+  public long expiresAt(LimitState state, long now) {
+    return expiresAt(state.get(), now);
+  }
+
+  @Override
+  public long resetAt(long state, long now) {
+    return state == EMPTY ? now : expiresAt(state, now);
+  }
+
+  /**
+   * 在 {@code state} 上通过 CAS 获取一次许可
+   */
+  @Override
+  public long acquire(LimitState state, long now) {
+    for (;;) {
+      long current = state.get();
+      long next = acquire(current, now);
+      if (next == REJECTED) {
+        return current | REJECTED_BIT;
+      }
+      if (next == current || state.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+}
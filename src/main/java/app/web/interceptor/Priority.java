@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 请求优先级，过载时从低到高依次丢弃
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see RequestPriority
+ * @see LoadShedder
+ * @since 1.0 2026/10/16 20:10
+ */
+public enum Priority {
+
+  /**
+   * 不丢弃，比如几乎没有开销的会话检查
+   */
+  CRITICAL(Integer.MAX_VALUE),
+
+  /**
+   * 登录等认证相关的请求
+   */
+  HIGH(3),
+
+  /**
+   * 默认优先级，匿名用户的请求按 {@link #LOW} 处理
+   */
+  NORMAL(2),
+
+  /**
+   * 最先丢弃，比如后台列表
+   */
+  LOW(1);
+
+  /** 过载级别达到该值时丢弃 */
+  final int sheddingLevel;
+
+  Priority(int sheddingLevel) {
+    this.sheddingLevel = sheddingLevel;
+  }
+
+}
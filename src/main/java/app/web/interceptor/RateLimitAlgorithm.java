@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 限流算法
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see RateLimiter
+ * @since 1.0 2026/10/16 10:20
+ */
+public enum RateLimitAlgorithm {
+
+  /**
+   * 使用 {@link RequestLimitInterceptor#setDefaultAlgorithm(RateLimitAlgorithm)} 设置的默认算法
+   */
+  DEFAULT,
+
+  /**
+   * 固定窗口：窗口从第一次请求开始计时，窗口内最多 {@code count} 次
+   * <p>
+   * 每次判定 O(1)，每个 key 一个 {@code long}。窗口交界处最多可能放过 2 倍请求
+   */
+  FIXED_WINDOW,
+
+  /**
+   * 令牌桶：容量为 {@code count}，每 {@code timeout / count} 补充一个令牌
+   * <p>
+   * 每次判定 O(1)，每个 key 一个 {@code long}
+   */
+  TOKEN_BUCKET,
+
+  /**
+   * 滑动窗口计数：按上一个窗口的剩余占比加权估算当前滑动窗口内的请求数
+   * <p>
+   * 每次判定 O(1)，每个 key 一个 {@code long}，没有窗口交界处的突发。
+   * {@code count} 最大为 {@code 2^20 - 1}
+   */
+  SLIDING_WINDOW,
+
+  /**
+   * GCRA (Generic Cell Rate Algorithm)：只记录理论到达时间 (TAT)
+   * <p>
+   * 每次判定 O(1)，每个 key 一个 {@code long}，纳秒精度。
+   * 请求间隔均匀时与令牌桶等价，允许的突发为 {@code count}
+   */
+  GCRA,
+
+  /**
+   * 滑动日志：记录最近 {@code count} 次通过的请求时间，精确限制任意时间段内的次数
+   * <p>
+   * 每次判定 O(1) 但需要对该 key 加锁，每个 key 占用 {@code 8 * count} 字节，
+   * 适合次数较少的接口，比如登录。{@code count} 不能超过 1024
+   */
+  SLIDING_LOG
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.List;
+
+/**
+ * {@link SharedRateLimitStore} 使用的共享计数器，所有节点连接同一个后端
+ * <p>
+ * 每个 key 在每个时间窗口内有一个计数器，节点一次预留多个许可，
+ * 计数器不会超过限额
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see JdbcRateLimitBackend
+ * @since 1.0 2026/10/16 16:40
+ */
+public interface RateLimitBackend {
+
+  /**
+   * 批量预留许可
+   *
+   * @param requests 预留请求
+   * @return 每个请求实际预留到的许可数，和 {@code requests} 一一对应，额度用完时为 0
+   * @throws RuntimeException 后端不可用
+   */
+  int[] lease(List<LeaseRequest> requests);
+
+  /**
+   * 删除已经过期的计数器
+   *
+   * @param currentTimeMillis 当前时间
+   */
+  default void removeExpired(long currentTimeMillis) {
+
+  }
+
+  /**
+   * 预留请求
+   *
+   * @param key 计数器的 key，所有节点一致
+   * @param window 时间窗口的序号
+   * @param limit 窗口内的限额
+   * @param permits 希望预留的许可数
+   * @param expiresAt 计数器过期的时间，毫秒
+   */
+  record LeaseRequest(String key, long window, int limit, int permits, long expiresAt) {
+
+  }
+
+}
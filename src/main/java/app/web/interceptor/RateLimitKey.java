@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 限流 key 的来源，{@link RequestLimit#key()} 指定多个时组合成一个 key
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see KeyExtractor
+ * @since 1.0 2026/10/16 18:10
+ */
+public enum RateLimitKey {
+
+  /**
+   * 客户端 IP
+   */
+  IP,
+
+  /**
+   * 客户端 IP 所在的网段：IPv4 为 /24，IPv6 为 /64，同一个网段共享限额
+   */
+  IP_PREFIX,
+
+  /**
+   * 登录用户的 ID，未登录时使用 IP
+   */
+  USER,
+
+  /**
+   * 会话 ID，没有会话时使用 IP
+   */
+  SESSION,
+
+  /**
+   * {@link RequestLimit#header()} 指定的请求头的值，请求头不存在时使用 IP
+   */
+  HEADER
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 限流状态存储
+ * <p>
+ * key 由三部分组成：接口的编号 {@code id}（每个限流接口一个，从 0 开始连续分配），
+ * 以及 128 位的客户端标识 {@code high}、{@code low}（比如 IP 地址，见 {@link app.web.util.PackedAddress}），
+ * 全部是基本类型，存储可以不为 key 创建对象
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see LocalRateLimitStore
+ * @see CompactRateLimitStore
+ * @see SharedRateLimitStore
+ * @since 1.0 2026/10/16 15:40
+ */
+public interface RateLimitStore {
+
+  /**
+   * 获取一次许可
+   *
+   * @param id 接口编号
+   * @param high 客户端标识高 64 位
+   * @param low 客户端标识低 64 位
+   * @param rateLimiter 该接口的限流算法
+   * @param now 引擎时间，单位纳秒
+   * @return 获取之后的状态，被拒绝时为当前状态加上 {@link RateLimiter#REJECTED_BIT}；
+   * 没有可用的状态时，状态部分为 {@link RateLimiter#EMPTY}
+   * @see RateLimiter#isAcquired(long)
+   * @see RateLimiter#stateOf(long)
+   */
+  long acquire(int id, long high, long low, RateLimiter rateLimiter, long now);
+
+  /**
+   * 获取一次许可
+   *
+   * @return 是否获取成功
+   * @see #acquire(int, long, long, RateLimiter, long)
+   */
+  default boolean tryAcquire(int id, long high, long low, RateLimiter rateLimiter, long now) {
+    return RateLimiter.isAcquired(acquire(id, high, low, rateLimiter, now));
+  }
+
+  /**
+   * 接口编号分配之后调用，接口编号只在一个节点内有效，
+   * 多个节点共享的存储使用 {@code name} 识别同一个接口
+   *
+   * @param id 接口编号
+   * @param name 接口名称，所有节点一致
+   * @param rateLimiter 该接口的限流算法
+   */
+  default void register(int id, String name, RateLimiter rateLimiter) {
+
+  }
+
+  /**
+   * 当前保存的 key 数量
+   */
+  int size();
+
+  /**
+   * 执行维护工作，删除过期的状态
+   *
+   * @param now 引擎时间，单位纳秒
+   */
+  void cleanUp(long now);
+
+}
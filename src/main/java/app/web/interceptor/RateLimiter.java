@@ -0,0 +1,626 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.util.concurrent.TimeUnit;
+
+import infra.lang.Assert;
+
+/**
+ * 限流算法的策略接口
+ * <p>
+ * 大部分算法的状态压缩在一个 {@code long} 里，见 {@link PackedRateLimiter}。
+ * {@link RateLimitAlgorithm#SLIDING_LOG} 例外，它的状态需要额外的日志数组，只能通过 {@link #newState()}
+ * 创建的 {@link LimitState} 使用，{@code long} 状态只是用于计算响应头的摘要。
+ * <p>
+ * 时间参数 {@code now} 是引擎时间：从某个起点开始经过的纳秒数，始终大于等于 1 毫秒，
+ * 由 {@link RequestLimitInterceptor} 基于 {@link Ticker} 计算。
+ * <p>
+ * 计数和时间打包时，高 24 位（符号位不用）存计数，低 40 位存毫秒时间，
+ * 40 位毫秒大约可以表示 34 年。
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see RateLimitAlgorithm
+ * @since 1.0 2026/10/16 10:25
+ */
+public abstract class RateLimiter {
+
+  /**
+   * 空状态：从未请求或者已经过期
+   */
+  public static final long EMPTY = 0L;
+
+  /**
+   * {@link PackedRateLimiter#acquire(long, long)} 返回该值表示请求被拒绝
+   */
+  public static final long REJECTED = -1L;
+
+  /**
+   * {@link #acquire(LimitState, long)} 和 {@link RateLimitStore#acquire} 的结果中表示请求被拒绝的标志位，
+   * 其余的位是当前状态，状态总是非负数
+   */
+  public static final long REJECTED_BIT = Long.MIN_VALUE;
+
+  /**
+   * {@link RequestLimit#count()} 允许的最大值
+   */
+  public static final int MAX_COUNT = (1 << 23) - 1;
+
+  static final int TIME_BITS = 40;
+
+  static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+  /** 时间段内允许的次数 */
+  protected final int limit;
+
+  /** 时间段，单位纳秒 */
+  protected final long period;
+
+  /** 时间段，单位毫秒 */
+  protected final long periodMillis;
+
+  protected RateLimiter(int limit, long period) {
+    Assert.isTrue(limit > 0 && limit <= MAX_COUNT, "限流次数必须在 1 到 " + MAX_COUNT + " 之间");
+    Assert.isTrue(period >= TimeUnit.MILLISECONDS.toNanos(1), "限流时间段不能小于 1 毫秒");
+    this.limit = limit;
+    this.period = period;
+    this.periodMillis = TimeUnit.NANOSECONDS.toMillis(period);
+  }
+
+  /**
+   * 时间段内允许的次数
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * 时间段，单位纳秒
+   */
+  public long getPeriod() {
+    return period;
+  }
+
+  /**
+   * 状态等价于空状态的时间点，过了这个时间点就可以删除该状态
+   *
+   * @param state 通过 {@link #newState()} 创建的状态
+   * @param now 引擎时间，单位纳秒
+   * @return 引擎时间，单位纳秒
+   */
+  public abstract long expiresAt(LimitState state, long now);
+
+  /**
+   * 剩余的次数，用于 {@code X-RateLimit-Remaining}
+   *
+   * @param state 当前状态
+   * @param now 引擎时间，单位纳秒
+   */
+  public abstract int remaining(long state, long now);
+
+  /**
+   * 下一次可以获取许可的时间，用于 {@code Retry-After}
+   *
+   * @param state 当前状态
+   * @param now 引擎时间，单位纳秒
+   * @return 引擎时间，现在就可以获取时返回 {@code now}
+   */
+  public abstract long retryAt(long state, long now);
+
+  /**
+   * 额度完全恢复的时间，用于 {@code X-RateLimit-Reset}
+   *
+   * @param state 当前状态
+   * @param now 引擎时间，单位纳秒
+   * @return 引擎时间
+   */
+  public abstract long resetAt(long state, long now);
+
+  /**
+   * 创建一个空状态
+   */
+  public LimitState newState() {
+    return new LimitState(this);
+  }
+
+  /**
+   * 在 {@code state} 上获取一次许可
+   *
+   * @return 是否获取成功
+   */
+  public boolean tryAcquire(LimitState state, long now) {
+    return isAcquired(acquire(state, now));
+  }
+
+  /**
+   * 在 {@code state} 上获取一次许可
+   *
+   * @param state 通过 {@link #newState()} 创建的状态
+   * @param now 引擎时间，单位纳秒
+   * @return 获取之后的状态，被拒绝时为当前状态加上 {@link #REJECTED_BIT}
+   */
+  public abstract long acquire(LimitState state, long now);
+
+  // Static
+
+  /**
+   * {@link #acquire(LimitState, long)} 的结果是否表示获取成功
+   */
+  public static boolean isAcquired(long result) {
+    return result >= 0;
+  }
+
+  /**
+   * 从 {@link #acquire(LimitState, long)} 的结果中取出状态
+   */
+  public static long stateOf(long result) {
+    return result & ~REJECTED_BIT;
+  }
+
+  /**
+   * 根据注解创建限流器
+   *
+   * @param algorithm 算法，不能是 {@link RateLimitAlgorithm#DEFAULT}
+   * @param requestLimit 限流配置
+   */
+  public static RateLimiter of(RateLimitAlgorithm algorithm, RequestLimit requestLimit) {
+    return of(algorithm, requestLimit.count(), requestLimit.unit().toNanos(requestLimit.timeout()));
+  }
+
+  /**
+   * 创建限流器
+   *
+   * @param algorithm 算法，不能是 {@link RateLimitAlgorithm#DEFAULT}
+   * @param limit 时间段内允许的次数
+   * @param period 时间段，单位纳秒
+   */
+  public static RateLimiter of(RateLimitAlgorithm algorithm, int limit, long period) {
+    return switch (algorithm) {
+      case FIXED_WINDOW -> new FixedWindow(limit, period);
+      case TOKEN_BUCKET -> new TokenBucket(limit, period);
+      case SLIDING_WINDOW -> new SlidingWindow(limit, period);
+      case GCRA -> new Gcra(limit, period);
+      case SLIDING_LOG -> new SlidingLog(limit, period);
+      case DEFAULT -> throw new IllegalArgumentException("请指定具体的限流算法");
+    };
+  }
+
+  static long millis(long now) {
+    return now / 1_000_000L;
+  }
+
+  static long nanos(long millis) {
+    return millis * 1_000_000L;
+  }
+
+  static long pack(long count, long millis) {
+    return (count << TIME_BITS) | (millis & TIME_MASK);
+  }
+
+  static long count(long state) {
+    return state >>> TIME_BITS;
+  }
+
+  static long time(long state) {
+    return state & TIME_MASK;
+  }
+
+  /**
+   * 固定窗口
+   * <p>
+   * 状态：窗口内已请求次数 + 窗口开始时间。每次判定 O(1)
+   */
+  static final class FixedWindow extends PackedRateLimiter {
+
+    FixedWindow(int limit, long period) {
+      super(limit, period);
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+      long nowMillis = millis(now);
+      long count = count(state);
+      long start = time(state);
+      if (state == EMPTY || nowMillis - start >= periodMillis) {
+        // 新窗口
+        count = 0;
+        start = nowMillis;
+      }
+      if (count >= limit) {
+        return REJECTED;
+      }
+      return pack(count + 1, start);
+    }
+
+    @Override
+    public long expiresAt(long state, long now) {
+      return nanos(time(state) + periodMillis);
+    }
+
+    @Override
+    public int remaining(long state, long now) {
+      if (state == EMPTY || millis(now) - time(state) >= periodMillis) {
+        return limit;
+      }
+      return (int) Math.max(0, limit - count(state));
+    }
+
+    @Override
+    public long retryAt(long state, long now) {
+      if (remaining(state, now) > 0) {
+        return now;
+      }
+      return Math.max(now, expiresAt(state, now));
+    }
+  }
+
+  /**
+   * 令牌桶
+   * <p>
+   * 状态：剩余令牌数 + 上次补充令牌的时间。容量为 {@code limit}，
+   * 每 {@code period / limit} 补充一个令牌。每次判定 O(1)
+   */
+  static final class TokenBucket extends PackedRateLimiter {
+
+    TokenBucket(int limit, long period) {
+      super(limit, period);
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+      long refilled = refill(state, millis(now));
+      if (count(refilled) == 0) {
+        return REJECTED;
+      }
+      return pack(count(refilled) - 1, time(refilled));
+    }
+
+    @Override
+    public long expiresAt(long state, long now) {
+      long missing = limit - count(state);
+      // 向上取整，补满所需的时间
+      long fullAfter = (missing * periodMillis + limit - 1) / limit;
+      return nanos(time(state) + fullAfter);
+    }
+
+    @Override
+    public int remaining(long state, long now) {
+      return (int) count(refill(state, millis(now)));
+    }
+
+    @Override
+    public long retryAt(long state, long now) {
+      long refilled = refill(state, millis(now));
+      if (count(refilled) > 0) {
+        return now;
+      }
+      // 补充一个令牌所需的时间，向上取整
+      return Math.max(now, nanos(time(refilled) + (periodMillis + limit - 1) / limit));
+    }
+
+    /**
+     * 补充令牌
+     *
+     * @return 补充之后的令牌数 + 上次补充令牌的时间
+     */
+    private long refill(long state, long nowMillis) {
+      long tokens;
+      long refillAt;
+      if (state == EMPTY) {
+        tokens = limit;
+        refillAt = nowMillis;
+      }
+      else {
+        tokens = count(state);
+        refillAt = time(state);
+        // 并发时 now 可能比状态里的时间稍早
+        long elapsed = Math.max(0, nowMillis - refillAt);
+        if (elapsed >= periodMillis) {
+          tokens = limit;
+          refillAt = nowMillis;
+        }
+        else {
+          long refill = elapsed * limit / periodMillis;
+          if (refill > 0) {
+            tokens += refill;
+            if (tokens >= limit) {
+              tokens = limit;
+              refillAt = nowMillis;
+            }
+            else {
+              // 只前进补充令牌所用的时间，保留零头
+              refillAt += refill * periodMillis / limit;
+            }
+          }
+        }
+      }
+
+      return pack(tokens, refillAt);
+    }
+  }
+
+  /**
+   * 滑动窗口计数
+   * <p>
+   * 窗口按引擎时间对齐，估算值 = 上一窗口次数 * 上一窗口在滑动窗口中的占比 + 当前窗口次数。
+   * 状态：窗口序号（截断为 23 位）+ 上一窗口次数 + 当前窗口次数，各 20 位。每次判定 O(1)
+   */
+  static final class SlidingWindow extends PackedRateLimiter {
+
+    static final int MAX_COUNT = (1 << 20) - 1;
+
+    static final int COUNT_BITS = 20;
+
+    static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    static final int INDEX_BITS = 23;
+
+    static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    SlidingWindow(int limit, long period) {
+      super(limit, period);
+      Assert.isTrue(limit <= MAX_COUNT, "滑动窗口的限流次数不能大于 " + MAX_COUNT);
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+      long nowMillis = millis(now);
+      long index = nowMillis / periodMillis;
+      long previous = 0;
+      long current = 0;
+      if (state != EMPTY) {
+        long distance = distance(state, index);
+        if (distance <= 0) {
+          // 同一个窗口，或者并发时 now 比状态里的窗口稍早
+          index -= distance;
+          previous = (state >>> COUNT_BITS) & COUNT_MASK;
+          current = state & COUNT_MASK;
+        }
+        else if (distance == 1) {
+          previous = state & COUNT_MASK;
+        }
+      }
+
+      // previous * (period - elapsed) / period + current < limit
+      long elapsed = Math.max(0, nowMillis - index * periodMillis);
+      if (previous * (periodMillis - elapsed) + current * periodMillis >= limit * periodMillis) {
+        return REJECTED;
+      }
+      return ((index & INDEX_MASK) << (COUNT_BITS * 2)) | (previous << COUNT_BITS) | (current + 1);
+    }
+
+    @Override
+    public long expiresAt(long state, long now) {
+      long index = millis(now) / periodMillis;
+      long windowIndex = index - distance(state, index);
+      // 当前窗口成为上一窗口，并且完全滑出
+      return nanos((windowIndex + 2) * periodMillis);
+    }
+
+    @Override
+    public int remaining(long state, long now) {
+      long nowMillis = millis(now);
+      long index = nowMillis / periodMillis;
+      long previous = 0;
+      long current = 0;
+      if (state != EMPTY) {
+        long distance = distance(state, index);
+        if (distance <= 0) {
+          index -= distance;
+          previous = (state >>> COUNT_BITS) & COUNT_MASK;
+          current = state & COUNT_MASK;
+        }
+        else if (distance == 1) {
+          previous = state & COUNT_MASK;
+        }
+      }
+      long elapsed = Math.max(0, nowMillis - index * periodMillis);
+      long used = (previous * (periodMillis - elapsed) + current * periodMillis) / periodMillis;
+      return (int) Math.max(0, limit - used);
+    }
+
+    @Override
+    public long retryAt(long state, long now) {
+      if (remaining(state, now) > 0) {
+        return now;
+      }
+      long index = millis(now) / periodMillis;
+      long distance = distance(state, index);
+      if (distance > 1) {
+        return now;
+      }
+      long previous = 0;
+      long current = state & COUNT_MASK;
+      if (distance <= 0) {
+        index -= distance;
+        previous = (state >>> COUNT_BITS) & COUNT_MASK;
+      }
+      else {
+        // 状态里的窗口已经是上一窗口
+        index--;
+      }
+
+      long retryMillis;
+      if (distance <= 0 && current < limit) {
+        // 当前窗口内，上一窗口继续滑出：previous * (period - elapsed) < (limit - current) * period
+        long remain = ceilDiv((limit - current) * periodMillis, previous) - 1;
+        retryMillis = index * periodMillis + periodMillis - remain;
+      }
+      else {
+        // 下一个窗口：current * (period - elapsed) < limit * period
+        long remain = ceilDiv(limit * periodMillis, current) - 1;
+        retryMillis = (index + 1) * periodMillis + Math.max(0, periodMillis - remain);
+      }
+      return Math.max(now, nanos(retryMillis));
+    }
+
+    private static long ceilDiv(long x, long y) {
+      return (x + y - 1) / y;
+    }
+
+    /**
+     * 当前窗口与状态里窗口的距离，按 23 位有符号数计算
+     */
+    private static long distance(long state, long index) {
+      long stored = state >>> (COUNT_BITS * 2);
+      return ((index - stored) << (64 - INDEX_BITS)) >> (64 - INDEX_BITS);
+    }
+  }
+
+  /**
+   * GCRA (Generic Cell Rate Algorithm)
+   * <p>
+   * 发射间隔 {@code T = period / limit}，容忍度 {@code period - T}，
+   * 状态就是理论到达时间 (TAT)，纳秒精度。每次判定 O(1)
+   */
+  static final class Gcra extends PackedRateLimiter {
+
+    /** 发射间隔 */
+    private final long interval;
+
+    Gcra(int limit, long period) {
+      super(limit, period);
+      this.interval = period / limit;
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+      long tat = Math.max(state, now);
+      long next = tat + interval;
+      if (next - now > period) {
+        return REJECTED;
+      }
+      return next;
+    }
+
+    @Override
+    public long expiresAt(long state, long now) {
+      return state;
+    }
+
+    @Override
+    public int remaining(long state, long now) {
+      if (interval == 0) {
+        return limit;
+      }
+      long tat = Math.max(state, now);
+      long remaining = (period - (tat - now)) / interval;
+      return (int) Math.max(0, Math.min(limit, remaining));
+    }
+
+    @Override
+    public long retryAt(long state, long now) {
+      return Math.max(now, state + interval - period);
+    }
+  }
+
+  /**
+   * 滑动日志
+   * <p>
+   * 用环形数组记录时间段内通过的时间，记录满了就拒绝，滑出时间段的记录从头部删除。
+   * 均摊 O(1)，需要对该 key 加锁，每个 key 额外占用 {@code 8 * limit} 字节，
+   * 所以限流次数不能大于 {@link #MAX_COUNT}。
+   * 状态的 {@code long} 值是摘要：记录数 + 最早一条记录的毫秒时间，只用于计算响应头，
+   * 过期时间根据最近一条记录计算
+   */
+  static final class SlidingLog extends RateLimiter {
+
+    /** 每个 key 最多 8KB 的日志 */
+    static final int MAX_COUNT = 1024;
+
+    SlidingLog(int limit, long period) {
+      super(limit, period);
+      Assert.isTrue(limit <= MAX_COUNT, "滑动日志的限流次数不能大于 " + MAX_COUNT);
+    }
+
+    @Override
+    public LimitState newState() {
+      return new Log(this);
+    }
+
+    @Override
+    public long acquire(LimitState state, long now) {
+      Log log = (Log) state;
+      synchronized (log) {
+        long[] times = log.times;
+        while (log.size > 0 && now - times[log.head] >= period) {
+          log.head = log.head + 1 == limit ? 0 : log.head + 1;
+          log.size--;
+        }
+        if (log.size == limit) {
+          return log.get() | REJECTED_BIT;
+        }
+
+        int tail = log.head + log.size;
+        times[tail >= limit ? tail - limit : tail] = now;
+        log.size++;
+        long summary = pack(log.size, millis(times[log.head]));
+        log.set(summary);
+        return summary;
+      }
+    }
+
+    /**
+     * 最近一条记录滑出时间段的时间
+     */
+    @Override
+    public long expiresAt(LimitState state, long now) {
+      Log log = (Log) state;
+      synchronized (log) {
+        if (log.size == 0) {
+          return now;
+        }
+        int tail = log.head + log.size - 1;
+        return log.times[tail >= limit ? tail - limit : tail] + period;
+      }
+    }
+
+    @Override
+    public int remaining(long state, long now) {
+      return state == EMPTY ? limit : (int) Math.max(0, limit - count(state));
+    }
+
+    @Override
+    public long retryAt(long state, long now) {
+      if (remaining(state, now) > 0) {
+        return now;
+      }
+      // 最早一条记录滑出，毫秒时间向上取整
+      return Math.max(now, nanos(time(state) + 1) + period);
+    }
+
+    @Override
+    public long resetAt(long state, long now) {
+      return state == EMPTY ? now : Math.max(now, nanos(time(state) + 1) + period);
+    }
+
+    static final class Log extends LimitState {
+
+      final long[] times;
+
+      int head;
+
+      int size;
+
+      Log(SlidingLog rateLimiter) {
+        super(rateLimiter);
+        this.times = new long[rateLimiter.limit];
+      }
+    }
+  }
+
+}
@@ -59,6 +59,23 @@ public @interface RequestLimit {
    */
   TimeUnit unit() default TimeUnit.SECONDS;
 
+  /**
+   * 限流算法，默认使用拦截器上设置的算法
+   *
+   * @see RequestLimitInterceptor#setDefaultAlgorithm(RateLimitAlgorithm)
+   */
+  RateLimitAlgorithm algorithm() default RateLimitAlgorithm.DEFAULT;
+
+  /**
+   * 限流 key 的来源，默认按客户端 IP 限流，指定多个时组合成一个 key
+   */
+  RateLimitKey[] key() default RateLimitKey.IP;
+
+  /**
+   * {@link RateLimitKey#HEADER} 使用的请求头
+   */
+  String header() default "";
+
   /**
    * 限流触发时的错误消息
    */
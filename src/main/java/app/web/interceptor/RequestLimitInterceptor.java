@@ -17,24 +17,25 @@
 package app.web.interceptor;
 
 import java.lang.reflect.Method;
-import java.time.Clock;
-import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
+import app.session.PrincipalResolver;
+import app.session.UserPrincipal;
 import app.web.ErrorMessage;
 import app.web.ErrorMessageException;
-import app.web.util.IpUtils;
+import infra.http.HttpHeaders;
 import infra.http.HttpStatus;
 import infra.http.MediaType;
 import infra.http.ResponseEntity;
 import infra.lang.Assert;
 import infra.lang.Constant;
 import infra.lang.Nullable;
+import infra.session.SessionManager;
+import infra.session.WebSession;
 import infra.util.ConcurrentReferenceHashMap;
 import infra.util.MapCache;
 import infra.web.HandlerInterceptor;
@@ -44,33 +45,155 @@ import infra.web.handler.method.HandlerMethod;
 
 /**
  * Web 限流拦截器实现
+ * <p>
+ * 每个 key + 接口的限流状态保存在一个 {@link LimitState} 中，
+ * 由 {@link RateLimiter} 通过 CAS 更新，判定过程不加锁。
+ * 限流算法由 {@link RequestLimit#algorithm()} 指定，key 由 {@link RequestLimit#key()} 指定，默认是客户端 IP，
+ * 按用户或会话限流时需要 {@link #setSessionManager(SessionManager)}。
+ * 状态保存在 {@link RateLimitStore} 中，key 是接口编号加上压缩成两个 {@code long} 的 key，
+ * 默认使用 {@link LocalRateLimitStore}，过期自动删除，数量不超过 {@link #setMaxCacheSize(int)}；
+ * key 很多时可以通过 {@link #setRateLimitStore(RateLimitStore)} 换成 {@link CompactRateLimitStore}，
+ * 多节点部署时换成 {@link SharedRateLimitStore}
+ * <p>
+ * 被限流时响应 {@code X-RateLimit-Limit}、{@code X-RateLimit-Remaining}、
+ * {@code X-RateLimit-Reset}（UTC 秒）和 {@code Retry-After}（秒），
+ * 由限流状态直接计算；{@link #setHeadersOnSuccess(boolean)} 打开后成功的响应也带上前三个
  *
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @see RateLimiter
  * @since 1.0 2025/3/4 21:44
  */
 public class RequestLimitInterceptor implements HandlerInterceptor {
 
-  static final MapCache<HandlerMethod, RequestLimit, Object> requestLimitConfigCache = new MapCache<>(
-          new ConcurrentReferenceHashMap<>(128), RequestLimitInterceptor::findRequestLimit);
+  public static final String X_RATE_LIMIT_LIMIT = "X-RateLimit-Limit";
 
-  private int maxCacheSize = 1024;
+  public static final String X_RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+
+  public static final String X_RATE_LIMIT_RESET = "X-RateLimit-Reset";
+
+  /** 0 到 1023 的字符串，响应头的剩余次数和等待秒数不需要每次转换 */
+  private static final String[] NUMBERS = new String[1024];
+
+  static {
+    for (int i = 0; i < NUMBERS.length; i++) {
+      NUMBERS[i] = Integer.toString(i);
+    }
+  }
+
+  /** 当前线程取出的限流 key，高 64 位和低 64 位，请求时不分配对象 */
+  private static final ThreadLocal<long[]> keyBuffer = ThreadLocal.withInitial(() -> new long[2]);
+
+  private final MapCache<HandlerMethod, Policy, Object> policyCache = new MapCache<>(
+          new ConcurrentReferenceHashMap<>(128), this::createPolicy);
+
+  /** 默认最多保存 65536 个 key 的状态，大约 10M 堆内存 */
+  private int maxCacheSize = 65536;
 
   private String defaultErrorMessage = "操作频繁";
 
-  private final Clock clock = Clock.systemUTC();
+  private RateLimitAlgorithm defaultAlgorithm = RateLimitAlgorithm.FIXED_WINDOW;
+
+  /** 每个接口方法的编号，从 0 开始连续分配，配置重新解析时保持不变 */
+  private final ConcurrentHashMap<Method, Integer> policyIds = new ConcurrentHashMap<>();
+
+  private final AtomicInteger nextPolicyId = new AtomicInteger();
+
+  private final Ticker ticker;
+
+  /** 引擎时间的起点 */
+  private final long origin;
+
+  /** 引擎时间起点对应的 UTC 毫秒 */
+  private final long originEpochMillis;
+
+  private RateLimitStore rateLimitStore;
 
-  private final ExpiredChecker expiredChecker = new ExpiredChecker();
+  /** 是否通过 {@link #setRateLimitStore(RateLimitStore)} 设置了存储 */
+  private boolean customStore;
 
-  private final ConcurrentHashMap<RequestKey, RequestLimitEntry> requestLimitCache = new ConcurrentHashMap<>();
+  private boolean headersOnSuccess = false;
+
+  @Nullable
+  private SessionManager sessionManager;
+
+  @Nullable
+  private PrincipalResolver principalResolver;
+
+  /** 最近一次计算的 X-RateLimit-Reset，同一秒内的请求共用一个字符串 */
+  @Nullable
+  private volatile ResetHeader lastReset;
+
+  public RequestLimitInterceptor() {
+    this(Ticker.systemTicker());
+  }
+
+  RequestLimitInterceptor(Ticker ticker) {
+    this.ticker = ticker;
+    // 引擎时间从 1 毫秒开始，保证打包后的状态不会等于 RateLimiter.EMPTY
+    this.origin = ticker.read() - TimeUnit.MILLISECONDS.toNanos(1);
+    this.originEpochMillis = System.currentTimeMillis() - 1;
+    this.rateLimitStore = new LocalRateLimitStore(maxCacheSize);
+  }
 
   public void setDefaultErrorMessage(String defaultErrorMessage) {
     Assert.notNull(defaultErrorMessage, "默认的错误消息不能为空");
     this.defaultErrorMessage = defaultErrorMessage;
   }
 
+  /**
+   * 设置默认存储最多保存多少个 key 的限流状态，超出时淘汰最早到期的状态，
+   * 只对默认的 {@link LocalRateLimitStore} 有效
+   *
+   * @throws IllegalStateException 已经通过 {@link #setRateLimitStore(RateLimitStore)} 设置了存储
+   */
   public void setMaxCacheSize(int maxCacheSize) {
     Assert.isTrue(maxCacheSize > 0, "最大缓存数不能小于0");
+    Assert.state(!customStore, "已经设置了限流状态存储，最大缓存数需要在创建存储时指定");
     this.maxCacheSize = maxCacheSize;
+    this.rateLimitStore = new LocalRateLimitStore(maxCacheSize);
+  }
+
+  /**
+   * 设置限流状态存储，替换默认存储，之后不能再调用 {@link #setMaxCacheSize(int)}
+   */
+  public void setRateLimitStore(RateLimitStore rateLimitStore) {
+    Assert.notNull(rateLimitStore, "限流状态存储不能为空");
+    this.rateLimitStore = rateLimitStore;
+    this.customStore = true;
+  }
+
+  public RateLimitStore getRateLimitStore() {
+    return rateLimitStore;
+  }
+
+  /**
+   * 成功的响应是否也带上 {@code X-RateLimit-*} 响应头，方便客户端控制请求速度，默认不带
+   */
+  public void setHeadersOnSuccess(boolean headersOnSuccess) {
+    this.headersOnSuccess = headersOnSuccess;
+  }
+
+  /**
+   * 设置会话管理器，{@link RateLimitKey#USER} 和 {@link RateLimitKey#SESSION} 需要
+   */
+  public void setSessionManager(@Nullable SessionManager sessionManager) {
+    this.sessionManager = sessionManager;
+  }
+
+  /**
+   * 设置登录用户的查找方式，设置之后 {@link RateLimitKey#USER} 也支持签名令牌
+   */
+  public void setPrincipalResolver(@Nullable PrincipalResolver principalResolver) {
+    this.principalResolver = principalResolver;
+  }
+
+  /**
+   * 设置默认的限流算法，默认为 {@link RateLimitAlgorithm#FIXED_WINDOW}
+   */
+  public void setDefaultAlgorithm(RateLimitAlgorithm defaultAlgorithm) {
+    Assert.notNull(defaultAlgorithm, "默认的限流算法不能为空");
+    Assert.isTrue(defaultAlgorithm != RateLimitAlgorithm.DEFAULT, "请指定具体的默认限流算法");
+    this.defaultAlgorithm = defaultAlgorithm;
   }
 
   @Nullable
@@ -78,9 +201,17 @@ public class RequestLimitInterceptor implements HandlerInterceptor {
   public Object intercept(RequestContext request, InterceptorChain chain) throws Throwable {
     HandlerMethod handlerMethod = HandlerMethod.unwrap(chain.getHandler());
     if (handlerMethod != null) {
-      RequestLimit requestLimit = requestLimitConfigCache.get(handlerMethod);
-      if (requestLimit != null && hasTooManyRequests(request, handlerMethod, requestLimit)) {
-        return writeTooManyRequests(requestLimit, handlerMethod);
+      Policy policy = policyCache.get(handlerMethod);
+      if (policy != null) {
+        long now = now();
+        long result = acquire(request, policy, now);
+        if (!RateLimiter.isAcquired(result)) {
+          writeRateLimitHeaders(request, policy, result, now);
+          return writeTooManyRequests(policy.requestLimit, handlerMethod);
+        }
+        if (headersOnSuccess) {
+          writeRateLimitHeaders(request, policy, result, now);
+        }
       }
       //不需要限流
     }
@@ -99,142 +230,155 @@ public class RequestLimitInterceptor implements HandlerInterceptor {
       throw ErrorMessageException.failed(errorMessage, HttpStatus.TOO_MANY_REQUESTS);
     }
 
-    // X-RateLimit-Limit: The maximum number of requests you're permitted to make per hour.
-    // X-RateLimit-Remaining: The number of requests remaining in the current rate limit window.
-    // X-RateLimit-Reset: the time at which the current rate limit window resets in UTC epoch seconds
-
     return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
             .contentType(MediaType.APPLICATION_JSON)
             .body(ErrorMessage.failed(errorMessage));
   }
 
-  private void checkMaxCacheLimit() {
-    if (requestLimitCache.size() >= maxCacheSize) {
-      expiredChecker.removeExpired(clock.instant());
-    }
-  }
-
   /**
    * 接口的访问频次限制
+   *
+   * @see RateLimitStore#acquire(int, long, long, RateLimiter, long)
    */
-  private boolean hasTooManyRequests(RequestContext request, HandlerMethod handler, RequestLimit requestLimit) {
-    Instant now = clock.instant();
-    expiredChecker.checkIfNecessary(now);
-
-    Method method = handler.getMethod();
-    String ip = IpUtils.remoteAddress(request);
-    RequestKey key = new RequestKey(ip, method);
-
-    return requestLimitCache.computeIfAbsent(key, requestKey -> new RequestLimitEntry(requestLimit))
-            .isExceeded(now);
+  private long acquire(RequestContext request, Policy policy, long now) {
+    long[] key = keyBuffer.get();
+    policy.keyExtractor.extract(request, key);
+    return rateLimitStore.acquire(policy.id, key[0], key[1], policy.rateLimiter, now);
   }
 
   /**
-   * Check for expired entry and remove them.
+   * 根据限流状态写入响应头，被拒绝时加上 {@code Retry-After}
    */
-  private void removeExpiredEntries() {
-    expiredChecker.removeExpired(clock.instant());
-  }
+  private void writeRateLimitHeaders(RequestContext request, Policy policy, long result, long now) {
+    RateLimiter rateLimiter = policy.rateLimiter;
+    HttpHeaders headers = request.responseHeaders();
+    headers.set(X_RATE_LIMIT_LIMIT, policy.limit);
+
+    // 共享存储使用后端计数时没有本地状态
+    long state = RateLimiter.stateOf(result);
+    if (state != RateLimiter.EMPTY) {
+      headers.set(X_RATE_LIMIT_REMAINING, toString(rateLimiter.remaining(state, now)));
+      headers.set(X_RATE_LIMIT_RESET, resetHeader(rateLimiter.resetAt(state, now)));
+    }
 
-  @Nullable
-  private static RequestLimit findRequestLimit(HandlerMethod handlerMethod) {
-    if (handlerMethod.hasMethodAnnotation(RequestLimit.class)) {
-      return handlerMethod.getMethodAnnotation(RequestLimit.class);
+    if (!RateLimiter.isAcquired(result)) {
+      long retryAt = state == RateLimiter.EMPTY
+              ? now + rateLimiter.getPeriod() : rateLimiter.retryAt(state, now);
+      // 向上取整，至少 1 秒
+      long seconds = Math.max(1, (retryAt - now + 999_999_999L) / 1_000_000_000L);
+      headers.set(HttpHeaders.RETRY_AFTER, toString(seconds));
     }
-    return handlerMethod.getBeanType().getAnnotation(RequestLimit.class);
   }
 
-  record RequestKey(String ip, Method action) {
-
+  /**
+   * 引擎时间转换成 UTC 秒，向上取整
+   */
+  private String resetHeader(long resetAt) {
+    long epochSeconds = (originEpochMillis + TimeUnit.NANOSECONDS.toMillis(resetAt) + 999) / 1000;
+    ResetHeader lastReset = this.lastReset;
+    if (lastReset == null || lastReset.epochSeconds != epochSeconds) {
+      lastReset = new ResetHeader(epochSeconds, Long.toString(epochSeconds));
+      this.lastReset = lastReset;
+    }
+    return lastReset.value;
   }
 
-  class RequestLimitEntry {
-    public final int maxCount;
-
-    public volatile int requestCount;
+  private static String toString(long value) {
+    return value < NUMBERS.length ? NUMBERS[(int) value] : Long.toString(value);
+  }
 
-    public Instant lastAccessTime = Instant.now(clock);
+  /**
+   * 引擎时间，单位纳秒
+   */
+  private long now() {
+    return ticker.read() - origin;
+  }
 
-    public final Duration timeout;
+  /**
+   * Check for expired entry and remove them.
+   */
+  public void removeExpiredEntries() {
+    rateLimitStore.cleanUp(now());
+  }
 
-    RequestLimitEntry(RequestLimit requestLimit) {
-      long timeout = requestLimit.timeout();
-      TimeUnit timeUnit = requestLimit.unit();
-      this.maxCount = requestLimit.count();
-      this.timeout = Duration.of(timeout, timeUnit.toChronoUnit());
+  @Nullable
+  private Policy createPolicy(HandlerMethod handlerMethod) {
+    RequestLimit requestLimit = findRequestLimit(handlerMethod);
+    if (requestLimit != null) {
+      RateLimitAlgorithm algorithm = requestLimit.algorithm();
+      if (algorithm == RateLimitAlgorithm.DEFAULT) {
+        algorithm = defaultAlgorithm;
+      }
+      Method method = handlerMethod.getMethod();
+      int id = policyIds.computeIfAbsent(method, key -> nextPolicyId.getAndIncrement());
+      RateLimiter rateLimiter = RateLimiter.of(algorithm, requestLimit);
+      rateLimitStore.register(id, policyName(method), rateLimiter);
+      KeyExtractor keyExtractor = createKeyExtractor(requestLimit);
+      return new Policy(id, requestLimit, rateLimiter, keyExtractor, Integer.toString(rateLimiter.getLimit()));
     }
+    return null;
+  }
 
-    public boolean isNew() {
-      return requestCount == 0;
+  private KeyExtractor createKeyExtractor(RequestLimit requestLimit) {
+    SessionManager sessionManager = this.sessionManager;
+    PrincipalResolver principalResolver = this.principalResolver;
+    ToLongFunction<RequestContext> users = null;
+    if (principalResolver != null) {
+      users = request -> {
+        UserPrincipal principal = principalResolver.find(request);
+        return principal != null ? principal.id() : KeyExtractor.ANONYMOUS;
+      };
     }
-
-    // test Exceeded maximum number of requests
-    public synchronized boolean isExceeded(Instant now) {
-      // 判断是不是已经在规定时间之外了
-      if (checkExpired(now)) {
-        // 在规定时间之外直接返回不限流
-        requestCount = 0;
-        lastAccessTime = Instant.now(clock);
-        return false;
-      }
-      int requestCount = this.requestCount;
-      this.requestCount++;
-      // 在超时时间范围内，请求次数大于最大次数就需要限制
-      return requestCount >= maxCount;
+    else if (sessionManager != null) {
+      users = request -> {
+        UserPrincipal principal = UserPrincipal.find(sessionManager.getSession(request, false));
+        return principal != null ? principal.id() : KeyExtractor.ANONYMOUS;
+      };
     }
 
-    public boolean isExpired() {
-      return isExpired(clock.instant());
+    Function<RequestContext, String> sessions = null;
+    if (sessionManager != null) {
+      sessions = request -> {
+        WebSession session = sessionManager.getSession(request, false);
+        return session != null ? session.getId() : null;
+      };
     }
+    return KeyExtractor.of(requestLimit, users, sessions);
+  }
 
-    private boolean isExpired(Instant now) {
-      return checkExpired(now);
+  /**
+   * 接口名称，所有节点一致：类名#方法名(参数类型)
+   */
+  private static String policyName(Method method) {
+    StringBuilder name = new StringBuilder(method.getDeclaringClass().getName())
+            .append('#').append(method.getName()).append('(');
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        name.append(',');
+      }
+      name.append(parameterTypes[i].getSimpleName());
     }
+    return name.append(')').toString();
+  }
 
-    private boolean checkExpired(Instant currentTime) {
-      return currentTime.minus(timeout).isAfter(lastAccessTime);
+  @Nullable
+  private static RequestLimit findRequestLimit(HandlerMethod handlerMethod) {
+    if (handlerMethod.hasMethodAnnotation(RequestLimit.class)) {
+      return handlerMethod.getMethodAnnotation(RequestLimit.class);
     }
-
+    return handlerMethod.getBeanType().getAnnotation(RequestLimit.class);
   }
 
-  private final class ExpiredChecker {
-
-    /** Max time between expiration checks. */
-    private static final int CHECK_PERIOD = 10;
-
-    private final ReentrantLock lock = new ReentrantLock();
-
-    private Instant checkTime = clock.instant().plus(CHECK_PERIOD, ChronoUnit.SECONDS);
+  /**
+   * 接口对应的限流配置
+   */
+  record Policy(int id, RequestLimit requestLimit, RateLimiter rateLimiter, KeyExtractor keyExtractor, String limit) {
 
-    public void checkIfNecessary() {
-      checkIfNecessary(clock.instant());
-    }
+  }
 
-    public void checkIfNecessary(Instant now) {
-      if (checkTime.isBefore(now)) {
-        removeExpired(now);
-      }
-    }
+  record ResetHeader(long epochSeconds, String value) {
 
-    public void removeExpired(Instant now) {
-      if (!requestLimitCache.isEmpty()) {
-        if (lock.tryLock()) {
-          try {
-            Iterator<RequestLimitEntry> iterator = requestLimitCache.values().iterator();
-            while (iterator.hasNext()) {
-              RequestLimitEntry limitEntry = iterator.next();
-              if (limitEntry.isExpired(now) && limitEntry.isNew()) {
-                iterator.remove();
-              }
-            }
-          }
-          finally {
-            this.checkTime = now.plus(CHECK_PERIOD, ChronoUnit.MILLIS);
-            lock.unlock();
-          }
-        }
-      }
-    }
   }
 
 }
@@ -16,10 +16,9 @@
 
 package app.web.interceptor;
 
-import app.model.User;
+import app.session.PrincipalResolver;
 import app.web.UnauthorizedException;
-import infra.session.SessionHandlerInterceptor;
-import infra.session.SessionManager;
+import infra.web.HandlerInterceptor;
 import infra.web.RequestContext;
 import infra.web.resource.ResourceHttpRequestHandler;
 
@@ -27,17 +26,19 @@ import infra.web.resource.ResourceHttpRequestHandler;
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 21:43
  */
-class RequiresLoginInterceptor extends SessionHandlerInterceptor {
+class RequiresLoginInterceptor implements HandlerInterceptor {
 
   // Authorization
 
-  public RequiresLoginInterceptor(SessionManager sessionManager) {
-    super(sessionManager);
+  private final PrincipalResolver principalResolver;
+
+  public RequiresLoginInterceptor(PrincipalResolver principalResolver) {
+    this.principalResolver = principalResolver;
   }
 
   @Override
   public boolean beforeProcess(RequestContext request, Object handler) throws Throwable {
-    if (User.isPresent(getSession(request, false))) {
+    if (principalResolver.isPresent(request)) {
       return true;
     }
 
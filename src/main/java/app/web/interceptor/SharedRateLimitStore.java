@@ -0,0 +1,496 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import app.web.interceptor.RateLimitBackend.LeaseRequest;
+import infra.lang.Assert;
+import infra.lang.Nullable;
+import infra.logging.Logger;
+import infra.logging.LoggerFactory;
+
+/**
+ * 多个节点共享限额的限流状态存储
+ * <p>
+ * 限额保存在 {@link RateLimitBackend} 中，按墙上时钟划分固定窗口，所有节点的窗口对齐。
+ * 节点每次从后端预留若干个许可放在本地，用完之前的请求只做一次本地 CAS，
+ * 不需要访问后端；许可用完时提前预留下一批。预留请求由后台线程合并成批量请求发送，
+ * 请求线程从不等待后端。
+ * <p>
+ * 每个窗口的第一次预留返回之前，按本地的 {@code fallback} 判定，放行的请求记在这次预留上，
+ * 返回的许可先抵扣这部分，超过这次预留数量的请求直接拒绝；后端给的许可少于已经放行的数量时，
+ * 最多多放行一次预留的数量。之后许可剩下一半时就预留下一批，预留返回之前许可用完的请求直接拒绝。
+ * <p>
+ * 后端不可用时，使用本地的 {@code fallback} 按原来的算法单独限流，
+ * 效果和单节点部署相同，{@link #setRetryInterval(Duration)} 之后再重新尝试后端。
+ * <p>
+ * 所有算法在后端都按固定窗口计数，接口的算法只在本地限流时生效。
+ * 使用后端计数时没有本地状态，{@link #acquire} 返回的状态部分为 {@link RateLimiter#EMPTY}
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 16:50
+ */
+public class SharedRateLimitStore implements RateLimitStore, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(SharedRateLimitStore.class);
+
+  /** 清理过期许可的间隔 */
+  static final long CLEANUP_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+  private final RateLimitBackend backend;
+
+  private final RateLimitStore fallback;
+
+  private final LongSupplier currentTimeMillis;
+
+  /** 按默认的 {@link #setMaximumSize 最大数量}创建，调大之后链表变长 */
+  private final KeyTable<Lease> leases = new KeyTable<>(65536);
+
+  private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+  private final ScheduledExecutorService executor;
+
+  /** 按接口编号保存的接口名称 */
+  private volatile String[] names = new String[0];
+
+  private int maximumSize = 65536;
+
+  private int leaseSize = 10;
+
+  private int maxBatchSize = 256;
+
+  private long flushDelay = TimeUnit.MILLISECONDS.toNanos(2);
+
+  private long retryInterval = TimeUnit.SECONDS.toMillis(5);
+
+  /** 在这个时间之前不访问后端 */
+  private volatile long unavailableUntil;
+
+  public SharedRateLimitStore(RateLimitBackend backend) {
+    this(backend, new LocalRateLimitStore(65536));
+  }
+
+  /**
+   * @param backend 共享计数器
+   * @param fallback 后端不可用时使用的本地存储
+   */
+  public SharedRateLimitStore(RateLimitBackend backend, RateLimitStore fallback) {
+    this(backend, fallback, System::currentTimeMillis);
+  }
+
+  SharedRateLimitStore(RateLimitBackend backend, RateLimitStore fallback, LongSupplier currentTimeMillis) {
+    Assert.notNull(backend, "RateLimitBackend is required");
+    Assert.notNull(fallback, "fallback RateLimitStore is required");
+    this.backend = backend;
+    this.fallback = fallback;
+    this.currentTimeMillis = currentTimeMillis;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "rate-limit-lease");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::removeExpired,
+            CLEANUP_INTERVAL, CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * 本地最多保存多少个 key 的许可，超出时新 key 使用本地限流
+   */
+  public void setMaximumSize(int maximumSize) {
+    Assert.isTrue(maximumSize > 0, "最大缓存数不能小于0");
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * 每次预留的许可数，实际不超过限额的一半（向上取整），避免一个节点占用全部额度
+   */
+  public void setLeaseSize(int leaseSize) {
+    Assert.isTrue(leaseSize > 0, "预留许可数必须大于0");
+    this.leaseSize = leaseSize;
+  }
+
+  /**
+   * 一次批量请求最多包含多少个预留请求
+   */
+  public void setMaxBatchSize(int maxBatchSize) {
+    Assert.isTrue(maxBatchSize > 0, "批量大小必须大于0");
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * 预留请求合并发送之前最多等待多久
+   */
+  public void setFlushDelay(Duration flushDelay) {
+    this.flushDelay = flushDelay.toNanos();
+  }
+
+  /**
+   * 后端出错之后多久再重新尝试
+   */
+  public void setRetryInterval(Duration retryInterval) {
+    this.retryInterval = retryInterval.toMillis();
+  }
+
+  @Override
+  public void register(int id, String name, RateLimiter rateLimiter) {
+    synchronized(this) {
+      String[] names = this.names;
+      if (id >= names.length) {
+        names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+      }
+      else {
+        names = names.clone();
+      }
+      names[id] = name;
+      this.names = names;
+    }
+    fallback.register(id, name, rateLimiter);
+  }
+
+  @Override
+  public long acquire(int id, long high, long low, RateLimiter rateLimiter, long now) {
+    long millis = currentTimeMillis.getAsLong();
+    if (millis - unavailableUntil < 0) {
+      return fallback.acquire(id, high, low, rateLimiter, now);
+    }
+
+    Lease lease = leases.get(id, high, low);
+    if (lease == null) {
+      if (leases.size() >= maximumSize) {
+        return fallback.acquire(id, high, low, rateLimiter, now);
+      }
+      Lease created = createLease(id, high, low);
+      lease = leases.putIfAbsent(created);
+      if (lease == null) {
+        lease = created;
+      }
+    }
+
+    long periodMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(rateLimiter.getPeriod()));
+    long window = millis / periodMillis;
+    lease.advance(window, periodMillis);
+
+    int permits = lease.tryConsume();
+    if (permits >= 0) {
+      if (lease.pending == null && permits * 2 <= leaseSize(rateLimiter.getLimit())) {
+        // 提前预留下一批
+        requestPermits(lease, rateLimiter, window);
+      }
+      return RateLimiter.EMPTY;
+    }
+    if (lease.exhausted) {
+      return RateLimiter.REJECTED_BIT;
+    }
+
+    // 不等待预留结果，窗口内第一次预留返回之前，在预留的数量内按本地限流判定
+    int credit = requestPermits(lease, rateLimiter, window);
+    if (lease.leased) {
+      // 预留可能刚刚返回，许可在 leased 之前加上
+      return lease.tryConsume() >= 0 ? RateLimiter.EMPTY : RateLimiter.REJECTED_BIT;
+    }
+    if (!lease.tryBorrow(credit)) {
+      return RateLimiter.REJECTED_BIT;
+    }
+    long result = fallback.acquire(id, high, low, rateLimiter, now);
+    if (!RateLimiter.isAcquired(result)) {
+      lease.permits.incrementAndGet();
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return leases.size() + fallback.size();
+  }
+
+  @Override
+  public void cleanUp(long now) {
+    removeExpired();
+    fallback.cleanUp(now);
+  }
+
+  /**
+   * 停止后台线程，之后的请求都使用本地限流
+   */
+  @Override
+  public void close() {
+    this.unavailableUntil = Long.MAX_VALUE;
+    executor.shutdown();
+  }
+
+  private Lease createLease(int id, long high, long low) {
+    String[] names = this.names;
+    String name = id < names.length && names[id] != null ? names[id] : "#" + id;
+    return new Lease(id, high, low, name + '@' + Long.toHexString(high) + ':' + Long.toHexString(low));
+  }
+
+  /**
+   * 发起预留，已经有正在进行的预留时不重复发起
+   *
+   * @return 正在进行的预留的许可数
+   */
+  private int requestPermits(Lease lease, RateLimiter rateLimiter, long window) {
+    CompletableFuture<Void> future;
+    int permits;
+    synchronized(lease) {
+      if (lease.pending != null) {
+        return lease.pendingPermits;
+      }
+      future = new CompletableFuture<>();
+      permits = leaseSize(rateLimiter.getLimit());
+      lease.pending = future;
+      lease.pendingPermits = permits;
+      queue.add(new Pending(lease, new LeaseRequest(lease.key,
+              window, rateLimiter.getLimit(), permits, lease.expiresAt), future));
+    }
+
+    if (flushScheduled.compareAndSet(false, true)) {
+      try {
+        executor.schedule(this::flush, flushDelay, TimeUnit.NANOSECONDS);
+      }
+      catch (RejectedExecutionException e) {
+        // 已经关闭
+        flushScheduled.set(false);
+        future.completeExceptionally(e);
+      }
+    }
+    return permits;
+  }
+
+  int leaseSize(int limit) {
+    return Math.min(leaseSize, (limit + 1) / 2);
+  }
+
+  /**
+   * 把队列里的预留请求合并发送到后端
+   */
+  void flush() {
+    flushScheduled.set(false);
+    List<Pending> batch = new ArrayList<>();
+    Pending pending;
+    while ((pending = queue.poll()) != null) {
+      batch.add(pending);
+      if (batch.size() == maxBatchSize) {
+        send(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      send(batch);
+    }
+  }
+
+  private void send(List<Pending> batch) {
+    List<LeaseRequest> requests = new ArrayList<>(batch.size());
+    for (Pending pending : batch) {
+      requests.add(pending.request);
+    }
+
+    int[] granted;
+    try {
+      granted = backend.lease(requests);
+    }
+    catch (RuntimeException e) {
+      this.unavailableUntil = currentTimeMillis.getAsLong() + retryInterval;
+      log.warn("共享限流后端不可用，{}ms 内使用本地限流", retryInterval, e);
+      for (Pending pending : batch) {
+        pending.lease.complete(pending, -1);
+        pending.future.completeExceptionally(e);
+      }
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      Pending pending = batch.get(i);
+      pending.lease.complete(pending, granted[i]);
+      pending.future.complete(null);
+    }
+  }
+
+  private void removeExpired() {
+    long millis = currentTimeMillis.getAsLong();
+    leases.removeIf(lease -> lease.expiresAt - millis <= 0);
+    if (millis - unavailableUntil >= 0) {
+      try {
+        backend.removeExpired(millis);
+      }
+      catch (RuntimeException e) {
+        log.debug("删除过期的限流计数器失败", e);
+      }
+    }
+  }
+
+  /**
+   * 一个 key 在当前窗口内预留到的许可
+   */
+  static final class Lease implements KeyTable.Entry<Lease> {
+
+    final int id;
+
+    final long high;
+
+    final long low;
+
+    /** 后端计数器的 key */
+    final String key;
+
+    final AtomicInteger permits = new AtomicInteger();
+
+    volatile long window = -1;
+
+    volatile long expiresAt;
+
+    /** 当前窗口的额度已经用完 */
+    volatile boolean exhausted;
+
+    /** 当前窗口已经从后端预留到许可 */
+    volatile boolean leased;
+
+    /** 正在进行的预留，由 {@code this} 修改 */
+    @Nullable
+    volatile CompletableFuture<Void> pending;
+
+    /** 正在进行的预留的许可数 */
+    int pendingPermits;
+
+    @Nullable
+    private volatile Lease nextEntry;
+
+    Lease(int id, long high, long low, String key) {
+      this.id = id;
+      this.high = high;
+      this.low = low;
+      this.key = key;
+    }
+
+    @Override
+    public int keyId() {
+      return id;
+    }
+
+    @Override
+    public long keyHigh() {
+      return high;
+    }
+
+    @Override
+    public long keyLow() {
+      return low;
+    }
+
+    @Nullable
+    @Override
+    public Lease nextEntry() {
+      return nextEntry;
+    }
+
+    @Override
+    public void setNextEntry(@Nullable Lease next) {
+      this.nextEntry = next;
+    }
+
+    /**
+     * 进入新的窗口时清空许可
+     */
+    void advance(long window, long periodMillis) {
+      if (this.window < window) {
+        synchronized(this) {
+          if (this.window < window) {
+            permits.set(0);
+            this.exhausted = false;
+            this.leased = false;
+            this.pending = null;
+            this.expiresAt = (window + 1) * periodMillis;
+            this.window = window;
+          }
+        }
+      }
+    }
+
+    /**
+     * 预留返回之前先占用许可，许可数变成负数，返回的许可先抵扣这部分
+     *
+     * @param credit 最多占用多少
+     * @return 是否占用成功
+     */
+    boolean tryBorrow(int credit) {
+      for (;;) {
+        int current = permits.get();
+        if (current <= -credit) {
+          return false;
+        }
+        if (permits.compareAndSet(current, current - 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * @return 剩余的许可数，没有许可时返回 -1
+     */
+    int tryConsume() {
+      for (;;) {
+        int current = permits.get();
+        if (current <= 0) {
+          return -1;
+        }
+        if (permits.compareAndSet(current, current - 1)) {
+          return current - 1;
+        }
+      }
+    }
+
+    /**
+     * @param granted 预留到的许可数，后端出错时为 -1
+     */
+    synchronized void complete(Pending pending, int granted) {
+      // 预留结果属于已经过去的窗口时丢弃
+      if (granted >= 0 && window == pending.request.window()) {
+        if (granted > 0) {
+          permits.addAndGet(granted);
+          this.leased = true;
+        }
+        else {
+          this.exhausted = true;
+        }
+      }
+      if (this.pending == pending.future) {
+        this.pending = null;
+      }
+    }
+  }
+
+  record Pending(Lease lease, LeaseRequest request, CompletableFuture<Void> future) {
+
+  }
+
+}
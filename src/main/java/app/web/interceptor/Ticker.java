@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+/**
+ * 单调时钟，单位纳秒
+ * <p>
+ * 只用于计算时间差，与系统时间无关，不会因为校时而回退
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 10:12
+ */
+@FunctionalInterface
+public interface Ticker {
+
+  /**
+   * 当前时间点，单位纳秒
+   */
+  long read();
+
+  /**
+   * 基于 {@link System#nanoTime()} 的时钟
+   */
+  static Ticker systemTicker() {
+    return System::nanoTime;
+  }
+
+}
@@ -18,9 +18,13 @@ package app.web.support;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Locale;
 import java.util.Objects;
 
+import app.AppConstant;
+import app.web.CountMode;
 import app.web.ErrorMessageException;
+import app.web.KeysetCursor;
 import app.web.Pageable;
 import infra.core.style.ToStringBuilder;
 import infra.lang.Nullable;
@@ -42,28 +46,102 @@ final class PageableImpl implements Pageable, Serializable {
   @Nullable
   private Integer current;
 
+  /** 0: 未解析, 1: 页码分页, 2: 游标分页 */
+  private byte mode;
+
+  @Nullable
+  private Long after;
+
+  @Nullable
+  private CountMode countMode;
+
   private final RequestContext request;
 
   private final String pageRequestParameterName;
 
   private final String pageSizeRequestParameterName;
 
+  private final String afterRequestParameterName;
+
+  private final String countModeRequestParameterName;
+
+  private final CountMode defaultCountMode;
+
   private final int maxPageSize;
 
   private final int defaultPageSize;
 
   public PageableImpl(RequestContext request, String pageRequestParameterName,
           String pageSizeRequestParameterName, int defaultPageSize, int maxPageSize) {
+    this(request, pageRequestParameterName, pageSizeRequestParameterName, AppConstant.PARAMETER_AFTER,
+            AppConstant.PARAMETER_COUNT, CountMode.EXACT, defaultPageSize, maxPageSize);
+  }
+
+  public PageableImpl(RequestContext request, String pageRequestParameterName, String pageSizeRequestParameterName,
+          String afterRequestParameterName, String countModeRequestParameterName, CountMode defaultCountMode,
+          int defaultPageSize, int maxPageSize) {
     this.request = request;
     this.pageRequestParameterName = pageRequestParameterName;
     this.pageSizeRequestParameterName = pageSizeRequestParameterName;
+    this.afterRequestParameterName = afterRequestParameterName;
+    this.countModeRequestParameterName = countModeRequestParameterName;
+    this.defaultCountMode = defaultCountMode;
     this.defaultPageSize = defaultPageSize;
     this.maxPageSize = maxPageSize;
   }
 
+  @Override
+  public boolean isKeyset() {
+    if (mode == 0) {
+      String parameter = request.getParameter(afterRequestParameterName);
+      if (parameter == null) {
+        mode = 1;
+      }
+      else {
+        if (!parameter.isEmpty()) {
+          after = KeysetCursor.decode(parameter);
+        }
+        mode = 2;
+      }
+    }
+    return mode == 2;
+  }
+
+  @Nullable
+  @Override
+  public Long after() {
+    return isKeyset() ? after : null;
+  }
+
+  @Override
+  public CountMode countMode() {
+    if (countMode == null) {
+      if (isKeyset()) {
+        return countMode = CountMode.NONE;
+      }
+      String parameter = request.getParameter(countModeRequestParameterName);
+      if (StringUtils.isEmpty(parameter)) {
+        countMode = defaultCountMode;
+      }
+      else {
+        try {
+          countMode = CountMode.valueOf(parameter.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+          throw ErrorMessageException.failed("分页参数错误");
+        }
+      }
+    }
+    return countMode;
+  }
+
   @Override
   public int pageNumber() {
     if (current == null) {
+      if (isKeyset()) {
+        // 游标分页没有页码
+        return current = 1;
+      }
       String parameter = request.getParameter(pageRequestParameterName);
       if (StringUtils.isEmpty(parameter)) {
         current = 1;
@@ -115,14 +193,16 @@ final class PageableImpl implements Pageable, Serializable {
 
     if (o instanceof PageableImpl that) {
       return Objects.equals(size, that.size)
-              && Objects.equals(current, that.current);
+              && Objects.equals(current, that.current)
+              && Objects.equals(after, that.after)
+              && countMode == that.countMode;
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(size, current);
+    return Objects.hash(size, current, after, countMode);
   }
 
   @Override
@@ -130,6 +210,8 @@ final class PageableImpl implements Pageable, Serializable {
     return ToStringBuilder.forInstance(this)
             .append("size", size)
             .append("current", current)
+            .append("after", after)
+            .append("countMode", countMode)
             .toString();
   }
 
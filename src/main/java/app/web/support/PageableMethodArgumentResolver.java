@@ -17,6 +17,7 @@
 package app.web.support;
 
 import app.AppConstant;
+import app.web.CountMode;
 import app.web.Pageable;
 import infra.lang.Assert;
 import infra.lang.Nullable;
@@ -40,6 +41,12 @@ public class PageableMethodArgumentResolver implements ParameterResolvingStrateg
 
   private String pageSizeRequestParameterName = AppConstant.PARAMETER_SIZE;
 
+  private String afterRequestParameterName = AppConstant.PARAMETER_AFTER;
+
+  private String countModeRequestParameterName = AppConstant.PARAMETER_COUNT;
+
+  private CountMode defaultCountMode = CountMode.EXACT;
+
   public void setPageRequestParameterName(@Nullable String pageRequestParameterName) {
     this.pageRequestParameterName = pageRequestParameterName == null ? AppConstant.PARAMETER_CURRENT : pageRequestParameterName;
   }
@@ -48,6 +55,27 @@ public class PageableMethodArgumentResolver implements ParameterResolvingStrateg
     this.pageSizeRequestParameterName = pageSizeRequestParameterName == null ? AppConstant.PARAMETER_SIZE : pageSizeRequestParameterName;
   }
 
+  /**
+   * 游标分页参数名称，请求中有这个参数时使用游标分页
+   */
+  public void setAfterRequestParameterName(@Nullable String afterRequestParameterName) {
+    this.afterRequestParameterName = afterRequestParameterName == null ? AppConstant.PARAMETER_AFTER : afterRequestParameterName;
+  }
+
+  /**
+   * 总数统计方式的参数名称
+   */
+  public void setCountModeRequestParameterName(@Nullable String countModeRequestParameterName) {
+    this.countModeRequestParameterName = countModeRequestParameterName == null ? AppConstant.PARAMETER_COUNT : countModeRequestParameterName;
+  }
+
+  /**
+   * 请求中没有指定时使用的总数统计方式
+   */
+  public void setDefaultCountMode(@Nullable CountMode defaultCountMode) {
+    this.defaultCountMode = defaultCountMode == null ? CountMode.EXACT : defaultCountMode;
+  }
+
   public void setMaxPageSize(int maxPageSize) {
     Assert.isTrue(maxPageSize > 0, "maxPageSize must be greater than 0");
     this.maxPageSize = maxPageSize;
@@ -65,7 +93,8 @@ public class PageableMethodArgumentResolver implements ParameterResolvingStrateg
 
   @Override
   public Object resolveArgument(RequestContext context, ResolvableMethodParameter parameter) {
-    return new PageableImpl(context, pageRequestParameterName, pageSizeRequestParameterName, defaultPageSize, maxPageSize);
+    return new PageableImpl(context, pageRequestParameterName, pageSizeRequestParameterName,
+            afterRequestParameterName, countModeRequestParameterName, defaultCountMode, defaultPageSize, maxPageSize);
   }
 
 }
@@ -19,13 +19,13 @@ package app.web.support;
 import java.util.Optional;
 
 import app.model.User;
+import app.session.PrincipalResolver;
+import app.session.UserPrincipal;
+import app.session.UserProfileCache;
 import app.web.UnauthorizedException;
 import app.web.UserSession;
 import app.web.interceptor.RequiresLogin;
 import infra.lang.Nullable;
-import infra.session.SessionManager;
-import infra.session.SessionManagerOperations;
-import infra.session.WebSession;
 import infra.stereotype.Component;
 import infra.web.RequestContext;
 import infra.web.bind.resolver.ParameterResolvingStrategy;
@@ -41,16 +41,24 @@ import infra.web.handler.method.ResolvableMethodParameter;
  *   <li>{@code @Nullable User}不会抛异常</li>
  *   <li>{@code @RequiresLogin User}没有登录会抛异常</li>
  *   <li>{@code @RequiresLogin UserSession}没有登录会抛异常</li>
+ *   <li>{@code UserPrincipal}没有登录会抛异常，只读取会话不会加载用户资料</li>
+ *   <li>{@code @Nullable UserPrincipal}不会抛异常</li>
  * </ul>
+ * 登录用户由 {@link PrincipalResolver} 从会话或者签名令牌中获取，{@code User} 从 {@link UserProfileCache} 获取
  *
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 2019-07-25 00:56
  */
 @Component
-final class UserSessionArgumentResolver extends SessionManagerOperations implements ParameterResolvingStrategy {
+final class UserSessionArgumentResolver implements ParameterResolvingStrategy {
 
-  public UserSessionArgumentResolver(SessionManager sessionManager) {
-    super(sessionManager);
+  private final PrincipalResolver principalResolver;
+
+  private final UserProfileCache profiles;
+
+  public UserSessionArgumentResolver(PrincipalResolver principalResolver, UserProfileCache profiles) {
+    this.principalResolver = principalResolver;
+    this.profiles = profiles;
   }
 
   @Override
@@ -61,61 +69,49 @@ final class UserSessionArgumentResolver extends SessionManagerOperations impleme
     }
 
     return parameter.is(User.class)
+            || parameter.is(UserPrincipal.class)
             || parameter.is(UserSession.class);
   }
 
   @Nullable
   @Override
   public Object resolveArgument(RequestContext context, ResolvableMethodParameter parameter) {
-    WebSession session = getSession(context, false);
-    if (session != null) {
-      if (parameter.is(Optional.class)) {
-        // Optional<User>
-        return Optional.ofNullable(User.find(session));
-      }
+    UserPrincipal principal = principalResolver.find(context);
+    if (parameter.is(Optional.class)) {
+      // Optional<User>
+      return Optional.ofNullable(principal != null ? profiles.get(principal) : null);
+    }
 
-      if (parameter.is(User.class)) {
-        User user = User.find(session);
-        if (user != null) {
-          return user;
-        }
-        else if (parameter.isNotRequired()) {
-          return null;
-        }
-        throw new UnauthorizedException();
+    if (parameter.is(UserPrincipal.class)) {
+      if (principal != null) {
+        return principal;
       }
-      else {
-        // 使用了 UserSession，在没有登录情况下会抛出异常 UnauthorizedException
-        UserSession info = new UserSession();
-        User loginUser = User.find(session);
-        if (loginUser != null) {
-          info.setLoginUser(loginUser);
-        }
-        else if (parameter.hasParameterAnnotation(RequiresLogin.class)) {
-          throw new UnauthorizedException();
-        }
-        return info;
+      else if (parameter.isNotRequired()) {
+        return null;
       }
-    }
-
-    // session is null
-
-    if (parameter.is(Optional.class)) {
-      return Optional.empty();
+      throw new UnauthorizedException();
     }
 
     if (parameter.is(User.class)) {
-      if (parameter.isNotRequired()) {
+      User user = principal != null ? profiles.get(principal) : null;
+      if (user != null) {
+        return user;
+      }
+      else if (parameter.isNotRequired()) {
         return null;
       }
       throw new UnauthorizedException();
     }
 
-    if (parameter.hasParameterAnnotation(RequiresLogin.class)) {
+    // 使用了 UserSession，在没有登录情况下会抛出异常 UnauthorizedException
+    UserSession info = new UserSession();
+    if (principal != null) {
+      info.setPrincipal(principal, profiles);
+    }
+    else if (parameter.hasParameterAnnotation(RequiresLogin.class)) {
       throw new UnauthorizedException();
     }
-
-    return new UserSession();
+    return info;
   }
 
 }
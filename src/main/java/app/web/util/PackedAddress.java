@@ -0,0 +1,288 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.util;
+
+/**
+ * 把 IP 地址字符串压缩成两个 {@code long}（高 64 位和低 64 位），不创建对象
+ * <p>
+ * IPv6 按 128 位原样保存；IPv4 映射为 {@code ::ffff:a.b.c.d}；
+ * 无法解析的字符串计算 64 位哈希放在低位，高位使用丢弃前缀 {@code 100::/64} (RFC 6666)。
+ * <p>
+ * 整个 {@code 100::/8} 留给非地址的 key：这个范围内的 IPv6 地址按无法解析处理，
+ * 所以解析结果的高位要么是 {@link #UNKNOWN_HIGH}，要么不在 {@code 100::/8} 中，
+ * {@code UNKNOWN_HIGH | n}（{@code n > 0}）不会被任何字符串产生，
+ * 包括客户端通过 {@code X-Forwarded-For} 伪造的地址。
+ * <p>
+ * {@link #parse(CharSequence, long[])} 解析一次同时得到两个 {@code long}，写入调用方的数组；
+ * {@link #prefixLow(long, long)} 取所在网段
+ *
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 15:10
+ */
+public abstract class PackedAddress {
+
+  /** IPv4 映射地址的高 64 位 */
+  public static final long IPV4_HIGH = 0L;
+
+  /** IPv4 映射地址低 64 位的前缀 {@code ::ffff:0:0/96} */
+  public static final long IPV4_LOW_PREFIX = 0xFFFFL << 32;
+
+  /** 无法解析的地址使用的高 64 位，位于保留的 {@code 100::/8} 中 */
+  public static final long UNKNOWN_HIGH = 0x0100_0000_0000_0000L;
+
+  /**
+   * 地址的高 64 位，每次分配一个数组，热路径使用 {@link #parse(CharSequence, long[])}
+   */
+  public static long high(CharSequence address) {
+    long[] key = new long[2];
+    parse(address, key);
+    return key[0];
+  }
+
+  /**
+   * 地址的低 64 位，每次分配一个数组，热路径使用 {@link #parse(CharSequence, long[])}
+   */
+  public static long low(CharSequence address) {
+    long[] key = new long[2];
+    parse(address, key);
+    return key[1];
+  }
+
+  /**
+   * 是否是 IPv4 地址
+   */
+  public static boolean isIPv4(long high, long low) {
+    return high == IPV4_HIGH && (low >>> 32) == 0xFFFFL;
+  }
+
+  /**
+   * 地址所在网段的低 64 位：IPv4 为 /24，IPv6 为 /64（高 64 位不变），无法解析的地址保持不变
+   */
+  public static long prefixLow(long high, long low) {
+    if (isIPv4(high, low)) {
+      return low & ~0xFFL;
+    }
+    return high == UNKNOWN_HIGH ? low : 0L;
+  }
+
+  /**
+   * 解析地址，高 64 位写入 {@code key[0]}，低 64 位写入 {@code key[1]}
+   */
+  public static void parse(CharSequence address, long[] key) {
+    int start = 0;
+    int end = address.length();
+    while (start < end && address.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && address.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if (start < end && address.charAt(start) == '[') {
+      start++;
+      int bracket = indexOf(address, ']', start, end);
+      if (bracket < 0) {
+        unknown(address, key);
+        return;
+      }
+      end = bracket;
+    }
+    // IPv6 zone: fe80::1%eth0
+    int zone = indexOf(address, '%', start, end);
+    if (zone >= 0) {
+      end = zone;
+    }
+
+    if (indexOf(address, ':', start, end) < 0) {
+      long ipv4 = parseIPv4(address, start, end);
+      if (ipv4 < 0) {
+        unknown(address, key);
+      }
+      else {
+        key[0] = IPV4_HIGH;
+        key[1] = IPV4_LOW_PREFIX | ipv4;
+      }
+    }
+    else if (!parseIPv6(address, start, end, key)) {
+      unknown(address, key);
+    }
+  }
+
+  /**
+   * @return 32 位地址，无效时返回 -1
+   */
+  private static long parseIPv4(CharSequence address, int start, int end) {
+    long result = 0;
+    int octets = 0;
+    int value = -1;
+    for (int i = start; i < end; i++) {
+      char c = address.charAt(i);
+      if (c >= '0' && c <= '9') {
+        value = value < 0 ? c - '0' : value * 10 + (c - '0');
+        if (value > 255) {
+          return -1;
+        }
+      }
+      else if (c == '.' && value >= 0 && octets < 3) {
+        result = (result << 8) | value;
+        octets++;
+        value = -1;
+      }
+      else {
+        return -1;
+      }
+    }
+    if (value < 0 || octets != 3) {
+      return -1;
+    }
+    return (result << 8) | value;
+  }
+
+  /**
+   * @return 是否是有效的地址
+   */
+  private static boolean parseIPv6(CharSequence address, int start, int end, long[] key) {
+    // 压缩符 :: 之前和之后的分组分别累加成 128 位
+    long headHigh = 0, headLow = 0, tailHigh = 0, tailLow = 0;
+    int headCount = 0, tailCount = 0;
+    boolean compressed = false;
+
+    int i = start;
+    if (end - start >= 2 && address.charAt(i) == ':' && address.charAt(i + 1) == ':') {
+      compressed = true;
+      i += 2;
+    }
+    while (i < end) {
+      int groupEnd = i;
+      while (groupEnd < end && address.charAt(groupEnd) != ':') {
+        groupEnd++;
+      }
+
+      long value;
+      int groups;
+      if (groupEnd == end && indexOf(address, '.', i, end) >= 0) {
+        // 末尾内嵌 IPv4
+        value = parseIPv4(address, i, end);
+        groups = 2;
+      }
+      else {
+        value = parseHex(address, i, groupEnd);
+        groups = 1;
+      }
+      if (value < 0 || headCount + tailCount + groups > 8) {
+        return false;
+      }
+
+      int bits = groups * 16;
+      if (compressed) {
+        tailHigh = (tailHigh << bits) | (tailLow >>> (64 - bits));
+        tailLow = (tailLow << bits) | value;
+        tailCount += groups;
+      }
+      else {
+        headHigh = (headHigh << bits) | (headLow >>> (64 - bits));
+        headLow = (headLow << bits) | value;
+        headCount += groups;
+      }
+
+      if (groupEnd == end) {
+        break;
+      }
+      i = groupEnd + 1;
+      if (i < end && address.charAt(i) == ':') {
+        if (compressed) {
+          return false;
+        }
+        compressed = true;
+        i++;
+      }
+      else if (i == end) {
+        // 以单个冒号结尾
+        return false;
+      }
+    }
+
+    if (compressed ? headCount + tailCount > 7 : headCount != 8) {
+      return false;
+    }
+
+    // head 左移到高位，和 tail 合并
+    int shift = (8 - headCount) * 16;
+    if (shift >= 64) {
+      headHigh = shift == 128 ? 0 : headLow << (shift - 64);
+      headLow = 0;
+    }
+    else if (shift > 0) {
+      headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+      headLow = headLow << shift;
+    }
+    long high = headHigh | tailHigh;
+    if ((high >>> 56) == (UNKNOWN_HIGH >>> 56)) {
+      // 100::/8 保留给非地址的 key
+      return false;
+    }
+    key[0] = high;
+    key[1] = headLow | tailLow;
+    return true;
+  }
+
+  private static long parseHex(CharSequence address, int start, int end) {
+    if (start == end || end - start > 4) {
+      return -1;
+    }
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = Character.digit(address.charAt(i), 16);
+      if (digit < 0) {
+        return -1;
+      }
+      value = (value << 4) | digit;
+    }
+    return value;
+  }
+
+  /**
+   * 64 位哈希，FNV-1a + murmur3 finalizer
+   */
+  public static long hash(CharSequence value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static void unknown(CharSequence address, long[] key) {
+    key[0] = UNKNOWN_HIGH;
+    key[1] = hash(address);
+  }
+
+  private static int indexOf(CharSequence address, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (address.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -25,7 +25,7 @@ create table t_user
     name      varchar(255)    not null default '无名氏' comment '姓名，昵称',
     username  varchar(64)     not null comment '邮箱',
     introduce varchar(255)    not null default '暂无' comment '描述',
-    password  varchar(64)     null     default null comment '密码',
+    password  varchar(128)    null     default null comment '密码',
     avatar    text            null comment '头像',
     status    int             not null default 0 not null comment '状态:(0:正常,1:未激活,2:账号被锁,3:账号删除)',
 
@@ -33,3 +33,37 @@ create table t_user
     update_at datetime on update CURRENT_TIMESTAMP comment '更新时间'
 );
 
+
+create table t_rate_limit
+(
+    lease_key    varchar(255) not null comment '接口名称和客户端',
+    window_index bigint       not null comment '时间窗口序号',
+    permits      int          not null default 0 comment '已经预留的许可数',
+    expires_at   bigint       not null comment '过期时间，毫秒',
+
+    primary key (lease_key, window_index),
+    index idx_expires_at (expires_at)
+);
+
+
+create table t_session
+(
+    session_id       varchar(64) not null primary key comment '会话 ID',
+    user_id          bigint      not null default 0 comment '登录用户的 ID，没有登录时为 0',
+    create_at        bigint      not null comment '创建时间，毫秒',
+    last_access_time bigint      not null comment '最后访问时间，毫秒',
+    max_idle_time    bigint      not null comment '最大空闲时间，毫秒',
+    expires_at       bigint      not null comment '过期时间，毫秒',
+
+    index idx_user_id (user_id),
+    index idx_expires_at (expires_at)
+);
+
+create table t_session_attribute
+(
+    session_id      varchar(64)  not null comment '会话 ID',
+    attribute_name  varchar(255) not null comment '属性名',
+    attribute_value mediumblob   not null comment '序列化之后的属性值',
+
+    primary key (session_id, attribute_name)
+);
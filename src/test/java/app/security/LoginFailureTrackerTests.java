@@ -0,0 +1,86 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 23:10
+ */
+class LoginFailureTrackerTests {
+
+  final AtomicLong currentTimeMillis = new AtomicLong(1_000_000);
+
+  final LoginFailureTracker tracker = new LoginFailureTracker(1024, currentTimeMillis::get);
+
+  @Test
+  void exponentialBackoff() {
+    tracker.setFreeAttempts(2);
+    tracker.recordFailure("admin@example.com");
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isZero();
+
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("ADMIN@example.com")).isEqualTo(1000);
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isEqualTo(2000);
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isEqualTo(4000);
+
+    currentTimeMillis.addAndGet(4000);
+    assertThat(tracker.getRetryAfter("admin@example.com")).isZero();
+
+    for (int i = 0; i < 40; i++) {
+      tracker.recordFailure("admin@example.com");
+    }
+    assertThat(tracker.getRetryAfter("admin@example.com")).isEqualTo(Duration.ofMinutes(15).toMillis());
+
+    tracker.recordSuccess("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isZero();
+    assertThat(tracker.size()).isZero();
+  }
+
+  @Test
+  void expire() {
+    tracker.setFreeAttempts(0);
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isEqualTo(1000);
+
+    currentTimeMillis.addAndGet(Duration.ofMinutes(30).toMillis());
+    assertThat(tracker.getRetryAfter("admin@example.com")).isZero();
+    assertThat(tracker.size()).isZero();
+
+    // 过期之后重新计数
+    tracker.recordFailure("admin@example.com");
+    assertThat(tracker.getRetryAfter("admin@example.com")).isEqualTo(1000);
+  }
+
+  @Test
+  void bounded() {
+    for (int i = 0; i < 10_000; i++) {
+      tracker.recordFailure("user" + i + "@example.com");
+    }
+    assertThat(tracker.size()).isLessThanOrEqualTo(1024);
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import app.util.HashUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 22:10
+ */
+class PasswordEncoderTests {
+
+  final DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("pbkdf2",
+          Map.of("pbkdf2", new Pbkdf2PasswordEncoder(1000)), new Md5PasswordEncoder());
+
+  @Test
+  void pbkdf2() {
+    Pbkdf2PasswordEncoder encoder = new Pbkdf2PasswordEncoder(1000);
+    String encoded = encoder.encode("66666");
+    assertThat(encoded).startsWith("1000$");
+    assertThat(encoder.encode("66666")).isNotEqualTo(encoded);
+    assertThat(encoder.matches("66666", encoded)).isTrue();
+    assertThat(encoder.matches("66667", encoded)).isFalse();
+    assertThat(encoder.matches("66666", "broken")).isFalse();
+
+    assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+    assertThat(new Pbkdf2PasswordEncoder(2000).upgradeEncoding(encoded)).isTrue();
+  }
+
+  @Test
+  void legacyPasswordsAreUpgraded() {
+    String legacy = HashUtils.getEncodedPassword("66666");
+    assertThat(encoder.matches("66666", legacy)).isTrue();
+    assertThat(encoder.matches("66667", legacy)).isFalse();
+    assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+
+    String encoded = encoder.encode("66666");
+    assertThat(encoded).startsWith("{pbkdf2}");
+    assertThat(encoder.matches("66666", encoded)).isTrue();
+    assertThat(encoder.upgradeEncoding(encoded)).isFalse();
+    assertThat(encoder.matches("66666", "{unknown}" + legacy)).isFalse();
+  }
+
+  @Test
+  void hasherRejectsWhenQueueIsFull() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    PasswordEncoder blocking = new PasswordEncoder() {
+
+      @Override
+      public String encode(CharSequence rawPassword) {
+        try {
+          latch.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return rawPassword.toString();
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encode(rawPassword).equals(encodedPassword);
+      }
+    };
+
+    try (PasswordHasher hasher = new PasswordHasher(blocking, 1, 1)) {
+      var running = hasher.encode("a");
+      var queued = hasher.encode("b");
+      // 等待第一个任务开始执行
+      while (hasher.getActiveCount() == 0) {
+        Thread.onSpinWait();
+      }
+      assertThat(hasher.getQueueSize()).isEqualTo(1);
+      assertThat(hasher.encode("c")).isCompletedExceptionally();
+      assertThat(hasher.getRejectedCount()).isEqualTo(1);
+
+      latch.countDown();
+      assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("a");
+      assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("b");
+      assertThat(hasher.getTaskCount()).isEqualTo(2);
+    }
+  }
+
+}
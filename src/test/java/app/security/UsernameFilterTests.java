@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.security;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+import infra.jdbc.RepositoryManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 22:50
+ */
+class UsernameFilterTests {
+
+  final JdbcDataSource dataSource = new JdbcDataSource();
+
+  @BeforeEach
+  void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:username_filter;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists t_user");
+      statement.execute("create table t_user (id bigint primary key auto_increment, username varchar(64) not null)");
+      statement.execute("insert into t_user (username) values ('admin@example.com'), ('Test@Example.com')");
+    }
+  }
+
+  @Test
+  void rebuild() {
+    UsernameFilter filter = new UsernameFilter(new RepositoryManager(dataSource));
+    // 构建之前都可能存在
+    assertThat(filter.mightExist("unknown@example.com")).isTrue();
+
+    filter.rebuild();
+    assertThat(filter.isReady()).isTrue();
+    assertThat(filter.mightExist("admin@example.com")).isTrue();
+    assertThat(filter.mightExist("ADMIN@example.com")).isTrue();
+    assertThat(filter.mightExist("ádmin@exámple.com")).isTrue();
+    assertThat(filter.mightExist("test@example.com")).isTrue();
+    assertThat(filter.mightExist("unknown@example.com")).isFalse();
+    assertThat(filter.getRejectedCount()).isEqualTo(1);
+
+    filter.add("unknown@example.com");
+    assertThat(filter.mightExist("unknown@example.com")).isTrue();
+  }
+
+  @Test
+  void addIsNotLostWhileSwapping() throws Exception {
+    // 查询开始之后新增的用户名只能通过 add 加入，替换过滤器的时候不能丢失
+    AtomicReference<CountDownLatch> selecting = new AtomicReference<>();
+    UsernameFilter filter = new UsernameFilter(new RepositoryManager(signalOnSelect(dataSource, selecting)));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      for (int i = 0; i < 200; i++) {
+        CountDownLatch latch = new CountDownLatch(1);
+        selecting.set(latch);
+        Future<?> rebuild = executor.submit(() -> {
+          filter.rebuild();
+          return null;
+        });
+        latch.await();
+
+        // 一直新增到替换完成，总有一些 add 和替换交错
+        List<String> added = new ArrayList<>();
+        do {
+          String username = "user" + i + "-" + added.size() + "@example.com";
+          filter.add(username);
+          added.add(username);
+        }
+        while (!rebuild.isDone());
+        rebuild.get();
+
+        for (String username : added) {
+          assertThat(filter.mightExist(username)).as(username).isTrue();
+        }
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void normalize() {
+    assertThat(UsernameFilter.normalize("TakeToday@Example.com")).isEqualTo("taketoday@example.com");
+    assertThat(UsernameFilter.normalize("José")).isEqualTo(UsernameFilter.normalize("JOSE"));
+    assertThat(UsernameFilter.normalize("Straße")).isEqualTo(UsernameFilter.normalize("STRASSE"));
+    assertThat(UsernameFilter.normalize("ｔａｋｅ")).isEqualTo("take");
+    assertThat(UsernameFilter.normalize("海子")).isEqualTo("海子");
+    // NO PAD，末尾空格不忽略
+    assertThat(UsernameFilter.normalize("user ")).isNotEqualTo(UsernameFilter.normalize("user"));
+  }
+
+  /**
+   * 开始查询用户名时通知测试线程，查询总数时不通知
+   */
+  private static DataSource signalOnSelect(DataSource dataSource, AtomicReference<CountDownLatch> selecting) {
+    return proxy(DataSource.class, dataSource, "getConnection", connection ->
+            proxy(Connection.class, (Connection) connection, "prepareStatement", statement ->
+                    proxy(PreparedStatement.class, (PreparedStatement) statement, "executeQuery", resultSet -> {
+                      if (isUsernames((ResultSet) resultSet)) {
+                        selecting.get().countDown();
+                      }
+                      return resultSet;
+                    })));
+  }
+
+  private static boolean isUsernames(ResultSet resultSet) {
+    try {
+      return resultSet.getMetaData().getColumnLabel(1).equalsIgnoreCase("username");
+    }
+    catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, T target, String methodName, UnaryOperator<Object> decorator) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+      Object result;
+      try {
+        result = method.invoke(target, args);
+      }
+      catch (InvocationTargetException e) {
+        throw e.getTargetException();
+      }
+      return method.getName().equals(methodName) ? decorator.apply(result) : result;
+    });
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.model.UserStatus;
+import app.session.AuthTokenService.SigningKey;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 02:40
+ */
+class AuthTokenServiceTests {
+
+  static final SigningKey OLD_KEY = new SigningKey(1, "old-secret-key-at-least-32-bytes".getBytes(StandardCharsets.UTF_8));
+
+  static final SigningKey NEW_KEY = new SigningKey(2, "new-secret-key-at-least-32-bytes".getBytes(StandardCharsets.UTF_8));
+
+  final AtomicLong clock = new AtomicLong(1760000000000L);
+
+  final UserPrincipal principal = new UserPrincipal(1024, "taketoday", "海子", UserStatus.NORMAL, 3);
+
+  @Test
+  void issueAndVerify() {
+    AuthTokenService tokens = new AuthTokenService(List.of(OLD_KEY), Duration.ofHours(1), clock::get);
+    String token = tokens.issue(principal);
+    assertThat(AuthTokenService.isSignedToken(token)).isTrue();
+    assertThat(token.length()).isLessThan(100);
+    assertThat(tokens.verify(token)).isEqualTo(principal);
+
+    UserPrincipal anonymousName = new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0);
+    assertThat(tokens.verify(tokens.issue(anonymousName))).isEqualTo(anonymousName);
+
+    clock.addAndGet(Duration.ofHours(1).toMillis());
+    assertThat(tokens.verify(token)).isNull();
+  }
+
+  @Test
+  void rejectTamperedToken() {
+    AuthTokenService tokens = new AuthTokenService(List.of(OLD_KEY), Duration.ofHours(1), clock::get);
+    String token = tokens.issue(principal);
+    // 修改内容中的一个字符
+    char c = token.charAt(5);
+    assertThat(tokens.verify(token.substring(0, 5) + (c == 'A' ? 'B' : 'A') + token.substring(6))).isNull();
+    assertThat(tokens.verify("A" + token)).isNull();
+    assertThat(tokens.verify("not.a-token")).isNull();
+    assertThat(AuthTokenService.isSignedToken("8f3c1b9e2a")).isFalse();
+  }
+
+  @Test
+  void keyRotation() {
+    AuthTokenService before = new AuthTokenService(List.of(OLD_KEY), Duration.ofHours(1), clock::get);
+    AuthTokenService rotated = new AuthTokenService(List.of(NEW_KEY, OLD_KEY), Duration.ofHours(1), clock::get);
+    AuthTokenService retired = new AuthTokenService(List.of(NEW_KEY), Duration.ofHours(1), clock::get);
+
+    String oldToken = before.issue(principal);
+    String newToken = rotated.issue(principal);
+    assertThat(rotated.verify(oldToken)).isEqualTo(principal);
+    assertThat(before.verify(newToken)).isNull();
+    assertThat(retired.verify(newToken)).isEqualTo(principal);
+    assertThat(retired.verify(oldToken)).isNull();
+  }
+
+  @Test
+  void revoke() {
+    AuthTokenService tokens = new AuthTokenService(List.of(OLD_KEY), Duration.ofMinutes(1), clock::get);
+    tokens.setMaxRevoked(2);
+    String token = tokens.issue(principal);
+    String other = tokens.issue(principal);
+    tokens.revoke(token);
+    assertThat(tokens.verify(token)).isNull();
+    assertThat(tokens.verify(other)).isEqualTo(principal);
+
+    // 过期的令牌从撤销列表中清理
+    tokens.revoke(other);
+    clock.addAndGet(Duration.ofMinutes(2).toMillis());
+    tokens.revoke(tokens.issue(principal));
+    assertThat(tokens.getRevokedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void revokeAll() {
+    AuthTokenService tokens = new AuthTokenService(List.of(OLD_KEY), Duration.ofMinutes(1), clock::get);
+    tokens.setMaxRevoked(1);
+    UserPrincipal other = new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0);
+    String token = tokens.issue(principal);
+    String otherToken = tokens.issue(other);
+
+    tokens.revokeAll(principal.id());
+    assertThat(tokens.verify(token)).isNull();
+    assertThat(tokens.verify(otherToken)).isEqualTo(other);
+
+    // 撤销之后马上签发的令牌有效
+    String reissued = tokens.issue(principal);
+    assertThat(tokens.verify(reissued)).isEqualTo(principal);
+
+    // 之前的令牌都过期之后清理
+    clock.addAndGet(Duration.ofMinutes(2).toMillis());
+    tokens.revokeAll(other.id());
+    assertThat(tokens.getRevokedUserCount()).isEqualTo(1);
+    assertThat(tokens.verify(tokens.issue(principal))).isEqualTo(principal);
+  }
+
+  @Test
+  void parseKeys() {
+    List<SigningKey> keys = AuthTokenService.parseKeys(
+            "2:bmV3LXNlY3JldC1rZXktYXQtbGVhc3QtMzItYnl0ZXM=, 1:b2xkLXNlY3JldC1rZXktYXQtbGVhc3QtMzItYnl0ZXM=");
+    assertThat(keys).hasSize(2);
+    AuthTokenService parsed = new AuthTokenService(keys, Duration.ofHours(1), clock::get);
+    AuthTokenService tokens = new AuthTokenService(List.of(NEW_KEY), Duration.ofHours(1), clock::get);
+    assertThat(tokens.verify(parsed.issue(principal))).isEqualTo(principal);
+  }
+
+}
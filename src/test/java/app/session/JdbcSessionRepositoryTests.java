@@ -0,0 +1,275 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.model.User;
+import app.model.UserStatus;
+import infra.jdbc.RepositoryManager;
+import infra.session.SessionEventDispatcher;
+import infra.session.WebSession;
+import infra.session.WebSessionListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 08:10
+ */
+class JdbcSessionRepositoryTests {
+
+  final JdbcDataSource dataSource = new JdbcDataSource();
+
+  final AtomicLong clock = new AtomicLong(1760000000000L);
+
+  final List<String> destroyed = new ArrayList<>();
+
+  final List<JdbcSessionRepository> repositories = new ArrayList<>();
+
+  final List<WebSessionListener> listeners = new ArrayList<>();
+
+  @BeforeEach
+  void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:session;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists t_session");
+      statement.execute("drop table if exists t_session_attribute");
+      statement.execute("""
+              create table t_session
+              (
+                  session_id       varchar(64) not null primary key,
+                  user_id          bigint      not null default 0,
+                  create_at        bigint      not null,
+                  last_access_time bigint      not null,
+                  max_idle_time    bigint      not null,
+                  expires_at       bigint      not null
+              )""");
+      statement.execute("""
+              create table t_session_attribute
+              (
+                  session_id      varchar(64)  not null,
+                  attribute_name  varchar(255) not null,
+                  attribute_value blob         not null,
+                  primary key (session_id, attribute_name)
+              )""");
+    }
+  }
+
+  @AfterEach
+  void close() {
+    repositories.forEach(JdbcSessionRepository::close);
+  }
+
+  @Test
+  void writeBehindAndLoadOnOtherNode() throws SQLException {
+    JdbcSessionRepository node1 = createRepository();
+    WebSession session = node1.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(session);
+    session.setAttribute("locale", "zh_CN");
+    session.setAttribute("locale", "en_US");
+    // 还没有写入
+    assertThat(count("t_session")).isZero();
+    assertThat(node1.getPendingCount()).isEqualTo(1);
+
+    assertThat(node1.flush()).isEqualTo(1);
+    assertThat(node1.getPendingCount()).isZero();
+    assertThat(count("t_session")).isEqualTo(1);
+    assertThat(count("t_session_attribute")).isEqualTo(2);
+
+    JdbcSessionRepository node2 = createRepository();
+    WebSession loaded = node2.retrieveSession(session.getId());
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.getAttribute("locale")).isEqualTo("en_US");
+    assertThat(UserPrincipal.find(loaded).username()).isEqualTo("user");
+    assertThat(node2.getLoadedCount()).isEqualTo(1);
+
+    // 近端缓存
+    assertThat(node2.retrieveSession(session.getId())).isSameAs(loaded);
+    assertThat(node2.getLoadedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void writeOnlyDirtyAttributes() throws SQLException {
+    JdbcSessionRepository repository = createRepository();
+    WebSession session = repository.createSession();
+    session.setAttribute("a", "1");
+    session.setAttribute("b", "2");
+    repository.flush();
+
+    // 没有修改的会话不写入，最后访问时间变化太小也不写入
+    clock.addAndGet(1000);
+    repository.updateLastAccessTime(session);
+    assertThat(repository.flush()).isZero();
+
+    session.removeAttribute("a");
+    session.setAttribute("b", "3");
+    assertThat(repository.flush()).isEqualTo(1);
+    assertThat(count("t_session_attribute")).isEqualTo(1);
+
+    WebSession loaded = createRepository().retrieveSession(session.getId());
+    assertThat(loaded.getAttribute("a")).isNull();
+    assertThat(loaded.getAttribute("b")).isEqualTo("3");
+  }
+
+  @Test
+  void removeAndExpire() throws SQLException {
+    JdbcSessionRepository repository = createRepository();
+    WebSession removed = repository.createSession();
+    WebSession idle = repository.createSession();
+    idle.setAttribute("name", "value");
+    repository.flush();
+
+    removed.invalidate();
+    assertThat(repository.retrieveSession(removed.getId())).isNull();
+    repository.flush();
+    assertThat(count("t_session")).isEqualTo(1);
+
+    clock.addAndGet(Duration.ofHours(1).toMillis());
+    assertThat(repository.removeExpiredSessions()).isEqualTo(1);
+    assertThat(count("t_session")).isZero();
+    assertThat(count("t_session_attribute")).isZero();
+    assertThat(destroyed).containsExactly(removed.getId(), idle.getId());
+  }
+
+  @Test
+  void removedOnOtherNode() throws SQLException {
+    JdbcSessionRepository node1 = createRepository();
+    JdbcSessionRepository node2 = createRepository();
+    WebSession session = node1.createSession();
+    node1.flush();
+
+    WebSession other = node2.retrieveSession(session.getId());
+    other.invalidate();
+    node2.flush();
+
+    // 写入时发现已经被删除了，不再写入属性
+    session.setAttribute("name", "value");
+    node1.flush();
+    assertThat(count("t_session_attribute")).isZero();
+    assertThat(node1.retrieveSession(session.getId())).isNull();
+  }
+
+  @Test
+  void findSessionIdsOfUser() {
+    JdbcSessionRepository node1 = createRepository();
+    JdbcSessionRepository node2 = createRepository();
+    WebSession first = node1.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(first);
+    WebSession other = node1.createSession();
+    new UserPrincipal(2, "other", null, UserStatus.NORMAL, 0).bindTo(other);
+    node1.createSession();
+    node1.flush();
+
+    // 还没有写入的会话在当前节点也能查到
+    WebSession second = node2.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(second);
+    assertThat(node2.findSessionIds(1)).containsExactlyInAnyOrder(first.getId(), second.getId());
+    assertThat(node1.findSessionIds(1)).containsExactly(first.getId());
+
+    // 退出登录之后写入的 user_id 清零
+    first.removeAttribute(User.KEY);
+    node1.flush();
+    node2.flush();
+    assertThat(node1.findSessionIds(1)).containsExactly(second.getId());
+    assertThat(node1.findSessionIds(2)).containsExactly(other.getId());
+  }
+
+  @Test
+  void registryInvalidatesSessionsOnOtherNodes() {
+    JdbcSessionRepository node1 = createRepository();
+    JdbcSessionRepository node2 = createRepository();
+    WebSession session = node1.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(session);
+    node1.flush();
+
+    UserSessionRegistry registry = new UserSessionRegistry(() -> node2);
+    assertThat(registry.getSessionIds(1)).containsExactly(session.getId());
+    assertThat(registry.invalidate(1, null)).isEqualTo(1);
+    node2.flush();
+    assertThat(node2.findSessionIds(1)).isEmpty();
+    assertThat(createRepository().retrieveSession(session.getId())).isNull();
+  }
+
+  @Test
+  void registryForgetsExpiredSessions() {
+    JdbcSessionRepository node1 = createRepository();
+    JdbcSessionRepository node2 = createRepository();
+    UserSessionRegistry registry = new UserSessionRegistry(() -> node2);
+    listeners.add(registry);
+
+    // 两个会话都不在 node2 的近端缓存中
+    WebSession cleaned = node1.createSession();
+    registry.bind(new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0), cleaned);
+    WebSession retrieved = node1.createSession();
+    registry.bind(new UserPrincipal(2, "other", null, UserStatus.NORMAL, 0), retrieved);
+    node1.flush();
+    assertThat(registry.size()).isEqualTo(2);
+
+    // 读取时发现已经过期
+    clock.addAndGet(Duration.ofMinutes(31).toMillis());
+    assertThat(node2.retrieveSession(retrieved.getId())).isNull();
+    assertThat(registry.getSessionIds(2)).isEmpty();
+    node2.flush();
+
+    // 定时清理删除的会话
+    clock.addAndGet(Duration.ofHours(1).toMillis());
+    assertThat(node2.removeExpiredSessions()).isEqualTo(1);
+    assertThat(destroyed).containsExactly(retrieved.getId(), cleaned.getId());
+    assertThat(registry.getSessionIds(1)).isEmpty();
+    assertThat(registry.size()).isZero();
+  }
+
+  private int count(String table) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select count(*) from " + table)) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  private JdbcSessionRepository createRepository() {
+    SessionEventDispatcher eventDispatcher = new SessionEventDispatcher() {
+
+      @Override
+      public void onSessionDestroyed(WebSession session) {
+        destroyed.add(session.getId());
+        listeners.forEach(listener -> listener.sessionDestroyed(session));
+      }
+    };
+    var repository = new JdbcSessionRepository(new RepositoryManager(dataSource), eventDispatcher, () -> UUID.randomUUID().toString(),
+            1000, Duration.ofMinutes(1), clock::get);
+    repositories.add(repository);
+    return repository;
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.model.UserStatus;
+import infra.session.SessionEventDispatcher;
+import infra.session.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 04:10
+ */
+class TieredSessionRepositoryTests {
+
+  @TempDir
+  Path directory;
+
+  final AtomicLong clock = new AtomicLong(1760000000000L);
+
+  final List<String> destroyed = new ArrayList<>();
+
+  TieredSessionRepository repository;
+
+  @AfterEach
+  void close() {
+    if (repository != null) {
+      repository.close();
+    }
+  }
+
+  @Test
+  void spillWhenHotTierIsFull() {
+    repository = createRepository(16);
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      WebSession session = repository.createSession();
+      session.setAttribute("index", i);
+      ids.add(session.getId());
+    }
+    assertThat(repository.getHotSessionCount()).isLessThanOrEqualTo(16);
+    assertThat(repository.getSessionCount()).isEqualTo(200);
+    assertThat(repository.getSpilledCount()).isGreaterThanOrEqualTo(184);
+
+    // 从冷层读回
+    for (int i = 0; i < ids.size(); i++) {
+      WebSession session = repository.retrieveSession(ids.get(i));
+      assertThat(session).isNotNull();
+      assertThat(session.getAttribute("index")).isEqualTo(i);
+    }
+    assertThat(repository.getFaultedCount()).isGreaterThan(0);
+    assertThat(repository.getSessionCount()).isEqualTo(200);
+  }
+
+  @Test
+  void spillIdleSessionsAndExpire() {
+    repository = createRepository(1024);
+    repository.setSessionMaxIdleTime(Duration.ofMinutes(30));
+    repository.setSpillAfter(Duration.ofMinutes(5));
+
+    WebSession idle = repository.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(idle);
+    WebSession active = repository.createSession();
+
+    advance(Duration.ofMinutes(3));
+    repository.updateLastAccessTime(repository.retrieveSession(active.getId()));
+    advance(Duration.ofMinutes(3));
+    assertThat(repository.getColdSessionCount()).isEqualTo(1);
+    assertThat(repository.getHotSessionCount()).isEqualTo(1);
+    assertThat(repository.getColdStoredBytes()).isGreaterThan(0);
+
+    // 空闲的会话过期，冷层中的也一样
+    advance(Duration.ofMinutes(25));
+    assertThat(destroyed).containsExactly(idle.getId());
+    assertThat(repository.contains(idle.getId())).isFalse();
+    // 另一个会话此时也空闲超过 5 分钟了
+    assertThat(repository.getColdSessionCount()).isEqualTo(1);
+    assertThat(repository.contains(active.getId())).isTrue();
+
+    advance(Duration.ofMinutes(10));
+    assertThat(destroyed).containsExactly(idle.getId(), active.getId());
+    assertThat(repository.getSessionCount()).isZero();
+    assertThat(repository.getColdStoredBytes()).isZero();
+    assertThat(repository.getExpiredCount()).isEqualTo(2);
+  }
+
+  @Test
+  void modifySpilledSession() {
+    repository = createRepository(1024);
+    repository.setSpillAfter(Duration.ofMinutes(1));
+    WebSession session = repository.createSession();
+    advance(Duration.ofMinutes(2));
+    assertThat(repository.getColdSessionCount()).isEqualTo(1);
+
+    // 请求还持有旧的对象
+    session.setAttribute("name", "value");
+    assertThat(repository.getColdSessionCount()).isZero();
+    assertThat(repository.retrieveSession(session.getId())).isSameAs(session);
+
+    session.invalidate();
+    assertThat(repository.retrieveSession(session.getId())).isNull();
+    assertThat(destroyed).containsExactly(session.getId());
+  }
+
+  @Test
+  void restoreLazily() {
+    repository = createRepository(16, true);
+    WebSession session = repository.createSession();
+    new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0).bindTo(session);
+    WebSession anonymous = repository.createSession();
+    anonymous.setMaxIdleTime(Duration.ofMinutes(1));
+    repository.close();
+
+    clock.addAndGet(Duration.ofMinutes(2).toMillis());
+    repository = createRepository(16, true);
+    assertThat(repository.getRestoredCount()).isEqualTo(1);
+    assertThat(repository.getRestoredBytes()).isGreaterThan(0);
+    assertThat(repository.getDroppedOnRestore()).isEqualTo(1);
+    assertThat(repository.takeRestoredOwners()).isEqualTo(Map.of(session.getId(), 1L));
+
+    // 访问时才反序列化
+    assertThat(repository.getFaultedCount()).isZero();
+    WebSession restored = repository.retrieveSession(session.getId());
+    assertThat(UserPrincipal.find(restored).username()).isEqualTo("user");
+    assertThat(repository.getFaultedCount()).isEqualTo(1);
+    assertThat(repository.retrieveSession(anonymous.getId())).isNull();
+  }
+
+  @Test
+  void compactMostlyDeadSegments() {
+    try (MappedSessionFile file = new MappedSessionFile(directory.resolve("compact"), 1024, false)) {
+      byte[] data = new byte[64];
+      // 每个段留一条长期有效的记录，其余的删除
+      for (int i = 0; i < 200; i++) {
+        file.put("s" + i, data, Long.MAX_VALUE, 0);
+        if (i % 10 != 0) {
+          file.remove("s" + i);
+        }
+      }
+      assertThat(file.size()).isEqualTo(20);
+      assertThat(file.getSegmentCount()).isLessThanOrEqualTo((int) (2 * file.getStoredBytes() / 1024) + 2);
+      for (int i = 0; i < 200; i += 10) {
+        assertThat(file.get("s" + i)).isEqualTo(data);
+      }
+    }
+  }
+
+  @Test
+  void directoryIsLocked() {
+    repository = createRepository(16);
+    WebSession session = repository.createSession();
+    for (int i = 0; i < 32; i++) {
+      repository.createSession();
+    }
+    assertThat(repository.getColdSessionCount()).isGreaterThan(0);
+
+    // 另一个实例不能清空正在使用的目录
+    assertThatThrownBy(() -> createRepository(16))
+            .isInstanceOf(IllegalStateException.class);
+    assertThat(repository.retrieveSession(session.getId())).isNotNull();
+
+    repository.close();
+    repository = createRepository(16);
+    assertThat(repository.getSessionCount()).isZero();
+  }
+
+  private void advance(Duration duration) {
+    long end = clock.get() + duration.toMillis();
+    while (clock.get() < end) {
+      clock.addAndGet(1000);
+      repository.expireSessions();
+    }
+  }
+
+  private TieredSessionRepository createRepository(int maxHotSessions) {
+    return createRepository(maxHotSessions, false);
+  }
+
+  private TieredSessionRepository createRepository(int maxHotSessions, boolean persistent) {
+    SessionEventDispatcher eventDispatcher = new SessionEventDispatcher() {
+
+      @Override
+      public void onSessionDestroyed(WebSession session) {
+        destroyed.add(session.getId());
+      }
+    };
+    return new TieredSessionRepository(eventDispatcher, () -> UUID.randomUUID().toString(),
+            directory, maxHotSessions, 1 << 16, persistent, clock::get);
+  }
+
+}
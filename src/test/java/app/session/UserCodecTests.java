@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import app.model.User;
+import app.model.UserStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 00:30
+ */
+class UserCodecTests {
+
+  @Test
+  void principalRoundTrip() {
+    var principal = new UserPrincipal(1024, "taketoday", "海子", UserStatus.LOCKED, 7);
+    assertThat(UserCodec.decodePrincipal(UserCodec.encode(principal))).isEqualTo(principal);
+
+    var anonymous = new UserPrincipal(-1, "user", null, UserStatus.NORMAL, 0);
+    assertThat(UserCodec.decodePrincipal(UserCodec.encode(anonymous))).isEqualTo(anonymous);
+  }
+
+  @Test
+  void javaSerialization() throws IOException, ClassNotFoundException {
+    var principal = new UserPrincipal(1024, "taketoday", "海子", UserStatus.LOCKED, 7);
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(User.KEY, principal);
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+      stream.writeObject(attributes);
+    }
+    // 写出的是编码后的数据，不包含 record 的类描述
+    assertThat(new String(output.toByteArray(), StandardCharsets.ISO_8859_1)).doesNotContain("username");
+
+    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+      Map<?, ?> read = (Map<?, ?>) stream.readObject();
+      assertThat(read.get(User.KEY)).isEqualTo(principal);
+    }
+  }
+
+  @Test
+  void unsupportedVersion() {
+    byte[] principal = UserCodec.encode(new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0));
+    assertThatThrownBy(() -> UserCodec.decodePrincipal(Arrays.copyOf(principal, principal.length - 3)))
+            .isInstanceOf(IllegalArgumentException.class);
+
+    principal[0] = 2;
+    assertThatThrownBy(() -> UserCodec.decodePrincipal(principal))
+            .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void rejectOversizedSerializedForm() throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ObjectOutputStream stream = new ObjectOutputStream(output)) {
+      stream.writeInt(Integer.MAX_VALUE);
+    }
+    // 不信任长度字段，不会按它分配缓冲区
+    try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+      assertThatThrownBy(() -> new UserCodec.SerializedForm().readExternal(stream))
+              .isInstanceOf(InvalidObjectException.class);
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.model.User;
+import app.model.UserStatus;
+import infra.core.AttributeAccessorSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 01:30
+ */
+class UserProfileCacheTests {
+
+  final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void loadOncePerVersion() {
+    UserProfileCache profiles = new UserProfileCache(this::load, 100, Duration.ofMinutes(1));
+    UserPrincipal principal = UserPrincipal.of(load(1));
+    loads.set(0);
+
+    User user = profiles.get(principal);
+    assertThat(user).isNotNull();
+    assertThat(user.getPassword()).isNull();
+    assertThat(profiles.get(principal)).isSameAs(user);
+    assertThat(loads).hasValue(1);
+
+    // 资料修改之后版本变化，重新加载
+    UserPrincipal modified = principal.withProfile(user);
+    assertThat(modified.version()).isEqualTo(principal.version() + 1);
+    assertThat(profiles.get(modified)).isNotSameAs(user);
+    assertThat(loads).hasValue(2);
+
+    profiles.invalidate(1);
+    profiles.get(modified);
+    assertThat(loads).hasValue(3);
+
+    // 用户被删除
+    assertThat(profiles.get(new UserPrincipal(404, "deleted", null, UserStatus.NORMAL, 0))).isNull();
+  }
+
+  @Test
+  void sessionHoldsPrincipal() {
+    var session = new AttributeAccessorSupport() { };
+    User user = load(1);
+    UserPrincipal.of(user).bindTo(session);
+
+    assertThat(session.getAttribute(User.KEY)).isInstanceOf(UserPrincipal.class);
+    assertThat(User.isPresent(session)).isTrue();
+    assertThat(UserPrincipal.obtain(session).username()).isEqualTo("user1");
+
+    // 升级之前的会话中保存的是 User
+    session.setAttribute(User.KEY, user);
+    assertThat(UserPrincipal.find(session)).isEqualTo(UserPrincipal.of(user));
+    assertThat(session.getAttribute(User.KEY)).isInstanceOf(UserPrincipal.class);
+
+    User.unbind(session);
+    assertThat(UserPrincipal.find(session)).isNull();
+  }
+
+  User load(long id) {
+    loads.incrementAndGet();
+    if (id == 404) {
+      return null;
+    }
+    User user = new User();
+    user.setId(id);
+    user.setUsername("user" + id);
+    user.setName("用户" + id);
+    user.setPassword("password");
+    user.setAvatar("/avatar/" + id + ".png");
+    user.setStatus(UserStatus.NORMAL);
+    return user;
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.model.UserStatus;
+import infra.lang.Nullable;
+import infra.session.SessionEventDispatcher;
+import infra.session.WebSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 05:40
+ */
+class UserSessionRegistryTests {
+
+  @TempDir
+  Path directory;
+
+  final AtomicLong clock = new AtomicLong(1760000000000L);
+
+  TieredSessionRepository repository;
+
+  UserSessionRegistry registry;
+
+  @AfterEach
+  void close() {
+    if (repository != null) {
+      repository.close();
+    }
+  }
+
+  @Test
+  void refreshAndInvalidate() {
+    createRepository();
+    UserPrincipal principal = new UserPrincipal(1, "user", "name", UserStatus.NORMAL, 0);
+    WebSession first = repository.createSession();
+    WebSession second = repository.createSession();
+    WebSession other = repository.createSession();
+    registry.bind(principal, first);
+    registry.bind(principal, second);
+    registry.bind(new UserPrincipal(2, "other", null, UserStatus.NORMAL, 0), other);
+    assertThat(registry.getSessionIds(1)).containsExactlyInAnyOrder(first.getId(), second.getId());
+
+    assertThat(registry.refresh(1, current -> current.withStatus(UserStatus.LOCKED))).isEqualTo(2);
+    assertThat(UserPrincipal.find(first).status()).isEqualTo(UserStatus.LOCKED);
+    assertThat(UserPrincipal.find(other).status()).isEqualTo(UserStatus.NORMAL);
+
+    // 保留当前会话
+    assertThat(registry.invalidate(1, first.getId())).isEqualTo(1);
+    assertThat(repository.contains(first.getId())).isTrue();
+    assertThat(repository.contains(second.getId())).isFalse();
+    assertThat(registry.getSessionIds(1)).containsExactly(first.getId());
+  }
+
+  @Test
+  void removeOnExpiration() {
+    createRepository();
+    repository.setSessionMaxIdleTime(Duration.ofMinutes(1));
+    WebSession session = repository.createSession();
+    registry.bind(new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0), session);
+    assertThat(registry.size()).isEqualTo(1);
+
+    clock.addAndGet(Duration.ofMinutes(2).toMillis());
+    repository.expireSessions();
+    assertThat(registry.getSessionIds(1)).isEmpty();
+    assertThat(registry.size()).isZero();
+  }
+
+  @Test
+  void invalidateRevokesTokens() {
+    AuthTokenService tokens = new AuthTokenService(List.of(AuthTokenServiceTests.OLD_KEY), Duration.ofHours(1), clock::get);
+    createRepository(tokens);
+    UserPrincipal principal = new UserPrincipal(1, "user", null, UserStatus.NORMAL, 0);
+    String token = tokens.issue(principal);
+
+    registry.invalidate(1, null);
+    assertThat(tokens.verify(token)).isNull();
+    assertThat(tokens.verify(tokens.issue(principal))).isEqualTo(principal);
+  }
+
+  private void createRepository() {
+    createRepository(null);
+  }
+
+  private void createRepository(@Nullable AuthTokenService tokens) {
+    SessionEventDispatcher eventDispatcher = new SessionEventDispatcher() {
+
+      @Override
+      public void onSessionDestroyed(WebSession session) {
+        registry.sessionDestroyed(session);
+      }
+    };
+    repository = new TieredSessionRepository(eventDispatcher, () -> UUID.randomUUID().toString(),
+            directory, 16, 1 << 16, false, clock::get);
+    registry = new UserSessionRegistry(() -> repository, tokens);
+  }
+
+}
@@ -18,6 +18,12 @@ package app.util;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
  * @since 1.0 2025/3/4 22:28
@@ -30,4 +36,38 @@ class HashUtilsTests {
     System.out.println(encodedPassword);
   }
 
-}
\ No newline at end of file
+  @Test
+  void sameAsMessageDigest() throws Exception {
+    String longPassword = "p".repeat(2000);
+    for (String password : new String[] { "66666", "密码 password", "emoji 😀", "broken \uD800 surrogate", longPassword, "a" }) {
+      assertThat(HashUtils.getEncodedPassword(password)).isEqualTo(expected(password));
+    }
+    assertThat(HashUtils.getEncodedPassword("")).isEqualTo("");
+    assertThat(HashUtils.getEncodedPassword(null)).isNull();
+  }
+
+  @Test
+  void matches() {
+    String encoded = HashUtils.getEncodedPassword("66666");
+    assertThat(HashUtils.matches("66666", encoded)).isTrue();
+    assertThat(HashUtils.matches("66667", encoded)).isFalse();
+    assertThat(HashUtils.matches("66666", encoded.toLowerCase())).isFalse();
+    assertThat(HashUtils.matches("66666", null)).isFalse();
+    assertThat(HashUtils.matches("", "")).isTrue();
+  }
+
+  @Test
+  void bulkMatches() {
+    String encoded = HashUtils.getEncodedPassword("66666");
+    boolean[] results = HashUtils.matches(new String[] { "66666", "66667", "密码" },
+            new String[] { encoded, encoded, HashUtils.getEncodedPassword("密码") });
+    assertThat(results).containsExactly(true, false, true);
+  }
+
+  private static String expected(String password) throws Exception {
+    MessageDigest digest = MessageDigest.getInstance("MD5");
+    byte[] first = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    return HexFormat.of().withUpperCase().formatHex(digest.digest(first));
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import infra.lang.Nullable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 04:00
+ */
+class TimerWheelTests {
+
+  static final long SECOND = 1L << 30;
+
+  final List<String> expired = new ArrayList<>();
+
+  final TimerWheel<Task> wheel = new TimerWheel<>(0, () -> new Task(null, 0));
+
+  @Test
+  void expireInOrder() {
+    wheel.schedule(new Task("a", 3 * SECOND));
+    wheel.schedule(new Task("b", SECOND));
+    // 在第二层
+    wheel.schedule(new Task("c", 100 * SECOND));
+
+    advance(SECOND - 1);
+    assertThat(expired).isEmpty();
+    advance(2 * SECOND);
+    assertThat(expired).containsExactly("b");
+    advance(4 * SECOND);
+    assertThat(expired).containsExactly("b", "a");
+    advance(99 * SECOND);
+    assertThat(expired).containsExactly("b", "a");
+    advance(101 * SECOND);
+    assertThat(expired).containsExactly("b", "a", "c");
+  }
+
+  @Test
+  void pastDeadlineExpiresOnNextTick() {
+    advance(10 * SECOND);
+    wheel.schedule(new Task("past", SECOND));
+    assertThat(wheel.peekFirst().name).isEqualTo("past");
+    advance(11 * SECOND);
+    assertThat(expired).containsExactly("past");
+  }
+
+  @Test
+  void advanceMoreThanOneRound() {
+    wheel.schedule(new Task("a", 5 * SECOND));
+    wheel.schedule(new Task("b", 500 * SECOND));
+    wheel.schedule(new Task("c", 50000 * SECOND));
+    advance(10000 * SECOND);
+    assertThat(expired).containsExactlyInAnyOrder("a", "b");
+    advance(50001 * SECOND);
+    assertThat(expired).containsExactlyInAnyOrder("a", "b", "c");
+  }
+
+  @Test
+  void rescheduleAndDeschedule() {
+    Task kept = new Task("kept", SECOND);
+    Task removed = new Task("removed", SECOND);
+    wheel.schedule(kept);
+    wheel.schedule(removed);
+    wheel.deschedule(removed);
+    wheel.deschedule(removed);
+
+    // 返回 false 时按新的到期时间重新调度
+    wheel.advance(2 * SECOND, task -> {
+      task.deadline = 5 * SECOND;
+      return false;
+    });
+    assertThat(wheel.peekFirst()).isSameAs(kept);
+    advance(6 * SECOND);
+    assertThat(expired).containsExactly("kept");
+    assertThat(wheel.peekFirst()).isNull();
+  }
+
+  private void advance(long now) {
+    wheel.advance(now, task -> expired.add(task.name));
+  }
+
+  static final class Task implements TimerWheel.Node<Task> {
+
+    @Nullable
+    final String name;
+
+    long deadline;
+
+    @Nullable
+    Task previous;
+
+    @Nullable
+    Task next;
+
+    Task(@Nullable String name, long deadline) {
+      this.name = name;
+      this.deadline = deadline;
+    }
+
+    @Override
+    public long getDeadline() {
+      return deadline;
+    }
+
+    @Nullable
+    @Override
+    public Task getPrevious() {
+      return previous;
+    }
+
+    @Override
+    public void setPrevious(@Nullable Task previous) {
+      this.previous = previous;
+    }
+
+    @Nullable
+    @Override
+    public Task getNext() {
+      return next;
+    }
+
+    @Override
+    public void setNext(@Nullable Task next) {
+      this.next = next;
+    }
+
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 11:10
+ */
+class PaginationTests {
+
+  @Test
+  void cursor() {
+    assertThat(KeysetCursor.decode(KeysetCursor.encode(0))).isEqualTo(0L);
+    assertThat(KeysetCursor.decode(KeysetCursor.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+
+    assertThatThrownBy(() -> KeysetCursor.decode("12")).isInstanceOf(ErrorMessageException.class);
+    assertThatThrownBy(() -> KeysetCursor.decode("!!")).isInstanceOf(ErrorMessageException.class);
+  }
+
+  @Test
+  void keyset() {
+    // 多取了一行，还有下一页
+    Pagination<Long> page = Pagination.keyset(List.of(13L, 11L, 12L), 2, Long::longValue);
+    assertThat(page.getData()).containsExactly(11L, 12L);
+    assertThat(page.getNext()).isNotNull();
+    assertThat(KeysetCursor.decode(page.getNext())).isEqualTo(12L);
+    assertThat(page.getTotal()).isNull();
+    assertThat(page.getPages()).isNull();
+
+    Pagination<Long> last = Pagination.keyset(List.of(13L), 2, Long::longValue);
+    assertThat(last.getData()).containsExactly(13L);
+    assertThat(last.getNext()).isNull();
+  }
+
+  @Test
+  void probe() {
+    Pagination<Long> page = Pagination.probe(List.of(23L, 21L, 22L), 2, 2, 10, CountMode.CACHED, Long::longValue);
+    assertThat(page.getData()).containsExactly(21L, 22L);
+    assertThat(page.getHasNext()).isTrue();
+    assertThat(page.getTotal()).isEqualTo(10);
+    assertThat(page.getPages()).isEqualTo(5);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.CACHED);
+
+    // 估计值比已经查到的少
+    Pagination<Long> estimated = Pagination.probe(List.of(21L, 22L, 23L), 2, 2, 1, CountMode.ESTIMATED, Long::longValue);
+    assertThat(estimated.getTotal()).isEqualTo(5);
+    assertThat(estimated.getPages()).isEqualTo(3);
+
+    Pagination<Long> none = Pagination.probe(List.of(21L), 2, 2, null, CountMode.NONE, Long::longValue);
+    assertThat(none.getHasNext()).isFalse();
+    assertThat(none.getTotal()).isNull();
+    assertThat(none.getPages()).isNull();
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.model.User;
+import infra.jdbc.RepositoryManager;
+import infra.persistence.DefaultEntityMetadataFactory;
+import infra.persistence.EntityMetadata;
+import infra.persistence.sql.Restriction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 16:50
+ */
+class PaginatorTests {
+
+  /** H2 没有 MySQL 的表统计信息，测试时从这个表读取估计值 */
+  static final String STATS_SQL = "SELECT table_rows FROM t_table_stats WHERE table_name = :tableName";
+
+  final JdbcDataSource dataSource = new JdbcDataSource();
+
+  RepositoryManager repositoryManager;
+
+  @BeforeEach
+  void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:paginator;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    execute("drop table if exists t_user");
+    execute("drop table if exists t_table_stats");
+    execute("create table t_user (id bigint primary key, username varchar(64) not null, name varchar(64))");
+    execute("create table t_table_stats (table_name varchar(64) primary key, table_rows bigint)");
+    for (int id = 7; id >= 1; id--) {
+      insertUser(id);
+    }
+    repositoryManager = new RepositoryManager(dataSource);
+  }
+
+  @Test
+  void cached() throws SQLException {
+    Paginator paginator = new Paginator(repositoryManager, Duration.ofMinutes(1));
+    Pagination<User> page = paginator.page(User.class, pageable(1, 3, CountMode.CACHED), User::getId);
+    assertThat(ids(page)).containsExactly(1L, 2L, 3L);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.CACHED);
+    assertThat(page.getTotal()).isEqualTo(7);
+    assertThat(page.getPages()).isEqualTo(3);
+    assertThat(page.getHasNext()).isTrue();
+
+    // 缓存的总数没有变化
+    insertUser(8);
+    assertThat(paginator.page(User.class, pageable(1, 3, CountMode.CACHED), User::getId).getTotal()).isEqualTo(7);
+
+    paginator.invalidate(User.class);
+    Pagination<User> last = paginator.page(User.class, pageable(3, 3, CountMode.CACHED), User::getId);
+    assertThat(ids(last)).containsExactly(7L, 8L);
+    assertThat(last.getTotal()).isEqualTo(8);
+    assertThat(last.getPages()).isEqualTo(3);
+    assertThat(last.getHasNext()).isFalse();
+  }
+
+  @Test
+  void estimated() throws SQLException {
+    execute("insert into t_table_stats values ('t_user', 100)");
+    Pagination<User> page = new Paginator(repositoryManager, Duration.ofMinutes(1), STATS_SQL)
+            .page(User.class, pageable(1, 3, CountMode.ESTIMATED), User::getId);
+    assertThat(ids(page)).containsExactly(1L, 2L, 3L);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.ESTIMATED);
+    assertThat(page.getTotal()).isEqualTo(100);
+    assertThat(page.getPages()).isEqualTo(34);
+
+    // 估计值比已经查到的少时按查到的算
+    execute("update t_table_stats set table_rows = 2");
+    Pagination<User> second = new Paginator(repositoryManager, Duration.ofMinutes(1), STATS_SQL)
+            .page(User.class, pageable(2, 3, CountMode.ESTIMATED), User::getId);
+    assertThat(ids(second)).containsExactly(4L, 5L, 6L);
+    assertThat(second.getTotal()).isEqualTo(7);
+    assertThat(second.getPages()).isEqualTo(3);
+  }
+
+  @Test
+  void estimatedFallsBackToCached() throws SQLException {
+    // 没有统计信息
+    Paginator paginator = new Paginator(repositoryManager, Duration.ofMinutes(1), STATS_SQL);
+    Pagination<User> page = paginator.page(User.class, pageable(1, 3, CountMode.ESTIMATED), User::getId);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.CACHED);
+    assertThat(page.getTotal()).isEqualTo(7);
+
+    // 不可用的估计值不缓存，有了统计信息之后使用估计值
+    execute("insert into t_table_stats values ('t_user', 100)");
+    page = paginator.page(User.class, pageable(1, 3, CountMode.ESTIMATED), User::getId);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.ESTIMATED);
+    assertThat(page.getTotal()).isEqualTo(100);
+
+    // 查询统计信息失败
+    String missingSql = "SELECT table_rows FROM t_missing WHERE table_name = :tableName";
+    page = new Paginator(repositoryManager, Duration.ofMinutes(1), missingSql)
+            .page(User.class, pageable(1, 3, CountMode.ESTIMATED), User::getId);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.CACHED);
+    assertThat(page.getTotal()).isEqualTo(7);
+  }
+
+  @Test
+  void none() {
+    Paginator paginator = new Paginator(repositoryManager, Duration.ofMinutes(1));
+    Pagination<User> page = paginator.page(User.class, pageable(2, 3, CountMode.NONE), User::getId);
+    assertThat(ids(page)).containsExactly(4L, 5L, 6L);
+    assertThat(page.getCountMode()).isEqualTo(CountMode.NONE);
+    assertThat(page.getTotal()).isNull();
+    assertThat(page.getPages()).isNull();
+    assertThat(page.getCurrent()).isEqualTo(2);
+    assertThat(page.getHasNext()).isTrue();
+
+    Pagination<User> last = paginator.page(User.class, pageable(3, 3, CountMode.NONE), User::getId);
+    assertThat(ids(last)).containsExactly(7L);
+    assertThat(last.getHasNext()).isFalse();
+
+    assertThat(paginator.page(User.class, pageable(4, 3, CountMode.NONE), User::getId).getData()).isEmpty();
+  }
+
+  @Test
+  void offsetCondition() {
+    EntityMetadata metadata = new DefaultEntityMetadataFactory().getEntityMetadata(User.class);
+    List<Restriction> restrictions = new ArrayList<>();
+    new Paginator.OffsetCondition(3, 4).renderWhereClause(metadata, restrictions);
+    assertThat(restrictions).hasSize(1);
+
+    StringBuilder sql = new StringBuilder();
+    restrictions.get(0).render(sql);
+    assertThat(sql).hasToString("id IN (SELECT id FROM (SELECT id FROM t_user ORDER BY id LIMIT 4 OFFSET 3) page)");
+
+    List<User> users = repositoryManager.getEntityManager().find(User.class, new Paginator.OffsetCondition(3, 4));
+    assertThat(users).extracting(User::getId).containsExactlyInAnyOrder(4L, 5L, 6L, 7L);
+  }
+
+  private void insertUser(long id) throws SQLException {
+    execute("insert into t_user (id, username) values (" + id + ", 'user" + id + "')");
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static Pageable pageable(int pageNumber, int pageSize, CountMode countMode) {
+    return new Pageable() {
+
+      @Override
+      public int pageNumber() {
+        return pageNumber;
+      }
+
+      @Override
+      public int pageSize() {
+        return pageSize;
+      }
+
+      @Override
+      public CountMode countMode() {
+        return countMode;
+      }
+    };
+  }
+
+  private static List<Long> ids(Pagination<User> page) {
+    return page.getData().stream().map(User::getId).toList();
+  }
+
+}
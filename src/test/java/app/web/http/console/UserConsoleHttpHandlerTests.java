@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.http.console;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import app.model.User;
+import app.security.UsernameFilter;
+import app.session.UserProfileCache;
+import app.session.UserSessionRegistry;
+import app.web.CountMode;
+import app.web.KeysetCursor;
+import app.web.Pageable;
+import app.web.Pagination;
+import app.web.Paginator;
+import app.web.support.PageableMethodArgumentResolver;
+import infra.jdbc.RepositoryManager;
+import infra.mock.web.HttpMockRequestImpl;
+import infra.mock.web.MockHttpResponseImpl;
+import infra.persistence.EntityManager;
+import infra.web.mock.MockRequestContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 16:30
+ */
+class UserConsoleHttpHandlerTests {
+
+  /** ID 不连续，中间有删除过的用户 */
+  static final long[] IDS = { 2, 3, 5, 8, 13, 21, 34 };
+
+  final JdbcDataSource dataSource = new JdbcDataSource();
+
+  final PageableMethodArgumentResolver resolver = new PageableMethodArgumentResolver();
+
+  UserConsoleHttpHandler handler;
+
+  @BeforeEach
+  void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:console;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists t_user");
+      statement.execute("create table t_user (id bigint primary key, username varchar(64) not null, name varchar(64))");
+      // 插入顺序和 ID 顺序不一致
+      for (int i = IDS.length - 1; i >= 0; i--) {
+        statement.execute("insert into t_user (id, username) values (" + IDS[i] + ", 'user" + IDS[i] + "')");
+      }
+    }
+
+    RepositoryManager repositoryManager = new RepositoryManager(dataSource);
+    EntityManager entityManager = repositoryManager.getEntityManager();
+    handler = new UserConsoleHttpHandler(entityManager, new UsernameFilter(repositoryManager),
+            new UserProfileCache(id -> entityManager.findById(User.class, id), 100, Duration.ofMinutes(1)),
+            new UserSessionRegistry(() -> null), new Paginator(repositoryManager, Duration.ofMinutes(1)));
+  }
+
+  @Test
+  void listUsersByKeyset() {
+    Pagination<User> first = listUsers("", 3);
+    assertThat(ids(first)).containsExactly(2L, 3L, 5L);
+    assertThat(first.getCountMode()).isEqualTo(CountMode.NONE);
+    assertThat(first.getTotal()).isNull();
+    assertThat(first.getHasNext()).isTrue();
+    assertThat(KeysetCursor.decode(first.getNext())).isEqualTo(5L);
+
+    Pagination<User> middle = listUsers(first.getNext(), 3);
+    assertThat(ids(middle)).containsExactly(8L, 13L, 21L);
+    assertThat(KeysetCursor.decode(middle.getNext())).isEqualTo(21L);
+
+    Pagination<User> last = listUsers(middle.getNext(), 3);
+    assertThat(ids(last)).containsExactly(34L);
+    assertThat(last.getNext()).isNull();
+    assertThat(last.getHasNext()).isFalse();
+
+    // 最后一条之后没有数据
+    Pagination<User> empty = listUsers(KeysetCursor.encode(34), 3);
+    assertThat(empty.getData()).isEmpty();
+    assertThat(empty.getNext()).isNull();
+  }
+
+  @Test
+  void listUsersWalksAllPages() {
+    // 每种页大小都不重复、不遗漏
+    for (int size = 1; size <= IDS.length + 1; size++) {
+      List<Long> seen = new ArrayList<>();
+      String after = "";
+      int pages = 0;
+      while (after != null) {
+        Pagination<User> page = listUsers(after, size);
+        assertThat(page.getData()).hasSizeLessThanOrEqualTo(size);
+        seen.addAll(ids(page));
+        after = page.getNext();
+        pages++;
+      }
+      assertThat(seen).as("size %d", size).containsExactly(boxed(IDS));
+      assertThat(pages).isEqualTo((IDS.length + size - 1) / size);
+    }
+  }
+
+  private Pagination<User> listUsers(String after, int size) {
+    HttpMockRequestImpl request = new HttpMockRequestImpl();
+    request.setParameter("after", after);
+    request.setParameter("size", String.valueOf(size));
+    MockRequestContext context = new MockRequestContext(null, request, new MockHttpResponseImpl());
+    return handler.listUsers((Pageable) resolver.resolveArgument(context, null));
+  }
+
+  private static List<Long> ids(Pagination<User> page) {
+    return page.getData().stream().map(User::getId).toList();
+  }
+
+  private static Long[] boxed(long[] ids) {
+    Long[] boxed = new Long[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      boxed[i] = ids[i];
+    }
+    return boxed;
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 23:40
+ */
+class BlockingExecutorTests {
+
+  @Test
+  void rejectWhenQueueIsFull() throws Exception {
+    try (BlockingExecutor executor = new BlockingExecutor(1, 1)) {
+      CountDownLatch running = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      executor.execute(() -> {
+        running.countDown();
+        await(release);
+      });
+      assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+      executor.execute(() -> { });
+
+      assertThatThrownBy(() -> executor.execute(() -> { }))
+              .isInstanceOf(RejectedExecutionException.class);
+      assertThat(executor.isVirtual()).isFalse();
+      assertThat(executor.getQueueSize()).isEqualTo(1);
+      assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+      // 线程在等待 latch，算作 parked
+      waitFor(() -> executor.getParkedCount() == 1);
+      assertThat(executor.getActiveCount()).isEqualTo(1);
+
+      release.countDown();
+      waitFor(() -> executor.getCompletedCount() == 2);
+      assertThat(executor.getActiveCount()).isZero();
+    }
+  }
+
+  static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.web.util.PackedAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 16:20
+ */
+class CompactRateLimitStoreTests {
+
+  static final long START = TimeUnit.MILLISECONDS.toNanos(1);
+
+  static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  final RateLimiter rateLimiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 2, SECOND);
+
+  @Test
+  void limitIsKeptPerKey() {
+    for (boolean offHeap : new boolean[] { false, true }) {
+      CompactRateLimitStore store = new CompactRateLimitStore(1024, offHeap);
+      long high = PackedAddress.high("2001:db8::1");
+      long low = PackedAddress.low("2001:db8::1");
+      assertThat(store.tryAcquire(0, high, low, rateLimiter, START)).isTrue();
+      assertThat(store.tryAcquire(0, high, low, rateLimiter, START)).isTrue();
+      assertThat(store.tryAcquire(0, high, low, rateLimiter, START)).isFalse();
+      assertThat(store.tryAcquire(0, high, low + 1, rateLimiter, START)).isTrue();
+      assertThat(store.tryAcquire(1, high, low, rateLimiter, START)).isTrue();
+      assertThat(store.size()).isEqualTo(3);
+
+      assertThat(store.tryAcquire(0, high, low, rateLimiter, START + SECOND)).isTrue();
+    }
+  }
+
+  @Test
+  void expiredStatesAreRemoved() {
+    CompactRateLimitStore store = new CompactRateLimitStore(1024);
+    for (int i = 0; i < 100; i++) {
+      assertThat(store.tryAcquire(0, 0, i, rateLimiter, START)).isTrue();
+    }
+    assertThat(store.size()).isEqualTo(100);
+
+    store.cleanUp(START + SECOND / 2);
+    assertThat(store.size()).isEqualTo(100);
+
+    store.cleanUp(START + SECOND * 3);
+    assertThat(store.size()).isZero();
+    assertThat(store.getState(0, 0, 1)).isEqualTo(RateLimiter.EMPTY);
+  }
+
+  @Test
+  void capacityIsHardBound() {
+    CompactRateLimitStore store = new CompactRateLimitStore(64);
+    long now = START;
+    for (int i = 0; i < 10_000; i++) {
+      assertThat(store.tryAcquire(0, 0, i, rateLimiter, now)).isTrue();
+      assertThat(store.size()).isLessThanOrEqualTo(store.getCapacity());
+      now += TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    assertThat(store.getState(0, 0, 9999)).isNotEqualTo(RateLimiter.EMPTY);
+  }
+
+  @Test
+  void slidingLogFallsBack() {
+    RateLimiter slidingLog = RateLimiter.of(RateLimitAlgorithm.SLIDING_LOG, 1, SECOND);
+    CompactRateLimitStore store = new CompactRateLimitStore(1024);
+    assertThat(store.tryAcquire(0, 0, 1, slidingLog, START)).isTrue();
+    assertThat(store.tryAcquire(0, 0, 1, slidingLog, START)).isFalse();
+    assertThat(store.size()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentAcquire() throws InterruptedException {
+    RateLimiter rateLimiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 1000, SECOND);
+    CompactRateLimitStore store = new CompactRateLimitStore(1024, true);
+    AtomicInteger acquired = new AtomicInteger();
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          if (store.tryAcquire(0, 0, j % 4, rateLimiter, START)) {
+            acquired.incrementAndGet();
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(acquired.get()).isEqualTo(4000);
+    assertThat(store.size()).isEqualTo(4);
+  }
+
+}
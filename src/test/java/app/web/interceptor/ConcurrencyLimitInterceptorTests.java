@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+
+import infra.http.ResponseEntity;
+import infra.mock.web.HttpMockRequestImpl;
+import infra.mock.web.MockHttpResponseImpl;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.handler.method.HandlerMethod;
+import infra.web.mock.MockRequestContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 11:30
+ */
+class ConcurrencyLimitInterceptorTests {
+
+  final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor();
+
+  @Test
+  void asyncHandlerHoldsPermit() throws Throwable {
+    Handler handler = new Handler();
+    Object result = proceed(handler);
+    assertThat(result).isInstanceOf(CompletableFuture.class);
+
+    // 返回的 future 还没有完成，许可仍然被占用
+    ConcurrencyLimiter limiter = interceptor.getGroups().get("async");
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+    assertThat(proceed(new Handler())).isInstanceOf(ResponseEntity.class);
+    assertThat(limiter.getRejected()).isEqualTo(1);
+
+    handler.future.complete("ok");
+    assertThat(((CompletableFuture<?>) result).join()).isEqualTo("ok");
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void failedFutureReleasesPermit() throws Throwable {
+    Handler handler = new Handler();
+    CompletableFuture<?> result = (CompletableFuture<?>) proceed(handler);
+    handler.future.completeExceptionally(new SQLTransientConnectionException("timeout"));
+    assertThat(result).isCompletedExceptionally();
+    assertThat(interceptor.getGroups().get("async").getInFlight()).isZero();
+  }
+
+  private Object proceed(Handler handler) throws Throwable {
+    HandlerMethod handlerMethod = new HandlerMethod(handler, Handler.class.getMethod("handle"));
+    InterceptorChain chain = new InterceptorChain(new HandlerInterceptor[] { interceptor }, handlerMethod) {
+
+      @Override
+      protected Object invokeHandler(RequestContext context, Object handler) {
+        return ((Handler) ((HandlerMethod) handler).getBean()).handle();
+      }
+    };
+    RequestContext request = new MockRequestContext(null, new HttpMockRequestImpl(), new MockHttpResponseImpl());
+    return chain.proceed(request);
+  }
+
+  public static class Handler {
+
+    final CompletableFuture<String> future = new CompletableFuture<>();
+
+    @ConcurrencyLimit(value = 1, group = "async")
+    public CompletableFuture<String> handle() {
+      return future;
+    }
+
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 19:50
+ */
+class ConcurrencyLimiterTests {
+
+  static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  void fixed() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Fixed(2);
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.getRejected()).isEqualTo(1);
+
+    limiter.release(MILLIS, true);
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+    assertThat(limiter.getLimit()).isEqualTo(2);
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void aimd() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Aimd(1, 20, 100 * MILLIS);
+    assertThat(limiter.getLimit()).isEqualTo(10);
+
+    // 用满上限并且耗时正常时增长
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire();
+    }
+    limiter.release(10 * MILLIS, false);
+    assertThat(limiter.getLimit()).isEqualTo(11);
+
+    // 正在执行的请求不到上限的一半时不再增长
+    for (int i = 0; i < 9; i++) {
+      limiter.release(10 * MILLIS, false);
+    }
+    assertThat(limiter.getLimit()).isEqualTo(14);
+
+    limiter.tryAcquire();
+    limiter.release(200 * MILLIS, false);
+    assertThat(limiter.getLimit()).isEqualTo(12);
+
+    for (int i = 0; i < 100; i++) {
+      limiter.tryAcquire();
+      limiter.release(MILLIS, true);
+    }
+    assertThat(limiter.getLimit()).isEqualTo(1);
+  }
+
+  @Test
+  void gradient() {
+    ConcurrencyLimiter limiter = new ConcurrencyLimiter.Gradient(1, 100);
+    for (int i = 0; i < 1000; i++) {
+      limiter.onSample(10 * MILLIS, 100, false);
+    }
+    // 耗时稳定时增长到上限
+    assertThat(limiter.getLimit()).isEqualTo(100);
+
+    // 排队导致耗时变长时下降
+    for (int i = 0; i < 20; i++) {
+      limiter.onSample(40 * MILLIS, 100, false);
+    }
+    assertThat(limiter.getLimit()).isLessThan(50);
+  }
+
+  @Test
+  void overload() {
+    assertThat(ConcurrencyLimitInterceptor.isOverload(
+            new IllegalStateException(new SQLTransientConnectionException("timeout")))).isTrue();
+    assertThat(ConcurrencyLimitInterceptor.isOverload(new IllegalStateException())).isFalse();
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import app.web.interceptor.RateLimitBackend.LeaseRequest;
+import infra.jdbc.RepositoryManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 17:40
+ */
+class JdbcRateLimitBackendTests {
+
+  final JdbcDataSource dataSource = new JdbcDataSource();
+
+  JdbcRateLimitBackend backend;
+
+  @BeforeEach
+  void setup() throws SQLException {
+    dataSource.setURL("jdbc:h2:mem:rate_limit;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists t_rate_limit");
+      statement.execute("""
+              create table t_rate_limit
+              (
+                  lease_key    varchar(255) not null,
+                  window_index bigint       not null,
+                  permits      int          not null default 0,
+                  expires_at   bigint       not null,
+                  primary key (lease_key, window_index)
+              )""");
+    }
+    backend = new JdbcRateLimitBackend(new RepositoryManager(dataSource));
+  }
+
+  @Test
+  void leaseUpToLimit() {
+    LeaseRequest request = new LeaseRequest("login@1", 100, 12, 5, 1000);
+    assertThat(backend.lease(List.of(request, request, request, request))).containsExactly(5, 5, 2, 0);
+
+    // 新的窗口重新计数
+    LeaseRequest next = new LeaseRequest("login@1", 101, 12, 5, 2000);
+    assertThat(backend.lease(List.of(next))).containsExactly(5);
+  }
+
+  @Test
+  void removeExpired() throws SQLException {
+    backend.lease(List.of(new LeaseRequest("a", 1, 10, 5, 1000), new LeaseRequest("b", 2, 10, 5, 2000)));
+    backend.removeExpired(1000);
+
+    try (Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("select lease_key from t_rate_limit")) {
+      assertThat(resultSet.next()).isTrue();
+      assertThat(resultSet.getString(1)).isEqualTo("b");
+      assertThat(resultSet.next()).isFalse();
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import app.web.util.PackedAddress;
+import infra.mock.web.HttpMockRequestImpl;
+import infra.mock.web.MockHttpResponseImpl;
+import infra.web.RequestContext;
+import infra.web.mock.MockRequestContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 18:40
+ */
+class KeyExtractorTests {
+
+  @Test
+  void prefix() {
+    long high = PackedAddress.high("192.168.1.23");
+    long low = PackedAddress.low("192.168.1.23");
+    assertThat(PackedAddress.prefixLow(high, low)).isEqualTo(PackedAddress.low("192.168.1.0"));
+    assertThat(PackedAddress.prefixLow(high, low)).isNotEqualTo(PackedAddress.low("192.168.2.0"));
+
+    high = PackedAddress.high("2001:db8:1:2:3:4:5:6");
+    low = PackedAddress.low("2001:db8:1:2:3:4:5:6");
+    assertThat(high).isEqualTo(PackedAddress.high("2001:db8:1:2::"));
+    assertThat(PackedAddress.prefixLow(high, low)).isZero();
+
+    // 无法解析的地址不合并
+    high = PackedAddress.high("unknown");
+    low = PackedAddress.low("unknown");
+    assertThat(PackedAddress.prefixLow(high, low)).isEqualTo(low);
+  }
+
+  @Test
+  void composite() {
+    KeyExtractor user = fixed(KeyExtractor.USER_HIGH, 1);
+    KeyExtractor other = fixed(KeyExtractor.USER_HIGH, 2);
+    KeyExtractor ip = fixed(PackedAddress.IPV4_HIGH, PackedAddress.low("10.0.0.1"));
+
+    long[] key = extract(KeyExtractor.composite(user, ip), null);
+    assertThat(key).isEqualTo(extract(KeyExtractor.composite(user, ip), null));
+    assertThat(key[1]).isNotEqualTo(extract(KeyExtractor.composite(other, ip), null)[1]);
+    assertThat(key[1]).isNotEqualTo(extract(KeyExtractor.composite(ip, user), null)[1]);
+    assertThat(key[0]).isNotEqualTo(KeyExtractor.USER_HIGH);
+  }
+
+  @Test
+  void anonymousUser() {
+    RequestLimit requestLimit = Limited.class.getAnnotation(RequestLimit.class);
+    KeyExtractor extractor = KeyExtractor.of(requestLimit, request -> 42, null);
+    assertThat(extract(extractor, null)).containsExactly(KeyExtractor.USER_HIGH, 42);
+
+    // 用户 ID 为 0 也是登录用户
+    extractor = KeyExtractor.of(requestLimit, request -> 0, null);
+    assertThat(extract(extractor, null)).containsExactly(KeyExtractor.USER_HIGH, 0);
+  }
+
+  @Test
+  void spoofedAddressDoesNotReachUserBucket() {
+    RequestLimit requestLimit = Limited.class.getAnnotation(RequestLimit.class);
+
+    // 100:0:0:1::2a 按位就是用户 42 的 key
+    HttpMockRequestImpl mockRequest = new HttpMockRequestImpl();
+    mockRequest.addHeader("X-Forwarded-For", "100:0:0:1::2a");
+    RequestContext request = new MockRequestContext(null, mockRequest, new MockHttpResponseImpl());
+
+    KeyExtractor anonymous = KeyExtractor.of(requestLimit, r -> KeyExtractor.ANONYMOUS, null);
+    long[] key = extract(anonymous, request);
+    assertThat(key[0]).isEqualTo(PackedAddress.UNKNOWN_HIGH).isNotEqualTo(KeyExtractor.USER_HIGH);
+    assertThat(key[1]).isEqualTo(PackedAddress.hash("100:0:0:1::2a"));
+    assertThat(extract(KeyExtractor.IP, request)).isEqualTo(key);
+
+    // 100::/8 之外的地址照常解析
+    assertThat(PackedAddress.high("200:0:0:1::2a")).isEqualTo(0x0200_0000_0000_0001L);
+    assertThat(PackedAddress.low("200:0:0:1::2a")).isEqualTo(0x2a);
+  }
+
+  private static KeyExtractor fixed(long high, long low) {
+    return (request, key) -> {
+      key[0] = high;
+      key[1] = low;
+    };
+  }
+
+  private static long[] extract(KeyExtractor extractor, RequestContext request) {
+    long[] key = new long[2];
+    extractor.extract(request, key);
+    return key;
+  }
+
+  @RequestLimit(key = RateLimitKey.USER)
+  static class Limited {
+
+  }
+
+}
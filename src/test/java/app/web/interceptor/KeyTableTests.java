@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 09:30
+ */
+class KeyTableTests {
+
+  @Test
+  void primitiveKeys() {
+    KeyTable<LimitState> table = new KeyTable<>(4);
+    RateLimiter rateLimiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 10, 1_000_000_000L);
+    LimitState first = state(rateLimiter, 1, 2, 3);
+    assertThat(table.putIfAbsent(first)).isNull();
+    assertThat(table.putIfAbsent(state(rateLimiter, 1, 2, 3))).isSameAs(first);
+    assertThat(table.get(1, 2, 3)).isSameAs(first);
+    assertThat(table.get(2, 2, 3)).isNull();
+    assertThat(table.get(1, 3, 2)).isNull();
+
+    // 超出容量时链表变长，仍然可以找到
+    for (int i = 0; i < 1000; i++) {
+      assertThat(table.putIfAbsent(state(rateLimiter, 2, i, -i))).isNull();
+    }
+    assertThat(table.size()).isEqualTo(1001);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(table.get(2, i, -i)).isNotNull();
+    }
+
+    assertThat(table.remove(state(rateLimiter, 1, 2, 3))).isFalse();
+    assertThat(table.remove(first)).isTrue();
+    assertThat(table.contains(first)).isFalse();
+
+    table.removeIf(state -> state.keyHigh() % 2 == 0);
+    assertThat(table.size()).isEqualTo(500);
+    assertThat(table.get(2, 1, -1)).isNotNull();
+    assertThat(table.get(2, 2, -2)).isNull();
+  }
+
+  private static LimitState state(RateLimiter rateLimiter, int id, long high, long low) {
+    LimitState state = rateLimiter.newState();
+    state.keyId = id;
+    state.keyHigh = high;
+    state.keyLow = low;
+    return state;
+  }
+
+}
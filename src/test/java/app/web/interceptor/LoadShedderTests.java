@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 21:00
+ */
+class LoadShedderTests {
+
+  final AtomicLong time = new AtomicLong();
+
+  final LoadShedder loadShedder = new LoadShedder(time::get);
+
+  @Test
+  void shedLowPriorityFirst() {
+    // 每个间隔内最慢也要 200ms，超过 100ms 的目标值
+    for (int i = 0; i < 3; i++) {
+      request(Priority.HIGH, 200);
+      advance(500);
+      request(Priority.HIGH, 200);
+      if (i == 0) {
+        assertThat(loadShedder.tryAcquire(Priority.LOW)).isFalse();
+        assertThat(loadShedder.isShedding(Priority.NORMAL)).isFalse();
+      }
+    }
+    assertThat(loadShedder.getLevel()).isEqualTo(LoadShedder.MAX_LEVEL);
+    assertThat(loadShedder.tryAcquire(Priority.HIGH)).isFalse();
+    assertThat(loadShedder.tryAcquire(Priority.CRITICAL)).isTrue();
+    assertThat(loadShedder.getShed()).isEqualTo(2);
+  }
+
+  @Test
+  void recoverWithoutTraffic() {
+    for (int i = 0; i < 3; i++) {
+      advance(500);
+      request(Priority.CRITICAL, 200);
+    }
+    assertThat(loadShedder.getLevel()).isEqualTo(LoadShedder.MAX_LEVEL);
+
+    // 没有请求完成时，被丢弃的请求也会让级别逐步降下来
+    for (int i = 0; i < 3; i++) {
+      advance(500);
+      loadShedder.tryAcquire(Priority.LOW);
+    }
+    assertThat(loadShedder.getLevel()).isZero();
+  }
+
+  @Test
+  void inFlightLimits() {
+    loadShedder.setMaxInFlight(4);
+    assertThat(loadShedder.tryAcquire(Priority.LOW)).isTrue();
+    assertThat(loadShedder.tryAcquire(Priority.LOW)).isTrue();
+    assertThat(loadShedder.tryAcquire(Priority.LOW)).isFalse();
+    assertThat(loadShedder.tryAcquire(Priority.NORMAL)).isTrue();
+    assertThat(loadShedder.tryAcquire(Priority.NORMAL)).isFalse();
+    assertThat(loadShedder.tryAcquire(Priority.HIGH)).isTrue();
+    assertThat(loadShedder.tryAcquire(Priority.HIGH)).isFalse();
+    assertThat(loadShedder.tryAcquire(Priority.CRITICAL)).isTrue();
+    assertThat(loadShedder.getInFlight()).isEqualTo(5);
+  }
+
+  private void request(Priority priority, long millis) {
+    assertThat(loadShedder.tryAcquire(priority)).isTrue();
+    long start = loadShedder.start();
+    advance(millis);
+    loadShedder.release(start);
+  }
+
+  private void advance(long millis) {
+    time.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+}
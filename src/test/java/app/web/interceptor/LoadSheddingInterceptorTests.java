@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import infra.mock.web.HttpMockRequestImpl;
+import infra.mock.web.MockHttpResponseImpl;
+import infra.web.HandlerInterceptor;
+import infra.web.InterceptorChain;
+import infra.web.RequestContext;
+import infra.web.handler.method.HandlerMethod;
+import infra.web.mock.MockRequestContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/17 11:20
+ */
+class LoadSheddingInterceptorTests {
+
+  final LoadShedder loadShedder = new LoadShedder();
+
+  final LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor(loadShedder, null);
+
+  @Test
+  void blockingHandlerHoldsPermit() throws Throwable {
+    Handler handler = new Handler();
+    try (BlockingExecutor executor = new BlockingExecutor(1, 1)) {
+      BlockingExecutionInterceptor blocking = new BlockingExecutionInterceptor(executor);
+      Object result = proceed(handler, interceptor, blocking);
+      assertThat(result).isInstanceOf(CompletableFuture.class);
+
+      // 接口还在执行器中运行，许可不能提前释放
+      assertThat(handler.entered.await(10, TimeUnit.SECONDS)).isTrue();
+      assertThat(loadShedder.getInFlight()).isEqualTo(1);
+
+      handler.finish.countDown();
+      assertThat(((CompletableFuture<?>) result).get(10, TimeUnit.SECONDS)).isEqualTo("ok");
+      assertThat(loadShedder.getInFlight()).isZero();
+    }
+  }
+
+  @Test
+  void synchronousHandlerReleasesOnReturn() throws Throwable {
+    Handler handler = new Handler();
+    handler.finish.countDown();
+    assertThat(proceed(handler, interceptor)).isEqualTo("ok");
+    assertThat(loadShedder.getInFlight()).isZero();
+  }
+
+  private static Object proceed(Handler handler, HandlerInterceptor... interceptors) throws Throwable {
+    HandlerMethod handlerMethod = new HandlerMethod(handler, Handler.class.getMethod("handle"));
+    InterceptorChain chain = new InterceptorChain(interceptors, handlerMethod) {
+
+      @Override
+      protected Object invokeHandler(RequestContext context, Object handler) throws Throwable {
+        return ((Handler) ((HandlerMethod) handler).getBean()).handle();
+      }
+    };
+    RequestContext request = new MockRequestContext(null, new HttpMockRequestImpl(), new MockHttpResponseImpl());
+    return chain.proceed(request);
+  }
+
+  public static class Handler {
+
+    final CountDownLatch entered = new CountDownLatch(1);
+
+    final CountDownLatch finish = new CountDownLatch(1);
+
+    @Blocking
+    public String handle() throws InterruptedException {
+      entered.countDown();
+      finish.await();
+      return "ok";
+    }
+
+  }
+
+}
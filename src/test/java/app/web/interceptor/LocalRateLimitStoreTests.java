@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 14:30
+ */
+class LocalRateLimitStoreTests {
+
+  static final long START = TimeUnit.MILLISECONDS.toNanos(1);
+
+  static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  final RateLimiter rateLimiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 2, SECOND);
+
+  @Test
+  void expiredStatesAreRemoved() {
+    LocalRateLimitStore store = new LocalRateLimitStore(1024);
+    for (int i = 0; i < 100; i++) {
+      assertThat(store.tryAcquire(0, 0, i, rateLimiter, START)).isTrue();
+    }
+    assertThat(store.size()).isEqualTo(100);
+
+    store.cleanUp(START + SECOND / 2);
+    assertThat(store.size()).isEqualTo(100);
+
+    store.cleanUp(START + SECOND * 3);
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  void activeStatesAreRescheduled() {
+    RateLimiter slidingWindow = RateLimiter.of(RateLimitAlgorithm.SLIDING_WINDOW, 10, SECOND);
+    LocalRateLimitStore store = new LocalRateLimitStore(1024);
+    long now = START;
+    for (int i = 0; i < 10; i++) {
+      store.tryAcquire(0, 0, 1, slidingWindow, now);
+      now += SECOND / 2;
+      store.cleanUp(now);
+      assertThat(store.getState(0, 0, 1)).isNotNull();
+    }
+    store.cleanUp(now + SECOND * 3);
+    assertThat(store.getState(0, 0, 1)).isNull();
+  }
+
+  @Test
+  void maximumSize() {
+    LocalRateLimitStore store = new LocalRateLimitStore(64);
+    long now = START;
+    for (int i = 0; i < 10_000; i++) {
+      store.tryAcquire(0, 0, i, rateLimiter, now);
+      assertThat(store.size()).isLessThanOrEqualTo(64);
+      now += TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    // 最近的 key 保留下来
+    assertThat(store.getState(0, 0, 9999)).isNotNull();
+    assertThat(store.getState(0, 0, 0)).isNull();
+  }
+
+  @Test
+  void limitIsKeptPerKey() {
+    LocalRateLimitStore store = new LocalRateLimitStore(1024);
+    assertThat(store.tryAcquire(0, 0, 1, rateLimiter, START)).isTrue();
+    assertThat(store.tryAcquire(0, 0, 1, rateLimiter, START)).isTrue();
+    assertThat(store.tryAcquire(0, 0, 1, rateLimiter, START)).isFalse();
+    assertThat(store.tryAcquire(0, 0, 2, rateLimiter, START)).isTrue();
+    assertThat(store.tryAcquire(1, 0, 1, rateLimiter, START)).isTrue();
+  }
+
+}
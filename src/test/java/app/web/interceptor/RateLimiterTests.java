@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 11:02
+ */
+class RateLimiterTests {
+
+  static final long START = TimeUnit.MILLISECONDS.toNanos(1);
+
+  static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void fixedWindow() {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 3, SECOND);
+    LimitState state = limiter.newState();
+
+    assertThat(acquired(limiter, state, START, 5)).isEqualTo(3);
+    assertThat(state.isExpired(START + SECOND - 1)).isFalse();
+    assertThat(acquired(limiter, state, START + SECOND / 2, 5)).isZero();
+
+    // 新窗口
+    assertThat(state.isExpired(START + SECOND)).isTrue();
+    assertThat(acquired(limiter, state, START + SECOND, 5)).isEqualTo(3);
+  }
+
+  @Test
+  void tokenBucket() {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.TOKEN_BUCKET, 4, SECOND);
+    LimitState state = limiter.newState();
+
+    assertThat(acquired(limiter, state, START, 10)).isEqualTo(4);
+    // 每 250ms 补充一个令牌
+    assertThat(acquired(limiter, state, START + SECOND / 4, 10)).isEqualTo(1);
+    assertThat(acquired(limiter, state, START + SECOND / 2 + SECOND / 8, 10)).isEqualTo(1);
+    assertThat(acquired(limiter, state, START + SECOND * 3 / 4, 10)).isEqualTo(1);
+
+    // 补满之后过期
+    long expiresAt = state.expiresAt(START + SECOND);
+    assertThat(state.isExpired(expiresAt - 1)).isFalse();
+    assertThat(state.isExpired(expiresAt)).isTrue();
+    assertThat(acquired(limiter, state, START + SECOND * 10, 10)).isEqualTo(4);
+  }
+
+  @Test
+  void slidingWindow() {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.SLIDING_WINDOW, 10, SECOND);
+    LimitState state = limiter.newState();
+
+    // 窗口末尾用完配额
+    assertThat(acquired(limiter, state, SECOND - SECOND / 10, 20)).isEqualTo(10);
+    // 下一个窗口开始时，上一个窗口几乎完全计入，不会出现 2 倍突发
+    assertThat(acquired(limiter, state, SECOND + SECOND / 10, 20)).isEqualTo(1);
+    // 窗口过半，上一个窗口只计入一半
+    assertThat(acquired(limiter, state, SECOND + SECOND / 2, 20)).isEqualTo(4);
+
+    assertThat(state.isExpired(SECOND * 3 - 1)).isFalse();
+    assertThat(state.isExpired(SECOND * 3)).isTrue();
+    assertThat(acquired(limiter, state, SECOND * 3, 20)).isEqualTo(10);
+  }
+
+  @Test
+  void gcra() {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.GCRA, 5, SECOND);
+    LimitState state = limiter.newState();
+
+    assertThat(acquired(limiter, state, START, 10)).isEqualTo(5);
+    // 每 200ms 释放一次
+    assertThat(acquired(limiter, state, START + SECOND / 5, 10)).isEqualTo(1);
+    assertThat(acquired(limiter, state, START + SECOND / 5 + SECOND / 10, 10)).isZero();
+    assertThat(state.isExpired(START + SECOND + SECOND / 5)).isTrue();
+  }
+
+  @Test
+  void slidingLog() {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.SLIDING_LOG, 3, SECOND);
+    LimitState state = limiter.newState();
+    assertThat(limiter).isNotInstanceOf(PackedRateLimiter.class);
+
+    assertThat(acquired(limiter, state, START, 1)).isEqualTo(1);
+    assertThat(acquired(limiter, state, START + SECOND / 2, 5)).isEqualTo(2);
+    // 第一次请求滑出时间段，只能再通过一次
+    assertThat(acquired(limiter, state, START + SECOND, 5)).isEqualTo(1);
+    assertThat(acquired(limiter, state, START + SECOND + SECOND / 4, 5)).isZero();
+    assertThat(acquired(limiter, state, START + SECOND + SECOND / 2, 5)).isEqualTo(2);
+
+    assertThat(state.isExpired(START + SECOND * 2 + SECOND / 2)).isTrue();
+  }
+
+  @Test
+  void slidingLogCountIsBounded() {
+    assertThatThrownBy(() -> RateLimiter.of(RateLimitAlgorithm.SLIDING_LOG, RateLimiter.MAX_COUNT, SECOND))
+            .isInstanceOf(IllegalArgumentException.class);
+    assertThat(RateLimiter.of(RateLimitAlgorithm.SLIDING_LOG, 1024, SECOND).newState()).isNotNull();
+  }
+
+  @Test
+  void remainingAndRetryAt() {
+    long step = TimeUnit.MILLISECONDS.toNanos(7);
+    for (RateLimitAlgorithm algorithm : RateLimitAlgorithm.values()) {
+      if (algorithm == RateLimitAlgorithm.DEFAULT) {
+        continue;
+      }
+      RateLimiter limiter = RateLimiter.of(algorithm, 5, SECOND);
+      LimitState state = limiter.newState();
+      assertThat(limiter.remaining(state.get(), START)).isEqualTo(5);
+
+      long now = START;
+      for (int i = 0; i < 1000; i++, now += step) {
+        long result = limiter.acquire(state, now);
+        long current = RateLimiter.stateOf(result);
+        if (RateLimiter.isAcquired(result)) {
+          assertThat(limiter.remaining(current, now)).as(algorithm.name()).isBetween(0, 4);
+        }
+        else {
+          assertThat(limiter.remaining(current, now)).as(algorithm.name()).isZero();
+          long retryAt = limiter.retryAt(current, now);
+          assertThat(retryAt).as(algorithm.name()).isGreaterThan(now).isLessThanOrEqualTo(now + SECOND * 2);
+          assertThat(limiter.resetAt(current, now)).as(algorithm.name()).isGreaterThanOrEqualTo(retryAt);
+          // 到了 retryAt 一定可以获取
+          LimitState copy = limiter.newState();
+          if (limiter instanceof PackedRateLimiter) {
+            copy.set(current);
+            assertThat(limiter.tryAcquire(copy, retryAt)).as(algorithm.name()).isTrue();
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void concurrentAcquire() throws InterruptedException {
+    RateLimiter limiter = RateLimiter.of(RateLimitAlgorithm.TOKEN_BUCKET, 1000, TimeUnit.HOURS.toNanos(1));
+    LimitState state = limiter.newState();
+    AtomicLong acquired = new AtomicLong();
+
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> acquired.addAndGet(acquired(limiter, state, START, 500)));
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(acquired.get()).isEqualTo(1000);
+  }
+
+  static int acquired(RateLimiter limiter, LimitState state, long now, int attempts) {
+    int acquired = 0;
+    for (int i = 0; i < attempts; i++) {
+      if (limiter.tryAcquire(state, now)) {
+        acquired++;
+      }
+    }
+    return acquired;
+  }
+
+}
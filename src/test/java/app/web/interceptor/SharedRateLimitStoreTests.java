@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package app.web.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author <a href="https://github.com/TAKETODAY">海子 Yang</a>
+ * @since 1.0 2026/10/16 17:30
+ */
+class SharedRateLimitStoreTests {
+
+  static final long START = TimeUnit.MILLISECONDS.toNanos(1);
+
+  final AtomicLong currentTimeMillis = new AtomicLong(TimeUnit.DAYS.toMillis(20000));
+
+  final RateLimiter rateLimiter = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 20, TimeUnit.SECONDS.toNanos(1));
+
+  @Test
+  void limitIsSharedBetweenNodes() {
+    FakeBackend backend = new FakeBackend();
+    try (SharedRateLimitStore node1 = createStore(backend);
+            SharedRateLimitStore node2 = createStore(backend)) {
+      node1.register(0, "login", rateLimiter);
+      node2.register(0, "login", rateLimiter);
+      // 手动发送预留请求：预留返回之前按本地限流放行，两个节点的预留到达后端的顺序不同时，
+      // 后到的节点可能已经多放行了，这里固定顺序
+      node1.setFlushDelay(Duration.ofHours(1));
+      node2.setFlushDelay(Duration.ofHours(1));
+
+      int acquired = 0;
+      for (int i = 0; i < 30; i++) {
+        if (node1.tryAcquire(0, 0, 1, rateLimiter, START)) {
+          acquired++;
+        }
+        if (node2.tryAcquire(0, 0, 1, rateLimiter, START)) {
+          acquired++;
+        }
+        node1.flush();
+        node2.flush();
+      }
+      assertThat(acquired).isEqualTo(20);
+      // 每次预留 10 个，远少于请求数
+      assertThat(backend.calls.get()).isLessThan(20);
+
+      currentTimeMillis.addAndGet(1000);
+      assertThat(node1.tryAcquire(0, 0, 1, rateLimiter, START)).isTrue();
+    }
+  }
+
+  @Test
+  void fallbackToLocalWhenBackendUnavailable() throws InterruptedException {
+    FakeBackend backend = new FakeBackend();
+    backend.available = false;
+    try (SharedRateLimitStore store = createStore(backend)) {
+      // 手动发送预留请求
+      store.setFlushDelay(Duration.ofHours(1));
+      assertThat(store.tryAcquire(0, 0, 1, rateLimiter, START)).isTrue();
+      store.flush();
+
+      int acquired = 1;
+      for (int i = 0; i < 30; i++) {
+        if (store.tryAcquire(0, 0, 1, rateLimiter, START)) {
+          acquired++;
+        }
+      }
+      assertThat(acquired).isEqualTo(20);
+      // 出错之后不再访问后端
+      assertThat(backend.calls.get()).isEqualTo(1);
+
+      backend.available = true;
+      currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(5));
+      assertThat(store.tryAcquire(0, 0, 2, rateLimiter, START)).isTrue();
+      store.flush();
+      assertThat(backend.calls.get()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void acquireDoesNotWaitForBackend() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    FakeBackend backend = new FakeBackend() {
+
+      @Override
+      public int[] lease(List<LeaseRequest> requests) {
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.lease(requests);
+      }
+    };
+
+    RateLimiter login = RateLimiter.of(RateLimitAlgorithm.FIXED_WINDOW, 5, TimeUnit.MINUTES.toNanos(1));
+    try (SharedRateLimitStore store = createStore(backend)) {
+      // 限额较小时也不会每次只预留一个
+      assertThat(store.leaseSize(5)).isEqualTo(3);
+      assertThat(store.leaseSize(1)).isEqualTo(1);
+
+      // 预留没有返回，只放行预留的数量
+      long start = System.nanoTime();
+      int acquired = 0;
+      for (int i = 0; i < 5; i++) {
+        if (store.tryAcquire(0, 0, 1, login, START)) {
+          acquired++;
+        }
+      }
+      assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+      assertThat(acquired).isEqualTo(3);
+
+      // 返回的许可先抵扣已经放行的请求，总数不超过限额
+      release.countDown();
+      awaitCalls(backend, 1);
+      for (int i = 0; i < 100; i++) {
+        if (store.tryAcquire(0, 0, 1, login, START)) {
+          acquired++;
+        }
+        Thread.sleep(1);
+      }
+      assertThat(acquired).isEqualTo(5);
+    }
+  }
+
+  private static void awaitCalls(FakeBackend backend, int calls) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (backend.calls.get() < calls && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(backend.calls.get()).isGreaterThanOrEqualTo(calls);
+  }
+
+  private SharedRateLimitStore createStore(FakeBackend backend) {
+    var store = new SharedRateLimitStore(backend, new LocalRateLimitStore(1024), currentTimeMillis::get);
+    store.setFlushDelay(Duration.ZERO);
+    return store;
+  }
+
+  /**
+   * 进程内的共享计数器
+   */
+  static class FakeBackend implements RateLimitBackend {
+
+    final Map<String, Integer> counters = new HashMap<>();
+
+    final AtomicInteger calls = new AtomicInteger();
+
+    volatile boolean available = true;
+
+    @Override
+    public synchronized int[] lease(List<LeaseRequest> requests) {
+      calls.incrementAndGet();
+      if (!available) {
+        throw new IllegalStateException("unavailable");
+      }
+      int[] granted = new int[requests.size()];
+      for (int i = 0; i < granted.length; i++) {
+        LeaseRequest request = requests.get(i);
+        String key = request.key() + "/" + request.window();
+        int used = counters.getOrDefault(key, 0);
+        granted[i] = Math.max(0, Math.min(request.permits(), request.limit() - used));
+        counters.put(key, used + granted[i]);
+      }
+      return granted;
+    }
+  }
+
+}